@@ -1,7 +1,9 @@
 package de.opengamebackend.matchmaking;
 
+import de.opengamebackend.matchmaking.actors.BucketBusyException;
 import de.opengamebackend.net.ErrorResponse;
 import de.opengamebackend.net.ApiException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -14,4 +16,15 @@ public class GlobalControllerExceptionHandler {
         ErrorResponse errorResponse = new ErrorResponse(e.getErrorCode(), e.getMessage());
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(BucketBusyException.class)
+    public ResponseEntity<ErrorResponse> handleBucketBusyException(BucketBusyException e) {
+        ErrorResponse errorResponse = new ErrorResponse(BucketBusyException.BUCKET_BUSY_CODE,
+                BucketBusyException.BUCKET_BUSY_MESSAGE);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+
+        return new ResponseEntity<>(errorResponse, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
 }
@@ -0,0 +1,8 @@
+package de.opengamebackend.matchmaking.actors;
+
+import de.opengamebackend.net.ApiException;
+
+@FunctionalInterface
+public interface ApiCallable<T> {
+    T call() throws ApiException;
+}
@@ -0,0 +1,130 @@
+package de.opengamebackend.matchmaking.actors;
+
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import de.opengamebackend.matchmaking.matching.BucketKey;
+import de.opengamebackend.net.ApiException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Processes messages sent to matchmaking buckets on a fixed number of single-threaded event loops. Every bucket is
+ * owned by exactly one event loop, so all messages sent to the same bucket are processed one after another, in the
+ * order they have been sent. Event loops are shared by many buckets, so the number of threads doesn't grow with the
+ * number of buckets.
+ *
+ * <p>This only serializes the messages sent through here. It doesn't make an event loop the single writer of its
+ * buckets: other code may still change the same database rows and shared indexes concurrently, and a slow message
+ * holds up all other buckets of its event loop. The mailbox of each event loop is bounded, and messages only wait
+ * there for a limited time. If either limit is hit, a {@link BucketBusyException} is thrown. Messages that have been
+ * started are always waited for, as they may already have changed the bucket.</p>
+ */
+@Component
+public class BucketActors {
+    private final ThreadPoolExecutor[] eventLoops;
+    private final long timeoutMillis;
+
+    // Index of the event loop owning the current thread, if any.
+    private final ThreadLocal<Integer> currentEventLoop = new ThreadLocal<>();
+
+    @Autowired
+    public BucketActors(MatchmakingConfig matchmakingConfig) {
+        this.eventLoops = new ThreadPoolExecutor[Math.max(1, matchmakingConfig.getActorThreads())];
+        this.timeoutMillis = matchmakingConfig.getActorTimeoutMillis();
+
+        // Threads are only started on the first message.
+        for (int i = 0; i < eventLoops.length; ++i) {
+            eventLoops[i] = createEventLoop(i, Math.max(1, matchmakingConfig.getActorMailboxSize()));
+        }
+    }
+
+    /**
+     * Processes the passed message on the event loop owning the specified bucket, and waits for the result.
+     *
+     * @throws BucketBusyException If the mailbox of the event loop is full, or the message hasn't been started in
+     *                             time. The message is never processed in that case.
+     */
+    public <T> T call(BucketKey bucketKey, ApiCallable<T> message) throws ApiException {
+        int index = Math.floorMod(bucketKey.hashCode(), eventLoops.length);
+        Integer currentIndex = currentEventLoop.get();
+
+        if (currentIndex != null && currentIndex == index) {
+            // Already on the right event loop. Waiting for ourselves would deadlock.
+            return message.call();
+        }
+
+        // Whoever sets this first decides whether the message is processed or dropped.
+        AtomicBoolean started = new AtomicBoolean();
+        Future<T> future;
+
+        try {
+            future = eventLoops[index].submit((Callable<T>) () -> {
+                if (!started.compareAndSet(false, true)) {
+                    throw new CancellationException();
+                }
+
+                return message.call();
+            });
+        } catch (RejectedExecutionException e) {
+            throw new BucketBusyException(bucketKey, "Too many pending messages for bucket " + bucketKey + ".");
+        }
+
+        try {
+            try {
+                return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (started.compareAndSet(false, true)) {
+                    // Still in the mailbox. Drop the message, so callers can safely retry.
+                    future.cancel(false);
+                    throw new BucketBusyException(bucketKey, "Timed out waiting for bucket " + bucketKey + ".");
+                }
+
+                // Already being processed. Report its actual outcome instead of failing after the fact.
+                return future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new IllegalStateException("Interrupted while waiting for bucket " + bucketKey + ".", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof ApiException) {
+                throw (ApiException) cause;
+            }
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor eventLoop : eventLoops) {
+            eventLoop.shutdown();
+        }
+    }
+
+    private ThreadPoolExecutor createEventLoop(int index, int mailboxSize) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(mailboxSize),
+                runnable -> {
+                    Thread thread = new Thread(() -> {
+                        currentEventLoop.set(index);
+                        runnable.run();
+                    }, "bucket-actor-" + index);
+
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
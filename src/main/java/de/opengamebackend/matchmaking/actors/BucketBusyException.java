@@ -0,0 +1,23 @@
+package de.opengamebackend.matchmaking.actors;
+
+import de.opengamebackend.matchmaking.matching.BucketKey;
+
+/**
+ * Thrown if a message can't be processed by the event loop of a bucket in time, because the event loop is overloaded.
+ * Callers should retry later.
+ */
+public class BucketBusyException extends RuntimeException {
+    public static final int BUCKET_BUSY_CODE = 503;
+    public static final String BUCKET_BUSY_MESSAGE = "BUCKET_BUSY";
+
+    private final BucketKey bucketKey;
+
+    public BucketBusyException(BucketKey bucketKey, String message) {
+        super(message);
+        this.bucketKey = bucketKey;
+    }
+
+    public BucketKey getBucketKey() {
+        return bucketKey;
+    }
+}
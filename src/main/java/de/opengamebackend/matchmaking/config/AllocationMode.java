@@ -0,0 +1,32 @@
+package de.opengamebackend.matchmaking.config;
+
+/**
+ * Determines when queued players are allocated to game servers.
+ */
+public enum AllocationMode {
+    /**
+     * Players are allocated to servers when polling matchmaking. Whoever polls first gets the next free slot.
+     */
+    POLL,
+
+    /**
+     * Players are allocated to servers in batches on a fixed tick, in the order they have been enqueued. Polling
+     * matchmaking just reads the result, reporting players that haven't been allocated yet as waiting as long as their
+     * bucket has free slots.
+     */
+    TICK,
+
+    /**
+     * Players are allocated to servers when polling matchmaking, like {@link #POLL}. However, client and roster
+     * operations on the same bucket (enqueue, dequeue, poll, player joined or left, status changes) are processed one
+     * after another by a single thread owning that bucket, instead of concurrently by the request threads. This keeps
+     * these operations in order and reduces contention on the open slots of a bucket, but doesn't make them any
+     * cheaper: they still write to the database, and threads are shared by many buckets.
+     *
+     * <p>The owning thread isn't the single writer of its bucket. Server registration, heartbeats, the expiry reaper
+     * and other instances still change the bucket concurrently, so consistency still relies on the conditional
+     * updates in the database, as in {@link #POLL} mode. Requests are rejected with 503 Service Unavailable if they
+     * wait for the owning thread for too long.</p>
+     */
+    ACTOR
+}
@@ -0,0 +1,179 @@
+package de.opengamebackend.matchmaking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "de.opengamebackend.matchmaking")
+public class MatchmakingConfig {
+    public static final String TICK_MILLIS_PROPERTY = "${de.opengamebackend.matchmaking.tick-millis:1000}";
+    public static final String HEARTBEAT_FLUSH_MILLIS_PROPERTY =
+            "${de.opengamebackend.matchmaking.heartbeat-flush-millis:1000}";
+
+    private AllocationMode allocationMode = AllocationMode.POLL;
+    private long tickMillis = 1000;
+    private int tickParallelism = 1;
+    private long heartbeatFlushMillis = 1000;
+    private boolean udpHeartbeatEnabled;
+    private int udpHeartbeatPort = 9003;
+    private String udpHeartbeatSecret;
+    private String ticketSecret;
+    private long serverListMaxAgeMillis = 5000;
+    private int serverChangeLogSize = 10000;
+    private long openServerRescanMillis = 1000;
+    private int actorThreads = 4;
+    private int actorMailboxSize = 1000;
+    private long actorTimeoutMillis = 5000;
+
+    public AllocationMode getAllocationMode() {
+        return allocationMode;
+    }
+
+    public void setAllocationMode(AllocationMode allocationMode) {
+        this.allocationMode = allocationMode;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public void setTickMillis(long tickMillis) {
+        this.tickMillis = tickMillis;
+    }
+
+    /**
+     * Number of threads solving matchmaking buckets concurrently in {@link AllocationMode#TICK} mode. Buckets are
+     * solved sequentially on the scheduler thread if 1.
+     */
+    public int getTickParallelism() {
+        return tickParallelism;
+    }
+
+    public void setTickParallelism(int tickParallelism) {
+        this.tickParallelism = tickParallelism;
+    }
+
+    /**
+     * Interval in which received server heartbeats are written to the database.
+     */
+    public long getHeartbeatFlushMillis() {
+        return heartbeatFlushMillis;
+    }
+
+    public void setHeartbeatFlushMillis(long heartbeatFlushMillis) {
+        this.heartbeatFlushMillis = heartbeatFlushMillis;
+    }
+
+    /**
+     * Whether to receive server heartbeats as UDP datagrams, in addition to HTTP.
+     */
+    public boolean isUdpHeartbeatEnabled() {
+        return udpHeartbeatEnabled;
+    }
+
+    public void setUdpHeartbeatEnabled(boolean udpHeartbeatEnabled) {
+        this.udpHeartbeatEnabled = udpHeartbeatEnabled;
+    }
+
+    public int getUdpHeartbeatPort() {
+        return udpHeartbeatPort;
+    }
+
+    public void setUdpHeartbeatPort(int udpHeartbeatPort) {
+        this.udpHeartbeatPort = udpHeartbeatPort;
+    }
+
+    /**
+     * Secret shared with all game servers, for authenticating their UDP heartbeats.
+     */
+    public String getUdpHeartbeatSecret() {
+        return udpHeartbeatSecret;
+    }
+
+    public void setUdpHeartbeatSecret(String udpHeartbeatSecret) {
+        this.udpHeartbeatSecret = udpHeartbeatSecret;
+    }
+
+    /**
+     * Secret shared with all game servers and matchmaking instances, for signing match tickets. If not set, each
+     * instance signs tickets with a random secret, and tickets can only be verified by the instance that has minted
+     * them.
+     */
+    public String getTicketSecret() {
+        return ticketSecret;
+    }
+
+    public void setTicketSecret(String ticketSecret) {
+        this.ticketSecret = ticketSecret;
+    }
+
+    /**
+     * Maximum time the cached server list is served for without being rebuilt, even if no changes have been observed
+     * by this instance (e.g. because they have been made by other instances, or are just server heartbeats).
+     */
+    public long getServerListMaxAgeMillis() {
+        return serverListMaxAgeMillis;
+    }
+
+    public void setServerListMaxAgeMillis(long serverListMaxAgeMillis) {
+        this.serverListMaxAgeMillis = serverListMaxAgeMillis;
+    }
+
+    /**
+     * Maximum number of server list changes to remember, for sending only changes to clients that have seen a recent
+     * version of the server list.
+     */
+    public int getServerChangeLogSize() {
+        return serverChangeLogSize;
+    }
+
+    public void setServerChangeLogSize(int serverChangeLogSize) {
+        this.serverChangeLogSize = serverChangeLogSize;
+    }
+
+    /**
+     * Minimum interval in which the database is checked for open servers registered with other instances, while all
+     * servers of a bucket known to this instance are full.
+     */
+    public long getOpenServerRescanMillis() {
+        return openServerRescanMillis;
+    }
+
+    public void setOpenServerRescanMillis(long openServerRescanMillis) {
+        this.openServerRescanMillis = openServerRescanMillis;
+    }
+
+    /**
+     * Number of event loops processing bucket operations in {@link AllocationMode#ACTOR} mode. Buckets are spread
+     * across these event loops.
+     */
+    public int getActorThreads() {
+        return actorThreads;
+    }
+
+    public void setActorThreads(int actorThreads) {
+        this.actorThreads = actorThreads;
+    }
+
+    /**
+     * Maximum number of operations waiting for each event loop in {@link AllocationMode#ACTOR} mode. Further
+     * operations are rejected until the event loop has caught up.
+     */
+    public int getActorMailboxSize() {
+        return actorMailboxSize;
+    }
+
+    public void setActorMailboxSize(int actorMailboxSize) {
+        this.actorMailboxSize = actorMailboxSize;
+    }
+
+    /**
+     * Maximum time an operation waits for being started by its event loop in {@link AllocationMode#ACTOR} mode.
+     * Operations that have been started are always waited for.
+     */
+    public long getActorTimeoutMillis() {
+        return actorTimeoutMillis;
+    }
+
+    public void setActorTimeoutMillis(long actorTimeoutMillis) {
+        this.actorTimeoutMillis = actorTimeoutMillis;
+    }
+}
@@ -0,0 +1,27 @@
+package de.opengamebackend.matchmaking.controller;
+
+import de.opengamebackend.matchmaking.model.responses.GetServersResponse;
+
+/**
+ * Page of the server list, along with the cursor for requesting the next page.
+ */
+public class GetServersPage {
+    private final GetServersResponse response;
+    private final String nextCursor;
+
+    public GetServersPage(GetServersResponse response, String nextCursor) {
+        this.response = response;
+        this.nextCursor = nextCursor;
+    }
+
+    public GetServersResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * Gets the cursor for requesting the next page, or null if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -2,6 +2,9 @@ package de.opengamebackend.matchmaking.controller;
 
 import de.opengamebackend.matchmaking.model.requests.*;
 import de.opengamebackend.matchmaking.model.responses.*;
+import de.opengamebackend.matchmaking.notifications.LongPollService;
+import de.opengamebackend.matchmaking.serverlist.ServerChangeFeed;
+import de.opengamebackend.matchmaking.serverlist.ServerListCache;
 import de.opengamebackend.net.ApiErrors;
 import de.opengamebackend.net.ApiException;
 import de.opengamebackend.net.HttpHeader;
@@ -10,29 +13,121 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 
 @RestController
 public class MatchmakingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private MatchmakingService matchmakingService;
+    private MatchmakingDispatcher matchmakingDispatcher;
+    private LongPollService longPollService;
+    private ServerListCache serverListCache;
+    private ServerChangeFeed serverChangeFeed;
+    private QueueStreamWriter queueStreamWriter;
 
-    public MatchmakingController(MatchmakingService matchmakingService) {
+    public MatchmakingController(MatchmakingService matchmakingService, MatchmakingDispatcher matchmakingDispatcher,
+                                 LongPollService longPollService, ServerListCache serverListCache,
+                                 ServerChangeFeed serverChangeFeed, QueueStreamWriter queueStreamWriter) {
         this.matchmakingService = matchmakingService;
+        this.matchmakingDispatcher = matchmakingDispatcher;
+        this.longPollService = longPollService;
+        this.serverListCache = serverListCache;
+        this.serverChangeFeed = serverChangeFeed;
+        this.queueStreamWriter = queueStreamWriter;
     }
 
     @GetMapping("/client/servers")
-    @Operation(summary = "Gets all game servers that are currently available for matchmaking.")
-    public ResponseEntity<GetServersResponse> getServers() {
-        GetServersResponse response = matchmakingService.getServers();
+    @Operation(summary = "Gets the game servers that are currently available for matchmaking, optionally filtered " +
+            "by version, game mode, region, status and free slots. If a limit is passed, the cursor for the next " +
+            "page is returned in the " + NEXT_CURSOR_HEADER + " header.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Servers found.",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = GetServersResponse.class)) }),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Complete server list requested, and unchanged since the passed ETag.",
+                    content = { @Content })
+    })
+    public ResponseEntity<?> getServers(GetServersRequest request,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                String ifNoneMatch,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                                String acceptEncoding) {
+        if (ServerListCache.isCacheable(request)) {
+            return getCachedServers(ifNoneMatch, acceptEncoding);
+        }
+
+        GetServersPage page = matchmakingService.getServers(request);
+
+        HttpHeaders headers = new HttpHeaders();
+
+        if (page.getNextCursor() != null) {
+            headers.set(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+
+        return new ResponseEntity<>(page.getResponse(), headers, HttpStatus.OK);
+    }
+
+    @GetMapping("/client/servers/changes")
+    @Operation(summary = "Gets the game servers that have been added, updated or removed since the specified " +
+            "version of the server list. Returns all servers if no version is passed, or if the changes since that " +
+            "version aren't known anymore (see 'full').")
+    public ResponseEntity<GetServerChangesResponse> getServerChanges(@RequestParam(required = false) String since) {
+        GetServerChangesResponse response = serverChangeFeed.getChangesSince(since);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     @GetMapping("/admin/queue")
-    @Operation(summary = "Gets all players that are currently queued for matchmaking.")
-    public ResponseEntity<GetQueueResponse> getQueue() {
-        GetQueueResponse response = matchmakingService.getQueue();
+    @Operation(summary = "Gets the players that are currently known to matchmaking, optionally filtered by status " +
+            "and bucket. If a limit is passed and there are more players, the cursor for the next page is returned " +
+            "in the trailing '" + QueueStreamWriter.NEXT_CURSOR_FIELD + "' field.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Players found.",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = GetQueueResponse.class)) })
+    })
+    public void getQueue(GetQueueRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        queueStreamWriter.write(request, response.getOutputStream());
+    }
+
+    @GetMapping("/admin/queue/stats")
+    @Operation(summary = "Gets the number of queued, matched and joined players, the open slots and the longest " +
+            "waiting time for each bucket.")
+    public ResponseEntity<GetQueueStatsResponse> getQueueStats() {
+        GetQueueStatsResponse response = matchmakingService.getQueueStats();
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/admin/reaper")
+    @Operation(summary = "Gets the status of the background job removing expired servers and players.")
+    public ResponseEntity<GetReaperStatusResponse> getReaperStatus() {
+        GetReaperStatusResponse response = matchmakingService.getReaperStatus();
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/admin/matchmaker")
+    @Operation(summary = "Gets the allocation mode of the matchmaker, and the outcome of its last tick for each bucket.")
+    public ResponseEntity<GetMatchmakerStatusResponse> getMatchmakerStatus() {
+        GetMatchmakerStatusResponse response = matchmakingService.getMatchmakerStatus();
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -82,6 +177,41 @@ public class MatchmakingController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @PostMapping("/server/registerBatch")
+    @Operation(summary = "Registers many servers at once, accepting players for matchmaking.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Servers registered. Servers that couldn't be registered carry an error with code " +
+                            ApiErrors.MISSING_GAME_MODE_CODE + ", " + ApiErrors.MISSING_IPV4_ADDRESS_CODE + ", " +
+                            ApiErrors.MISSING_REGION_CODE + " or " + ApiErrors.MISSING_VERSION_CODE + ".",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ServerRegisterBatchResponse.class)) })
+    })
+    public ResponseEntity<ServerRegisterBatchResponse> registerBatch(@RequestBody ServerRegisterBatchRequest request) {
+        ServerRegisterBatchResponse response = matchmakingService.registerBatch(request);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @PostMapping("/server/deregisterBatch")
+    @Operation(summary = "Deregisters many servers at once, no longer accepting players for matchmaking.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Servers deregistered. Servers that couldn't be deregistered carry an error with " +
+                            "code " + ApiErrors.MISSING_GAME_SERVER_ID_CODE + " or " +
+                            ApiErrors.GAME_SERVER_NOT_FOUND_CODE + ".",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ServerDeregisterBatchResponse.class)) })
+    })
+    public ResponseEntity<ServerDeregisterBatchResponse> deregisterBatch(
+            @RequestBody ServerDeregisterBatchRequest request) {
+        ServerDeregisterBatchResponse response = matchmakingService.deregisterBatch(request);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     @PostMapping("/server/sendHeartbeat")
     @Operation(summary = "Sends a heartbeat for the specified server, allowing it to keep accepting players for matchmaking.")
     @ApiResponses(value = {
@@ -104,6 +234,24 @@ public class MatchmakingController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @PostMapping("/server/sendHeartbeatBatch")
+    @Operation(summary = "Sends heartbeats for many servers at once, optionally changing their status.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Server heartbeats received. Servers whose heartbeat has been rejected carry an " +
+                            "error with code " + ApiErrors.MISSING_GAME_SERVER_ID_CODE + " or " +
+                            ApiErrors.GAME_SERVER_NOT_FOUND_CODE + ".",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ServerSendHeartbeatBatchResponse.class)) })
+    })
+    public ResponseEntity<ServerSendHeartbeatBatchResponse> sendHeartbeatBatch(
+            @RequestBody ServerSendHeartbeatBatchRequest request) {
+        ServerSendHeartbeatBatchResponse response = matchmakingService.sendHeartbeatBatch(request);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     @PostMapping("/client/enqueue")
     @Operation(summary = "Enqueues the specified player for matchmaking.")
     @ApiResponses(value = {
@@ -125,7 +273,7 @@ public class MatchmakingController {
     public ResponseEntity<ClientEnqueueResponse> enqueue(@RequestBody ClientEnqueueRequest request,
                                                          @RequestHeader(HttpHeader.PLAYER_ID) String playerId)
             throws ApiException {
-        ClientEnqueueResponse response = matchmakingService.enqueue(request, playerId);
+        ClientEnqueueResponse response = matchmakingDispatcher.enqueue(request, playerId);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -147,7 +295,7 @@ public class MatchmakingController {
     })
     public ResponseEntity<ClientDequeueResponse> dequeue(@RequestHeader(HttpHeader.PLAYER_ID) String playerId)
             throws ApiException {
-        ClientDequeueResponse response = matchmakingService.dequeue(playerId);
+        ClientDequeueResponse response = matchmakingDispatcher.dequeue(playerId);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -170,10 +318,35 @@ public class MatchmakingController {
     public ResponseEntity<ClientPollMatchmakingResponse> pollMatchmaking(
             @RequestHeader(HttpHeader.PLAYER_ID) String playerId)
             throws ApiException {
-        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(playerId);
+        ClientPollMatchmakingResponse response = matchmakingDispatcher.pollMatchmaking(playerId);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @PostMapping(value = "/client/pollMatchmaking", params = "timeoutSeconds")
+    @Operation(summary = "Waits until a match for the specified player has been found, the matchmaking status of the " +
+            "player has changed, or the specified timeout (at most " + LongPollService.MAX_TIMEOUT_SECONDS +
+            " seconds) has passed.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Match found, waiting for players, or servers full (see 'status').",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ClientPollMatchmakingResponse.class)) }),
+            @ApiResponse(
+                    responseCode = "400",
+                    description =
+                            "Error " + ApiErrors.MISSING_PLAYER_ID_CODE + ": " + ApiErrors.MISSING_PLAYER_ID_MESSAGE + "<br />" +
+                            "Error " + ApiErrors.PLAYER_NOT_FOUND_CODE + ": " + ApiErrors.PLAYER_NOT_FOUND_MESSAGE,
+                    content = { @Content })
+    })
+    public DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> pollMatchmaking(
+            @RequestHeader(HttpHeader.PLAYER_ID) String playerId,
+            @RequestParam long timeoutSeconds)
+            throws ApiException {
+        return longPollService.pollMatchmaking(playerId, timeoutSeconds);
+    }
+
     @PostMapping("/server/notifyPlayerJoined")
     @Operation(summary = "Notifies the matchmaker that a matched player has joined the server.")
     @ApiResponses(value = {
@@ -194,7 +367,31 @@ public class MatchmakingController {
     })
     public ResponseEntity<ServerNotifyPlayerJoinedResponse> notifyPlayerJoined(@RequestBody ServerNotifyPlayerJoinedRequest request)
             throws ApiException {
-        ServerNotifyPlayerJoinedResponse response = matchmakingService.notifyPlayerJoined(request);
+        ServerNotifyPlayerJoinedResponse response = matchmakingDispatcher.notifyPlayerJoined(request);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @PostMapping("/server/notifyPlayerJoinedBatch")
+    @Operation(summary = "Notifies the matchmaker that many matched players have joined the server at once.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Player statuses updated. Tickets that couldn't be confirmed carry an error with " +
+                            "code " + ApiErrors.MISSING_TICKET_CODE + " or " + ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_CODE + ".",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ServerNotifyPlayerJoinedBatchResponse.class)) }),
+            @ApiResponse(
+                    responseCode = "400",
+                    description =
+                            "Error " + ApiErrors.MISSING_GAME_SERVER_ID_CODE + ": " + ApiErrors.MISSING_GAME_SERVER_ID_MESSAGE + "<br />" +
+                            "Error " + ApiErrors.GAME_SERVER_NOT_FOUND_CODE + ": " + ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE,
+                    content = { @Content })
+    })
+    public ResponseEntity<ServerNotifyPlayerJoinedBatchResponse> notifyPlayerJoinedBatch(
+            @RequestBody ServerNotifyPlayerJoinedBatchRequest request)
+            throws ApiException {
+        ServerNotifyPlayerJoinedBatchResponse response = matchmakingDispatcher.notifyPlayerJoinedBatch(request);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -218,7 +415,7 @@ public class MatchmakingController {
     })
     public ResponseEntity<ServerNotifyPlayerLeftResponse> notifyPlayerLeft(@RequestBody ServerNotifyPlayerLeftRequest request)
             throws ApiException {
-        ServerNotifyPlayerLeftResponse response = matchmakingService.notifyPlayerLeft(request);
+        ServerNotifyPlayerLeftResponse response = matchmakingDispatcher.notifyPlayerLeft(request);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -240,7 +437,28 @@ public class MatchmakingController {
     })
     public ResponseEntity<ServerSetStatusResponse> setStatus(@RequestBody ServerSetStatusRequest request)
             throws ApiException {
-        ServerSetStatusResponse response = matchmakingService.setStatus(request);
+        ServerSetStatusResponse response = matchmakingDispatcher.setStatus(request);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
+
+    private ResponseEntity<byte[]> getCachedServers(String ifNoneMatch, String acceptEncoding) {
+        ServerListCache.Snapshot snapshot = serverListCache.getSnapshot();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(snapshot.getEtag());
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (snapshot.matches(ifNoneMatch)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(snapshot.getGzippedJson(), headers, HttpStatus.OK);
+        }
+
+        return new ResponseEntity<>(snapshot.getJson(), headers, HttpStatus.OK);
+    }
 }
@@ -0,0 +1,124 @@
+package de.opengamebackend.matchmaking.controller;
+
+import com.google.common.base.Strings;
+import de.opengamebackend.matchmaking.actors.ApiCallable;
+import de.opengamebackend.matchmaking.actors.BucketActors;
+import de.opengamebackend.matchmaking.config.AllocationMode;
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import de.opengamebackend.matchmaking.matching.BucketKey;
+import de.opengamebackend.matchmaking.matching.OpenServerIndex;
+import de.opengamebackend.matchmaking.matching.QueueStats;
+import de.opengamebackend.matchmaking.model.requests.*;
+import de.opengamebackend.matchmaking.model.responses.*;
+import de.opengamebackend.net.ApiException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Passes client and roster operations on matchmaking buckets to the {@link MatchmakingService}.
+ *
+ * <p>In {@link AllocationMode#ACTOR} mode, these operations are sent to the event loop owning the affected bucket
+ * instead of being executed on the calling thread. Buckets are looked up in memory only, and operations on players
+ * stay with the bucket the player has been tracked with, even if they enqueue for another bucket. Operations the
+ * bucket can't be determined for (e.g. because of missing parameters, or players and servers unknown to this instance)
+ * and operations on buckets without any registered servers are always executed on the calling thread.</p>
+ *
+ * <p>This only serializes the operations passed through here. Server registration, heartbeats, the expiry reaper and
+ * the sweeps aren't dispatched, so they may change the same bucket concurrently.</p>
+ */
+@Service
+public class MatchmakingDispatcher {
+    private MatchmakingService matchmakingService;
+    private BucketActors bucketActors;
+    private OpenServerIndex openServerIndex;
+    private QueueStats queueStats;
+    private MatchmakingConfig matchmakingConfig;
+
+    @Autowired
+    public MatchmakingDispatcher(MatchmakingService matchmakingService, BucketActors bucketActors,
+                                 OpenServerIndex openServerIndex, QueueStats queueStats,
+                                 MatchmakingConfig matchmakingConfig) {
+        this.matchmakingService = matchmakingService;
+        this.bucketActors = bucketActors;
+        this.openServerIndex = openServerIndex;
+        this.queueStats = queueStats;
+        this.matchmakingConfig = matchmakingConfig;
+    }
+
+    public ClientEnqueueResponse enqueue(ClientEnqueueRequest request, String playerId)
+            throws ApiException {
+        BucketKey bucketKey = null;
+
+        if (isActorMode() && !Strings.isNullOrEmpty(request.getVersion()) &&
+                !Strings.isNullOrEmpty(request.getGameMode()) && !Strings.isNullOrEmpty(request.getRegion())) {
+            // Keep re-enqueuing players with their previous bucket, for not processing them on two event loops.
+            BucketKey previousBucketKey = !Strings.isNullOrEmpty(playerId) ? queueStats.getBucketKey(playerId) : null;
+            bucketKey = previousBucketKey != null
+                    ? previousBucketKey
+                    : new BucketKey(request.getVersion(), request.getGameMode(), request.getRegion());
+        }
+
+        return dispatch(bucketKey, () -> matchmakingService.enqueue(request, playerId));
+    }
+
+    public ClientDequeueResponse dequeue(String playerId)
+            throws ApiException {
+        return dispatch(getPlayerBucket(playerId), () -> matchmakingService.dequeue(playerId));
+    }
+
+    public ClientPollMatchmakingResponse pollMatchmaking(String playerId)
+            throws ApiException {
+        return dispatch(getPlayerBucket(playerId), () -> matchmakingService.pollMatchmaking(playerId));
+    }
+
+    public BucketKey getBucket(String playerId)
+            throws ApiException {
+        BucketKey bucketKey = !Strings.isNullOrEmpty(playerId) ? queueStats.getBucketKey(playerId) : null;
+        return bucketKey != null ? bucketKey : matchmakingService.getBucket(playerId);
+    }
+
+    public GetServerRosterResponse getServerRoster(String serverId)
+            throws ApiException {
+        return matchmakingService.getServerRoster(serverId);
+    }
+
+    public ServerNotifyPlayerJoinedResponse notifyPlayerJoined(ServerNotifyPlayerJoinedRequest request)
+            throws ApiException {
+        return dispatch(getServerBucket(request.getServerId()), () -> matchmakingService.notifyPlayerJoined(request));
+    }
+
+    public ServerNotifyPlayerJoinedBatchResponse notifyPlayerJoinedBatch(ServerNotifyPlayerJoinedBatchRequest request)
+            throws ApiException {
+        return dispatch(getServerBucket(request.getServerId()),
+                () -> matchmakingService.notifyPlayerJoinedBatch(request));
+    }
+
+    public ServerNotifyPlayerLeftResponse notifyPlayerLeft(ServerNotifyPlayerLeftRequest request)
+            throws ApiException {
+        return dispatch(getServerBucket(request.getServerId()), () -> matchmakingService.notifyPlayerLeft(request));
+    }
+
+    public ServerSetStatusResponse setStatus(ServerSetStatusRequest request)
+            throws ApiException {
+        return dispatch(getServerBucket(request.getId()), () -> matchmakingService.setStatus(request));
+    }
+
+    private <T> T dispatch(BucketKey bucketKey, ApiCallable<T> operation)
+            throws ApiException {
+        return bucketKey != null && openServerIndex.hasServers(bucketKey)
+                ? bucketActors.call(bucketKey, operation)
+                : operation.call();
+    }
+
+    private BucketKey getPlayerBucket(String playerId) {
+        return isActorMode() && !Strings.isNullOrEmpty(playerId) ? queueStats.getBucketKey(playerId) : null;
+    }
+
+    private BucketKey getServerBucket(String serverId) {
+        return isActorMode() ? openServerIndex.getBucketKey(serverId) : null;
+    }
+
+    private boolean isActorMode() {
+        return matchmakingConfig.getAllocationMode() == AllocationMode.ACTOR;
+    }
+}
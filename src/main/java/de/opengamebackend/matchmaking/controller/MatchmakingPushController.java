@@ -0,0 +1,62 @@
+package de.opengamebackend.matchmaking.controller;
+
+import de.opengamebackend.matchmaking.notifications.PushService;
+import de.opengamebackend.net.ApiErrors;
+import de.opengamebackend.net.ApiException;
+import de.opengamebackend.net.HttpHeader;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+public class MatchmakingPushController {
+    private PushService pushService;
+
+    public MatchmakingPushController(PushService pushService) {
+        this.pushService = pushService;
+    }
+
+    @GetMapping(value = "/client/matchmakingEvents", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Streams the matchmaking status of the specified player, until a match has been found.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stream of '" + PushService.EVENT_MATCHMAKING + "' events, each carrying a " +
+                            "ClientPollMatchmakingResponse.",
+                    content = { @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE) }),
+            @ApiResponse(
+                    responseCode = "400",
+                    description =
+                            "Error " + ApiErrors.MISSING_PLAYER_ID_CODE + ": " + ApiErrors.MISSING_PLAYER_ID_MESSAGE + "<br />" +
+                            "Error " + ApiErrors.PLAYER_NOT_FOUND_CODE + ": " + ApiErrors.PLAYER_NOT_FOUND_MESSAGE,
+                    content = { @Content })
+    })
+    public SseEmitter subscribeMatchmaking(@RequestHeader(HttpHeader.PLAYER_ID) String playerId)
+            throws ApiException {
+        return pushService.subscribePlayer(playerId);
+    }
+
+    @GetMapping(value = "/server/rosterEvents", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Streams all players being added to or removed from the specified server.")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "A '" + PushService.EVENT_ROSTER + "' event carrying the current roster, " +
+                            "followed by '" + PushService.EVENT_ROSTER_CHANGED + "' events.",
+                    content = { @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE) }),
+            @ApiResponse(
+                    responseCode = "400",
+                    description =
+                            "Error " + ApiErrors.MISSING_GAME_SERVER_ID_CODE + ": " + ApiErrors.MISSING_GAME_SERVER_ID_MESSAGE + "<br />" +
+                            "Error " + ApiErrors.GAME_SERVER_NOT_FOUND_CODE + ": " + ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE,
+                    content = { @Content })
+    })
+    public SseEmitter subscribeRoster(@RequestParam String serverId)
+            throws ApiException {
+        return pushService.subscribeServer(serverId);
+    }
+}
@@ -1,126 +1,540 @@
 package de.opengamebackend.matchmaking.controller;
 
 import com.google.common.base.Strings;
+import de.opengamebackend.matchmaking.config.AllocationMode;
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import de.opengamebackend.matchmaking.events.PlayersMatchedEvent;
+import de.opengamebackend.matchmaking.events.ServerChangedEvent;
+import de.opengamebackend.matchmaking.events.ServerRosterChangedEvent;
+import de.opengamebackend.matchmaking.expiry.ExpiryReaper;
+import de.opengamebackend.matchmaking.expiry.SweepResult;
+import de.opengamebackend.matchmaking.heartbeats.HeartbeatAccumulator;
+import de.opengamebackend.matchmaking.mapping.MatchmakingMapper;
+import de.opengamebackend.matchmaking.matching.BucketKey;
+import de.opengamebackend.matchmaking.matching.BucketQueueStats;
+import de.opengamebackend.matchmaking.matching.BucketSolveStats;
+import de.opengamebackend.matchmaking.matching.OpenServerIndex;
+import de.opengamebackend.matchmaking.matching.QueueStats;
+import de.opengamebackend.matchmaking.matching.TicketIndex;
+import de.opengamebackend.matchmaking.matching.TickMatchmaker;
 import de.opengamebackend.matchmaking.model.MatchmakingStatus;
 import de.opengamebackend.matchmaking.model.PlayerStatus;
 import de.opengamebackend.matchmaking.model.ServerStatus;
 import de.opengamebackend.matchmaking.model.entities.GameServer;
 import de.opengamebackend.matchmaking.model.entities.Player;
+import de.opengamebackend.matchmaking.model.repositories.GameServerFilter;
+import de.opengamebackend.matchmaking.model.repositories.GameServerKey;
 import de.opengamebackend.matchmaking.model.repositories.GameServerRepository;
+import de.opengamebackend.matchmaking.model.repositories.GameServerSummary;
+import de.opengamebackend.matchmaking.model.repositories.PlayerFilter;
+import de.opengamebackend.matchmaking.model.repositories.PlayerKey;
 import de.opengamebackend.matchmaking.model.repositories.PlayerRepository;
+import de.opengamebackend.matchmaking.model.repositories.ServerPlayerKey;
 import de.opengamebackend.matchmaking.model.requests.*;
 import de.opengamebackend.matchmaking.model.responses.*;
+import de.opengamebackend.matchmaking.tickets.MatchTicket;
+import de.opengamebackend.matchmaking.tickets.TicketSigner;
 import de.opengamebackend.net.ApiErrors;
 import de.opengamebackend.net.ApiException;
-import org.modelmapper.ModelMapper;
+import de.opengamebackend.net.ErrorResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nonnull;
 import javax.transaction.Transactional;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 @Transactional
 public class MatchmakingService {
     public static final long SERVER_HEARTBEAT_TIMEOUT_SECONDS = 120;
     public static final long CLIENT_JOIN_TIMEOUT_SECONDS = 120;
+    public static final long SWEEP_MILLIS = 60000;
+    public static final int MAX_SERVERS_PAGE_SIZE = 1000;
+    public static final int MAX_QUEUE_PAGE_SIZE = 10000;
 
     private GameServerRepository gameServerRepository;
     private PlayerRepository playerRepository;
-    private ModelMapper modelMapper;
+    private MatchmakingMapper matchmakingMapper;
+    private OpenServerIndex openServerIndex;
+    private TicketIndex ticketIndex;
+    private QueueStats queueStats;
+    private TicketSigner ticketSigner;
+    private ExpiryReaper expiryReaper;
+    private HeartbeatAccumulator heartbeatAccumulator;
+    private TickMatchmaker tickMatchmaker;
+    private MatchmakingConfig matchmakingConfig;
+    private ApplicationEventPublisher eventPublisher;
+
+    private volatile SweepResult lastSweep = SweepResult.EMPTY;
 
     @Autowired
-    public MatchmakingService(GameServerRepository gameServerRepository, PlayerRepository playerRepository, ModelMapper modelMapper) {
+    public MatchmakingService(GameServerRepository gameServerRepository, PlayerRepository playerRepository,
+                              MatchmakingMapper matchmakingMapper, OpenServerIndex openServerIndex,
+                              TicketIndex ticketIndex, QueueStats queueStats, TicketSigner ticketSigner,
+                              ExpiryReaper expiryReaper, HeartbeatAccumulator heartbeatAccumulator,
+                              TickMatchmaker tickMatchmaker, MatchmakingConfig matchmakingConfig,
+                              ApplicationEventPublisher eventPublisher) {
         this.gameServerRepository = gameServerRepository;
         this.playerRepository = playerRepository;
-        this.modelMapper = modelMapper;
+        this.matchmakingMapper = matchmakingMapper;
+        this.openServerIndex = openServerIndex;
+        this.ticketIndex = ticketIndex;
+        this.queueStats = queueStats;
+        this.ticketSigner = ticketSigner;
+        this.expiryReaper = expiryReaper;
+        this.heartbeatAccumulator = heartbeatAccumulator;
+        this.tickMatchmaker = tickMatchmaker;
+        this.matchmakingConfig = matchmakingConfig;
+        this.eventPublisher = eventPublisher;
     }
 
-    public GetServersResponse getServers() {
-        GetServersResponse response = new GetServersResponse();
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Iterable<GameServer> allServers = gameServerRepository.findAll();
+        openServerIndex.rebuild(allServers);
+
+        for (GameServer gameServer : allServers) {
+            expiryReaper.trackServer(gameServer.getId(), getHeartbeatDeadline(gameServer.getLastHeartbeat()));
+        }
+
+        Iterable<Player> allPlayers = playerRepository.findAll();
+        queueStats.rebuild(allPlayers);
+
+        for (Player player : allPlayers) {
+            if (player.getStatus() == PlayerStatus.MATCHED) {
+                expiryReaper.trackPlayer(player.getId(), getJoinDeadline(player.getMatchedTime()));
+                ticketIndex.put(player.getTicket(), player.getId());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = ExpiryReaper.TICK_MILLIS)
+    public void reapExpired() {
+        ExpiryReaper.ExpiredEntities expired = expiryReaper.advance(System.currentTimeMillis());
+
+        if (expired.isEmpty()) {
+            return;
+        }
 
-        ArrayList<GetServersResponseServer> servers = new ArrayList<>();
+        long now = System.currentTimeMillis();
 
-        for (GameServer server : gameServerRepository.findAll()) {
-            GetServersResponseServer responseServer = modelMapper.map(server, GetServersResponseServer.class);
+        // Clean up game servers.
+        List<GameServer> expiredServers = new ArrayList<>();
 
-            ArrayList<String> playerIds = new ArrayList<>();
+        for (GameServer gameServer : gameServerRepository.findAllById(expired.getServerIds())) {
+            long deadline = getHeartbeatDeadline(
+                    heartbeatAccumulator.getLastHeartbeat(gameServer.getId(), gameServer.getLastHeartbeat()));
 
-            for (Player player : server.getPlayers()) {
-                playerIds.add(player.getId());
+            if (deadline < now) {
+                expiredServers.add(gameServer);
+            } else {
+                // Heartbeat has been persisted, but not seen by the reaper (e.g. by another instance).
+                expiryReaper.trackServer(gameServer.getId(), deadline);
             }
+        }
 
-            responseServer.setPlayerIds(playerIds);
+        removeServers(expiredServers);
 
-            servers.add(responseServer);
+        // Clean up players.
+        for (String playerId : expired.getPlayerIds()) {
+            ticketIndex.removePlayer(playerId);
         }
 
-        response.setServers(servers);
-        return response;
+        for (Player player : playerRepository.findAllById(expired.getPlayerIds())) {
+            if (player.getStatus() == PlayerStatus.MATCHED && getJoinDeadline(player.getMatchedTime()) < now) {
+                removePlayer(player);
+            }
+        }
     }
 
-    public GetQueueResponse getQueue() {
-        GetQueueResponse response = new GetQueueResponse();
+    /**
+     * Removes all expired servers and players the reaper of this instance doesn't know about (e.g. because they have
+     * been registered with another instance).
+     *
+     * <p>Expired rows are removed with a few set-based statements instead of loading and deleting them one by one,
+     * so cleaning up after an outage of the whole fleet doesn't take longer than a regular sweep.</p>
+     */
+    @Scheduled(fixedDelay = SWEEP_MILLIS)
+    public void sweepExpired() {
+        long startMillis = System.currentTimeMillis();
+
+        // Make sure we don't remove any servers whose latest heartbeat hasn't been written yet.
+        heartbeatAccumulator.flush();
+
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime heartbeatDeadline = now.minusSeconds(SERVER_HEARTBEAT_TIMEOUT_SECONDS);
+        OffsetDateTime joinDeadline = now.minusSeconds(CLIENT_JOIN_TIMEOUT_SECONDS);
+
+        // Remember what we're about to remove, for updating the index and notifying clients.
+        List<GameServerKey> expiredServers = gameServerRepository.findKeysByLastHeartbeatBefore(heartbeatDeadline);
+        List<PlayerKey> expiredPlayers = playerRepository
+                .findKeysByStatusAndMatchedTimeBefore(PlayerStatus.MATCHED, joinDeadline);
+
+        // Remove players of expired servers first, for not violating the foreign key.
+        int deletedPlayers = playerRepository.deleteByGameServerLastHeartbeatBefore(heartbeatDeadline);
+        int deletedServers = gameServerRepository.deleteByLastHeartbeatBefore(heartbeatDeadline);
+
+        gameServerRepository.releaseSlotsOfPlayers(PlayerStatus.MATCHED, joinDeadline);
+        int releasedPlayers = playerRepository.deleteByStatusAndMatchedTimeBefore(PlayerStatus.MATCHED, joinDeadline);
+
+        Set<String> expiredServerIds = new HashSet<>();
+
+        for (GameServerKey gameServer : expiredServers) {
+            expiredServerIds.add(gameServer.getId());
+
+            openServerIndex.remove(gameServer.getId());
+            queueStats.removeServer(gameServer.getId());
+            expiryReaper.untrackServer(gameServer.getId());
+            heartbeatAccumulator.remove(gameServer.getId());
+            eventPublisher.publishEvent(new ServerChangedEvent(gameServer.getId(), BucketKey.of(gameServer), true));
+        }
 
-        ArrayList<GetQueueResponsePlayer> players = new ArrayList<>();
+        for (PlayerKey player : expiredPlayers) {
+            queueStats.remove(player.getId());
+            expiryReaper.untrackPlayer(player.getId());
+            ticketIndex.removePlayer(player.getId());
 
-        for (Player player : playerRepository.findAll()) {
-            GetQueueResponsePlayer responsePlayer = modelMapper.map(player, GetQueueResponsePlayer.class);
-            responsePlayer.setServerId(player.getGameServer() != null ? player.getGameServer().getId() : null);
-            players.add(responsePlayer);
+            if (!expiredServerIds.contains(player.getGameServerId())) {
+                openServerIndex.releaseSlot(player.getGameServerId());
+                eventPublisher.publishEvent(new ServerRosterChangedEvent(player.getGameServerId(),
+                        BucketKey.of(player), player.getId(), false));
+            }
         }
 
-        response.setPlayers(players);
-        return response;
+        lastSweep = new SweepResult(deletedServers, deletedPlayers, releasedPlayers,
+                System.currentTimeMillis() - startMillis);
     }
 
-    public ServerRegisterResponse register(ServerRegisterRequest request)
-            throws ApiException {
-        if (Strings.isNullOrEmpty(request.getGameMode())) {
-            throw new ApiException(ApiErrors.MISSING_GAME_MODE_CODE, ApiErrors.MISSING_GAME_MODE_MESSAGE);
+    /**
+     * Allocates queued players to servers in enqueue order, if running in {@link AllocationMode#TICK} mode. Only
+     * buckets with open slots are queried, for no more players than there are open slots. Players are claimed by a
+     * single conditional update before being allocated, so players that have been allocated by another instance in
+     * the meantime are skipped, freeing the slots reserved for them.
+     */
+    @Scheduled(fixedDelayString = MatchmakingConfig.TICK_MILLIS_PROPERTY)
+    public void runMatchmakingTick() {
+        if (matchmakingConfig.getAllocationMode() != AllocationMode.TICK) {
+            return;
         }
 
-        if (Strings.isNullOrEmpty(request.getIpV4Address())) {
-            throw new ApiException(ApiErrors.MISSING_IPV4_ADDRESS_CODE, ApiErrors.MISSING_IPV4_ADDRESS_MESSAGE);
+        // Group by bucket, keeping enqueue order.
+        Map<String, Player> playersById = new HashMap<>();
+        Map<BucketKey, List<String>> queues = new LinkedHashMap<>();
+
+        for (BucketKey bucketKey : openServerIndex.getBucketKeys()) {
+            int openSlots = openServerIndex.getOpenSlots(bucketKey);
+
+            if (openSlots <= 0) {
+                continue;
+            }
+
+            List<Player> queuedPlayers = playerRepository.findByVersionAndGameModeAndRegionAndStatusOrderByQueuedTimeAsc(
+                    bucketKey.getVersion(), bucketKey.getGameMode(), bucketKey.getRegion(), PlayerStatus.QUEUED,
+                    PageRequest.of(0, openSlots));
+
+            for (Player player : queuedPlayers) {
+                playersById.put(player.getId(), player);
+                queues.computeIfAbsent(bucketKey, k -> new ArrayList<>()).add(player.getId());
+            }
         }
 
-        if (Strings.isNullOrEmpty(request.getRegion())) {
-            throw new ApiException(ApiErrors.MISSING_REGION_CODE, ApiErrors.MISSING_REGION_MESSAGE);
+        if (queues.isEmpty()) {
+            return;
         }
 
-        if (Strings.isNullOrEmpty(request.getVersion())) {
-            throw new ApiException(ApiErrors.MISSING_VERSION_CODE, ApiErrors.MISSING_VERSION_MESSAGE);
+        Map<String, String> allocations = tickMatchmaker.solve(queues);
+
+        if (allocations.isEmpty()) {
+            return;
         }
 
-        // Check if already exists.
-        Iterable<GameServer> allServers = gameServerRepository.findAll();
-        Stream<GameServer> allServersStream = StreamSupport.stream(allServers.spliterator(), false);
+        // Reserve slots in the database, one update per server.
+        Map<String, Integer> slotsPerServer = new HashMap<>();
 
-        GameServer gameServer = allServersStream.filter(s ->
-                s.getIpV4Address().equals(request.getIpV4Address()) &&
-                        s.getPort() == request.getPort())
-                .findFirst().orElse(new GameServer());
+        for (String serverId : allocations.values()) {
+            slotsPerServer.merge(serverId, 1, Integer::sum);
+        }
 
-        modelMapper.map(request, gameServer);
+        Set<String> reservedServerIds = new HashSet<>();
 
-        if (gameServer.getId() == null) {
-            gameServer.setId(UUID.randomUUID().toString());
+        for (Map.Entry<String, Integer> slots : slotsPerServer.entrySet()) {
+            if (gameServerRepository.reserveSlots(slots.getKey(), slots.getValue()) > 0) {
+                reservedServerIds.add(slots.getKey());
+            }
         }
 
-        gameServer.getPlayers().clear();
-        gameServer.setLastHeartbeat(OffsetDateTime.now());
-        gameServer.setStatus(ServerStatus.OPEN);
+        // Allocate players to servers.
+        Map<String, GameServer> serversById = new HashMap<>();
 
-        gameServerRepository.save(gameServer);
+        for (GameServer gameServer : gameServerRepository.findAllById(slotsPerServer.keySet())) {
+            if (reservedServerIds.contains(gameServer.getId())) {
+                serversById.put(gameServer.getId(), gameServer);
+            } else {
+                // Server has been filled by another instance in the meantime.
+                openServerIndex.put(gameServer);
+            }
+
+            slotsPerServer.remove(gameServer.getId());
+        }
+
+        for (String removedServerId : slotsPerServer.keySet()) {
+            openServerIndex.remove(removedServerId);
+        }
+
+        // Claim players with a single update.
+        List<String> reservedPlayerIds = new ArrayList<>();
+
+        for (Map.Entry<String, String> allocation : allocations.entrySet()) {
+            if (serversById.containsKey(allocation.getValue())) {
+                reservedPlayerIds.add(allocation.getKey());
+            }
+        }
+
+        Set<String> claimedPlayerIds = new HashSet<>(playerRepository.claimQueued(reservedPlayerIds));
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Player> allocatedPlayers = new ArrayList<>();
+        Map<BucketKey, Set<String>> matchedPlayerIds = new HashMap<>();
+
+        for (Map.Entry<String, String> allocation : allocations.entrySet()) {
+            Player player = playersById.get(allocation.getKey());
+            GameServer gameServer = serversById.get(allocation.getValue());
+
+            if (gameServer == null) {
+                // Server has been filled or removed in the meantime. Player will be allocated on the next tick.
+                continue;
+            }
+
+            if (!claimedPlayerIds.contains(player.getId())) {
+                // Player has been allocated by another instance, or has left the queue in the meantime.
+                gameServerRepository.releaseSlot(gameServer.getId());
+                openServerIndex.releaseSlot(gameServer.getId());
+                continue;
+            }
+
+            allocatePlayer(player, gameServer, now);
+
+            allocatedPlayers.add(player);
+            matchedPlayerIds.computeIfAbsent(BucketKey.of(player), k -> new HashSet<>()).add(player.getId());
+        }
+
+        playerRepository.saveAll(allocatedPlayers);
+
+        for (Map.Entry<BucketKey, Set<String>> matched : matchedPlayerIds.entrySet()) {
+            eventPublisher.publishEvent(new PlayersMatchedEvent(matched.getKey(), matched.getValue()));
+        }
+    }
+
+    public GetReaperStatusResponse getReaperStatus() {
+        SweepResult sweep = lastSweep;
+
+        return new GetReaperStatusResponse(expiryReaper.getLagMillis(), expiryReaper.getTrackedServerCount(),
+                expiryReaper.getTrackedPlayerCount(), sweep.getDeletedServers(), sweep.getDeletedPlayers(),
+                sweep.getReleasedPlayers(), sweep.getDurationMillis());
+    }
+
+    public GetMatchmakerStatusResponse getMatchmakerStatus() {
+        ArrayList<GetMatchmakerStatusResponseBucket> buckets = new ArrayList<>();
+
+        for (BucketSolveStats stats : tickMatchmaker.getStats()) {
+            BucketKey bucketKey = stats.getBucketKey();
+            buckets.add(new GetMatchmakerStatusResponseBucket(bucketKey.getVersion(), bucketKey.getGameMode(),
+                    bucketKey.getRegion(), stats.getQueuedPlayers(), stats.getAllocatedPlayers(),
+                    TimeUnit.NANOSECONDS.toMicros(stats.getSolveNanos())));
+        }
+
+        return new GetMatchmakerStatusResponse(matchmakingConfig.getAllocationMode().name(),
+                tickMatchmaker.getParallelism(), buckets);
+    }
+
+    /**
+     * Gets the number of players in each state and the free slots for every bucket, from counters kept up to date
+     * by all operations instead of querying the player table.
+     */
+    public GetQueueStatsResponse getQueueStats() {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        ArrayList<GetQueueStatsResponseBucket> buckets = new ArrayList<>();
+        Set<BucketKey> bucketKeys = new HashSet<>();
+
+        for (BucketQueueStats stats : queueStats.getBuckets()) {
+            BucketKey bucketKey = stats.getBucketKey();
+            bucketKeys.add(bucketKey);
+
+            long longestWaitMillis = stats.getOldestQueuedTime() != null
+                    ? Math.max(0, Duration.between(stats.getOldestQueuedTime(), now).toMillis())
+                    : 0;
+
+            buckets.add(new GetQueueStatsResponseBucket(bucketKey.getVersion(), bucketKey.getGameMode(),
+                    bucketKey.getRegion(), stats.getQueuedPlayers(), stats.getMatchedPlayers(),
+                    stats.getJoinedPlayers(), openServerIndex.getOpenSlots(bucketKey), longestWaitMillis));
+        }
+
+        // Report open slots of buckets without any players, too.
+        for (BucketKey bucketKey : openServerIndex.getBucketKeys()) {
+            int openSlots = openServerIndex.getOpenSlots(bucketKey);
+
+            if (openSlots > 0 && !bucketKeys.contains(bucketKey)) {
+                buckets.add(new GetQueueStatsResponseBucket(bucketKey.getVersion(), bucketKey.getGameMode(),
+                        bucketKey.getRegion(), 0, 0, 0, openSlots, 0));
+            }
+        }
+
+        return new GetQueueStatsResponse(buckets);
+    }
+
+    public GetServersPage getServers(GetServersRequest request) {
+        GameServerFilter filter = new GameServerFilter(Strings.emptyToNull(request.getVersion()),
+                Strings.emptyToNull(request.getGameMode()), Strings.emptyToNull(request.getRegion()),
+                request.getStatus(), request.isHasFreeSlots());
+        String afterId = Strings.emptyToNull(request.getCursor());
+
+        // Fetch one more server than requested, for knowing whether there's another page.
+        int limit = request.getLimit() != null
+                ? Math.max(1, Math.min(request.getLimit(), MAX_SERVERS_PAGE_SIZE))
+                : 0;
+        List<GameServerSummary> summaries =
+                gameServerRepository.findSummaries(filter, afterId, limit > 0 ? limit + 1 : 0);
+
+        String nextCursor = null;
+
+        if (limit > 0 && summaries.size() > limit) {
+            summaries = summaries.subList(0, limit);
+            nextCursor = summaries.get(limit - 1).getId();
+        }
+
+        // Fetch all players at once, instead of lazily loading the players of each server.
+        List<GetServersResponseServer> servers =
+                toResponseServers(summaries, findServerPlayerKeys(filter, afterId, limit, summaries));
+
+        GetServersResponse response = new GetServersResponse();
+        response.setServers(servers);
+        return new GetServersPage(response, nextCursor);
+    }
+
+    /**
+     * Gets the current state of the specified servers. Servers that don't exist are skipped.
+     */
+    public List<GetServersResponseServer> getServersById(Collection<String> serverIds) {
+        if (serverIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<GameServerSummary> summaries = gameServerRepository.findSummariesByIdIn(serverIds);
+        return toResponseServers(summaries, playerRepository.findServerPlayerKeysByGameServerIdIn(serverIds));
+    }
+
+    /**
+     * Passes the players matching the passed request to the specified consumer one by one, without holding all of them
+     * in memory.
+     *
+     * @return Cursor for requesting the players after the passed ones, or null if there are no more players.
+     */
+    public String streamQueue(GetQueueRequest request, Consumer<GetQueueResponsePlayer> consumer) {
+        int limit = getQueuePageSize(request);
+
+        // Read one more player than requested, for telling whether there's another page.
+        int[] passedPlayers = new int[1];
+        String[] lastPlayerId = new String[1];
+        boolean[] hasMorePlayers = new boolean[1];
+
+        playerRepository.streamSummaries(getPlayerFilter(request), Strings.emptyToNull(request.getCursor()),
+                limit > 0 ? limit + 1 : 0,
+                player -> {
+                    if (limit > 0 && passedPlayers[0] >= limit) {
+                        hasMorePlayers[0] = true;
+                        return;
+                    }
+
+                    consumer.accept(matchmakingMapper.toQueueResponsePlayer(player));
+
+                    ++passedPlayers[0];
+                    lastPlayerId[0] = player.getId();
+                });
+
+        return hasMorePlayers[0] ? lastPlayerId[0] : null;
+    }
+
+    public ServerRegisterResponse register(ServerRegisterRequest request)
+            throws ApiException {
+        validateRegistration(request);
+
+        // Insert or update in a single statement, keeping the id of servers that have been registered before.
+        GameServer gameServer = new GameServer();
+
+        OffsetDateTime now = OffsetDateTime.now();
+        applyRegistration(request, gameServer, now);
+
+        gameServerRepository.upsert(gameServer);
+        onServerRegistered(gameServer, now);
 
         return new ServerRegisterResponse(gameServer.getId());
     }
 
+    /**
+     * Registers many servers at once, inserting or updating all of them with a single batched upsert.
+     *
+     * <p>Invalid servers don't fail the whole batch, but are reported individually in the response.</p>
+     */
+    public ServerRegisterBatchResponse registerBatch(ServerRegisterBatchRequest request) {
+        List<ServerRegisterRequest> servers = request.getServers() != null
+                ? request.getServers()
+                : Collections.emptyList();
+
+        // Register servers. Servers sent more than once are registered only once, with their latest data.
+        OffsetDateTime now = OffsetDateTime.now();
+
+        Map<String, GameServer> registeredServers = new LinkedHashMap<>();
+        List<GameServer> requestServers = new ArrayList<>(servers.size());
+        List<ErrorResponse> requestErrors = new ArrayList<>(servers.size());
+
+        for (ServerRegisterRequest server : servers) {
+            try {
+                validateRegistration(server);
+            } catch (ApiException e) {
+                requestServers.add(null);
+                requestErrors.add(new ErrorResponse(e.getErrorCode(), e.getMessage()));
+                continue;
+            }
+
+            GameServer gameServer = registeredServers.computeIfAbsent(
+                    getAddress(server.getIpV4Address(), server.getPort()), address -> new GameServer());
+            applyRegistration(server, gameServer, now);
+
+            requestServers.add(gameServer);
+            requestErrors.add(null);
+        }
+
+        // Servers that have been registered before keep their id, so respond only after the upsert.
+        gameServerRepository.upsertAll(registeredServers.values());
+
+        for (GameServer gameServer : registeredServers.values()) {
+            onServerRegistered(gameServer, now);
+        }
+
+        List<ServerRegisterBatchResponseServer> responseServers = new ArrayList<>(servers.size());
+
+        for (int i = 0; i < servers.size(); ++i) {
+            ServerRegisterRequest server = servers.get(i);
+            GameServer gameServer = requestServers.get(i);
+
+            responseServers.add(new ServerRegisterBatchResponseServer(gameServer != null ? gameServer.getId() : null,
+                    server.getIpV4Address(), server.getPort(), requestErrors.get(i)));
+        }
+
+        return new ServerRegisterBatchResponse(responseServers);
+    }
+
     public ServerDeregisterResponse deregister( ServerDeregisterRequest request)
             throws ApiException {
         if (Strings.isNullOrEmpty(request.getId())) {
@@ -134,29 +548,129 @@ public class MatchmakingService {
         }
 
         gameServerRepository.delete(gameServer.get());
+        openServerIndex.remove(request.getId());
+        queueStats.removeServer(request.getId());
+        expiryReaper.untrackServer(request.getId());
+        heartbeatAccumulator.remove(request.getId());
+        eventPublisher.publishEvent(new ServerChangedEvent(request.getId(), BucketKey.of(gameServer.get()), true));
 
         return new ServerDeregisterResponse(request.getId());
     }
 
+    /**
+     * Deregisters many servers at once, removing them with a few set-based statements.
+     *
+     * <p>Invalid servers don't fail the whole batch, but are reported individually in the response.</p>
+     */
+    public ServerDeregisterBatchResponse deregisterBatch(ServerDeregisterBatchRequest request) {
+        List<ServerDeregisterRequest> servers = request.getServers() != null
+                ? request.getServers()
+                : Collections.emptyList();
+
+        Set<String> serverIds = new HashSet<>();
+
+        for (ServerDeregisterRequest server : servers) {
+            if (!Strings.isNullOrEmpty(server.getId())) {
+                serverIds.add(server.getId());
+            }
+        }
+
+        Map<String, GameServer> existingServers = new HashMap<>();
+
+        if (!serverIds.isEmpty()) {
+            for (GameServer gameServer : gameServerRepository.findAllById(serverIds)) {
+                existingServers.put(gameServer.getId(), gameServer);
+            }
+        }
+
+        List<ServerDeregisterBatchResponseServer> responseServers = new ArrayList<>();
+
+        for (ServerDeregisterRequest server : servers) {
+            ErrorResponse error = null;
+
+            if (Strings.isNullOrEmpty(server.getId())) {
+                error = new ErrorResponse(ApiErrors.MISSING_GAME_SERVER_ID_CODE, ApiErrors.MISSING_GAME_SERVER_ID_MESSAGE);
+            } else if (!existingServers.containsKey(server.getId())) {
+                error = new ErrorResponse(ApiErrors.GAME_SERVER_NOT_FOUND_CODE, ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE);
+            }
+
+            responseServers.add(new ServerDeregisterBatchResponseServer(server.getId(), error));
+        }
+
+        removeServers(new ArrayList<>(existingServers.values()));
+
+        return new ServerDeregisterBatchResponse(responseServers);
+    }
+
+    @Transactional(Transactional.TxType.SUPPORTS)
     public ServerSendHeartbeatResponse sendHeartbeat(ServerSendHeartbeatRequest request)
             throws ApiException {
         if (Strings.isNullOrEmpty(request.getId())) {
             throw new ApiException(ApiErrors.MISSING_GAME_SERVER_ID_CODE, ApiErrors.MISSING_GAME_SERVER_ID_MESSAGE);
         }
 
-        Optional<GameServer> optionalGameServer = gameServerRepository.findById(request.getId());
-
-        if (!optionalGameServer.isPresent()) {
+        // Servers registered with other instances aren't indexed yet.
+        if (!openServerIndex.contains(request.getId()) && !gameServerRepository.existsById(request.getId())) {
             throw new ApiException(ApiErrors.GAME_SERVER_NOT_FOUND_CODE, ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE);
         }
 
-        GameServer gameServer = optionalGameServer.get();
-        gameServer.setLastHeartbeat(OffsetDateTime.now());
-        gameServerRepository.save(gameServer);
+        recordHeartbeat(request.getId(), OffsetDateTime.now());
 
         return new ServerSendHeartbeatResponse(request.getId());
     }
 
+    /**
+     * Receives the heartbeats of many servers at once, optionally changing their status.
+     *
+     * <p>Invalid servers don't fail the whole batch, but are reported individually in the response.</p>
+     */
+    public ServerSendHeartbeatBatchResponse sendHeartbeatBatch(ServerSendHeartbeatBatchRequest request) {
+        List<ServerSendHeartbeatBatchRequestServer> servers = request.getServers() != null
+                ? request.getServers()
+                : Collections.emptyList();
+
+        // Check all servers that aren't indexed at once.
+        Set<String> unindexedServerIds = new HashSet<>();
+
+        for (ServerSendHeartbeatBatchRequestServer server : servers) {
+            if (!Strings.isNullOrEmpty(server.getId()) && !openServerIndex.contains(server.getId())) {
+                unindexedServerIds.add(server.getId());
+            }
+        }
+
+        Set<String> existingServerIds = unindexedServerIds.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(gameServerRepository.findIdsByIdIn(unindexedServerIds));
+
+        // Process heartbeats.
+        OffsetDateTime now = OffsetDateTime.now();
+        List<ServerSendHeartbeatBatchResponseServer> responseServers = new ArrayList<>();
+
+        for (ServerSendHeartbeatBatchRequestServer server : servers) {
+            ErrorResponse error = null;
+
+            if (Strings.isNullOrEmpty(server.getId())) {
+                error = new ErrorResponse(ApiErrors.MISSING_GAME_SERVER_ID_CODE, ApiErrors.MISSING_GAME_SERVER_ID_MESSAGE);
+            } else if (unindexedServerIds.contains(server.getId()) && !existingServerIds.contains(server.getId())) {
+                error = new ErrorResponse(ApiErrors.GAME_SERVER_NOT_FOUND_CODE, ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE);
+            } else {
+                recordHeartbeat(server.getId(), now);
+
+                if (server.getStatus() != null && server.getStatus() != openServerIndex.getStatus(server.getId())) {
+                    try {
+                        setStatus(new ServerSetStatusRequest(server.getId(), server.getStatus()));
+                    } catch (ApiException e) {
+                        error = new ErrorResponse(e.getErrorCode(), e.getMessage());
+                    }
+                }
+            }
+
+            responseServers.add(new ServerSendHeartbeatBatchResponseServer(server.getId(), error));
+        }
+
+        return new ServerSendHeartbeatBatchResponse(responseServers);
+    }
+
     public ClientEnqueueResponse enqueue(ClientEnqueueRequest request, String playerId)
             throws ApiException {
         if (Strings.isNullOrEmpty(playerId)) {
@@ -175,25 +689,29 @@ public class MatchmakingService {
             throw new ApiException(ApiErrors.MISSING_VERSION_CODE, ApiErrors.MISSING_VERSION_MESSAGE);
         }
 
-        // Check if already exists.
-        Player player = playerRepository.findById(playerId).orElse(new Player());
+        // Remove from any servers.
+        Optional<Player> existingPlayer = playerRepository.findById(playerId);
 
-        // Update data.
-        modelMapper.map(request, player);
-        player.setId(playerId);
-        player.setStatus(PlayerStatus.QUEUED);
+        if (existingPlayer.isPresent() && existingPlayer.get().getGameServer() != null) {
+            GameServer gameServer = existingPlayer.get().getGameServer();
 
-        // Remove from any servers.
-        if (player.getGameServer() != null) {
-            player.getGameServer().getPlayers().remove(player);
-            gameServerRepository.save(player.getGameServer());
+            gameServerRepository.releaseSlot(gameServer.getId());
+            openServerIndex.releaseSlot(gameServer.getId());
+            eventPublisher.publishEvent(new ServerRosterChangedEvent(gameServer.getId(), BucketKey.of(gameServer),
+                    playerId, false));
         }
 
-        player.setGameServer(null);
-        player.setMatchedTime(null);
-        player.setJoinedTime(null);
+        // Insert or update in a single statement.
+        Player player = new Player();
+        matchmakingMapper.map(request, player);
+        player.setId(playerId);
+        player.setStatus(PlayerStatus.QUEUED);
+        player.setQueuedTime(OffsetDateTime.now());
 
-        playerRepository.save(player);
+        playerRepository.upsert(player);
+        queueStats.put(player);
+        expiryReaper.untrackPlayer(playerId);
+        ticketIndex.removePlayer(playerId);
 
         return new ClientEnqueueResponse(playerId, player.getStatus());
     }
@@ -210,7 +728,19 @@ public class MatchmakingService {
             throw new ApiException(ApiErrors.PLAYER_NOT_FOUND_CODE, ApiErrors.PLAYER_NOT_FOUND_MESSAGE);
         }
 
+        GameServer gameServer = player.get().getGameServer();
+
+        if (gameServer != null) {
+            gameServerRepository.releaseSlot(gameServer.getId());
+            openServerIndex.releaseSlot(gameServer.getId());
+            eventPublisher.publishEvent(new ServerRosterChangedEvent(gameServer.getId(), BucketKey.of(gameServer),
+                    playerId, false));
+        }
+
         playerRepository.delete(player.get());
+        queueStats.remove(playerId);
+        expiryReaper.untrackPlayer(playerId);
+        ticketIndex.removePlayer(playerId);
 
         return new ClientDequeueResponse(playerId);
     }
@@ -242,59 +772,41 @@ public class MatchmakingService {
             return response;
         }
 
-        // Clean up game servers.
-        Iterable<GameServer> allServers = gameServerRepository.findAll();
-        Stream<GameServer> allServersStream = StreamSupport.stream(allServers.spliterator(), false);
-
-        Stream<GameServer> expiredServersStream = allServersStream.filter
-                (s -> s.getLastHeartbeat().plusSeconds(SERVER_HEARTBEAT_TIMEOUT_SECONDS).isBefore(OffsetDateTime.now()));
-        List<GameServer> expiredServers = expiredServersStream.collect(Collectors.toList());
-
-        gameServerRepository.deleteAll(expiredServers);
-
-        // Clean up players.
-        Iterable<Player> allPlayers = playerRepository.findAll();
-        Stream<Player> allPlayersStream = StreamSupport.stream(allPlayers.spliterator(), false);
+        // Find server. In tick mode, the matchmaker does that for us.
+        if (matchmakingConfig.getAllocationMode() == AllocationMode.TICK) {
+            ClientPollMatchmakingResponse response = new ClientPollMatchmakingResponse();
+            response.setStatus(openServerIndex.getOpenSlots(BucketKey.of(player)) > 0
+                    ? MatchmakingStatus.WAITING_FOR_PLAYERS
+                    : MatchmakingStatus.SERVERS_FULL);
 
-        Stream<Player> expiredPlayersStream = allPlayersStream.filter
-                (p -> p.getStatus() == PlayerStatus.MATCHED &&
-                        p.getMatchedTime().plusSeconds(CLIENT_JOIN_TIMEOUT_SECONDS).isBefore(OffsetDateTime.now()));
-        expiredPlayersStream.forEach(this::removePlayer);
+            return response;
+        }
 
-        // Get open servers.
-        allServers = gameServerRepository.findAll();
-        allServersStream = StreamSupport.stream(allServers.spliterator(), false);
+        GameServer openServer = reserveOpenServer(BucketKey.of(player));
 
-        Stream<GameServer> openServers = allServersStream.filter
-                (s -> s.getStatus() == ServerStatus.OPEN &&
-                        s.getPlayers().size() < s.getMaxPlayers() &&
-                        s.getVersion().equals(player.getVersion()) &&
-                        s.getGameMode().equals(player.getGameMode()) &&
-                        s.getRegion().equals(player.getRegion()));
+        if (openServer == null) {
+            ClientPollMatchmakingResponse response = new ClientPollMatchmakingResponse();
+            response.setStatus(MatchmakingStatus.SERVERS_FULL);
 
-        // Fill up servers as quickly as possible.
-        openServers = openServers.sorted(Comparator.comparingInt(s -> s.getPlayers().size()));
+            return response;
+        }
 
-        // Find server.
-        GameServer openServer = openServers.findFirst().orElse(null);
+        // Claim player, so concurrent polls of the same player don't allocate it twice.
+        if (playerRepository.compareAndSetStatus(playerId, PlayerStatus.QUEUED, PlayerStatus.MATCHED) == 0) {
+            // Player is being allocated by a concurrent poll, or has left the queue in the meantime.
+            gameServerRepository.releaseSlot(openServer.getId());
+            openServerIndex.releaseSlot(openServer.getId());
 
-        if (openServer == null) {
             ClientPollMatchmakingResponse response = new ClientPollMatchmakingResponse();
-            response.setStatus(MatchmakingStatus.SERVERS_FULL);
+            response.setStatus(MatchmakingStatus.WAITING_FOR_PLAYERS);
 
             return response;
         }
 
         // Allocate player to server.
-        player.setStatus(PlayerStatus.MATCHED);
-        player.setTicket(UUID.randomUUID().toString());
-        player.setGameServer(openServer);
-        player.setMatchedTime(OffsetDateTime.now());
-
-        openServer.getPlayers().add(player);
+        allocatePlayer(player, openServer, OffsetDateTime.now());
 
         playerRepository.save(player);
-        gameServerRepository.save(openServer);
 
         // Send response.
         ClientPollMatchmakingResponse response = new ClientPollMatchmakingResponse();
@@ -307,6 +819,42 @@ public class MatchmakingService {
         return response;
     }
 
+    public BucketKey getBucket(String playerId)
+            throws ApiException {
+        if (Strings.isNullOrEmpty(playerId)) {
+            throw new ApiException(ApiErrors.MISSING_PLAYER_ID_CODE, ApiErrors.MISSING_PLAYER_ID_MESSAGE);
+        }
+
+        Optional<Player> player = playerRepository.findById(playerId);
+
+        if (!player.isPresent()) {
+            throw new ApiException(ApiErrors.PLAYER_NOT_FOUND_CODE, ApiErrors.PLAYER_NOT_FOUND_MESSAGE);
+        }
+
+        return BucketKey.of(player.get());
+    }
+
+    public GetServerRosterResponse getServerRoster(String serverId)
+            throws ApiException {
+        if (Strings.isNullOrEmpty(serverId)) {
+            throw new ApiException(ApiErrors.MISSING_GAME_SERVER_ID_CODE, ApiErrors.MISSING_GAME_SERVER_ID_MESSAGE);
+        }
+
+        Optional<GameServer> gameServer = gameServerRepository.findById(serverId);
+
+        if (!gameServer.isPresent()) {
+            throw new ApiException(ApiErrors.GAME_SERVER_NOT_FOUND_CODE, ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE);
+        }
+
+        ArrayList<String> playerIds = new ArrayList<>();
+
+        for (Player player : gameServer.get().getPlayers()) {
+            playerIds.add(player.getId());
+        }
+
+        return new GetServerRosterResponse(serverId, playerIds);
+    }
+
     public ServerNotifyPlayerJoinedResponse notifyPlayerJoined(ServerNotifyPlayerJoinedRequest request)
             throws ApiException {
         if (Strings.isNullOrEmpty(request.getServerId())) {
@@ -317,35 +865,113 @@ public class MatchmakingService {
             throw new ApiException(ApiErrors.MISSING_TICKET_CODE, ApiErrors.MISSING_TICKET_MESSAGE);
         }
 
-        Optional<GameServer> optionalGameServer = gameServerRepository.findById(request.getServerId());
+        // Find player.
+        Player player = findPlayerByTicket(request.getTicket());
 
-        if (!optionalGameServer.isPresent()) {
-            throw new ApiException(ApiErrors.GAME_SERVER_NOT_FOUND_CODE, ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE);
+        if (!isPlayerOfServer(player, request.getServerId())) {
+            if (!serverExists(request.getServerId())) {
+                throw new ApiException(ApiErrors.GAME_SERVER_NOT_FOUND_CODE, ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE);
+            }
+
+            throw new ApiException(ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_CODE, ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_MESSAGE);
         }
 
-        GameServer gameServer = optionalGameServer.get();
+        if (player.getStatus() != PlayerStatus.JOINED) {
+            markJoined(player, OffsetDateTime.now());
+            playerRepository.save(player);
+        }
 
-        // Find player.
-        Player player = gameServer.getPlayers().stream()
-                .filter(p -> p.getTicket().equals(request.getTicket()))
-                .findFirst().orElse(null);
-
-        if (player != null)
-        {
-            if (player.getStatus() != PlayerStatus.JOINED)
-            {
-                player.setStatus(PlayerStatus.JOINED);
-                player.setJoinedTime(OffsetDateTime.now());
-
-                playerRepository.save(player);
+        return new ServerNotifyPlayerJoinedResponse(request.getServerId(), player.getId());
+    }
+
+    /**
+     * Confirms the joins of many players at once, looking up all players with at most two queries.
+     *
+     * <p>Unknown tickets don't fail the whole batch, but are reported individually in the response.</p>
+     */
+    public ServerNotifyPlayerJoinedBatchResponse notifyPlayerJoinedBatch(ServerNotifyPlayerJoinedBatchRequest request)
+            throws ApiException {
+        if (Strings.isNullOrEmpty(request.getServerId())) {
+            throw new ApiException(ApiErrors.MISSING_GAME_SERVER_ID_CODE, ApiErrors.MISSING_GAME_SERVER_ID_MESSAGE);
+        }
+
+        List<String> tickets = request.getTickets() != null ? request.getTickets() : Collections.emptyList();
+
+        // Find players, looking up signed or indexed tickets by player id first.
+        Set<String> playerIds = new HashSet<>();
+
+        for (String ticket : tickets) {
+            String playerId = !Strings.isNullOrEmpty(ticket) ? getPlayerIdOfTicket(ticket) : null;
+
+            if (playerId != null) {
+                playerIds.add(playerId);
             }
+        }
 
-            return new ServerNotifyPlayerJoinedResponse(request.getServerId(), player.getId());
+        Map<String, Player> playersByTicket = new HashMap<>();
+
+        if (!playerIds.isEmpty()) {
+            for (Player player : playerRepository.findAllById(playerIds)) {
+                if (player.getTicket() != null) {
+                    playersByTicket.put(player.getTicket(), player);
+                }
+            }
         }
-        else
-        {
-            throw new ApiException(ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_CODE, ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_MESSAGE);
+
+        Set<String> unindexedTickets = new HashSet<>();
+
+        for (String ticket : tickets) {
+            if (!Strings.isNullOrEmpty(ticket) && !playersByTicket.containsKey(ticket)) {
+                unindexedTickets.add(ticket);
+            }
+        }
+
+        if (!unindexedTickets.isEmpty()) {
+            for (Player player : playerRepository.findByTicketIn(unindexedTickets)) {
+                playersByTicket.put(player.getTicket(), player);
+            }
+        }
+
+        // Confirm joins.
+        OffsetDateTime now = OffsetDateTime.now();
+        boolean serverChecked = false;
+
+        List<Player> joinedPlayers = new ArrayList<>();
+        List<ServerNotifyPlayerJoinedBatchResponsePlayer> responsePlayers = new ArrayList<>();
+
+        for (String ticket : tickets) {
+            if (Strings.isNullOrEmpty(ticket)) {
+                responsePlayers.add(new ServerNotifyPlayerJoinedBatchResponsePlayer(ticket, null,
+                        new ErrorResponse(ApiErrors.MISSING_TICKET_CODE, ApiErrors.MISSING_TICKET_MESSAGE)));
+                continue;
+            }
+
+            Player player = playersByTicket.get(ticket);
+
+            if (!isPlayerOfServer(player, request.getServerId())) {
+                if (!serverChecked && !serverExists(request.getServerId())) {
+                    throw new ApiException(ApiErrors.GAME_SERVER_NOT_FOUND_CODE, ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE);
+                }
+
+                serverChecked = true;
+
+                responsePlayers.add(new ServerNotifyPlayerJoinedBatchResponsePlayer(ticket, null,
+                        new ErrorResponse(ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_CODE,
+                                ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_MESSAGE)));
+                continue;
+            }
+
+            if (player.getStatus() != PlayerStatus.JOINED) {
+                markJoined(player, now);
+                joinedPlayers.add(player);
+            }
+
+            responsePlayers.add(new ServerNotifyPlayerJoinedBatchResponsePlayer(ticket, player.getId(), null));
         }
+
+        playerRepository.saveAll(joinedPlayers);
+
+        return new ServerNotifyPlayerJoinedBatchResponse(request.getServerId(), responsePlayers);
     }
 
     public ServerNotifyPlayerLeftResponse notifyPlayerLeft(ServerNotifyPlayerLeftRequest request)
@@ -358,29 +984,20 @@ public class MatchmakingService {
             throw new ApiException(ApiErrors.MISSING_PLAYER_ID_CODE, ApiErrors.MISSING_PLAYER_ID_MESSAGE);
         }
 
-        Optional<GameServer> optionalGameServer = gameServerRepository.findById(request.getServerId());
-
-        if (!optionalGameServer.isPresent()) {
-            throw new ApiException(ApiErrors.GAME_SERVER_NOT_FOUND_CODE, ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE);
-        }
-
-        GameServer gameServer = optionalGameServer.get();
-
         // Find player.
-        Player player = gameServer.getPlayers().stream()
-                .filter(p -> p.getId().equals(request.getPlayerId()))
-                .findFirst().orElse(null);
+        Player player = playerRepository.findById(request.getPlayerId()).orElse(null);
 
-        if (player != null)
-        {
-            removePlayer(player);
+        if (!isPlayerOfServer(player, request.getServerId())) {
+            if (!serverExists(request.getServerId())) {
+                throw new ApiException(ApiErrors.GAME_SERVER_NOT_FOUND_CODE, ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE);
+            }
 
-            return new ServerNotifyPlayerLeftResponse(request.getServerId(), request.getPlayerId());
-        }
-        else
-        {
             throw new ApiException(ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_CODE, ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_MESSAGE);
         }
+
+        removePlayer(player);
+
+        return new ServerNotifyPlayerLeftResponse(request.getServerId(), request.getPlayerId());
     }
 
     public ServerSetStatusResponse setStatus( ServerSetStatusRequest request)
@@ -398,16 +1015,254 @@ public class MatchmakingService {
         GameServer gameServer = optionalGameServer.get();
         gameServer.setStatus(request.getStatus());
         gameServerRepository.save(gameServer);
+        openServerIndex.setStatus(gameServer.getId(), gameServer.getStatus());
+        eventPublisher.publishEvent(new ServerChangedEvent(gameServer.getId(), BucketKey.of(gameServer), false));
 
         return new ServerSetStatusResponse(request.getId(), request.getStatus());
     }
 
+    private void validateRegistration(ServerRegisterRequest request)
+            throws ApiException {
+        if (Strings.isNullOrEmpty(request.getGameMode())) {
+            throw new ApiException(ApiErrors.MISSING_GAME_MODE_CODE, ApiErrors.MISSING_GAME_MODE_MESSAGE);
+        }
+
+        if (Strings.isNullOrEmpty(request.getIpV4Address())) {
+            throw new ApiException(ApiErrors.MISSING_IPV4_ADDRESS_CODE, ApiErrors.MISSING_IPV4_ADDRESS_MESSAGE);
+        }
+
+        if (Strings.isNullOrEmpty(request.getRegion())) {
+            throw new ApiException(ApiErrors.MISSING_REGION_CODE, ApiErrors.MISSING_REGION_MESSAGE);
+        }
+
+        if (Strings.isNullOrEmpty(request.getVersion())) {
+            throw new ApiException(ApiErrors.MISSING_VERSION_CODE, ApiErrors.MISSING_VERSION_MESSAGE);
+        }
+    }
+
+    private void applyRegistration(ServerRegisterRequest request, GameServer gameServer, OffsetDateTime now) {
+        matchmakingMapper.map(request, gameServer);
+
+        if (gameServer.getId() == null) {
+            gameServer.setId(UUID.randomUUID().toString());
+        }
+
+        gameServer.getPlayers().clear();
+        gameServer.setLastHeartbeat(now);
+        gameServer.setStatus(ServerStatus.OPEN);
+    }
+
+    private void onServerRegistered(GameServer gameServer, OffsetDateTime now) {
+        openServerIndex.put(gameServer);
+        expiryReaper.trackServer(gameServer.getId(), getHeartbeatDeadline(now));
+        eventPublisher.publishEvent(new ServerChangedEvent(gameServer.getId(), BucketKey.of(gameServer), false));
+    }
+
+    private PlayerFilter getPlayerFilter(GetQueueRequest request) {
+        return new PlayerFilter(Strings.emptyToNull(request.getVersion()), Strings.emptyToNull(request.getGameMode()),
+                Strings.emptyToNull(request.getRegion()), request.getStatus());
+    }
+
+    private int getQueuePageSize(GetQueueRequest request) {
+        return request.getLimit() != null ? Math.max(1, Math.min(request.getLimit(), MAX_QUEUE_PAGE_SIZE)) : 0;
+    }
+
+    private List<GetServersResponseServer> toResponseServers(List<GameServerSummary> summaries,
+                                                             List<ServerPlayerKey> players) {
+        Map<String, List<String>> playerIdsByServer = new HashMap<>();
+
+        for (ServerPlayerKey player : players) {
+            playerIdsByServer.computeIfAbsent(player.getGameServerId(), id -> new ArrayList<>())
+                    .add(player.getPlayerId());
+        }
+
+        List<GetServersResponseServer> servers = new ArrayList<>(summaries.size());
+
+        for (GameServerSummary server : summaries) {
+            OffsetDateTime lastHeartbeat =
+                    heartbeatAccumulator.getLastHeartbeat(server.getId(), server.getLastHeartbeat());
+            List<String> playerIds = playerIdsByServer.getOrDefault(server.getId(), new ArrayList<>());
+
+            servers.add(matchmakingMapper.toServersResponseServer(server, lastHeartbeat, playerIds));
+        }
+
+        return servers;
+    }
+
+    private List<ServerPlayerKey> findServerPlayerKeys(GameServerFilter filter, String afterId, int limit,
+                                                      List<GameServerSummary> servers) {
+        if (servers.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        boolean allServers = limit == 0 && afterId == null && filter.getVersion() == null &&
+                filter.getGameMode() == null && filter.getRegion() == null && filter.getStatus() == null &&
+                !filter.isFreeSlotsOnly();
+
+        if (allServers) {
+            return playerRepository.findAllServerPlayerKeys();
+        }
+
+        List<String> serverIds = new ArrayList<>(servers.size());
+
+        for (GameServerSummary server : servers) {
+            serverIds.add(server.getId());
+        }
+
+        return playerRepository.findServerPlayerKeysByGameServerIdIn(serverIds);
+    }
+
+    private String getAddress(String ipV4Address, int port) {
+        return ipV4Address + ":" + port;
+    }
+
+    private Player findPlayerByTicket(String ticket) {
+        String playerId = getPlayerIdOfTicket(ticket);
+
+        if (playerId != null) {
+            Optional<Player> player = playerRepository.findById(playerId);
+
+            if (player.isPresent() && ticket.equals(player.get().getTicket())) {
+                return player.get();
+            }
+        }
+
+        // Player might have been matched by another instance.
+        return playerRepository.findByTicket(ticket).orElse(null);
+    }
+
+    private String getPlayerIdOfTicket(String ticket) {
+        // Tickets minted with another secret (e.g. before it has been changed) might still be indexed.
+        MatchTicket matchTicket = ticketSigner.verify(ticket);
+        return matchTicket != null ? matchTicket.getPlayerId() : ticketIndex.getPlayerId(ticket);
+    }
+
+    private boolean isPlayerOfServer(Player player, String serverId) {
+        return player != null && player.getGameServer() != null && serverId.equals(player.getGameServer().getId());
+    }
+
+    private boolean serverExists(String serverId) {
+        return openServerIndex.contains(serverId) || gameServerRepository.existsById(serverId);
+    }
+
+    private void markJoined(Player player, OffsetDateTime now) {
+        player.setStatus(PlayerStatus.JOINED);
+        player.setJoinedTime(now);
+
+        queueStats.put(player);
+        expiryReaper.untrackPlayer(player.getId());
+        ticketIndex.removePlayer(player.getId());
+    }
+
+    private void recordHeartbeat(String serverId, OffsetDateTime now) {
+        heartbeatAccumulator.record(serverId, now);
+        expiryReaper.extendServer(serverId, getHeartbeatDeadline(now));
+    }
+
+    private GameServer reserveOpenServer(BucketKey bucketKey) {
+        GameServer gameServer = openServerIndex.getOpenSlots(bucketKey) > 0 ? reserveIndexedServer(bucketKey) : null;
+
+        if (gameServer != null) {
+            return gameServer;
+        }
+
+        // Check for servers registered with other instances, and for slots freed by other instances on indexed
+        // servers. Most polls happen while all servers of the bucket are full, so don't do that on every poll.
+        if (!openServerIndex.tryStartRescan(bucketKey, System.currentTimeMillis(),
+                matchmakingConfig.getOpenServerRescanMillis())) {
+            return null;
+        }
+
+        for (GameServer openServer : gameServerRepository.findByVersionAndGameModeAndRegionAndStatus(
+                bucketKey.getVersion(), bucketKey.getGameMode(), bucketKey.getRegion(), ServerStatus.OPEN)) {
+            openServerIndex.put(openServer);
+        }
+
+        return openServerIndex.getOpenSlots(bucketKey) > 0 ? reserveIndexedServer(bucketKey) : null;
+    }
+
+    private GameServer reserveIndexedServer(BucketKey bucketKey) {
+        String serverId;
+
+        while ((serverId = openServerIndex.reserveSlot(bucketKey)) != null) {
+            boolean reserved = gameServerRepository.reserveSlots(serverId, 1) > 0;
+            Optional<GameServer> gameServer = gameServerRepository.findById(serverId);
+
+            // Server may have been loaded before the reservation, e.g. when rescanning the bucket.
+            gameServer.ifPresent(gameServerRepository::refresh);
+
+            if (!gameServer.isPresent()) {
+                // Server has been removed in the meantime.
+                openServerIndex.remove(serverId);
+            } else if (!reserved) {
+                // Server has been filled by another instance in the meantime.
+                openServerIndex.put(gameServer.get());
+            } else {
+                return gameServer.get();
+            }
+        }
+
+        return null;
+    }
+
+    private void allocatePlayer(@Nonnull Player player, @Nonnull GameServer gameServer, OffsetDateTime now) {
+        player.setStatus(PlayerStatus.MATCHED);
+        player.setTicket(ticketSigner.mint(player.getId(), gameServer.getId(), getJoinDeadline(now)));
+        player.setGameServer(gameServer);
+        player.setMatchedTime(now);
+
+        queueStats.put(player);
+        expiryReaper.trackPlayer(player.getId(), getJoinDeadline(now));
+        ticketIndex.put(player.getTicket(), player.getId());
+        eventPublisher.publishEvent(new ServerRosterChangedEvent(gameServer.getId(), BucketKey.of(gameServer),
+                player.getId(), true));
+    }
+
+    private void removeServers(List<GameServer> gameServers) {
+        if (gameServers.isEmpty()) {
+            return;
+        }
+
+        List<String> gameServerIds = new ArrayList<>();
+
+        for (GameServer gameServer : gameServers) {
+            gameServerIds.add(gameServer.getId());
+        }
+
+        // Remove players first, for not violating the foreign key.
+        playerRepository.deleteByGameServerIdIn(gameServerIds);
+        gameServerRepository.deleteByIdIn(gameServerIds);
+
+        for (GameServer gameServer : gameServers) {
+            openServerIndex.remove(gameServer.getId());
+            queueStats.removeServer(gameServer.getId());
+            expiryReaper.untrackServer(gameServer.getId());
+            heartbeatAccumulator.remove(gameServer.getId());
+            eventPublisher.publishEvent(new ServerChangedEvent(gameServer.getId(), BucketKey.of(gameServer), true));
+        }
+    }
+
     private void removePlayer(@Nonnull Player player) {
-        if (player.getGameServer() != null) {
-            player.getGameServer().getPlayers().remove(player);
-            gameServerRepository.save(player.getGameServer());
+        GameServer gameServer = player.getGameServer();
+
+        if (gameServer != null) {
+            gameServerRepository.releaseSlot(gameServer.getId());
+            openServerIndex.releaseSlot(gameServer.getId());
+            eventPublisher.publishEvent(new ServerRosterChangedEvent(gameServer.getId(), BucketKey.of(gameServer),
+                    player.getId(), false));
         }
 
         playerRepository.delete(player);
+        queueStats.remove(player.getId());
+        expiryReaper.untrackPlayer(player.getId());
+        ticketIndex.removePlayer(player.getId());
+    }
+
+    private long getHeartbeatDeadline(OffsetDateTime lastHeartbeat) {
+        return lastHeartbeat.plusSeconds(SERVER_HEARTBEAT_TIMEOUT_SECONDS).toInstant().toEpochMilli();
+    }
+
+    private long getJoinDeadline(OffsetDateTime matchedTime) {
+        return matchedTime.plusSeconds(CLIENT_JOIN_TIMEOUT_SECONDS).toInstant().toEpochMilli();
     }
 }
@@ -0,0 +1,71 @@
+package de.opengamebackend.matchmaking.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.opengamebackend.matchmaking.model.requests.GetQueueRequest;
+import de.opengamebackend.matchmaking.model.responses.GetQueueResponse;
+import de.opengamebackend.matchmaking.model.responses.GetQueueResponsePlayer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes the players in the queue as {@link GetQueueResponse} JSON while reading them from the database, so memory
+ * usage doesn't grow with the number of players.
+ *
+ * <p>The cursor for the next page is only known after all players have been written, so it's appended as trailing
+ * {@value #NEXT_CURSOR_FIELD} field, if there are more players.</p>
+ */
+@Component
+public class QueueStreamWriter {
+    public static final String NEXT_CURSOR_FIELD = "nextCursor";
+
+    private final MatchmakingService matchmakingService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter playerWriter;
+
+    @Autowired
+    public QueueStreamWriter(MatchmakingService matchmakingService, ObjectMapper objectMapper) {
+        this.matchmakingService = matchmakingService;
+        this.objectMapper = objectMapper;
+        this.playerWriter = objectMapper.writerFor(GetQueueResponsePlayer.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void write(GetQueueRequest request, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("players");
+
+            String nextCursor;
+
+            try {
+                nextCursor = matchmakingService.streamQueue(request, player -> writePlayer(generator, player));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            generator.writeEndArray();
+
+            if (nextCursor != null) {
+                generator.writeStringField(NEXT_CURSOR_FIELD, nextCursor);
+            }
+
+            generator.writeEndObject();
+        }
+    }
+
+    private void writePlayer(JsonGenerator generator, GetQueueResponsePlayer player) {
+        try {
+            playerWriter.writeValue(generator, player);
+        } catch (IOException e) {
+            // Client has disconnected. Stop reading players.
+            throw new UncheckedIOException(e);
+        }
+    }
+}
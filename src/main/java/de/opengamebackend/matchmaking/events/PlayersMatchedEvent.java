@@ -0,0 +1,27 @@
+package de.opengamebackend.matchmaking.events;
+
+import de.opengamebackend.matchmaking.matching.BucketKey;
+
+import java.util.Set;
+
+/**
+ * Published when players of a bucket have been allocated to servers by the matchmaker, rather than by polling
+ * matchmaking themselves.
+ */
+public class PlayersMatchedEvent {
+    private final BucketKey bucketKey;
+    private final Set<String> playerIds;
+
+    public PlayersMatchedEvent(BucketKey bucketKey, Set<String> playerIds) {
+        this.bucketKey = bucketKey;
+        this.playerIds = playerIds;
+    }
+
+    public BucketKey getBucketKey() {
+        return bucketKey;
+    }
+
+    public Set<String> getPlayerIds() {
+        return playerIds;
+    }
+}
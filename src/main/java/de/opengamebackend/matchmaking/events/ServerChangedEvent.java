@@ -0,0 +1,30 @@
+package de.opengamebackend.matchmaking.events;
+
+import de.opengamebackend.matchmaking.matching.BucketKey;
+
+/**
+ * Published whenever a game server has been registered, updated or removed.
+ */
+public class ServerChangedEvent {
+    private final String serverId;
+    private final BucketKey bucketKey;
+    private final boolean removed;
+
+    public ServerChangedEvent(String serverId, BucketKey bucketKey, boolean removed) {
+        this.serverId = serverId;
+        this.bucketKey = bucketKey;
+        this.removed = removed;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public BucketKey getBucketKey() {
+        return bucketKey;
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+}
@@ -0,0 +1,39 @@
+package de.opengamebackend.matchmaking.events;
+
+import de.opengamebackend.matchmaking.matching.BucketKey;
+
+/**
+ * Published whenever a player has been allocated to or removed from a game server.
+ */
+public class ServerRosterChangedEvent {
+    private final String serverId;
+    private final BucketKey bucketKey;
+    private final String playerId;
+    private final boolean added;
+
+    public ServerRosterChangedEvent(String serverId, BucketKey bucketKey, String playerId, boolean added) {
+        this.serverId = serverId;
+        this.bucketKey = bucketKey;
+        this.playerId = playerId;
+        this.added = added;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public BucketKey getBucketKey() {
+        return bucketKey;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * Whether the player has been added to the server, or removed from it.
+     */
+    public boolean isAdded() {
+        return added;
+    }
+}
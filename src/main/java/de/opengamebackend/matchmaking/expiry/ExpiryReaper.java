@@ -0,0 +1,173 @@
+package de.opengamebackend.matchmaking.expiry;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tracks the heartbeat deadlines of all game servers and the join deadlines of all matched players.
+ *
+ * <p>Deadlines are kept in a {@link HierarchicalTimingWheel}. Extending a deadline (e.g. when receiving a heartbeat)
+ * doesn't touch the wheel: When the original deadline passes, the entry is just rescheduled to the extended
+ * deadline. This way, each server causes at most one wheel operation per timeout period, no matter how often it
+ * sends heartbeats.</p>
+ */
+@Component
+public class ExpiryReaper {
+    public static final long TICK_MILLIS = 1000;
+    public static final int WHEEL_SIZE = 64;
+
+    private final HierarchicalTimingWheel<Expiry> wheel;
+    private final ConcurrentMap<String, Expiry> servers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Expiry> players = new ConcurrentHashMap<>();
+
+    private volatile long lagMillis;
+
+    public ExpiryReaper() {
+        this(System.currentTimeMillis());
+    }
+
+    public ExpiryReaper(long startMillis) {
+        this.wheel = new HierarchicalTimingWheel<>(TICK_MILLIS, WHEEL_SIZE, startMillis);
+    }
+
+    public void trackServer(String serverId, long deadlineMillis) {
+        track(servers, new Expiry(ExpiryType.SERVER, serverId, deadlineMillis));
+    }
+
+    /**
+     * Extends the deadline of the specified server, starting to track it if it's not tracked yet.
+     */
+    public void extendServer(String serverId, long deadlineMillis) {
+        if (serverId == null) {
+            return;
+        }
+
+        Expiry expiry = servers.get(serverId);
+
+        if (expiry == null) {
+            trackServer(serverId, deadlineMillis);
+            return;
+        }
+
+        expiry.deadline = Math.max(expiry.deadline, deadlineMillis);
+    }
+
+    public void untrackServer(String serverId) {
+        untrack(servers, serverId);
+    }
+
+    public void trackPlayer(String playerId, long deadlineMillis) {
+        track(players, new Expiry(ExpiryType.PLAYER, playerId, deadlineMillis));
+    }
+
+    public void untrackPlayer(String playerId) {
+        untrack(players, playerId);
+    }
+
+    /**
+     * Advances the reaper to the specified time, collecting all servers and players whose deadline has passed.
+     */
+    public ExpiredEntities advance(long nowMillis) {
+        ExpiredEntities expired = new ExpiredEntities();
+
+        synchronized (wheel) {
+            lagMillis = Math.max(0, nowMillis - wheel.getCurrentTime() - TICK_MILLIS);
+
+            wheel.advance(nowMillis, expiry -> {
+                ConcurrentMap<String, Expiry> tracked = expiry.type == ExpiryType.SERVER ? servers : players;
+
+                if (tracked.get(expiry.id) != expiry) {
+                    // Untracked or replaced in the meantime.
+                    return;
+                }
+
+                if (expiry.deadline > nowMillis) {
+                    // Deadline has been extended in the meantime.
+                    wheel.schedule(expiry, expiry.deadline);
+                    return;
+                }
+
+                if (tracked.remove(expiry.id, expiry)) {
+                    if (expiry.type == ExpiryType.SERVER) {
+                        expired.serverIds.add(expiry.id);
+                    } else {
+                        expired.playerIds.add(expiry.id);
+                    }
+                }
+            });
+        }
+
+        return expired;
+    }
+
+    /**
+     * How far the reaper lagged behind the wall clock when it was last advanced, in milliseconds.
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public int getTrackedServerCount() {
+        return servers.size();
+    }
+
+    public int getTrackedPlayerCount() {
+        return players.size();
+    }
+
+    private void track(ConcurrentMap<String, Expiry> tracked, Expiry expiry) {
+        if (expiry.id == null) {
+            return;
+        }
+
+        tracked.put(expiry.id, expiry);
+
+        synchronized (wheel) {
+            wheel.schedule(expiry, expiry.deadline);
+        }
+    }
+
+    private void untrack(ConcurrentMap<String, Expiry> tracked, String id) {
+        if (id != null) {
+            tracked.remove(id);
+        }
+    }
+
+    public static class ExpiredEntities {
+        private final List<String> serverIds = new ArrayList<>();
+        private final List<String> playerIds = new ArrayList<>();
+
+        public List<String> getServerIds() {
+            return serverIds;
+        }
+
+        public List<String> getPlayerIds() {
+            return playerIds;
+        }
+
+        public boolean isEmpty() {
+            return serverIds.isEmpty() && playerIds.isEmpty();
+        }
+    }
+
+    private enum ExpiryType {
+        SERVER,
+        PLAYER
+    }
+
+    private static class Expiry {
+        private final ExpiryType type;
+        private final String id;
+        private volatile long deadline;
+
+        private Expiry(ExpiryType type, String id, long deadline) {
+            this.type = type;
+            this.id = id;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package de.opengamebackend.matchmaking.expiry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for scheduling large numbers of deadlines with O(1) insertion and O(1) amortized
+ * expiration per item.
+ *
+ * <p>The lowest level has {@code wheelSize} slots of {@code tickMillis} each. Every higher level has the same number
+ * of slots, each spanning a whole revolution of the level below. Items far in the future are stored in a coarse slot
+ * first and cascade down to finer levels as time advances.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+public class HierarchicalTimingWheel<T> {
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+    private final ArrayDeque<Entry<T>> due = new ArrayDeque<>();
+
+    private long currentTime;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive.");
+        }
+
+        if (wheelSize < 2) {
+            throw new IllegalArgumentException("wheelSize must be at least 2.");
+        }
+
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMillis - startMillis % tickMillis;
+
+        levels.add(new Level<>(tickMillis, wheelSize));
+    }
+
+    /**
+     * Time up to which the wheel has been advanced, truncated to the tick duration.
+     */
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules the passed item to expire at the specified time.
+     */
+    public void schedule(T item, long deadlineMillis) {
+        insert(new Entry<>(item, deadlineMillis));
+        ++size;
+    }
+
+    /**
+     * Advances the wheel to the specified time, passing all items whose deadline has passed to the consumer.
+     *
+     * @return Number of expired items.
+     */
+    public int advance(long nowMillis, Consumer<T> onExpired) {
+        int expired = drainDue(onExpired);
+
+        while (currentTime + tickMillis <= nowMillis) {
+            // Expire all items of the current lowest-level slot.
+            Level<T> lowest = levels.get(0);
+            ArrayDeque<Entry<T>> slot = lowest.slotFor(currentTime);
+
+            if (slot != null) {
+                expired += drain(slot, onExpired);
+            }
+
+            currentTime += tickMillis;
+
+            // Cascade items of higher levels whose slot has just begun.
+            for (int i = levels.size() - 1; i > 0; --i) {
+                Level<T> level = levels.get(i);
+
+                if (currentTime % level.tickMillis != 0) {
+                    continue;
+                }
+
+                ArrayDeque<Entry<T>> coarseSlot = level.slotFor(currentTime);
+
+                if (coarseSlot == null) {
+                    continue;
+                }
+
+                while (!coarseSlot.isEmpty()) {
+                    insert(coarseSlot.poll());
+                }
+            }
+
+            expired += drainDue(onExpired);
+        }
+
+        return expired;
+    }
+
+    private void insert(Entry<T> entry) {
+        if (entry.deadline < currentTime) {
+            due.add(entry);
+            return;
+        }
+
+        for (int i = 0; ; ++i) {
+            if (i == levels.size()) {
+                long tick = levels.get(i - 1).tickMillis * wheelSize;
+                levels.add(new Level<>(tick, wheelSize));
+            }
+
+            Level<T> level = levels.get(i);
+            long levelStart = currentTime - currentTime % level.tickMillis;
+
+            if (entry.deadline < levelStart + level.tickMillis * wheelSize) {
+                level.add(entry);
+                return;
+            }
+        }
+    }
+
+    private int drainDue(Consumer<T> onExpired) {
+        return drain(due, onExpired);
+    }
+
+    private int drain(ArrayDeque<Entry<T>> entries, Consumer<T> onExpired) {
+        int drained = 0;
+
+        while (!entries.isEmpty()) {
+            Entry<T> entry = entries.poll();
+            --size;
+            ++drained;
+            onExpired.accept(entry.item);
+        }
+
+        return drained;
+    }
+
+    private static class Level<T> {
+        private final long tickMillis;
+        private final ArrayDeque<Entry<T>>[] slots;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMillis, int wheelSize) {
+            this.tickMillis = tickMillis;
+            this.slots = new ArrayDeque[wheelSize];
+        }
+
+        private void add(Entry<T> entry) {
+            int index = indexFor(entry.deadline);
+
+            if (slots[index] == null) {
+                slots[index] = new ArrayDeque<>();
+            }
+
+            slots[index].add(entry);
+        }
+
+        private ArrayDeque<Entry<T>> slotFor(long time) {
+            return slots[indexFor(time)];
+        }
+
+        private int indexFor(long time) {
+            return (int) ((time / tickMillis) % slots.length);
+        }
+    }
+
+    private static class Entry<T> {
+        private final T item;
+        private final long deadline;
+
+        private Entry(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.opengamebackend.matchmaking.expiry;
+
+/**
+ * Number of rows affected by a single sweep of the database for expired servers and players.
+ */
+public class SweepResult {
+    public static final SweepResult EMPTY = new SweepResult(0, 0, 0, 0);
+
+    private final int deletedServers;
+    private final int deletedPlayers;
+    private final int releasedPlayers;
+    private final long durationMillis;
+
+    public SweepResult(int deletedServers, int deletedPlayers, int releasedPlayers, long durationMillis) {
+        this.deletedServers = deletedServers;
+        this.deletedPlayers = deletedPlayers;
+        this.releasedPlayers = releasedPlayers;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Gets the number of deleted servers whose heartbeat deadline has passed.
+     */
+    public int getDeletedServers() {
+        return deletedServers;
+    }
+
+    /**
+     * Gets the number of players deleted along with their expired servers.
+     */
+    public int getDeletedPlayers() {
+        return deletedPlayers;
+    }
+
+    /**
+     * Gets the number of matched players deleted because their join deadline has passed.
+     */
+    public int getReleasedPlayers() {
+        return releasedPlayers;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+}
@@ -0,0 +1,97 @@
+package de.opengamebackend.matchmaking.heartbeats;
+
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collects the latest heartbeat of each game server in memory, and writes them to the database in periodic
+ * batches.
+ *
+ * <p>Heartbeats stay visible through {@link #getLastHeartbeat(String, OffsetDateTime)} until they have been written,
+ * so expiry checks never see an older heartbeat than the one that has been received.</p>
+ */
+@Component
+public class HeartbeatAccumulator {
+    public static final int BATCH_SIZE = 500;
+
+    private static final String UPDATE_SQL =
+            "UPDATE matchmaking_gameserver SET last_heartbeat = ? WHERE id = ? AND last_heartbeat < ?";
+
+    private final ConcurrentMap<String, OffsetDateTime> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public HeartbeatAccumulator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records a heartbeat of the specified server, to be written with the next flush.
+     */
+    public void record(String serverId, OffsetDateTime heartbeat) {
+        pending.merge(serverId, heartbeat, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    /**
+     * Drops any pending heartbeat of the specified server, e.g. because it has been removed.
+     */
+    public void remove(String serverId) {
+        pending.remove(serverId);
+    }
+
+    /**
+     * Gets the latest heartbeat of the specified server, taking into account heartbeats that haven't been written
+     * yet.
+     */
+    public OffsetDateTime getLastHeartbeat(String serverId, OffsetDateTime persistedHeartbeat) {
+        OffsetDateTime pendingHeartbeat = pending.get(serverId);
+
+        if (pendingHeartbeat == null || persistedHeartbeat == null) {
+            return pendingHeartbeat != null ? pendingHeartbeat : persistedHeartbeat;
+        }
+
+        return pendingHeartbeat.isAfter(persistedHeartbeat) ? pendingHeartbeat : persistedHeartbeat;
+    }
+
+    /**
+     * Writes all pending heartbeats to the database.
+     */
+    @Scheduled(fixedDelayString = MatchmakingConfig.HEARTBEAT_FLUSH_MILLIS_PROPERTY)
+    public synchronized void flush() {
+        List<Map.Entry<String, OffsetDateTime>> heartbeats = new ArrayList<>(pending.entrySet());
+
+        if (heartbeats.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_SQL, heartbeats, BATCH_SIZE, (ps, heartbeat) -> {
+            Timestamp timestamp = Timestamp.from(heartbeat.getValue().toInstant());
+
+            ps.setTimestamp(1, timestamp);
+            ps.setString(2, heartbeat.getKey());
+            ps.setTimestamp(3, timestamp);
+        });
+
+        // Keep heartbeats that have been received while writing.
+        for (Map.Entry<String, OffsetDateTime> heartbeat : heartbeats) {
+            pending.remove(heartbeat.getKey(), heartbeat.getValue());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,196 @@
+package de.opengamebackend.matchmaking.heartbeats;
+
+import de.opengamebackend.matchmaking.model.ServerStatus;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Fixed-layout heartbeat datagram, authenticated by an HMAC-SHA256 with a shared secret.
+ *
+ * <pre>
+ * Offset  Length  Field
+ *      0       1  Version
+ *      1       1  Flags (bit 0: status present, bit 1: player count hint present)
+ *      2       1  Status (ordinal of {@link ServerStatus})
+ *      3       1  Reserved
+ *      4       2  Player count hint
+ *      6       8  Timestamp (milliseconds since epoch)
+ *     14      36  Server ID (ASCII)
+ *     50      32  HMAC-SHA256 of bytes 0-49
+ * </pre>
+ *
+ * <p>All multi-byte fields are big-endian. A single instance is reused for decoding any number of datagrams without
+ * allocating memory, and thus isn't thread-safe.</p>
+ */
+public class HeartbeatDatagram {
+    public static final int VERSION = 1;
+    public static final int FLAG_STATUS = 1;
+    public static final int FLAG_PLAYER_COUNT_HINT = 2;
+
+    public static final int SERVER_ID_LENGTH = 36;
+    public static final int PAYLOAD_LENGTH = 14 + SERVER_ID_LENGTH;
+    public static final int MAC_LENGTH = 32;
+    public static final int LENGTH = PAYLOAD_LENGTH + MAC_LENGTH;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final ServerStatus[] STATUSES = ServerStatus.values();
+
+    private final Mac mac;
+    private final byte[] expectedMac = new byte[MAC_LENGTH];
+    private final byte[] receivedMac = new byte[MAC_LENGTH];
+    private final byte[] serverId = new byte[SERVER_ID_LENGTH];
+
+    private ServerStatus status;
+    private int playerCountHint;
+    private long timestampMillis;
+
+    public HeartbeatDatagram(byte[] secret) {
+        this.mac = createMac(secret);
+    }
+
+    /**
+     * Authenticates and reads the datagram between the position and the limit of the passed buffer.
+     *
+     * @return Whether the datagram is valid. All getters are undefined if not.
+     */
+    public boolean decode(ByteBuffer buffer) {
+        if (buffer.remaining() != LENGTH) {
+            return false;
+        }
+
+        int start = buffer.position();
+        int limit = buffer.limit();
+
+        // Authenticate.
+        buffer.limit(start + PAYLOAD_LENGTH);
+        mac.update(buffer);
+        buffer.limit(limit);
+
+        try {
+            mac.doFinal(expectedMac, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+
+        buffer.get(receivedMac);
+
+        if (!isEqual(expectedMac, receivedMac)) {
+            return false;
+        }
+
+        // Read payload.
+        buffer.position(start);
+
+        int version = buffer.get() & 0xFF;
+        int flags = buffer.get() & 0xFF;
+        int statusOrdinal = buffer.get() & 0xFF;
+        buffer.get();
+        int playerCount = buffer.getShort() & 0xFFFF;
+        timestampMillis = buffer.getLong();
+        buffer.get(serverId);
+        buffer.position(limit);
+
+        if (version != VERSION) {
+            return false;
+        }
+
+        if ((flags & FLAG_STATUS) != 0) {
+            if (statusOrdinal >= STATUSES.length) {
+                return false;
+            }
+
+            status = STATUSES[statusOrdinal];
+        } else {
+            status = null;
+        }
+
+        playerCountHint = (flags & FLAG_PLAYER_COUNT_HINT) != 0 ? playerCount : -1;
+        return true;
+    }
+
+    /**
+     * Gets the ASCII bytes of the ID of the server that has sent the last decoded datagram. The returned array is
+     * overwritten by the next call to {@link #decode(ByteBuffer)}.
+     */
+    public byte[] getServerId() {
+        return serverId;
+    }
+
+    /**
+     * Gets the new status of the server, or null if the status hasn't changed.
+     */
+    public ServerStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the number of players the server reports to be connected, or -1 if not reported.
+     */
+    public int getPlayerCountHint() {
+        return playerCountHint;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Creates a new signed heartbeat datagram, e.g. for sending it to the listener.
+     *
+     * @param status New status of the server, or null if the status hasn't changed.
+     * @param playerCountHint Number of players connected to the server, or -1 if not reported.
+     */
+    public static ByteBuffer encode(String serverId, ServerStatus status, int playerCountHint, long timestampMillis,
+                                    byte[] secret) {
+        byte[] serverIdBytes = serverId.getBytes(StandardCharsets.US_ASCII);
+
+        if (serverIdBytes.length != SERVER_ID_LENGTH) {
+            throw new IllegalArgumentException("Server ID must be " + SERVER_ID_LENGTH + " characters long.");
+        }
+
+        int flags = (status != null ? FLAG_STATUS : 0) | (playerCountHint >= 0 ? FLAG_PLAYER_COUNT_HINT : 0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) flags);
+        buffer.put((byte) (status != null ? status.ordinal() : 0));
+        buffer.put((byte) 0);
+        buffer.putShort((short) Math.max(0, playerCountHint));
+        buffer.putLong(timestampMillis);
+        buffer.put(serverIdBytes);
+
+        Mac mac = createMac(secret);
+        mac.update(buffer.array(), 0, PAYLOAD_LENGTH);
+        buffer.put(mac.doFinal());
+
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Mac createMac(byte[] secret) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, MAC_ALGORITHM));
+            return mac;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isEqual(byte[] a, byte[] b) {
+        // Constant time, for not leaking how many bytes of a forged MAC are correct.
+        int result = 0;
+
+        for (int i = 0; i < a.length; ++i) {
+            result |= a[i] ^ b[i];
+        }
+
+        return result == 0;
+    }
+}
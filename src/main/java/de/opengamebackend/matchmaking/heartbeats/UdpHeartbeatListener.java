@@ -0,0 +1,424 @@
+package de.opengamebackend.matchmaking.heartbeats;
+
+import com.google.common.base.Strings;
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import de.opengamebackend.matchmaking.controller.MatchmakingDispatcher;
+import de.opengamebackend.matchmaking.controller.MatchmakingService;
+import de.opengamebackend.matchmaking.expiry.ExpiryReaper;
+import de.opengamebackend.matchmaking.matching.OpenServerIndex;
+import de.opengamebackend.matchmaking.model.ServerStatus;
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import de.opengamebackend.matchmaking.model.repositories.GameServerRepository;
+import de.opengamebackend.matchmaking.model.requests.ServerSetStatusRequest;
+import de.opengamebackend.net.ApiException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Receives server heartbeats as {@link HeartbeatDatagram UDP datagrams}, as a cheaper alternative to
+ * <code>/server/sendHeartbeat</code>.
+ *
+ * <p>All datagrams are received and processed on a single thread with reused buffers. Heartbeats of known servers
+ * are recorded without allocating memory, apart from a single timestamp for all datagrams received at once.</p>
+ *
+ * <p>The receiving thread never blocks on the database. Servers that haven't been indexed by this instance are looked
+ * up, and status changes are applied, by the task executor. At most {@value #MAX_PENDING_TASKS} of these tasks are
+ * pending at any time; datagrams requiring more are dropped. Server IDs that couldn't be found are remembered for
+ * {@value #UNKNOWN_SERVER_TTL_MILLIS} ms, and their datagrams are dropped without looking them up again.</p>
+ *
+ * <p>Datagrams are rejected unless their timestamp is later than the one of the last datagram accepted from the same
+ * server, so captured datagrams can't be replayed.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "de.opengamebackend.matchmaking", name = "udp-heartbeat-enabled", havingValue = "true")
+public class UdpHeartbeatListener {
+    public static final long MAX_CLOCK_SKEW_MILLIS = 30000;
+    public static final int MAX_CACHED_SERVER_IDS = 100000;
+    public static final int MAX_PENDING_TASKS = 1000;
+    public static final long UNKNOWN_SERVER_TTL_MILLIS = 10000;
+
+    private final HeartbeatAccumulator heartbeatAccumulator;
+    private final ExpiryReaper expiryReaper;
+    private final OpenServerIndex openServerIndex;
+    private final GameServerRepository gameServerRepository;
+    private final MatchmakingDispatcher matchmakingDispatcher;
+    private final MatchmakingConfig matchmakingConfig;
+    private final TaskExecutor taskExecutor;
+
+    private final HeartbeatDatagram datagram;
+
+    // One byte more than expected, for detecting datagrams that are too long.
+    private final ByteBuffer buffer = ByteBuffer.allocate(HeartbeatDatagram.LENGTH + 1);
+
+    private final Map<ServerIdKey, String> serverIds = new HashMap<>();
+    private final ServerIdKey serverIdProbe = new ServerIdKey(null);
+
+    // Shared with tasks run by the task executor.
+    private final ConcurrentMap<String, AtomicLong> lastTimestamps = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> unknownServerIds = new ConcurrentHashMap<>();
+    private final Set<String> pendingLookups = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, ServerStatus> pendingStatusChanges = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+
+    private DatagramChannel channel;
+    private Selector selector;
+    private Thread thread;
+
+    private volatile boolean running;
+    private final AtomicLong acceptedDatagrams = new AtomicLong();
+    private final AtomicLong rejectedDatagrams = new AtomicLong();
+
+    @Autowired
+    public UdpHeartbeatListener(HeartbeatAccumulator heartbeatAccumulator, ExpiryReaper expiryReaper,
+                                OpenServerIndex openServerIndex, GameServerRepository gameServerRepository,
+                                MatchmakingDispatcher matchmakingDispatcher, MatchmakingConfig matchmakingConfig,
+                                @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                        TaskExecutor taskExecutor) {
+        if (Strings.isNullOrEmpty(matchmakingConfig.getUdpHeartbeatSecret())) {
+            throw new IllegalStateException("UDP heartbeats require a shared secret.");
+        }
+
+        this.heartbeatAccumulator = heartbeatAccumulator;
+        this.expiryReaper = expiryReaper;
+        this.openServerIndex = openServerIndex;
+        this.gameServerRepository = gameServerRepository;
+        this.matchmakingDispatcher = matchmakingDispatcher;
+        this.matchmakingConfig = matchmakingConfig;
+        this.taskExecutor = taskExecutor;
+
+        this.datagram = new HeartbeatDatagram(
+                matchmakingConfig.getUdpHeartbeatSecret().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+
+        selector = Selector.open();
+
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.bind(new InetSocketAddress(matchmakingConfig.getUdpHeartbeatPort()));
+        channel.register(selector, SelectionKey.OP_READ);
+
+        running = true;
+
+        thread = new Thread(this::run, "udp-heartbeat-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws IOException, InterruptedException {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+
+        selector.wakeup();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+
+        channel.close();
+        selector.close();
+    }
+
+    /**
+     * Gets the port the listener has been bound to, e.g. if configured to use an ephemeral port.
+     */
+    public int getLocalPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    public long getAcceptedDatagrams() {
+        return acceptedDatagrams.get();
+    }
+
+    public long getRejectedDatagrams() {
+        return rejectedDatagrams.get();
+    }
+
+    /**
+     * Authenticates the datagram in the passed buffer, and records the heartbeat of the sending server.
+     *
+     * @return Whether the heartbeat has been recorded. Heartbeats of servers that haven't been indexed yet are recorded
+     * later, after the server has been found.
+     */
+    boolean process(ByteBuffer datagramBuffer, long nowMillis, OffsetDateTime now) {
+        if (!datagram.decode(datagramBuffer) ||
+                Math.abs(nowMillis - datagram.getTimestampMillis()) > MAX_CLOCK_SKEW_MILLIS) {
+            rejectedDatagrams.incrementAndGet();
+            return false;
+        }
+
+        String serverId = getServerId(datagram.getServerId());
+        long timestampMillis = datagram.getTimestampMillis();
+        ServerStatus status = datagram.getStatus();
+
+        if (!openServerIndex.contains(serverId)) {
+            lookUpServer(serverId, timestampMillis, status, nowMillis, now);
+            return false;
+        }
+
+        if (!advanceTimestamp(serverId, timestampMillis, nowMillis)) {
+            // Replayed or reordered datagram.
+            rejectedDatagrams.incrementAndGet();
+            return false;
+        }
+
+        accept(serverId, status, nowMillis, now);
+        return true;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+                selector.selectedKeys().clear();
+
+                receiveAll();
+            } catch (ClosedSelectorException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                // Keep listening. A single bad datagram or server must not stop all heartbeats.
+                rejectedDatagrams.incrementAndGet();
+            }
+        }
+    }
+
+    private void receiveAll() throws IOException {
+        long nowMillis = 0;
+        OffsetDateTime now = null;
+
+        while (true) {
+            buffer.clear();
+
+            if (channel.receive(buffer) == null) {
+                return;
+            }
+
+            buffer.flip();
+
+            if (now == null) {
+                nowMillis = System.currentTimeMillis();
+                now = OffsetDateTime.now();
+            }
+
+            process(buffer, nowMillis, now);
+        }
+    }
+
+    private String getServerId(byte[] serverIdBytes) {
+        serverIdProbe.set(serverIdBytes);
+
+        String serverId = serverIds.get(serverIdProbe);
+
+        if (serverId == null) {
+            if (serverIds.size() >= MAX_CACHED_SERVER_IDS) {
+                serverIds.clear();
+            }
+
+            serverId = new String(serverIdBytes, StandardCharsets.US_ASCII);
+            serverIds.put(new ServerIdKey(serverIdBytes.clone()), serverId);
+        }
+
+        return serverId;
+    }
+
+    /**
+     * Atomically advances the last timestamp accepted from the specified server to the passed one, unless the passed
+     * one isn't later. Called from both the receiving thread and lookup tasks.
+     *
+     * @return Whether the timestamp has been advanced.
+     */
+    private boolean advanceTimestamp(String serverId, long timestampMillis, long nowMillis) {
+        AtomicLong lastTimestamp = lastTimestamps.get(serverId);
+
+        if (lastTimestamp == null) {
+            if (lastTimestamps.size() >= MAX_CACHED_SERVER_IDS) {
+                // Timestamps this old are rejected anyway.
+                lastTimestamps.values().removeIf(t -> t.get() < nowMillis - MAX_CLOCK_SKEW_MILLIS);
+            }
+
+            lastTimestamp = lastTimestamps.computeIfAbsent(serverId, k -> new AtomicLong());
+        }
+
+        long lastTimestampMillis;
+
+        do {
+            lastTimestampMillis = lastTimestamp.get();
+
+            if (timestampMillis <= lastTimestampMillis) {
+                return false;
+            }
+        } while (!lastTimestamp.compareAndSet(lastTimestampMillis, timestampMillis));
+
+        return true;
+    }
+
+    private void accept(String serverId, ServerStatus status, long nowMillis, OffsetDateTime now) {
+        heartbeatAccumulator.record(serverId, now);
+        expiryReaper.extendServer(serverId,
+                nowMillis + TimeUnit.SECONDS.toMillis(MatchmakingService.SERVER_HEARTBEAT_TIMEOUT_SECONDS));
+
+        // The player count hint isn't applied: Player counts are owned by slot reservations.
+        if (status != null && status != openServerIndex.getStatus(serverId)) {
+            setStatus(serverId, status);
+        }
+
+        acceptedDatagrams.incrementAndGet();
+    }
+
+    private void lookUpServer(String serverId, long timestampMillis, ServerStatus status, long nowMillis,
+                              OffsetDateTime now) {
+        Long unknownUntil = unknownServerIds.get(serverId);
+
+        if (unknownUntil != null) {
+            if (nowMillis < unknownUntil) {
+                rejectedDatagrams.incrementAndGet();
+                return;
+            }
+
+            unknownServerIds.remove(serverId, unknownUntil);
+        }
+
+        // Server might have been registered with another instance.
+        if (!pendingLookups.add(serverId)) {
+            // Already looking it up. The next heartbeat will be recorded.
+            rejectedDatagrams.incrementAndGet();
+            return;
+        }
+
+        boolean submitted = submit(() -> {
+            try {
+                Optional<GameServer> gameServer = gameServerRepository.findById(serverId);
+
+                if (!gameServer.isPresent()) {
+                    if (unknownServerIds.size() >= MAX_CACHED_SERVER_IDS) {
+                        unknownServerIds.clear();
+                    }
+
+                    unknownServerIds.put(serverId, nowMillis + UNKNOWN_SERVER_TTL_MILLIS);
+                    rejectedDatagrams.incrementAndGet();
+                    return;
+                }
+
+                openServerIndex.put(gameServer.get());
+
+                // The datagram might have been accepted before, while the server was indexed.
+                if (!advanceTimestamp(serverId, timestampMillis, nowMillis)) {
+                    rejectedDatagrams.incrementAndGet();
+                    return;
+                }
+
+                accept(serverId, status, nowMillis, now);
+            } finally {
+                pendingLookups.remove(serverId);
+            }
+        });
+
+        if (!submitted) {
+            pendingLookups.remove(serverId);
+            rejectedDatagrams.incrementAndGet();
+        }
+    }
+
+    private void setStatus(String serverId, ServerStatus status) {
+        // Only apply the latest status if changes are received faster than they can be applied.
+        if (pendingStatusChanges.put(serverId, status) != null) {
+            return;
+        }
+
+        boolean submitted = submit(() -> {
+            ServerStatus latestStatus = pendingStatusChanges.remove(serverId);
+
+            try {
+                matchmakingDispatcher.setStatus(new ServerSetStatusRequest(serverId, latestStatus));
+            } catch (ApiException | RuntimeException e) {
+                // Server has been removed in the meantime, or is busy. The next heartbeat will retry.
+            }
+        });
+
+        if (!submitted) {
+            pendingStatusChanges.remove(serverId);
+        }
+    }
+
+    private boolean submit(Runnable task) {
+        if (pendingTasks.incrementAndGet() > MAX_PENDING_TASKS) {
+            pendingTasks.decrementAndGet();
+            return false;
+        }
+
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    pendingTasks.decrementAndGet();
+                }
+            });
+
+            return true;
+        } catch (RuntimeException e) {
+            pendingTasks.decrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Allows looking up server IDs by their bytes, without creating a new string for every datagram.
+     */
+    private static final class ServerIdKey {
+        private byte[] bytes;
+        private int hash;
+
+        private ServerIdKey(byte[] bytes) {
+            set(bytes);
+        }
+
+        private void set(byte[] bytes) {
+            this.bytes = bytes;
+            this.hash = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ServerIdKey && Arrays.equals(bytes, ((ServerIdKey) o).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
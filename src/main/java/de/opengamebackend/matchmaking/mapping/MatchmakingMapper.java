@@ -0,0 +1,56 @@
+package de.opengamebackend.matchmaking.mapping;
+
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import de.opengamebackend.matchmaking.model.entities.Player;
+import de.opengamebackend.matchmaking.model.repositories.GameServerSummary;
+import de.opengamebackend.matchmaking.model.repositories.PlayerSummary;
+import de.opengamebackend.matchmaking.model.requests.ClientEnqueueRequest;
+import de.opengamebackend.matchmaking.model.requests.ServerRegisterRequest;
+import de.opengamebackend.matchmaking.model.responses.GetQueueResponsePlayer;
+import de.opengamebackend.matchmaking.model.responses.GetServersResponseServer;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Copies properties between requests, entities and responses.
+ *
+ * <p>Written by hand instead of resolving properties by reflection on every call, because registering servers,
+ * enqueueing players and listing servers and players are executed very frequently.</p>
+ */
+@Component
+public class MatchmakingMapper {
+    /**
+     * Copies the properties of the passed registration request to the specified server.
+     */
+    public void map(ServerRegisterRequest request, GameServer gameServer) {
+        gameServer.setVersion(request.getVersion());
+        gameServer.setGameMode(request.getGameMode());
+        gameServer.setRegion(request.getRegion());
+        gameServer.setIpV4Address(request.getIpV4Address());
+        gameServer.setPort(request.getPort());
+        gameServer.setMaxPlayers(request.getMaxPlayers());
+    }
+
+    /**
+     * Copies the properties of the passed enqueue request to the specified player.
+     */
+    public void map(ClientEnqueueRequest request, Player player) {
+        player.setVersion(request.getVersion());
+        player.setGameMode(request.getGameMode());
+        player.setRegion(request.getRegion());
+    }
+
+    public GetQueueResponsePlayer toQueueResponsePlayer(PlayerSummary player) {
+        return new GetQueueResponsePlayer(player.getId(), player.getVersion(), player.getGameMode(),
+                player.getRegion(), player.getStatus(), player.getGameServerId());
+    }
+
+    public GetServersResponseServer toServersResponseServer(GameServerSummary server, OffsetDateTime lastHeartbeat,
+                                                            List<String> playerIds) {
+        return new GetServersResponseServer(server.getId(), server.getVersion(), server.getGameMode(),
+                server.getRegion(), server.getIpV4Address(), server.getPort(), server.getMaxPlayers(),
+                lastHeartbeat, server.getStatus(), playerIds);
+    }
+}
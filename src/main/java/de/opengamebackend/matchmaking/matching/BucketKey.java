@@ -0,0 +1,77 @@
+package de.opengamebackend.matchmaking.matching;
+
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import de.opengamebackend.matchmaking.model.entities.Player;
+import de.opengamebackend.matchmaking.model.repositories.GameServerKey;
+import de.opengamebackend.matchmaking.model.repositories.PlayerKey;
+
+import java.util.Objects;
+
+/**
+ * Identifies a set of game servers and players that can be matched with each other.
+ */
+public final class BucketKey {
+    private final String version;
+    private final String gameMode;
+    private final String region;
+
+    public BucketKey(String version, String gameMode, String region) {
+        this.version = version;
+        this.gameMode = gameMode;
+        this.region = region;
+    }
+
+    public static BucketKey of(GameServer gameServer) {
+        return new BucketKey(gameServer.getVersion(), gameServer.getGameMode(), gameServer.getRegion());
+    }
+
+    public static BucketKey of(Player player) {
+        return new BucketKey(player.getVersion(), player.getGameMode(), player.getRegion());
+    }
+
+    public static BucketKey of(GameServerKey gameServer) {
+        return new BucketKey(gameServer.getVersion(), gameServer.getGameMode(), gameServer.getRegion());
+    }
+
+    public static BucketKey of(PlayerKey player) {
+        return new BucketKey(player.getVersion(), player.getGameMode(), player.getRegion());
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getGameMode() {
+        return gameMode;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        BucketKey other = (BucketKey) o;
+        return Objects.equals(version, other.version) &&
+                Objects.equals(gameMode, other.gameMode) &&
+                Objects.equals(region, other.region);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, gameMode, region);
+    }
+
+    @Override
+    public String toString() {
+        return version + "/" + gameMode + "/" + region;
+    }
+}
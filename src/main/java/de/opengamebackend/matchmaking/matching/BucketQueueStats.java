@@ -0,0 +1,47 @@
+package de.opengamebackend.matchmaking.matching;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Number of players in each state for a single bucket, as tracked by the {@link QueueStats}.
+ */
+public class BucketQueueStats {
+    private final BucketKey bucketKey;
+    private final int queuedPlayers;
+    private final int matchedPlayers;
+    private final int joinedPlayers;
+    private final OffsetDateTime oldestQueuedTime;
+
+    public BucketQueueStats(BucketKey bucketKey, int queuedPlayers, int matchedPlayers, int joinedPlayers,
+                            OffsetDateTime oldestQueuedTime) {
+        this.bucketKey = bucketKey;
+        this.queuedPlayers = queuedPlayers;
+        this.matchedPlayers = matchedPlayers;
+        this.joinedPlayers = joinedPlayers;
+        this.oldestQueuedTime = oldestQueuedTime;
+    }
+
+    public BucketKey getBucketKey() {
+        return bucketKey;
+    }
+
+    public int getQueuedPlayers() {
+        return queuedPlayers;
+    }
+
+    public int getMatchedPlayers() {
+        return matchedPlayers;
+    }
+
+    public int getJoinedPlayers() {
+        return joinedPlayers;
+    }
+
+    /**
+     * Gets the time the player waiting the longest in this bucket has been enqueued at, or null if no players are
+     * queued.
+     */
+    public OffsetDateTime getOldestQueuedTime() {
+        return oldestQueuedTime;
+    }
+}
@@ -0,0 +1,34 @@
+package de.opengamebackend.matchmaking.matching;
+
+/**
+ * Outcome of the most recent matchmaking tick for a single bucket.
+ */
+public class BucketSolveStats {
+    private final BucketKey bucketKey;
+    private final int queuedPlayers;
+    private final int allocatedPlayers;
+    private final long solveNanos;
+
+    public BucketSolveStats(BucketKey bucketKey, int queuedPlayers, int allocatedPlayers, long solveNanos) {
+        this.bucketKey = bucketKey;
+        this.queuedPlayers = queuedPlayers;
+        this.allocatedPlayers = allocatedPlayers;
+        this.solveNanos = solveNanos;
+    }
+
+    public BucketKey getBucketKey() {
+        return bucketKey;
+    }
+
+    public int getQueuedPlayers() {
+        return queuedPlayers;
+    }
+
+    public int getAllocatedPlayers() {
+        return allocatedPlayers;
+    }
+
+    public long getSolveNanos() {
+        return solveNanos;
+    }
+}
@@ -0,0 +1,320 @@
+package de.opengamebackend.matchmaking.matching;
+
+import de.opengamebackend.matchmaking.model.ServerStatus;
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of all registered game servers, grouped by bucket, allowing to find an open server for a player
+ * without scanning the whole server table.
+ *
+ * <p>Buckets only exist while servers are indexed for them. Rescan times are kept separately, because they're
+ * remembered for any bucket players have been queued for, and are forgotten once the rescan interval has passed.</p>
+ */
+@Component
+public class OpenServerIndex {
+    private final ConcurrentMap<String, IndexedServer> servers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<BucketKey, Long> lastRescanMillis = new ConcurrentHashMap<>();
+    private final AtomicLong lastRescanPruneMillis = new AtomicLong();
+
+    /**
+     * Clears the index and adds all passed servers.
+     */
+    public void rebuild(Iterable<GameServer> gameServers) {
+        servers.clear();
+        buckets.clear();
+        lastRescanMillis.clear();
+
+        for (GameServer gameServer : gameServers) {
+            put(gameServer);
+        }
+    }
+
+    /**
+     * Adds the passed server to the index, or updates it if it's already indexed.
+     */
+    public void put(GameServer gameServer) {
+        if (gameServer.getId() == null) {
+            return;
+        }
+
+        remove(gameServer.getId());
+
+        IndexedServer server = new IndexedServer(gameServer.getId(), BucketKey.of(gameServer),
+                gameServer.getStatus(), gameServer.getMaxPlayers(), gameServer.getPlayerCount());
+
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(server.bucketKey, k -> new Bucket());
+
+            synchronized (bucket) {
+                // Bucket might have been removed after its last server, while we were waiting for it.
+                if (bucket.removed) {
+                    continue;
+                }
+
+                servers.put(server.id, server);
+                bucket.add(server);
+                ++bucket.serverCount;
+                return;
+            }
+        }
+    }
+
+    public void remove(String serverId) {
+        IndexedServer server = get(serverId);
+
+        if (server == null) {
+            return;
+        }
+
+        Bucket bucket = buckets.get(server.bucketKey);
+
+        if (bucket == null) {
+            servers.remove(serverId, server);
+            return;
+        }
+
+        synchronized (bucket) {
+            if (servers.remove(serverId, server)) {
+                --bucket.serverCount;
+            }
+
+            bucket.remove(server);
+
+            if (bucket.serverCount == 0 && !bucket.removed) {
+                bucket.removed = true;
+                buckets.remove(server.bucketKey, bucket);
+            }
+        }
+    }
+
+    public boolean contains(String serverId) {
+        return get(serverId) != null;
+    }
+
+    public void setStatus(String serverId, ServerStatus status) {
+        IndexedServer server = get(serverId);
+
+        if (server == null) {
+            return;
+        }
+
+        Bucket bucket = buckets.get(server.bucketKey);
+
+        if (bucket == null) {
+            return;
+        }
+
+        synchronized (bucket) {
+            bucket.remove(server);
+            server.status = status;
+            bucket.add(server);
+        }
+    }
+
+    /**
+     * Finds the open server with the fewest players in the specified bucket, and reserves a slot on that server.
+     *
+     * @return ID of the server the slot has been reserved on, or null if all servers in the bucket are full.
+     */
+    public String reserveSlot(BucketKey bucketKey) {
+        Bucket bucket = buckets.get(bucketKey);
+
+        if (bucket == null) {
+            return null;
+        }
+
+        synchronized (bucket) {
+            IndexedServer server = bucket.pollFirst();
+
+            if (server == null) {
+                return null;
+            }
+
+            ++server.playerCount;
+            bucket.add(server);
+            return server.id;
+        }
+    }
+
+    /**
+     * Frees a slot previously reserved on the specified server.
+     */
+    public void releaseSlot(String serverId) {
+        IndexedServer server = get(serverId);
+
+        if (server == null) {
+            return;
+        }
+
+        Bucket bucket = buckets.get(server.bucketKey);
+
+        if (bucket == null) {
+            return;
+        }
+
+        synchronized (bucket) {
+            bucket.remove(server);
+            server.playerCount = Math.max(0, server.playerCount - 1);
+            bucket.add(server);
+        }
+    }
+
+    /**
+     * Gets the bucket of the specified server, or null if it's not indexed.
+     */
+    public BucketKey getBucketKey(String serverId) {
+        IndexedServer server = get(serverId);
+        return server != null ? server.bucketKey : null;
+    }
+
+    /**
+     * Gets the status of the specified server, or null if it's not indexed.
+     */
+    public ServerStatus getStatus(String serverId) {
+        IndexedServer server = get(serverId);
+        return server != null ? server.status : null;
+    }
+
+    /**
+     * Gets the total number of free slots on all open servers in the specified bucket.
+     */
+    public int getOpenSlots(BucketKey bucketKey) {
+        Bucket bucket = buckets.get(bucketKey);
+
+        if (bucket == null) {
+            return 0;
+        }
+
+        synchronized (bucket) {
+            return bucket.openSlots;
+        }
+    }
+
+    /**
+     * Checks whether any servers have been indexed for the specified bucket, regardless of their status.
+     */
+    public boolean hasServers(BucketKey bucketKey) {
+        Bucket bucket = buckets.get(bucketKey);
+
+        if (bucket == null) {
+            return false;
+        }
+
+        synchronized (bucket) {
+            return bucket.serverCount > 0;
+        }
+    }
+
+    /**
+     * Checks whether the database should be searched for open servers of the specified bucket, because it hasn't been
+     * searched within the passed interval. Remembers the time of the search if so.
+     */
+    public boolean tryStartRescan(BucketKey bucketKey, long nowMillis, long intervalMillis) {
+        pruneRescans(nowMillis, intervalMillis);
+
+        boolean[] started = new boolean[1];
+
+        lastRescanMillis.compute(bucketKey, (k, lastMillis) -> {
+            if (lastMillis != null && nowMillis - lastMillis < intervalMillis) {
+                return lastMillis;
+            }
+
+            started[0] = true;
+            return nowMillis;
+        });
+
+        return started[0];
+    }
+
+    /**
+     * Gets all buckets servers are currently indexed for.
+     */
+    public Collection<BucketKey> getBucketKeys() {
+        return new ArrayList<>(buckets.keySet());
+    }
+
+    private IndexedServer get(String serverId) {
+        return serverId != null ? servers.get(serverId) : null;
+    }
+
+    private void pruneRescans(long nowMillis, long intervalMillis) {
+        // Forget rescans whose interval has passed at most once per interval, for not iterating them on every call.
+        long lastPruneMillis = lastRescanPruneMillis.get();
+
+        if (nowMillis - lastPruneMillis < intervalMillis ||
+                !lastRescanPruneMillis.compareAndSet(lastPruneMillis, nowMillis)) {
+            return;
+        }
+
+        lastRescanMillis.values().removeIf(lastMillis -> nowMillis - lastMillis >= intervalMillis);
+    }
+
+    private static class IndexedServer {
+        private final String id;
+        private final BucketKey bucketKey;
+        private final int maxPlayers;
+
+        private ServerStatus status;
+        private int playerCount;
+
+        private IndexedServer(String id, BucketKey bucketKey, ServerStatus status, int maxPlayers, int playerCount) {
+            this.id = id;
+            this.bucketKey = bucketKey;
+            this.status = status;
+            this.maxPlayers = maxPlayers;
+            this.playerCount = playerCount;
+        }
+
+        private boolean isOpen() {
+            return status == ServerStatus.OPEN && playerCount < maxPlayers;
+        }
+
+        private int getFreeSlots() {
+            return maxPlayers - playerCount;
+        }
+    }
+
+    private static class Bucket {
+        // Fill up servers as quickly as possible.
+        private final TreeSet<IndexedServer> openServers = new TreeSet<>(Comparator
+                .comparingInt((IndexedServer s) -> s.playerCount)
+                .thenComparing(s -> s.id));
+
+        // Kept up to date with the open servers, for not having to sum up their slots on every read.
+        private int openSlots;
+        private int serverCount;
+        private boolean removed;
+
+        private void add(IndexedServer server) {
+            if (server.isOpen() && openServers.add(server)) {
+                openSlots += server.getFreeSlots();
+            }
+        }
+
+        private void remove(IndexedServer server) {
+            if (openServers.remove(server)) {
+                openSlots -= server.getFreeSlots();
+            }
+        }
+
+        private IndexedServer pollFirst() {
+            IndexedServer server = openServers.pollFirst();
+
+            if (server != null) {
+                openSlots -= server.getFreeSlots();
+            }
+
+            return server;
+        }
+    }
+}
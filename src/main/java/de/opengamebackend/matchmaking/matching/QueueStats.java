@@ -0,0 +1,187 @@
+package de.opengamebackend.matchmaking.matching;
+
+import de.opengamebackend.matchmaking.model.PlayerStatus;
+import de.opengamebackend.matchmaking.model.entities.Player;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * In-memory counters of the players in each state, grouped by bucket, allowing to report queue statistics without
+ * scanning the player table.
+ *
+ * <p>Like the {@link OpenServerIndex}, the counters are rebuilt on startup and updated with every change made by this
+ * instance afterwards. Updates replace the whole tracked state of a player, so applying them more than once is
+ * harmless. Buckets are dropped as soon as their last player has been removed, so the counters don't grow with the
+ * number of buckets ever seen.</p>
+ */
+@Component
+public class QueueStats {
+    private final Map<String, TrackedPlayer> players = new HashMap<>();
+    private final Map<String, Set<String>> playerIdsByServer = new HashMap<>();
+    private final Map<BucketKey, Bucket> buckets = new HashMap<>();
+
+    /**
+     * Clears all counters and adds all passed players.
+     */
+    public synchronized void rebuild(Iterable<Player> allPlayers) {
+        players.clear();
+        playerIdsByServer.clear();
+        buckets.clear();
+
+        // Keep queued players in enqueue order, for finding the one waiting the longest.
+        List<Player> sortedPlayers = new ArrayList<>();
+        allPlayers.forEach(sortedPlayers::add);
+        sortedPlayers.sort(Comparator.comparing(Player::getQueuedTime,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        for (Player player : sortedPlayers) {
+            put(player);
+        }
+    }
+
+    /**
+     * Counts the passed player with its current bucket, status and server, replacing any previous state.
+     */
+    public synchronized void put(Player player) {
+        if (player.getId() == null || player.getStatus() == null) {
+            return;
+        }
+
+        remove(player.getId());
+
+        String serverId = player.getGameServer() != null ? player.getGameServer().getId() : null;
+        TrackedPlayer trackedPlayer = new TrackedPlayer(BucketKey.of(player), player.getStatus(), serverId);
+
+        players.put(player.getId(), trackedPlayer);
+        buckets.computeIfAbsent(trackedPlayer.bucketKey, k -> new Bucket())
+                .add(player.getId(), trackedPlayer.status, player.getQueuedTime());
+
+        if (serverId != null) {
+            playerIdsByServer.computeIfAbsent(serverId, k -> new HashSet<>()).add(player.getId());
+        }
+    }
+
+    public synchronized void remove(String playerId) {
+        TrackedPlayer trackedPlayer = players.remove(playerId);
+
+        if (trackedPlayer == null) {
+            return;
+        }
+
+        Bucket bucket = buckets.get(trackedPlayer.bucketKey);
+        bucket.remove(playerId, trackedPlayer.status);
+
+        if (bucket.isEmpty()) {
+            buckets.remove(trackedPlayer.bucketKey);
+        }
+
+        if (trackedPlayer.serverId != null) {
+            Set<String> serverPlayerIds = playerIdsByServer.get(trackedPlayer.serverId);
+            serverPlayerIds.remove(playerId);
+
+            if (serverPlayerIds.isEmpty()) {
+                playerIdsByServer.remove(trackedPlayer.serverId);
+            }
+        }
+    }
+
+    /**
+     * Removes all players allocated to the specified server, e.g. because the server has been removed.
+     */
+    public synchronized void removeServer(String serverId) {
+        Set<String> serverPlayerIds = playerIdsByServer.get(serverId);
+
+        if (serverPlayerIds == null) {
+            return;
+        }
+
+        for (String playerId : new ArrayList<>(serverPlayerIds)) {
+            remove(playerId);
+        }
+    }
+
+    /**
+     * Gets the bucket of the specified player, or null if the player isn't tracked by this instance.
+     */
+    public synchronized BucketKey getBucketKey(String playerId) {
+        TrackedPlayer trackedPlayer = players.get(playerId);
+        return trackedPlayer != null ? trackedPlayer.bucketKey : null;
+    }
+
+    /**
+     * Gets the counters of all buckets with any players.
+     */
+    public synchronized List<BucketQueueStats> getBuckets() {
+        List<BucketQueueStats> stats = new ArrayList<>();
+
+        for (Map.Entry<BucketKey, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            OffsetDateTime oldestQueuedTime = !bucket.queuedTimes.isEmpty()
+                    ? bucket.queuedTimes.values().iterator().next()
+                    : null;
+
+            stats.add(new BucketQueueStats(entry.getKey(), bucket.queuedTimes.size(), bucket.matchedPlayers,
+                    bucket.joinedPlayers, oldestQueuedTime));
+        }
+
+        return stats;
+    }
+
+    private static class TrackedPlayer {
+        private final BucketKey bucketKey;
+        private final PlayerStatus status;
+        private final String serverId;
+
+        private TrackedPlayer(BucketKey bucketKey, PlayerStatus status, String serverId) {
+            this.bucketKey = bucketKey;
+            this.status = status;
+            this.serverId = serverId;
+        }
+    }
+
+    private static class Bucket {
+        // Queued players in enqueue order.
+        private final LinkedHashMap<String, OffsetDateTime> queuedTimes = new LinkedHashMap<>();
+
+        private int matchedPlayers;
+        private int joinedPlayers;
+
+        private void add(String playerId, PlayerStatus status, OffsetDateTime queuedTime) {
+            switch (status) {
+                case QUEUED:
+                    queuedTimes.put(playerId, queuedTime);
+                    break;
+
+                case MATCHED:
+                    ++matchedPlayers;
+                    break;
+
+                case JOINED:
+                    ++joinedPlayers;
+                    break;
+            }
+        }
+
+        private void remove(String playerId, PlayerStatus status) {
+            switch (status) {
+                case QUEUED:
+                    queuedTimes.remove(playerId);
+                    break;
+
+                case MATCHED:
+                    --matchedPlayers;
+                    break;
+
+                case JOINED:
+                    --joinedPlayers;
+                    break;
+            }
+        }
+
+        private boolean isEmpty() {
+            return queuedTimes.isEmpty() && matchedPlayers == 0 && joinedPlayers == 0;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package de.opengamebackend.matchmaking.matching;
+
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Allocates the queued players of each bucket to open servers, strictly in the order they have been enqueued.
+ *
+ * <p>Buckets are independent of each other. With a tick parallelism greater than 1, they are solved concurrently on a
+ * dedicated {@link ForkJoinPool}, one task per bucket, so idle workers can steal buckets from busy ones, and a few hot
+ * buckets can't hold up all others.</p>
+ */
+@Component
+public class TickMatchmaker {
+    private final OpenServerIndex openServerIndex;
+    private final ForkJoinPool pool;
+    private final ConcurrentMap<BucketKey, BucketSolveStats> stats = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TickMatchmaker(OpenServerIndex openServerIndex, MatchmakingConfig matchmakingConfig) {
+        this.openServerIndex = openServerIndex;
+        this.pool = matchmakingConfig.getTickParallelism() > 1
+                ? new ForkJoinPool(matchmakingConfig.getTickParallelism())
+                : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Reserves slots for the passed queued players.
+     *
+     * @param queues IDs of all queued players, per bucket, in enqueue order.
+     * @return IDs of the servers slots have been reserved on, per player ID, in enqueue order.
+     */
+    public Map<String, String> solve(Map<BucketKey, List<String>> queues) {
+        List<Map.Entry<BucketKey, List<String>>> buckets = new ArrayList<>(queues.entrySet());
+        List<BucketResult> results;
+
+        if (pool != null && buckets.size() > 1) {
+            results = pool.invoke(new SolveTask(buckets, 0, buckets.size()));
+        } else {
+            results = new ArrayList<>();
+
+            for (Map.Entry<BucketKey, List<String>> bucket : buckets) {
+                results.add(solveBucket(bucket.getKey(), bucket.getValue()));
+            }
+        }
+
+        Map<String, String> allocations = new LinkedHashMap<>();
+
+        for (BucketResult result : results) {
+            allocations.putAll(result.allocations);
+            stats.put(result.stats.getBucketKey(), result.stats);
+        }
+
+        return allocations;
+    }
+
+    /**
+     * Outcome of the most recent tick of all buckets that had queued players at some point.
+     */
+    public Collection<BucketSolveStats> getStats() {
+        return stats.values();
+    }
+
+    public int getParallelism() {
+        return pool != null ? pool.getParallelism() : 1;
+    }
+
+    private BucketResult solveBucket(BucketKey bucketKey, List<String> playerIds) {
+        long start = System.nanoTime();
+        Map<String, String> allocations = new LinkedHashMap<>();
+
+        for (String playerId : playerIds) {
+            String serverId = openServerIndex.reserveSlot(bucketKey);
+
+            if (serverId == null) {
+                // All servers full. Remaining players have to wait for the next tick.
+                break;
+            }
+
+            allocations.put(playerId, serverId);
+        }
+
+        long solveNanos = System.nanoTime() - start;
+        return new BucketResult(allocations,
+                new BucketSolveStats(bucketKey, playerIds.size(), allocations.size(), solveNanos));
+    }
+
+    private static class BucketResult {
+        private final Map<String, String> allocations;
+        private final BucketSolveStats stats;
+
+        private BucketResult(Map<String, String> allocations, BucketSolveStats stats) {
+            this.allocations = allocations;
+            this.stats = stats;
+        }
+    }
+
+    private class SolveTask extends RecursiveTask<List<BucketResult>> {
+        private final List<Map.Entry<BucketKey, List<String>>> buckets;
+        private final int from;
+        private final int to;
+
+        private SolveTask(List<Map.Entry<BucketKey, List<String>>> buckets, int from, int to) {
+            this.buckets = buckets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<BucketResult> compute() {
+            if (to - from == 1) {
+                Map.Entry<BucketKey, List<String>> bucket = buckets.get(from);
+                return Collections.singletonList(solveBucket(bucket.getKey(), bucket.getValue()));
+            }
+
+            // Split in halves, keeping results in bucket order.
+            int middle = (from + to) >>> 1;
+
+            SolveTask left = new SolveTask(buckets, from, middle);
+            SolveTask right = new SolveTask(buckets, middle, to);
+
+            left.fork();
+
+            List<BucketResult> results = new ArrayList<>(right.compute());
+            results.addAll(0, left.join());
+            return results;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.opengamebackend.matchmaking.matching;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory index of the tickets of all matched players that haven't joined their server yet, allowing to confirm
+ * joins without scanning the players of the server.
+ *
+ * <p>The index is a cache only: players matched by other instances aren't indexed, and callers have to check that
+ * the indexed player still holds the ticket.</p>
+ */
+@Component
+public class TicketIndex {
+    private final ConcurrentMap<String, String> playerIdsByTicket = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> ticketsByPlayerId = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the specified ticket, replacing any previous ticket of the same player.
+     */
+    public void put(String ticket, String playerId) {
+        if (ticket == null) {
+            return;
+        }
+
+        String previousTicket = ticketsByPlayerId.put(playerId, ticket);
+
+        if (previousTicket != null) {
+            playerIdsByTicket.remove(previousTicket, playerId);
+        }
+
+        playerIdsByTicket.put(ticket, playerId);
+    }
+
+    /**
+     * Gets the id of the player holding the specified ticket, or null if the ticket isn't indexed.
+     */
+    public String getPlayerId(String ticket) {
+        return playerIdsByTicket.get(ticket);
+    }
+
+    /**
+     * Removes the ticket of the specified player, if any.
+     */
+    public void removePlayer(String playerId) {
+        String ticket = ticketsByPlayerId.remove(playerId);
+
+        if (ticket != null) {
+            playerIdsByTicket.remove(ticket, playerId);
+        }
+    }
+
+    public int size() {
+        return playerIdsByTicket.size();
+    }
+}
@@ -1,13 +1,21 @@
 package de.opengamebackend.matchmaking.model.entities;
 
 import de.opengamebackend.matchmaking.model.ServerStatus;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Game server accepting players for matchmaking.
+ *
+ * <p>Updates only write changed columns, for not overwriting heartbeats written by the
+ * {@link de.opengamebackend.matchmaking.heartbeats.HeartbeatAccumulator} in the meantime.</p>
+ */
 @Entity
+@DynamicUpdate
 @Table(name = "matchmaking_gameserver")
 public class GameServer {
     @Id
@@ -34,6 +42,13 @@ public class GameServer {
     @Column(nullable = false)
     private ServerStatus status;
 
+    /**
+     * Number of players allocated to this server. Maintained by conditional updates of the
+     * {@link de.opengamebackend.matchmaking.model.repositories.GameServerRepository} only, never by saving this entity.
+     */
+    @Column(nullable = false, updatable = false)
+    private int playerCount;
+
     @OneToMany(mappedBy="gameServer")
     private List<Player> players;
 
@@ -77,6 +92,10 @@ public class GameServer {
         return status;
     }
 
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
     public void setId(String id) {
         this.id = id;
     }
@@ -113,11 +132,15 @@ public class GameServer {
         this.status = status;
     }
 
+    public void setPlayerCount(int playerCount) {
+        this.playerCount = playerCount;
+    }
+
     public List<Player> getPlayers() {
         return players;
     }
 
     public boolean isFull() {
-        return players.size() >= maxPlayers;
+        return playerCount >= maxPlayers;
     }
 }
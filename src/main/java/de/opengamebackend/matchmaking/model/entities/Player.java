@@ -27,6 +27,7 @@ public class Player {
     private GameServer gameServer;
 
     private String ticket;
+    private OffsetDateTime queuedTime;
     private OffsetDateTime matchedTime;
     private OffsetDateTime joinedTime;
 
@@ -86,6 +87,14 @@ public class Player {
         this.ticket = ticket;
     }
 
+    public OffsetDateTime getQueuedTime() {
+        return queuedTime;
+    }
+
+    public void setQueuedTime(OffsetDateTime queuedTime) {
+        this.queuedTime = queuedTime;
+    }
+
     public OffsetDateTime getMatchedTime() {
         return matchedTime;
     }
@@ -0,0 +1,46 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+import de.opengamebackend.matchmaking.model.ServerStatus;
+
+/**
+ * Criteria game servers have to match for being listed. Properties that are null match all servers.
+ */
+public class GameServerFilter {
+    private final String version;
+    private final String gameMode;
+    private final String region;
+    private final ServerStatus status;
+    private final boolean freeSlotsOnly;
+
+    public GameServerFilter(String version, String gameMode, String region, ServerStatus status,
+                            boolean freeSlotsOnly) {
+        this.version = version;
+        this.gameMode = gameMode;
+        this.region = region;
+        this.status = status;
+        this.freeSlotsOnly = freeSlotsOnly;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getGameMode() {
+        return gameMode;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public ServerStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Whether to only list servers with at least one slot that hasn't been reserved for a player yet.
+     */
+    public boolean isFreeSlotsOnly() {
+        return freeSlotsOnly;
+    }
+}
@@ -0,0 +1,11 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+/**
+ * Projection of a game server to the columns required for identifying it and its bucket.
+ */
+public interface GameServerKey {
+    String getId();
+    String getVersion();
+    String getGameMode();
+    String getRegion();
+}
@@ -1,7 +1,80 @@
 package de.opengamebackend.matchmaking.model.repositories;
 
+import de.opengamebackend.matchmaking.model.PlayerStatus;
+import de.opengamebackend.matchmaking.model.ServerStatus;
 import de.opengamebackend.matchmaking.model.entities.GameServer;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
-public interface GameServerRepository extends CrudRepository<GameServer, String> {
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface GameServerRepository extends CrudRepository<GameServer, String>, GameServerRepositoryCustom {
+    List<GameServer> findByVersionAndGameModeAndRegionAndStatus(String version, String gameMode, String region,
+                                                                ServerStatus status);
+
+    @Query("SELECT s.id FROM GameServer s WHERE s.id IN :ids")
+    List<String> findIdsByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT s.id AS id, s.version AS version, s.gameMode AS gameMode, s.region AS region " +
+            "FROM GameServer s WHERE s.lastHeartbeat < :lastHeartbeat")
+    List<GameServerKey> findKeysByLastHeartbeatBefore(@Param("lastHeartbeat") OffsetDateTime lastHeartbeat);
+
+    @Query("SELECT s.id AS id, s.version AS version, s.gameMode AS gameMode, s.region AS region, " +
+            "s.ipV4Address AS ipV4Address, s.port AS port, s.maxPlayers AS maxPlayers, " +
+            "s.lastHeartbeat AS lastHeartbeat, s.status AS status FROM GameServer s WHERE s.id IN :ids")
+    List<GameServerSummary> findSummariesByIdIn(@Param("ids") Collection<String> ids);
+
+    /**
+     * Atomically reserves the specified number of slots on the specified server, if it has enough free slots.
+     *
+     * @return 1 if the slots have been reserved, 0 otherwise.
+     */
+    @Modifying
+    @Query("UPDATE GameServer s SET s.playerCount = s.playerCount + :count " +
+            "WHERE s.id = :id AND s.playerCount + :count <= s.maxPlayers")
+    int reserveSlots(@Param("id") String id, @Param("count") int count);
+
+    /**
+     * Atomically frees a slot previously reserved on the specified server.
+     *
+     * @return 1 if the slot has been freed, 0 otherwise.
+     */
+    @Modifying
+    @Query("UPDATE GameServer s SET s.playerCount = s.playerCount - 1 WHERE s.id = :id AND s.playerCount > 0")
+    int releaseSlot(@Param("id") String id);
+
+    /**
+     * Frees the slots of all players with the specified status matched before the specified time.
+     *
+     * @return Number of servers slots have been freed on.
+     */
+    @Modifying
+    @Query("UPDATE GameServer s SET s.playerCount = s.playerCount - " +
+            "(SELECT COUNT(p) FROM Player p WHERE p.gameServer.id = s.id " +
+            "AND p.status = :status AND p.matchedTime < :matchedTime) " +
+            "WHERE s.id IN (SELECT p.gameServer.id FROM Player p " +
+            "WHERE p.status = :status AND p.matchedTime < :matchedTime)")
+    int releaseSlotsOfPlayers(@Param("status") PlayerStatus status, @Param("matchedTime") OffsetDateTime matchedTime);
+
+    /**
+     * Deletes all servers whose last heartbeat is older than the specified time, without loading them.
+     *
+     * @return Number of deleted servers.
+     */
+    @Modifying
+    @Query("DELETE FROM GameServer s WHERE s.lastHeartbeat < :lastHeartbeat")
+    int deleteByLastHeartbeatBefore(@Param("lastHeartbeat") OffsetDateTime lastHeartbeat);
+
+    /**
+     * Deletes the specified servers, without loading them.
+     *
+     * @return Number of deleted servers.
+     */
+    @Modifying
+    @Query("DELETE FROM GameServer s WHERE s.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
 }
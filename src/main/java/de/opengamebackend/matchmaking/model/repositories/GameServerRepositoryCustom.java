@@ -0,0 +1,38 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface GameServerRepositoryCustom {
+    /**
+     * Inserts the specified server, or updates the server already registered with the same IPv4 address and port,
+     * in a single statement.
+     *
+     * <p>Afterwards, the id and player count of the passed server match the stored ones. The server isn't attached to
+     * the persistence context.</p>
+     */
+    void upsert(GameServer gameServer);
+
+    /**
+     * Same as {@link #upsert(GameServer)} for all specified servers, sent to the database in JDBC batches.
+     *
+     * <p>The passed servers must have distinct IPv4 address and port combinations.</p>
+     */
+    void upsertAll(Collection<GameServer> gameServers);
+
+    /**
+     * Reloads the state of the specified server from the database, for seeing changes made by bulk updates like
+     * {@link GameServerRepository#reserveSlots(String, int)}, which bypass the persistence context.
+     */
+    void refresh(GameServer gameServer);
+
+    /**
+     * Gets the servers matching the passed filter, ordered by id.
+     *
+     * @param afterId Id of the last server of the previous page, or null for getting the first page.
+     * @param limit Maximum number of servers to get, or 0 for getting all of them.
+     */
+    List<GameServerSummary> findSummaries(GameServerFilter filter, String afterId, int limit);
+}
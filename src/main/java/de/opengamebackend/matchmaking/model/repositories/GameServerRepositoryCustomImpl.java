@@ -0,0 +1,261 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+import de.opengamebackend.matchmaking.model.ServerStatus;
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import org.hibernate.Session;
+import org.hibernate.jpa.TypedParameterValue;
+import org.hibernate.type.OffsetDateTimeType;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class GameServerRepositoryCustomImpl implements GameServerRepositoryCustom {
+    private static final String SELECT_STORED_SQL =
+            "SELECT id, player_count FROM matchmaking_gameserver WHERE ipv4address = ?1 AND port = ?2";
+    private static final String SELECT_STORED_BY_ADDRESSES_SQL =
+            "SELECT id, ipv4address, port, player_count FROM matchmaking_gameserver " +
+            "WHERE ipv4address IN (:ipV4Addresses)";
+    private static final String SELECT_SUMMARIES_JPQL =
+            "SELECT s.id, s.version, s.gameMode, s.region, s.ipV4Address, s.port, s.maxPlayers, s.lastHeartbeat, " +
+            "s.status FROM GameServer s WHERE 1 = 1";
+
+    private static final int UPSERT_BATCH_SIZE = 500;
+
+    private EntityManager entityManager;
+    private UpsertDialect upsertDialect;
+
+    @Autowired
+    public GameServerRepositoryCustomImpl(EntityManager entityManager, DataSource dataSource) {
+        this.entityManager = entityManager;
+        this.upsertDialect = UpsertDialect.of(dataSource);
+    }
+
+    @Override
+    public void upsert(GameServer gameServer) {
+        // Native queries flush pending changes first, so the statement sees servers persisted in this transaction.
+        entityManager.createNativeQuery(upsertDialect.getUpsertGameServerSql())
+                .setParameter(1, gameServer.getId())
+                .setParameter(2, gameServer.getVersion())
+                .setParameter(3, gameServer.getGameMode())
+                .setParameter(4, gameServer.getRegion())
+                .setParameter(5, gameServer.getIpV4Address())
+                .setParameter(6, gameServer.getPort())
+                .setParameter(7, gameServer.getMaxPlayers())
+                .setParameter(8, new TypedParameterValue(OffsetDateTimeType.INSTANCE,
+                        gameServer.getLastHeartbeat()))
+                .setParameter(9, gameServer.getStatus().ordinal())
+                .executeUpdate();
+
+        // Servers that have been registered before keep their id and players.
+        Object[] stored = (Object[]) entityManager.createNativeQuery(SELECT_STORED_SQL)
+                .setParameter(1, gameServer.getIpV4Address())
+                .setParameter(2, gameServer.getPort())
+                .getSingleResult();
+
+        gameServer.setId((String) stored[0]);
+        gameServer.setPlayerCount(((Number) stored[1]).intValue());
+    }
+
+    @Override
+    public void upsertAll(Collection<GameServer> gameServers) {
+        if (gameServers.isEmpty()) {
+            return;
+        }
+
+        // Statements run through the session connection don't flush pending changes on their own.
+        entityManager.flush();
+
+        UpsertDialect.JdbcStatement upsert = upsertDialect.getUpsertGameServerStatement();
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(upsert.getSql())) {
+                int batchSize = 0;
+
+                for (GameServer gameServer : gameServers) {
+                    upsert.bind(statement,
+                            gameServer.getId(),
+                            gameServer.getVersion(),
+                            gameServer.getGameMode(),
+                            gameServer.getRegion(),
+                            gameServer.getIpV4Address(),
+                            gameServer.getPort(),
+                            gameServer.getMaxPlayers(),
+                            gameServer.getLastHeartbeat() != null
+                                    ? Timestamp.from(gameServer.getLastHeartbeat().toInstant())
+                                    : null,
+                            gameServer.getStatus().ordinal());
+                    statement.addBatch();
+
+                    if (++batchSize == UPSERT_BATCH_SIZE) {
+                        statement.executeBatch();
+                        batchSize = 0;
+                    }
+                }
+
+                if (batchSize > 0) {
+                    statement.executeBatch();
+                }
+            }
+        });
+
+        // Servers that have been registered before keep their id and players.
+        Map<String, GameServer> serversByAddress = new HashMap<>();
+        Set<String> ipV4Addresses = new HashSet<>();
+
+        for (GameServer gameServer : gameServers) {
+            serversByAddress.put(gameServer.getIpV4Address() + ":" + gameServer.getPort(), gameServer);
+            ipV4Addresses.add(gameServer.getIpV4Address());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(SELECT_STORED_BY_ADDRESSES_SQL)
+                .setParameter("ipV4Addresses", ipV4Addresses)
+                .getResultList();
+
+        for (Object[] row : rows) {
+            GameServer gameServer = serversByAddress.get(row[1] + ":" + ((Number) row[2]).intValue());
+
+            if (gameServer != null) {
+                gameServer.setId((String) row[0]);
+                gameServer.setPlayerCount(((Number) row[3]).intValue());
+            }
+        }
+    }
+
+    @Override
+    public void refresh(GameServer gameServer) {
+        entityManager.refresh(gameServer);
+    }
+
+    @Override
+    public List<GameServerSummary> findSummaries(GameServerFilter filter, String afterId, int limit) {
+        // Only add the conditions actually filtered by, for letting the database pick the best index.
+        StringBuilder jpql = new StringBuilder(SELECT_SUMMARIES_JPQL);
+
+        if (filter.getVersion() != null) {
+            jpql.append(" AND s.version = :version");
+        }
+
+        if (filter.getGameMode() != null) {
+            jpql.append(" AND s.gameMode = :gameMode");
+        }
+
+        if (filter.getRegion() != null) {
+            jpql.append(" AND s.region = :region");
+        }
+
+        if (filter.getStatus() != null) {
+            jpql.append(" AND s.status = :status");
+        }
+
+        if (filter.isFreeSlotsOnly()) {
+            jpql.append(" AND s.playerCount < s.maxPlayers");
+        }
+
+        if (afterId != null) {
+            jpql.append(" AND s.id > :afterId");
+        }
+
+        jpql.append(" ORDER BY s.id");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+
+        if (filter.getVersion() != null) {
+            query.setParameter("version", filter.getVersion());
+        }
+
+        if (filter.getGameMode() != null) {
+            query.setParameter("gameMode", filter.getGameMode());
+        }
+
+        if (filter.getRegion() != null) {
+            query.setParameter("region", filter.getRegion());
+        }
+
+        if (filter.getStatus() != null) {
+            query.setParameter("status", filter.getStatus());
+        }
+
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+
+        List<Object[]> rows = query.getResultList();
+        List<GameServerSummary> summaries = new ArrayList<>(rows.size());
+
+        for (Object[] row : rows) {
+            summaries.add(new Summary(row));
+        }
+
+        return summaries;
+    }
+
+    private static class Summary implements GameServerSummary {
+        private final Object[] row;
+
+        Summary(Object[] row) {
+            this.row = row;
+        }
+
+        @Override
+        public String getId() {
+            return (String) row[0];
+        }
+
+        @Override
+        public String getVersion() {
+            return (String) row[1];
+        }
+
+        @Override
+        public String getGameMode() {
+            return (String) row[2];
+        }
+
+        @Override
+        public String getRegion() {
+            return (String) row[3];
+        }
+
+        @Override
+        public String getIpV4Address() {
+            return (String) row[4];
+        }
+
+        @Override
+        public int getPort() {
+            return (Integer) row[5];
+        }
+
+        @Override
+        public int getMaxPlayers() {
+            return (Integer) row[6];
+        }
+
+        @Override
+        public OffsetDateTime getLastHeartbeat() {
+            return (OffsetDateTime) row[7];
+        }
+
+        @Override
+        public ServerStatus getStatus() {
+            return (ServerStatus) row[8];
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+import de.opengamebackend.matchmaking.model.ServerStatus;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Projection of a game server to the columns shown in the server browser, without its players.
+ */
+public interface GameServerSummary {
+    String getId();
+    String getVersion();
+    String getGameMode();
+    String getRegion();
+    String getIpV4Address();
+    int getPort();
+    int getMaxPlayers();
+    OffsetDateTime getLastHeartbeat();
+    ServerStatus getStatus();
+}
@@ -0,0 +1,36 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+import de.opengamebackend.matchmaking.model.PlayerStatus;
+
+/**
+ * Criteria players have to match for being listed. Properties that are null match all players.
+ */
+public class PlayerFilter {
+    private final String version;
+    private final String gameMode;
+    private final String region;
+    private final PlayerStatus status;
+
+    public PlayerFilter(String version, String gameMode, String region, PlayerStatus status) {
+        this.version = version;
+        this.gameMode = gameMode;
+        this.region = region;
+        this.status = status;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getGameMode() {
+        return gameMode;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public PlayerStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,13 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+/**
+ * Projection of a player to the columns required for identifying it, its bucket and the server it has been
+ * allocated to.
+ */
+public interface PlayerKey {
+    String getId();
+    String getVersion();
+    String getGameMode();
+    String getRegion();
+    String getGameServerId();
+}
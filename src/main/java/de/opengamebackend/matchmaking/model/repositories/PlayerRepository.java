@@ -1,7 +1,77 @@
 package de.opengamebackend.matchmaking.model.repositories;
 
+import de.opengamebackend.matchmaking.model.PlayerStatus;
 import de.opengamebackend.matchmaking.model.entities.Player;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
-public interface PlayerRepository extends CrudRepository<Player, String> {
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface PlayerRepository extends CrudRepository<Player, String>, PlayerRepositoryCustom {
+    List<Player> findByVersionAndGameModeAndRegionAndStatusOrderByQueuedTimeAsc(String version, String gameMode,
+                                                                                String region, PlayerStatus status,
+                                                                                Pageable pageable);
+    Optional<Player> findByTicket(String ticket);
+    List<Player> findByTicketIn(Collection<String> tickets);
+
+    @Query("SELECT p.id AS id, p.version AS version, p.gameMode AS gameMode, p.region AS region, " +
+            "p.gameServer.id AS gameServerId " +
+            "FROM Player p WHERE p.status = :status AND p.matchedTime < :matchedTime")
+    List<PlayerKey> findKeysByStatusAndMatchedTimeBefore(@Param("status") PlayerStatus status,
+                                                         @Param("matchedTime") OffsetDateTime matchedTime);
+
+    @Query("SELECT p.gameServer.id AS gameServerId, p.id AS playerId FROM Player p WHERE p.gameServer IS NOT NULL")
+    List<ServerPlayerKey> findAllServerPlayerKeys();
+
+    @Query("SELECT p.gameServer.id AS gameServerId, p.id AS playerId FROM Player p " +
+            "WHERE p.gameServer.id IN :gameServerIds")
+    List<ServerPlayerKey> findServerPlayerKeysByGameServerIdIn(
+            @Param("gameServerIds") Collection<String> gameServerIds);
+
+    /**
+     * Atomically changes the status of the specified player, if it still has the expected status. Used for claiming
+     * queued players before allocating them, so no two instances can allocate the same player.
+     *
+     * @return 1 if the player has been claimed, 0 otherwise.
+     */
+    @Modifying
+    @Query("UPDATE Player p SET p.status = :newStatus WHERE p.id = :id AND p.status = :expectedStatus")
+    int compareAndSetStatus(@Param("id") String id, @Param("expectedStatus") PlayerStatus expectedStatus,
+                            @Param("newStatus") PlayerStatus newStatus);
+
+    /**
+     * Deletes all players with the specified status matched before the specified time, without loading them.
+     *
+     * @return Number of deleted players.
+     */
+    @Modifying
+    @Query("DELETE FROM Player p WHERE p.status = :status AND p.matchedTime < :matchedTime")
+    int deleteByStatusAndMatchedTimeBefore(@Param("status") PlayerStatus status,
+                                           @Param("matchedTime") OffsetDateTime matchedTime);
+
+    /**
+     * Deletes all players allocated to servers whose last heartbeat is older than the specified time, without
+     * loading them.
+     *
+     * @return Number of deleted players.
+     */
+    @Modifying
+    @Query("DELETE FROM Player p WHERE p.gameServer.id IN " +
+            "(SELECT s.id FROM GameServer s WHERE s.lastHeartbeat < :lastHeartbeat)")
+    int deleteByGameServerLastHeartbeatBefore(@Param("lastHeartbeat") OffsetDateTime lastHeartbeat);
+
+    /**
+     * Deletes all players allocated to the specified servers, without loading them.
+     *
+     * @return Number of deleted players.
+     */
+    @Modifying
+    @Query("DELETE FROM Player p WHERE p.gameServer.id IN :gameServerIds")
+    int deleteByGameServerIdIn(@Param("gameServerIds") Collection<String> gameServerIds);
 }
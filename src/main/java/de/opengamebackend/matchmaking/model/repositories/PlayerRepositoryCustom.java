@@ -0,0 +1,36 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+import de.opengamebackend.matchmaking.model.entities.Player;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface PlayerRepositoryCustom {
+    /**
+     * Inserts the specified player, or updates the player with the same id, in a single statement.
+     *
+     * <p>The player isn't attached to the persistence context.</p>
+     */
+    void upsert(Player player);
+
+    /**
+     * Atomically changes the status of all specified players that are still queued to matched, with a single update.
+     * Used for claiming queued players before allocating them, so no two instances can allocate the same player.
+     *
+     * <p>Claimed players must be allocated in the same transaction, which replaces the claim token stored in their
+     * ticket.</p>
+     *
+     * @return Ids of the players that have been claimed.
+     */
+    List<String> claimQueued(Collection<String> ids);
+
+    /**
+     * Passes the players matching the passed filter to the specified consumer one by one, ordered by id, while
+     * reading them from the database. Players aren't held in memory.
+     *
+     * @param afterId Id of the last player of the previous page, or null for starting with the first player.
+     * @param limit Maximum number of players to pass, or 0 for passing all of them.
+     */
+    void streamSummaries(PlayerFilter filter, String afterId, int limit, Consumer<PlayerSummary> consumer);
+}
@@ -0,0 +1,183 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+import de.opengamebackend.matchmaking.model.PlayerStatus;
+import de.opengamebackend.matchmaking.model.entities.Player;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.jpa.TypedParameterValue;
+import org.hibernate.type.OffsetDateTimeType;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class PlayerRepositoryCustomImpl implements PlayerRepositoryCustom {
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String CLAIM_QUEUED_JPQL = "UPDATE Player p SET p.status = :newStatus, p.ticket = :claimToken " +
+            "WHERE p.id IN :ids AND p.status = :expectedStatus";
+    private static final String SELECT_CLAIMED_JPQL = "SELECT p.id FROM Player p WHERE p.ticket = :claimToken";
+
+    private EntityManager entityManager;
+    private UpsertDialect upsertDialect;
+
+    @Autowired
+    public PlayerRepositoryCustomImpl(EntityManager entityManager, DataSource dataSource) {
+        this.entityManager = entityManager;
+        this.upsertDialect = UpsertDialect.of(dataSource);
+    }
+
+    @Override
+    public void upsert(Player player) {
+        String gameServerId = player.getGameServer() != null ? player.getGameServer().getId() : null;
+
+        entityManager.createNativeQuery(upsertDialect.getUpsertPlayerSql())
+                .setParameter(1, player.getId())
+                .setParameter(2, player.getVersion())
+                .setParameter(3, player.getGameMode())
+                .setParameter(4, player.getRegion())
+                .setParameter(5, player.getStatus().ordinal())
+                .setParameter(6, new TypedParameterValue(StandardBasicTypes.STRING, gameServerId))
+                .setParameter(7, new TypedParameterValue(StandardBasicTypes.STRING, player.getTicket()))
+                .setParameter(8, new TypedParameterValue(OffsetDateTimeType.INSTANCE, player.getQueuedTime()))
+                .setParameter(9, new TypedParameterValue(OffsetDateTimeType.INSTANCE, player.getMatchedTime()))
+                .setParameter(10, new TypedParameterValue(OffsetDateTimeType.INSTANCE, player.getJoinedTime()))
+                .executeUpdate();
+    }
+
+    @Override
+    public List<String> claimQueued(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Mark claimed players with a token only this transaction knows, for telling them apart from players claimed
+        // by other instances without updating them one by one.
+        String claimToken = UUID.randomUUID().toString();
+
+        entityManager.createQuery(CLAIM_QUEUED_JPQL)
+                .setParameter("newStatus", PlayerStatus.MATCHED)
+                .setParameter("claimToken", claimToken)
+                .setParameter("ids", ids)
+                .setParameter("expectedStatus", PlayerStatus.QUEUED)
+                .executeUpdate();
+
+        return entityManager.createQuery(SELECT_CLAIMED_JPQL, String.class)
+                .setParameter("claimToken", claimToken)
+                .getResultList();
+    }
+
+    @Override
+    public void streamSummaries(PlayerFilter filter, String afterId, int limit, Consumer<PlayerSummary> consumer) {
+        TypedQuery<Object[]> query = createQuery("SELECT p.id, p.version, p.gameMode, p.region, p.status, s.id " +
+                "FROM Player p LEFT JOIN p.gameServer s", Object[].class, filter, afterId);
+
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+
+        // Fetch rows in chunks from an open cursor, instead of reading the whole result set at once.
+        query.setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE);
+        query.setHint(QueryHints.HINT_READONLY, true);
+
+        try (Stream<Object[]> rows = query.getResultStream()) {
+            rows.forEach(row -> consumer.accept(new Summary(row)));
+        }
+    }
+
+    private <T> TypedQuery<T> createQuery(String select, Class<T> resultClass, PlayerFilter filter, String afterId) {
+        // Only add the conditions actually filtered by, for letting the database pick the best index.
+        StringBuilder jpql = new StringBuilder(select).append(" WHERE 1 = 1");
+
+        if (filter.getVersion() != null) {
+            jpql.append(" AND p.version = :version");
+        }
+
+        if (filter.getGameMode() != null) {
+            jpql.append(" AND p.gameMode = :gameMode");
+        }
+
+        if (filter.getRegion() != null) {
+            jpql.append(" AND p.region = :region");
+        }
+
+        if (filter.getStatus() != null) {
+            jpql.append(" AND p.status = :status");
+        }
+
+        if (afterId != null) {
+            jpql.append(" AND p.id > :afterId");
+        }
+
+        jpql.append(" ORDER BY p.id");
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), resultClass);
+
+        if (filter.getVersion() != null) {
+            query.setParameter("version", filter.getVersion());
+        }
+
+        if (filter.getGameMode() != null) {
+            query.setParameter("gameMode", filter.getGameMode());
+        }
+
+        if (filter.getRegion() != null) {
+            query.setParameter("region", filter.getRegion());
+        }
+
+        if (filter.getStatus() != null) {
+            query.setParameter("status", filter.getStatus());
+        }
+
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+
+        return query;
+    }
+
+    private static class Summary implements PlayerSummary {
+        private final Object[] row;
+
+        Summary(Object[] row) {
+            this.row = row;
+        }
+
+        @Override
+        public String getId() {
+            return (String) row[0];
+        }
+
+        @Override
+        public String getVersion() {
+            return (String) row[1];
+        }
+
+        @Override
+        public String getGameMode() {
+            return (String) row[2];
+        }
+
+        @Override
+        public String getRegion() {
+            return (String) row[3];
+        }
+
+        @Override
+        public PlayerStatus getStatus() {
+            return (PlayerStatus) row[4];
+        }
+
+        @Override
+        public String getGameServerId() {
+            return (String) row[5];
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+import de.opengamebackend.matchmaking.model.PlayerStatus;
+
+/**
+ * Projection of a player to the columns shown in the queue.
+ */
+public interface PlayerSummary {
+    String getId();
+    String getVersion();
+    String getGameMode();
+    String getRegion();
+    PlayerStatus getStatus();
+    String getGameServerId();
+}
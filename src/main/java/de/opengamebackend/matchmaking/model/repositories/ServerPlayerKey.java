@@ -0,0 +1,9 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+/**
+ * Projection of a player to the columns required for listing it with the server it has been allocated to.
+ */
+public interface ServerPlayerKey {
+    String getGameServerId();
+    String getPlayerId();
+}
@@ -0,0 +1,138 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SQL for inserting or updating a row in a single statement, which isn't covered by JPA.
+ *
+ * <p>MariaDB uses {@code INSERT ... ON DUPLICATE KEY UPDATE}, while H2 (used locally and for tests) uses
+ * {@code MERGE INTO ... USING}. All statements take the same positional parameters.</p>
+ */
+enum UpsertDialect {
+    MARIADB(
+            "INSERT INTO matchmaking_gameserver (id, version, game_mode, region, ipv4address, port, max_players, " +
+                    "last_heartbeat, status, player_count) " +
+                    "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, 0) " +
+                    "ON DUPLICATE KEY UPDATE version = VALUES(version), game_mode = VALUES(game_mode), " +
+                    "region = VALUES(region), max_players = VALUES(max_players), " +
+                    "last_heartbeat = VALUES(last_heartbeat), status = VALUES(status)",
+            "INSERT INTO matchmaking_player (id, version, game_mode, region, status, game_server_id, ticket, " +
+                    "queued_time, matched_time, joined_time) " +
+                    "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, ?10) " +
+                    "ON DUPLICATE KEY UPDATE version = VALUES(version), game_mode = VALUES(game_mode), " +
+                    "region = VALUES(region), status = VALUES(status), game_server_id = VALUES(game_server_id), " +
+                    "ticket = VALUES(ticket), queued_time = VALUES(queued_time), " +
+                    "matched_time = VALUES(matched_time), joined_time = VALUES(joined_time)"),
+
+    H2(
+            "MERGE INTO matchmaking_gameserver s USING DUAL ON (s.ipv4address = ?5 AND s.port = ?6) " +
+                    "WHEN MATCHED THEN UPDATE SET version = ?2, game_mode = ?3, region = ?4, max_players = ?7, " +
+                    "last_heartbeat = ?8, status = ?9 " +
+                    "WHEN NOT MATCHED THEN INSERT (id, version, game_mode, region, ipv4address, port, max_players, " +
+                    "last_heartbeat, status, player_count) " +
+                    "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, 0)",
+            "MERGE INTO matchmaking_player p USING DUAL ON (p.id = ?1) " +
+                    "WHEN MATCHED THEN UPDATE SET version = ?2, game_mode = ?3, region = ?4, status = ?5, " +
+                    "game_server_id = ?6, ticket = ?7, queued_time = ?8, matched_time = ?9, joined_time = ?10 " +
+                    "WHEN NOT MATCHED THEN INSERT (id, version, game_mode, region, status, game_server_id, ticket, " +
+                    "queued_time, matched_time, joined_time) " +
+                    "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, ?10)");
+
+    private final String upsertGameServerSql;
+    private final String upsertPlayerSql;
+    private final JdbcStatement upsertGameServerStatement;
+
+    UpsertDialect(String upsertGameServerSql, String upsertPlayerSql) {
+        this.upsertGameServerSql = upsertGameServerSql;
+        this.upsertPlayerSql = upsertPlayerSql;
+        this.upsertGameServerStatement = JdbcStatement.of(upsertGameServerSql);
+    }
+
+    /**
+     * Upserts a game server keyed on (ipv4address, port). The id and player count are only written for new servers.
+     *
+     * <p>Parameters: id, version, game mode, region, IPv4 address, port, max players, last heartbeat, status.</p>
+     */
+    String getUpsertGameServerSql() {
+        return upsertGameServerSql;
+    }
+
+    /**
+     * Same as {@link #getUpsertGameServerSql()}, for executing in JDBC batches.
+     */
+    JdbcStatement getUpsertGameServerStatement() {
+        return upsertGameServerStatement;
+    }
+
+    /**
+     * Upserts a player keyed on its id.
+     *
+     * <p>Parameters: id, version, game mode, region, status, game server id, ticket, queued time, matched time,
+     * joined time.</p>
+     */
+    String getUpsertPlayerSql() {
+        return upsertPlayerSql;
+    }
+
+    static UpsertDialect of(DataSource dataSource) {
+        try {
+            String productName = JdbcUtils.commonDatabaseName(
+                    JdbcUtils.extractDatabaseMetaData(dataSource, "getDatabaseProductName"));
+            return "H2".equals(productName) ? H2 : MARIADB;
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Unable to determine database for upserts.", e);
+        }
+    }
+
+    /**
+     * Statement with numbered parameters converted to plain JDBC placeholders, which can't be referenced more than
+     * once or out of order.
+     */
+    static final class JdbcStatement {
+        private static final Pattern PARAMETER = Pattern.compile("\\?(\\d+)");
+
+        private final String sql;
+
+        // Number of the parameter bound to each placeholder.
+        private final int[] parameterNumbers;
+
+        private JdbcStatement(String sql, int[] parameterNumbers) {
+            this.sql = sql;
+            this.parameterNumbers = parameterNumbers;
+        }
+
+        static JdbcStatement of(String sql) {
+            Matcher matcher = PARAMETER.matcher(sql);
+            List<Integer> parameterNumbers = new ArrayList<>();
+
+            while (matcher.find()) {
+                parameterNumbers.add(Integer.parseInt(matcher.group(1)));
+            }
+
+            return new JdbcStatement(matcher.replaceAll("?"),
+                    parameterNumbers.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        String getSql() {
+            return sql;
+        }
+
+        /**
+         * Binds the passed parameter values, in the order of their numbers.
+         */
+        void bind(PreparedStatement statement, Object... values) throws SQLException {
+            for (int i = 0; i < parameterNumbers.length; ++i) {
+                statement.setObject(i + 1, values[parameterNumbers[i] - 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package de.opengamebackend.matchmaking.model.requests;
+
+import de.opengamebackend.matchmaking.model.PlayerStatus;
+
+public class GetQueueRequest {
+    private String version;
+    private String gameMode;
+    private String region;
+    private PlayerStatus status;
+    private String cursor;
+    private Integer limit;
+
+    public GetQueueRequest() {
+    }
+
+    public GetQueueRequest(String version, String gameMode, String region, PlayerStatus status, String cursor,
+                           Integer limit) {
+        this.version = version;
+        this.gameMode = gameMode;
+        this.region = region;
+        this.status = status;
+        this.cursor = cursor;
+        this.limit = limit;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getGameMode() {
+        return gameMode;
+    }
+
+    public void setGameMode(String gameMode) {
+        this.gameMode = gameMode;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public PlayerStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(PlayerStatus status) {
+        this.status = status;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,83 @@
+package de.opengamebackend.matchmaking.model.requests;
+
+import de.opengamebackend.matchmaking.model.ServerStatus;
+
+public class GetServersRequest {
+    private String version;
+    private String gameMode;
+    private String region;
+    private ServerStatus status;
+    private boolean hasFreeSlots;
+    private String cursor;
+    private Integer limit;
+
+    public GetServersRequest() {
+    }
+
+    public GetServersRequest(String version, String gameMode, String region, ServerStatus status,
+                             boolean hasFreeSlots, String cursor, Integer limit) {
+        this.version = version;
+        this.gameMode = gameMode;
+        this.region = region;
+        this.status = status;
+        this.hasFreeSlots = hasFreeSlots;
+        this.cursor = cursor;
+        this.limit = limit;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getGameMode() {
+        return gameMode;
+    }
+
+    public void setGameMode(String gameMode) {
+        this.gameMode = gameMode;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public ServerStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ServerStatus status) {
+        this.status = status;
+    }
+
+    public boolean isHasFreeSlots() {
+        return hasFreeSlots;
+    }
+
+    public void setHasFreeSlots(boolean hasFreeSlots) {
+        this.hasFreeSlots = hasFreeSlots;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
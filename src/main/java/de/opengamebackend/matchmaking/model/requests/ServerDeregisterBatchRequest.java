@@ -0,0 +1,22 @@
+package de.opengamebackend.matchmaking.model.requests;
+
+import java.util.List;
+
+public class ServerDeregisterBatchRequest {
+    private List<ServerDeregisterRequest> servers;
+
+    public ServerDeregisterBatchRequest() {
+    }
+
+    public ServerDeregisterBatchRequest(List<ServerDeregisterRequest> servers) {
+        this.servers = servers;
+    }
+
+    public List<ServerDeregisterRequest> getServers() {
+        return servers;
+    }
+
+    public void setServers(List<ServerDeregisterRequest> servers) {
+        this.servers = servers;
+    }
+}
@@ -0,0 +1,32 @@
+package de.opengamebackend.matchmaking.model.requests;
+
+import java.util.List;
+
+public class ServerNotifyPlayerJoinedBatchRequest {
+    private String serverId;
+    private List<String> tickets;
+
+    public ServerNotifyPlayerJoinedBatchRequest() {
+    }
+
+    public ServerNotifyPlayerJoinedBatchRequest(String serverId, List<String> tickets) {
+        this.serverId = serverId;
+        this.tickets = tickets;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public void setServerId(String serverId) {
+        this.serverId = serverId;
+    }
+
+    public List<String> getTickets() {
+        return tickets;
+    }
+
+    public void setTickets(List<String> tickets) {
+        this.tickets = tickets;
+    }
+}
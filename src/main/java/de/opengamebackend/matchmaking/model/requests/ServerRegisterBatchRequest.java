@@ -0,0 +1,22 @@
+package de.opengamebackend.matchmaking.model.requests;
+
+import java.util.List;
+
+public class ServerRegisterBatchRequest {
+    private List<ServerRegisterRequest> servers;
+
+    public ServerRegisterBatchRequest() {
+    }
+
+    public ServerRegisterBatchRequest(List<ServerRegisterRequest> servers) {
+        this.servers = servers;
+    }
+
+    public List<ServerRegisterRequest> getServers() {
+        return servers;
+    }
+
+    public void setServers(List<ServerRegisterRequest> servers) {
+        this.servers = servers;
+    }
+}
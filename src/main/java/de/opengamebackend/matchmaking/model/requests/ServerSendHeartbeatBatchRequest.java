@@ -0,0 +1,22 @@
+package de.opengamebackend.matchmaking.model.requests;
+
+import java.util.List;
+
+public class ServerSendHeartbeatBatchRequest {
+    private List<ServerSendHeartbeatBatchRequestServer> servers;
+
+    public ServerSendHeartbeatBatchRequest() {
+    }
+
+    public ServerSendHeartbeatBatchRequest(List<ServerSendHeartbeatBatchRequestServer> servers) {
+        this.servers = servers;
+    }
+
+    public List<ServerSendHeartbeatBatchRequestServer> getServers() {
+        return servers;
+    }
+
+    public void setServers(List<ServerSendHeartbeatBatchRequestServer> servers) {
+        this.servers = servers;
+    }
+}
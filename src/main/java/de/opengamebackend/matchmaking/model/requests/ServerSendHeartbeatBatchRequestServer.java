@@ -0,0 +1,35 @@
+package de.opengamebackend.matchmaking.model.requests;
+
+import de.opengamebackend.matchmaking.model.ServerStatus;
+
+public class ServerSendHeartbeatBatchRequestServer {
+    private String id;
+    private ServerStatus status;
+
+    public ServerSendHeartbeatBatchRequestServer() {
+    }
+
+    public ServerSendHeartbeatBatchRequestServer(String id, ServerStatus status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the new status of the server, or null if the status hasn't changed.
+     */
+    public ServerStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ServerStatus status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,43 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+import java.util.List;
+
+public class GetMatchmakerStatusResponse {
+    private String allocationMode;
+    private int parallelism;
+    private List<GetMatchmakerStatusResponseBucket> buckets;
+
+    public GetMatchmakerStatusResponse() {
+    }
+
+    public GetMatchmakerStatusResponse(String allocationMode, int parallelism,
+                                       List<GetMatchmakerStatusResponseBucket> buckets) {
+        this.allocationMode = allocationMode;
+        this.parallelism = parallelism;
+        this.buckets = buckets;
+    }
+
+    public String getAllocationMode() {
+        return allocationMode;
+    }
+
+    public void setAllocationMode(String allocationMode) {
+        this.allocationMode = allocationMode;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public List<GetMatchmakerStatusResponseBucket> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<GetMatchmakerStatusResponseBucket> buckets) {
+        this.buckets = buckets;
+    }
+}
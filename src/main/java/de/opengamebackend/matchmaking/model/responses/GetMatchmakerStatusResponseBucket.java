@@ -0,0 +1,71 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+public class GetMatchmakerStatusResponseBucket {
+    private String version;
+    private String gameMode;
+    private String region;
+    private int queuedPlayers;
+    private int allocatedPlayers;
+    private long solveMicros;
+
+    public GetMatchmakerStatusResponseBucket() {
+    }
+
+    public GetMatchmakerStatusResponseBucket(String version, String gameMode, String region, int queuedPlayers,
+                                             int allocatedPlayers, long solveMicros) {
+        this.version = version;
+        this.gameMode = gameMode;
+        this.region = region;
+        this.queuedPlayers = queuedPlayers;
+        this.allocatedPlayers = allocatedPlayers;
+        this.solveMicros = solveMicros;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getGameMode() {
+        return gameMode;
+    }
+
+    public void setGameMode(String gameMode) {
+        this.gameMode = gameMode;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public int getQueuedPlayers() {
+        return queuedPlayers;
+    }
+
+    public void setQueuedPlayers(int queuedPlayers) {
+        this.queuedPlayers = queuedPlayers;
+    }
+
+    public int getAllocatedPlayers() {
+        return allocatedPlayers;
+    }
+
+    public void setAllocatedPlayers(int allocatedPlayers) {
+        this.allocatedPlayers = allocatedPlayers;
+    }
+
+    public long getSolveMicros() {
+        return solveMicros;
+    }
+
+    public void setSolveMicros(long solveMicros) {
+        this.solveMicros = solveMicros;
+    }
+}
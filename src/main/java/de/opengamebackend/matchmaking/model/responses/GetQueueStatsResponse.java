@@ -0,0 +1,22 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+import java.util.List;
+
+public class GetQueueStatsResponse {
+    private List<GetQueueStatsResponseBucket> buckets;
+
+    public GetQueueStatsResponse() {
+    }
+
+    public GetQueueStatsResponse(List<GetQueueStatsResponseBucket> buckets) {
+        this.buckets = buckets;
+    }
+
+    public List<GetQueueStatsResponseBucket> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<GetQueueStatsResponseBucket> buckets) {
+        this.buckets = buckets;
+    }
+}
@@ -0,0 +1,91 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+public class GetQueueStatsResponseBucket {
+    private String version;
+    private String gameMode;
+    private String region;
+    private int queuedPlayers;
+    private int matchedPlayers;
+    private int joinedPlayers;
+    private int openSlots;
+    private long longestWaitMillis;
+
+    public GetQueueStatsResponseBucket() {
+    }
+
+    public GetQueueStatsResponseBucket(String version, String gameMode, String region, int queuedPlayers,
+                                       int matchedPlayers, int joinedPlayers, int openSlots, long longestWaitMillis) {
+        this.version = version;
+        this.gameMode = gameMode;
+        this.region = region;
+        this.queuedPlayers = queuedPlayers;
+        this.matchedPlayers = matchedPlayers;
+        this.joinedPlayers = joinedPlayers;
+        this.openSlots = openSlots;
+        this.longestWaitMillis = longestWaitMillis;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getGameMode() {
+        return gameMode;
+    }
+
+    public void setGameMode(String gameMode) {
+        this.gameMode = gameMode;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public int getQueuedPlayers() {
+        return queuedPlayers;
+    }
+
+    public void setQueuedPlayers(int queuedPlayers) {
+        this.queuedPlayers = queuedPlayers;
+    }
+
+    public int getMatchedPlayers() {
+        return matchedPlayers;
+    }
+
+    public void setMatchedPlayers(int matchedPlayers) {
+        this.matchedPlayers = matchedPlayers;
+    }
+
+    public int getJoinedPlayers() {
+        return joinedPlayers;
+    }
+
+    public void setJoinedPlayers(int joinedPlayers) {
+        this.joinedPlayers = joinedPlayers;
+    }
+
+    public int getOpenSlots() {
+        return openSlots;
+    }
+
+    public void setOpenSlots(int openSlots) {
+        this.openSlots = openSlots;
+    }
+
+    public long getLongestWaitMillis() {
+        return longestWaitMillis;
+    }
+
+    public void setLongestWaitMillis(long longestWaitMillis) {
+        this.longestWaitMillis = longestWaitMillis;
+    }
+}
@@ -0,0 +1,82 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+public class GetReaperStatusResponse {
+    private long lagMillis;
+    private int trackedServers;
+    private int trackedPlayers;
+    private int lastSweepDeletedServers;
+    private int lastSweepDeletedPlayers;
+    private int lastSweepReleasedPlayers;
+    private long lastSweepMillis;
+
+    public GetReaperStatusResponse() {
+    }
+
+    public GetReaperStatusResponse(long lagMillis, int trackedServers, int trackedPlayers,
+                                   int lastSweepDeletedServers, int lastSweepDeletedPlayers,
+                                   int lastSweepReleasedPlayers, long lastSweepMillis) {
+        this.lagMillis = lagMillis;
+        this.trackedServers = trackedServers;
+        this.trackedPlayers = trackedPlayers;
+        this.lastSweepDeletedServers = lastSweepDeletedServers;
+        this.lastSweepDeletedPlayers = lastSweepDeletedPlayers;
+        this.lastSweepReleasedPlayers = lastSweepReleasedPlayers;
+        this.lastSweepMillis = lastSweepMillis;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public void setLagMillis(long lagMillis) {
+        this.lagMillis = lagMillis;
+    }
+
+    public int getTrackedServers() {
+        return trackedServers;
+    }
+
+    public void setTrackedServers(int trackedServers) {
+        this.trackedServers = trackedServers;
+    }
+
+    public int getTrackedPlayers() {
+        return trackedPlayers;
+    }
+
+    public void setTrackedPlayers(int trackedPlayers) {
+        this.trackedPlayers = trackedPlayers;
+    }
+
+    public int getLastSweepDeletedServers() {
+        return lastSweepDeletedServers;
+    }
+
+    public void setLastSweepDeletedServers(int lastSweepDeletedServers) {
+        this.lastSweepDeletedServers = lastSweepDeletedServers;
+    }
+
+    public int getLastSweepDeletedPlayers() {
+        return lastSweepDeletedPlayers;
+    }
+
+    public void setLastSweepDeletedPlayers(int lastSweepDeletedPlayers) {
+        this.lastSweepDeletedPlayers = lastSweepDeletedPlayers;
+    }
+
+    public int getLastSweepReleasedPlayers() {
+        return lastSweepReleasedPlayers;
+    }
+
+    public void setLastSweepReleasedPlayers(int lastSweepReleasedPlayers) {
+        this.lastSweepReleasedPlayers = lastSweepReleasedPlayers;
+    }
+
+    public long getLastSweepMillis() {
+        return lastSweepMillis;
+    }
+
+    public void setLastSweepMillis(long lastSweepMillis) {
+        this.lastSweepMillis = lastSweepMillis;
+    }
+}
@@ -0,0 +1,53 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+import java.util.List;
+
+public class GetServerChangesResponse {
+    private String version;
+    private boolean full;
+    private List<GetServersResponseServer> servers;
+    private List<String> removedServerIds;
+
+    public GetServerChangesResponse() {
+    }
+
+    public GetServerChangesResponse(String version, boolean full, List<GetServersResponseServer> servers,
+                                    List<String> removedServerIds) {
+        this.version = version;
+        this.full = full;
+        this.servers = servers;
+        this.removedServerIds = removedServerIds;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public void setFull(boolean full) {
+        this.full = full;
+    }
+
+    public List<GetServersResponseServer> getServers() {
+        return servers;
+    }
+
+    public void setServers(List<GetServersResponseServer> servers) {
+        this.servers = servers;
+    }
+
+    public List<String> getRemovedServerIds() {
+        return removedServerIds;
+    }
+
+    public void setRemovedServerIds(List<String> removedServerIds) {
+        this.removedServerIds = removedServerIds;
+    }
+}
@@ -0,0 +1,41 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+import java.util.List;
+
+public class GetServerRosterResponse {
+    private String serverId;
+    private long version;
+    private List<String> playerIds;
+
+    public GetServerRosterResponse() {
+    }
+
+    public GetServerRosterResponse(String serverId, List<String> playerIds) {
+        this.serverId = serverId;
+        this.playerIds = playerIds;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public void setServerId(String serverId) {
+        this.serverId = serverId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public List<String> getPlayerIds() {
+        return playerIds;
+    }
+
+    public void setPlayerIds(List<String> playerIds) {
+        this.playerIds = playerIds;
+    }
+}
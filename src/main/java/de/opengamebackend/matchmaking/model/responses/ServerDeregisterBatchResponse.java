@@ -0,0 +1,22 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+import java.util.List;
+
+public class ServerDeregisterBatchResponse {
+    private List<ServerDeregisterBatchResponseServer> servers;
+
+    public ServerDeregisterBatchResponse() {
+    }
+
+    public ServerDeregisterBatchResponse(List<ServerDeregisterBatchResponseServer> servers) {
+        this.servers = servers;
+    }
+
+    public List<ServerDeregisterBatchResponseServer> getServers() {
+        return servers;
+    }
+
+    public void setServers(List<ServerDeregisterBatchResponseServer> servers) {
+        this.servers = servers;
+    }
+}
@@ -0,0 +1,35 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+import de.opengamebackend.net.ErrorResponse;
+
+public class ServerDeregisterBatchResponseServer {
+    private String id;
+    private ErrorResponse error;
+
+    public ServerDeregisterBatchResponseServer() {
+    }
+
+    public ServerDeregisterBatchResponseServer(String id, ErrorResponse error) {
+        this.id = id;
+        this.error = error;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the reason why this server couldn't be deregistered, or null if it has been deregistered.
+     */
+    public ErrorResponse getError() {
+        return error;
+    }
+
+    public void setError(ErrorResponse error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,33 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+import java.util.List;
+
+public class ServerNotifyPlayerJoinedBatchResponse {
+    private String serverId;
+    private List<ServerNotifyPlayerJoinedBatchResponsePlayer> players;
+
+    public ServerNotifyPlayerJoinedBatchResponse() {
+    }
+
+    public ServerNotifyPlayerJoinedBatchResponse(String serverId,
+                                                 List<ServerNotifyPlayerJoinedBatchResponsePlayer> players) {
+        this.serverId = serverId;
+        this.players = players;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public void setServerId(String serverId) {
+        this.serverId = serverId;
+    }
+
+    public List<ServerNotifyPlayerJoinedBatchResponsePlayer> getPlayers() {
+        return players;
+    }
+
+    public void setPlayers(List<ServerNotifyPlayerJoinedBatchResponsePlayer> players) {
+        this.players = players;
+    }
+}
@@ -0,0 +1,45 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+import de.opengamebackend.net.ErrorResponse;
+
+public class ServerNotifyPlayerJoinedBatchResponsePlayer {
+    private String ticket;
+    private String playerId;
+    private ErrorResponse error;
+
+    public ServerNotifyPlayerJoinedBatchResponsePlayer() {
+    }
+
+    public ServerNotifyPlayerJoinedBatchResponsePlayer(String ticket, String playerId, ErrorResponse error) {
+        this.ticket = ticket;
+        this.playerId = playerId;
+        this.error = error;
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public void setTicket(String ticket) {
+        this.ticket = ticket;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(String playerId) {
+        this.playerId = playerId;
+    }
+
+    /**
+     * Gets the reason why the join of the player with this ticket has been rejected, or null if it has been confirmed.
+     */
+    public ErrorResponse getError() {
+        return error;
+    }
+
+    public void setError(ErrorResponse error) {
+        this.error = error;
+    }
+}
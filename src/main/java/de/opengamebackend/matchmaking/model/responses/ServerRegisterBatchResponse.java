@@ -0,0 +1,22 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+import java.util.List;
+
+public class ServerRegisterBatchResponse {
+    private List<ServerRegisterBatchResponseServer> servers;
+
+    public ServerRegisterBatchResponse() {
+    }
+
+    public ServerRegisterBatchResponse(List<ServerRegisterBatchResponseServer> servers) {
+        this.servers = servers;
+    }
+
+    public List<ServerRegisterBatchResponseServer> getServers() {
+        return servers;
+    }
+
+    public void setServers(List<ServerRegisterBatchResponseServer> servers) {
+        this.servers = servers;
+    }
+}
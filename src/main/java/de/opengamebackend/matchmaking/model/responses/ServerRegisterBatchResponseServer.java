@@ -0,0 +1,58 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+import de.opengamebackend.net.ErrorResponse;
+
+public class ServerRegisterBatchResponseServer {
+    private String id;
+    private String ipV4Address;
+    private int port;
+    private ErrorResponse error;
+
+    public ServerRegisterBatchResponseServer() {
+    }
+
+    public ServerRegisterBatchResponseServer(String id, String ipV4Address, int port, ErrorResponse error) {
+        this.id = id;
+        this.ipV4Address = ipV4Address;
+        this.port = port;
+        this.error = error;
+    }
+
+    /**
+     * Gets the ID assigned to this server, or null if it couldn't be registered.
+     */
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getIpV4Address() {
+        return ipV4Address;
+    }
+
+    public void setIpV4Address(String ipV4Address) {
+        this.ipV4Address = ipV4Address;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Gets the reason why this server couldn't be registered, or null if it has been registered.
+     */
+    public ErrorResponse getError() {
+        return error;
+    }
+
+    public void setError(ErrorResponse error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,50 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+public class ServerRosterChangedResponse {
+    private String serverId;
+    private long version;
+    private String playerId;
+    private boolean added;
+
+    public ServerRosterChangedResponse() {
+    }
+
+    public ServerRosterChangedResponse(String serverId, long version, String playerId, boolean added) {
+        this.serverId = serverId;
+        this.version = version;
+        this.playerId = playerId;
+        this.added = added;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public void setServerId(String serverId) {
+        this.serverId = serverId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(String playerId) {
+        this.playerId = playerId;
+    }
+
+    public boolean isAdded() {
+        return added;
+    }
+
+    public void setAdded(boolean added) {
+        this.added = added;
+    }
+}
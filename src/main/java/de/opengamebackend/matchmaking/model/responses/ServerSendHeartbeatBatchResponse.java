@@ -0,0 +1,22 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+import java.util.List;
+
+public class ServerSendHeartbeatBatchResponse {
+    private List<ServerSendHeartbeatBatchResponseServer> servers;
+
+    public ServerSendHeartbeatBatchResponse() {
+    }
+
+    public ServerSendHeartbeatBatchResponse(List<ServerSendHeartbeatBatchResponseServer> servers) {
+        this.servers = servers;
+    }
+
+    public List<ServerSendHeartbeatBatchResponseServer> getServers() {
+        return servers;
+    }
+
+    public void setServers(List<ServerSendHeartbeatBatchResponseServer> servers) {
+        this.servers = servers;
+    }
+}
@@ -0,0 +1,35 @@
+package de.opengamebackend.matchmaking.model.responses;
+
+import de.opengamebackend.net.ErrorResponse;
+
+public class ServerSendHeartbeatBatchResponseServer {
+    private String id;
+    private ErrorResponse error;
+
+    public ServerSendHeartbeatBatchResponseServer() {
+    }
+
+    public ServerSendHeartbeatBatchResponseServer(String id, ErrorResponse error) {
+        this.id = id;
+        this.error = error;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the reason why the heartbeat of this server has been rejected, or null if it has been received.
+     */
+    public ErrorResponse getError() {
+        return error;
+    }
+
+    public void setError(ErrorResponse error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,293 @@
+package de.opengamebackend.matchmaking.notifications;
+
+import de.opengamebackend.matchmaking.controller.MatchmakingDispatcher;
+import de.opengamebackend.matchmaking.events.PlayersMatchedEvent;
+import de.opengamebackend.matchmaking.events.ServerChangedEvent;
+import de.opengamebackend.matchmaking.events.ServerRosterChangedEvent;
+import de.opengamebackend.matchmaking.matching.BucketKey;
+import de.opengamebackend.matchmaking.matching.OpenServerIndex;
+import de.opengamebackend.matchmaking.model.MatchmakingStatus;
+import de.opengamebackend.matchmaking.model.responses.ClientPollMatchmakingResponse;
+import de.opengamebackend.net.ApiException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parks matchmaking polls of players until their matchmaking status changes, instead of having them poll in a tight
+ * loop.
+ *
+ * <p>Players waiting for a free server are queued per bucket, and woken up in the order they started waiting, one for
+ * each slot that has become available in their bucket. Players waiting for other players are woken up whenever the
+ * roster of their server changes. Woken up players poll again, and are parked again if their status is still the
+ * same.</p>
+ */
+@Service
+public class LongPollService {
+    public static final long MAX_TIMEOUT_SECONDS = 30;
+
+    private final MatchmakingDispatcher matchmakingDispatcher;
+    private final OpenServerIndex openServerIndex;
+    private final TaskExecutor taskExecutor;
+
+    private final ConcurrentMap<BucketKey, Deque<Waiter>> waitingForServer = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Waiter>> waitingForPlayers = new ConcurrentHashMap<>();
+
+    // Versions of buckets, for noticing changes made while polling.
+    private final ConcurrentMap<BucketKey, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LongPollService(MatchmakingDispatcher matchmakingDispatcher, OpenServerIndex openServerIndex,
+                           @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                   TaskExecutor taskExecutor) {
+        this.matchmakingDispatcher = matchmakingDispatcher;
+        this.openServerIndex = openServerIndex;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Polls matchmaking for the specified player, completing the returned result as soon as a match has been found,
+     * the matchmaking status of the player has changed, or the timeout has passed.
+     */
+    public DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> pollMatchmaking(String playerId,
+                                                                                          long timeoutSeconds)
+            throws ApiException {
+        BucketKey bucketKey = matchmakingDispatcher.getBucket(playerId);
+        Snapshot snapshot = new Snapshot(bucketKey);
+        ClientPollMatchmakingResponse response = matchmakingDispatcher.pollMatchmaking(playerId);
+
+        long timeoutMillis = Math.max(1, Math.min(timeoutSeconds, MAX_TIMEOUT_SECONDS)) * 1000;
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result = new DeferredResult<>(timeoutMillis);
+
+        if (response.getStatus() == MatchmakingStatus.MATCH_FOUND) {
+            complete(result, response);
+            return result;
+        }
+
+        Waiter waiter = new Waiter(playerId, bucketKey, response.getStatus(), response.getServerId(), result);
+
+        result.onTimeout(() -> {
+            unpark(waiter);
+            repoll(waiter, true);
+        });
+        result.onCompletion(() -> unpark(waiter));
+
+        park(waiter, response, snapshot, false);
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onServerRosterChanged(ServerRosterChangedEvent event) {
+        changed(event.getBucketKey());
+        wake(waitingForPlayers.remove(event.getServerId()));
+
+        if (!event.isAdded()) {
+            // At least the released slot is free now, even if the server isn't indexed by this instance.
+            wakeWaitingForServer(event.getBucketKey(),
+                    Math.max(1, openServerIndex.getOpenSlots(event.getBucketKey())));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onServerChanged(ServerChangedEvent event) {
+        changed(event.getBucketKey());
+        wake(waitingForPlayers.remove(event.getServerId()));
+        wakeWaitingForServer(event.getBucketKey(), openServerIndex.getOpenSlots(event.getBucketKey()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlayersMatched(PlayersMatchedEvent event) {
+        changed(event.getBucketKey());
+
+        Deque<Waiter> waiters = waitingForServer.get(event.getBucketKey());
+
+        if (waiters == null) {
+            return;
+        }
+
+        List<Waiter> matchedWaiters = new ArrayList<>();
+
+        synchronized (waiters) {
+            Iterator<Waiter> iterator = waiters.iterator();
+
+            while (iterator.hasNext()) {
+                Waiter waiter = iterator.next();
+
+                if (event.getPlayerIds().contains(waiter.playerId)) {
+                    iterator.remove();
+                    matchedWaiters.add(waiter);
+                }
+            }
+        }
+
+        wake(matchedWaiters);
+    }
+
+    private void park(Waiter waiter, ClientPollMatchmakingResponse response, Snapshot snapshot, boolean keepPosition)
+            throws ApiException {
+        if (response.getStatus() == MatchmakingStatus.SERVERS_FULL || response.getServerId() == null) {
+            waiter.waitingForServer = true;
+
+            Deque<Waiter> waiters = waitingForServer.computeIfAbsent(waiter.bucketKey, k -> new ArrayDeque<>());
+
+            synchronized (waiters) {
+                if (keepPosition) {
+                    waiters.addFirst(waiter);
+                } else {
+                    waiters.addLast(waiter);
+                }
+            }
+        } else {
+            waiter.serverId = response.getServerId();
+            waitingForPlayers.computeIfAbsent(waiter.serverId, k -> ConcurrentHashMap.newKeySet()).add(waiter);
+        }
+
+        if (snapshot.isChanged()) {
+            // Might have missed a change while polling.
+            unpark(waiter);
+            wake(Collections.singleton(waiter));
+        }
+    }
+
+    private void unpark(Waiter waiter) {
+        if (waiter.waitingForServer) {
+            waiter.waitingForServer = false;
+
+            Deque<Waiter> waiters = waitingForServer.get(waiter.bucketKey);
+
+            if (waiters != null) {
+                synchronized (waiters) {
+                    waiters.remove(waiter);
+                }
+            }
+        }
+
+        if (waiter.serverId != null) {
+            Set<Waiter> waiters = waitingForPlayers.get(waiter.serverId);
+
+            if (waiters != null) {
+                waiters.remove(waiter);
+            }
+        }
+    }
+
+    private void wakeWaitingForServer(BucketKey bucketKey, int count) {
+        Deque<Waiter> waiters = waitingForServer.get(bucketKey);
+
+        if (waiters == null || count <= 0) {
+            return;
+        }
+
+        List<Waiter> wokenWaiters = new ArrayList<>();
+
+        synchronized (waiters) {
+            while (wokenWaiters.size() < count && !waiters.isEmpty()) {
+                Waiter waiter = waiters.pollFirst();
+
+                // Don't waste the slot on players that have stopped waiting.
+                if (!waiter.result.isSetOrExpired()) {
+                    wokenWaiters.add(waiter);
+                }
+            }
+        }
+
+        wake(wokenWaiters);
+    }
+
+    private void wake(Collection<Waiter> waiters) {
+        if (waiters == null) {
+            return;
+        }
+
+        for (Waiter waiter : waiters) {
+            taskExecutor.execute(() -> repoll(waiter, false));
+        }
+    }
+
+    private void repoll(Waiter waiter, boolean timedOut) {
+        if (waiter.result.isSetOrExpired() && !timedOut) {
+            return;
+        }
+
+        try {
+            Snapshot snapshot = new Snapshot(waiter.bucketKey);
+            ClientPollMatchmakingResponse response = matchmakingDispatcher.pollMatchmaking(waiter.playerId);
+
+            if (timedOut ||
+                    response.getStatus() == MatchmakingStatus.MATCH_FOUND ||
+                    response.getStatus() != waiter.status ||
+                    !Objects.equals(response.getServerId(), waiter.initialServerId)) {
+                complete(waiter.result, response);
+            } else {
+                // Woken up, but someone else was faster. Keep the place in the queue.
+                park(waiter, response, snapshot, true);
+            }
+        } catch (ApiException e) {
+            waiter.result.setErrorResult(e);
+        }
+    }
+
+    private void complete(DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result,
+                          ClientPollMatchmakingResponse response) {
+        result.setResult(new ResponseEntity<>(response, HttpStatus.OK));
+    }
+
+    private void changed(BucketKey bucketKey) {
+        versions.computeIfAbsent(bucketKey, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private long getVersion(BucketKey bucketKey) {
+        AtomicLong version = versions.get(bucketKey);
+        return version != null ? version.get() : 0;
+    }
+
+    /**
+     * Version of the bucket of a player seen before polling. All changes that might affect the player, including
+     * changes of the roster of its server, bump the version of its bucket, so changes of other buckets don't cause
+     * polling again.
+     */
+    private class Snapshot {
+        private final BucketKey bucketKey;
+        private final long version;
+
+        private Snapshot(BucketKey bucketKey) {
+            this.bucketKey = bucketKey;
+            this.version = getVersion(bucketKey);
+        }
+
+        private boolean isChanged() {
+            return getVersion(bucketKey) != version;
+        }
+    }
+
+    private static class Waiter {
+        private final String playerId;
+        private final BucketKey bucketKey;
+        private final MatchmakingStatus status;
+        private final String initialServerId;
+        private final DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result;
+
+        private volatile boolean waitingForServer;
+        private volatile String serverId;
+
+        private Waiter(String playerId, BucketKey bucketKey, MatchmakingStatus status, String initialServerId,
+                       DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result) {
+            this.playerId = playerId;
+            this.bucketKey = bucketKey;
+            this.status = status;
+            this.initialServerId = initialServerId;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package de.opengamebackend.matchmaking.notifications;
+
+import de.opengamebackend.matchmaking.controller.MatchmakingDispatcher;
+import de.opengamebackend.matchmaking.events.PlayersMatchedEvent;
+import de.opengamebackend.matchmaking.events.ServerChangedEvent;
+import de.opengamebackend.matchmaking.events.ServerRosterChangedEvent;
+import de.opengamebackend.matchmaking.matching.BucketKey;
+import de.opengamebackend.matchmaking.matching.OpenServerIndex;
+import de.opengamebackend.matchmaking.model.MatchmakingStatus;
+import de.opengamebackend.matchmaking.model.responses.ClientPollMatchmakingResponse;
+import de.opengamebackend.matchmaking.model.responses.GetServerRosterResponse;
+import de.opengamebackend.matchmaking.model.responses.ServerRosterChangedResponse;
+import de.opengamebackend.net.ApiException;
+import de.opengamebackend.net.ErrorResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes matchmaking status transitions to players and roster changes to game servers as server-sent events, so
+ * neither of them has to poll.
+ *
+ * <p>Player streams send a {@value #EVENT_MATCHMAKING} event with the current matchmaking status first, and another
+ * one whenever that status changes. They are completed as soon as a match has been found. Like long polls, players
+ * waiting for a free server are queued per bucket, and refreshed in the order they started waiting, one for each slot
+ * that has become available in their bucket. Server streams send a
+ * {@value #EVENT_ROSTER} event with the current roster first, and a {@value #EVENT_ROSTER_CHANGED} event whenever a
+ * player is added to or removed from the server. They are completed when the server is removed.</p>
+ *
+ * <p>Roster events carry a version that increases with every roster change of the server. The roster snapshot may
+ * already contain changes that are pushed after it, so clients should drop roster changes whose version isn't greater
+ * than the one of the snapshot. Events are queued per server stream and sent by the task executor, so slow clients
+ * don't hold up the committing thread. Streams falling more than {@value #MAX_PENDING_SERVER_EVENTS} events behind
+ * are closed.</p>
+ */
+@Service
+public class PushService {
+    public static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    public static final String EVENT_MATCHMAKING = "matchmaking";
+    public static final String EVENT_ROSTER = "roster";
+    public static final String EVENT_ROSTER_CHANGED = "rosterChanged";
+    public static final String EVENT_ERROR = "error";
+
+    public static final int MAX_PENDING_SERVER_EVENTS = 100;
+
+    private final MatchmakingDispatcher matchmakingDispatcher;
+    private final OpenServerIndex openServerIndex;
+    private final TaskExecutor taskExecutor;
+
+    private final ConcurrentMap<BucketKey, Deque<PlayerSubscription>> playersWaitingForServer =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<PlayerSubscription>> playersWaitingForPlayers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<ServerSubscription>> serverSubscriptions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> rosterVersions = new ConcurrentHashMap<>();
+
+    // Versions of buckets, for noticing changes made while polling.
+    private final ConcurrentMap<BucketKey, AtomicLong> bucketVersions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PushService(MatchmakingDispatcher matchmakingDispatcher, OpenServerIndex openServerIndex,
+                       @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                               TaskExecutor taskExecutor) {
+        this.matchmakingDispatcher = matchmakingDispatcher;
+        this.openServerIndex = openServerIndex;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public SseEmitter subscribePlayer(String playerId)
+            throws ApiException {
+        BucketKey bucketKey = matchmakingDispatcher.getBucket(playerId);
+        long versionBeforePoll = getBucketVersion(bucketKey);
+        ClientPollMatchmakingResponse response = matchmakingDispatcher.pollMatchmaking(playerId);
+
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        PlayerSubscription subscription = new PlayerSubscription(playerId, bucketKey, emitter);
+
+        emitter.onCompletion(() -> dispose(subscription));
+        emitter.onTimeout(() -> dispose(subscription));
+        emitter.onError(e -> dispose(subscription));
+
+        synchronized (subscription) {
+            update(subscription, response, versionBeforePoll, false);
+        }
+
+        return emitter;
+    }
+
+    public SseEmitter subscribeServer(String serverId)
+            throws ApiException {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        ServerSubscription subscription = new ServerSubscription(emitter);
+
+        // Register first, so no roster change committed after reading the roster can be missed.
+        Set<ServerSubscription> subscriptions =
+                serverSubscriptions.computeIfAbsent(serverId, k -> ConcurrentHashMap.newKeySet());
+        subscriptions.add(subscription);
+
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+
+        long version = getRosterVersion(serverId);
+        GetServerRosterResponse roster;
+
+        try {
+            roster = matchmakingDispatcher.getServerRoster(serverId);
+        } catch (ApiException e) {
+            subscriptions.remove(subscription);
+            throw e;
+        }
+
+        roster.setVersion(version);
+        subscription.start(SseEmitter.event().name(EVENT_ROSTER).data(roster));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onServerRosterChanged(ServerRosterChangedEvent event) {
+        changed(event.getBucketKey());
+
+        long version = rosterVersions.computeIfAbsent(event.getServerId(), k -> new AtomicLong()).incrementAndGet();
+        Set<ServerSubscription> subscriptions = serverSubscriptions.get(event.getServerId());
+
+        if (subscriptions != null) {
+            ServerRosterChangedResponse response = new ServerRosterChangedResponse(
+                    event.getServerId(), version, event.getPlayerId(), event.isAdded());
+
+            for (ServerSubscription subscription : subscriptions) {
+                subscription.send(SseEmitter.event().name(EVENT_ROSTER_CHANGED).data(response));
+            }
+        }
+
+        refresh(playersWaitingForPlayers.get(event.getServerId()));
+
+        if (!event.isAdded()) {
+            // At least the released slot is free now, even if the server isn't indexed by this instance.
+            refreshWaitingForServer(event.getBucketKey(),
+                    Math.max(1, openServerIndex.getOpenSlots(event.getBucketKey())));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onServerChanged(ServerChangedEvent event) {
+        changed(event.getBucketKey());
+
+        if (event.isRemoved()) {
+            rosterVersions.remove(event.getServerId());
+            Set<ServerSubscription> subscriptions = serverSubscriptions.remove(event.getServerId());
+
+            if (subscriptions != null) {
+                subscriptions.forEach(ServerSubscription::complete);
+            }
+        }
+
+        refresh(playersWaitingForPlayers.get(event.getServerId()));
+        refreshWaitingForServer(event.getBucketKey(), openServerIndex.getOpenSlots(event.getBucketKey()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlayersMatched(PlayersMatchedEvent event) {
+        changed(event.getBucketKey());
+
+        Deque<PlayerSubscription> subscriptions = playersWaitingForServer.get(event.getBucketKey());
+
+        if (subscriptions == null) {
+            return;
+        }
+
+        List<PlayerSubscription> matchedSubscriptions = new ArrayList<>();
+
+        synchronized (subscriptions) {
+            Iterator<PlayerSubscription> iterator = subscriptions.iterator();
+
+            while (iterator.hasNext()) {
+                PlayerSubscription subscription = iterator.next();
+
+                if (event.getPlayerIds().contains(subscription.playerId)) {
+                    iterator.remove();
+                    matchedSubscriptions.add(subscription);
+                }
+            }
+        }
+
+        refresh(matchedSubscriptions);
+    }
+
+    private void refreshWaitingForServer(BucketKey bucketKey, int count) {
+        Deque<PlayerSubscription> subscriptions = playersWaitingForServer.get(bucketKey);
+
+        if (subscriptions == null || count <= 0) {
+            return;
+        }
+
+        List<PlayerSubscription> refreshedSubscriptions = new ArrayList<>();
+
+        synchronized (subscriptions) {
+            while (refreshedSubscriptions.size() < count && !subscriptions.isEmpty()) {
+                PlayerSubscription subscription = subscriptions.pollFirst();
+
+                // Don't waste the slot on players that have gone away.
+                if (!subscription.closed) {
+                    refreshedSubscriptions.add(subscription);
+                }
+            }
+        }
+
+        refresh(refreshedSubscriptions);
+    }
+
+    private void refresh(Collection<PlayerSubscription> subscriptions) {
+        if (subscriptions == null) {
+            return;
+        }
+
+        for (PlayerSubscription subscription : subscriptions) {
+            taskExecutor.execute(() -> refresh(subscription));
+        }
+    }
+
+    private void refresh(PlayerSubscription subscription) {
+        synchronized (subscription) {
+            if (subscription.closed) {
+                return;
+            }
+
+            try {
+                // Players woken up for a free slot, but beaten to it, keep their place in the queue.
+                boolean keepPosition = subscription.waitingForServer;
+                long versionBeforePoll = getBucketVersion(subscription.bucketKey);
+                ClientPollMatchmakingResponse response = matchmakingDispatcher.pollMatchmaking(subscription.playerId);
+                update(subscription, response, versionBeforePoll, keepPosition);
+            } catch (ApiException e) {
+                send(subscription.emitter, EVENT_ERROR, new ErrorResponse(e.getErrorCode(), e.getMessage()));
+                close(subscription);
+            }
+        }
+    }
+
+    private void update(PlayerSubscription subscription, ClientPollMatchmakingResponse response,
+                        long versionBeforePoll, boolean keepPosition) {
+        if (response.getStatus() != subscription.status ||
+                !Objects.equals(response.getServerId(), subscription.serverId)) {
+            if (!send(subscription.emitter, EVENT_MATCHMAKING, response)) {
+                close(subscription);
+                return;
+            }
+        }
+
+        if (response.getStatus() == MatchmakingStatus.MATCH_FOUND) {
+            close(subscription);
+            return;
+        }
+
+        subscribe(subscription, response, keepPosition);
+
+        if (getBucketVersion(subscription.bucketKey) != versionBeforePoll) {
+            // Might have missed a change while polling.
+            taskExecutor.execute(() -> refresh(subscription));
+        }
+    }
+
+    private void subscribe(PlayerSubscription subscription, ClientPollMatchmakingResponse response,
+                           boolean keepPosition) {
+        unsubscribe(subscription);
+
+        subscription.status = response.getStatus();
+        subscription.serverId = response.getServerId();
+
+        if (response.getStatus() == MatchmakingStatus.SERVERS_FULL || response.getServerId() == null) {
+            subscription.waitingForServer = true;
+
+            Deque<PlayerSubscription> subscriptions =
+                    playersWaitingForServer.computeIfAbsent(subscription.bucketKey, k -> new ArrayDeque<>());
+
+            synchronized (subscriptions) {
+                if (keepPosition) {
+                    subscriptions.addFirst(subscription);
+                } else {
+                    subscriptions.addLast(subscription);
+                }
+            }
+        } else {
+            playersWaitingForPlayers.computeIfAbsent(subscription.serverId, k -> ConcurrentHashMap.newKeySet())
+                    .add(subscription);
+        }
+    }
+
+    private void unsubscribe(PlayerSubscription subscription) {
+        if (subscription.waitingForServer) {
+            subscription.waitingForServer = false;
+
+            Deque<PlayerSubscription> subscriptions = playersWaitingForServer.get(subscription.bucketKey);
+
+            if (subscriptions != null) {
+                synchronized (subscriptions) {
+                    subscriptions.remove(subscription);
+                }
+            }
+        }
+
+        if (subscription.serverId != null) {
+            Set<PlayerSubscription> subscriptions = playersWaitingForPlayers.get(subscription.serverId);
+
+            if (subscriptions != null) {
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    private void close(PlayerSubscription subscription) {
+        dispose(subscription);
+        subscription.emitter.complete();
+    }
+
+    private void dispose(PlayerSubscription subscription) {
+        subscription.closed = true;
+        unsubscribe(subscription);
+    }
+
+    private boolean send(SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client has gone away, or emitter has already been completed.
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void changed(BucketKey bucketKey) {
+        bucketVersions.computeIfAbsent(bucketKey, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private long getBucketVersion(BucketKey bucketKey) {
+        AtomicLong version = bucketVersions.get(bucketKey);
+        return version != null ? version.get() : 0;
+    }
+
+    private long getRosterVersion(String serverId) {
+        AtomicLong version = rosterVersions.get(serverId);
+        return version != null ? version.get() : 0;
+    }
+
+    /**
+     * Queues the events of a server stream, and sends them in order on the task executor. Nothing is sent before the
+     * roster snapshot is available.
+     */
+    private class ServerSubscription {
+        private final SseEmitter emitter;
+        private final Deque<SseEmitter.SseEventBuilder> pendingEvents = new ArrayDeque<>();
+
+        private boolean started;
+        private boolean draining;
+        private boolean completing;
+
+        private ServerSubscription(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void start(SseEmitter.SseEventBuilder snapshot) {
+            synchronized (this) {
+                pendingEvents.addFirst(snapshot);
+                started = true;
+            }
+
+            scheduleDrain();
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            boolean overflow;
+
+            synchronized (this) {
+                overflow = pendingEvents.size() >= MAX_PENDING_SERVER_EVENTS;
+
+                if (!overflow) {
+                    pendingEvents.addLast(event);
+                }
+            }
+
+            if (overflow) {
+                emitter.completeWithError(new IllegalStateException("Server stream is too far behind."));
+                return;
+            }
+
+            scheduleDrain();
+        }
+
+        private void complete() {
+            synchronized (this) {
+                completing = true;
+            }
+
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            synchronized (this) {
+                if (!started || draining) {
+                    return;
+                }
+
+                draining = true;
+            }
+
+            taskExecutor.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+
+                synchronized (this) {
+                    event = pendingEvents.pollFirst();
+
+                    if (event == null) {
+                        draining = false;
+
+                        if (completing) {
+                            emitter.complete();
+                        }
+
+                        return;
+                    }
+                }
+
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client has gone away, or emitter has already been completed.
+                    emitter.completeWithError(e);
+
+                    synchronized (this) {
+                        pendingEvents.clear();
+                        draining = false;
+                    }
+
+                    return;
+                }
+            }
+        }
+    }
+
+    private static class PlayerSubscription {
+        private final String playerId;
+        private final BucketKey bucketKey;
+        private final SseEmitter emitter;
+
+        private MatchmakingStatus status;
+        private volatile String serverId;
+        private volatile boolean waitingForServer;
+        private volatile boolean closed;
+
+        private PlayerSubscription(String playerId, BucketKey bucketKey, SseEmitter emitter) {
+            this.playerId = playerId;
+            this.bucketKey = bucketKey;
+            this.emitter = emitter;
+        }
+    }
+}
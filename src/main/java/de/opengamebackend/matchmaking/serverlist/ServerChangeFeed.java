@@ -0,0 +1,60 @@
+package de.opengamebackend.matchmaking.serverlist;
+
+import de.opengamebackend.matchmaking.controller.MatchmakingService;
+import de.opengamebackend.matchmaking.model.requests.GetServersRequest;
+import de.opengamebackend.matchmaking.model.responses.GetServerChangesResponse;
+import de.opengamebackend.matchmaking.model.responses.GetServersResponseServer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sends clients only the servers that have changed since the last version of the server list they've seen, falling
+ * back to the complete list if these changes aren't known anymore.
+ */
+@Service
+public class ServerChangeFeed {
+    private final ServerChangeLog serverChangeLog;
+    private final MatchmakingService matchmakingService;
+
+    @Autowired
+    public ServerChangeFeed(ServerChangeLog serverChangeLog, MatchmakingService matchmakingService) {
+        this.serverChangeLog = serverChangeLog;
+        this.matchmakingService = matchmakingService;
+    }
+
+    public GetServerChangesResponse getChangesSince(String since) {
+        ServerChanges changes = since != null ? serverChangeLog.getChangesSince(since) : null;
+
+        if (changes == null) {
+            // Get the version first, for sending changes made while querying again on the next request.
+            String version = serverChangeLog.getVersion();
+            List<GetServersResponseServer> servers =
+                    matchmakingService.getServers(new GetServersRequest()).getResponse().getServers();
+
+            return new GetServerChangesResponse(version, true, servers, new ArrayList<>());
+        }
+
+        List<GetServersResponseServer> servers = matchmakingService.getServersById(changes.getChangedServerIds());
+        List<String> removedServerIds = new ArrayList<>(changes.getRemovedServerIds());
+
+        // Servers might have been removed by other instances in the meantime.
+        Set<String> foundServerIds = new HashSet<>();
+
+        for (GetServersResponseServer server : servers) {
+            foundServerIds.add(server.getId());
+        }
+
+        for (String serverId : changes.getChangedServerIds()) {
+            if (!foundServerIds.contains(serverId)) {
+                removedServerIds.add(serverId);
+            }
+        }
+
+        return new GetServerChangesResponse(changes.getVersion(), false, servers, removedServerIds);
+    }
+}
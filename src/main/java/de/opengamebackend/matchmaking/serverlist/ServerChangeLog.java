@@ -0,0 +1,134 @@
+package de.opengamebackend.matchmaking.serverlist;
+
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import de.opengamebackend.matchmaking.events.ServerChangedEvent;
+import de.opengamebackend.matchmaking.events.ServerRosterChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Remembers which servers have changed in which version of the server list, up to a maximum number of changes.
+ *
+ * <p>Versions are only meaningful to the instance that has issued them. They are prefixed with a random id of this
+ * instance, so versions issued by other instances (or before a restart) are never mistaken for own ones.</p>
+ */
+@Service
+public class ServerChangeLog {
+    private static final char VERSION_SEPARATOR = '-';
+
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final int capacity;
+
+    private final ArrayDeque<Change> changes;
+    private long version;
+
+    @Autowired
+    public ServerChangeLog(MatchmakingConfig matchmakingConfig) {
+        this(matchmakingConfig.getServerChangeLogSize());
+    }
+
+    public ServerChangeLog(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.changes = new ArrayDeque<>(this.capacity);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onServerChanged(ServerChangedEvent event) {
+        record(event.getServerId(), event.isRemoved());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onServerRosterChanged(ServerRosterChangedEvent event) {
+        record(event.getServerId(), false);
+    }
+
+    public synchronized void record(String serverId, boolean removed) {
+        if (changes.size() == capacity) {
+            changes.removeFirst();
+        }
+
+        version++;
+        changes.addLast(new Change(version, serverId, removed));
+    }
+
+    /**
+     * Gets the current version of the server list.
+     */
+    public synchronized String getVersion() {
+        return formatVersion(version);
+    }
+
+    /**
+     * Gets all servers that have changed since the specified version.
+     *
+     * @return Changes since the passed version, or null if the version hasn't been issued by this instance or is too
+     * old for all changes since then to be remembered.
+     */
+    public synchronized ServerChanges getChangesSince(String since) {
+        long sinceVersion = parseVersion(since);
+
+        if (sinceVersion < 0 || sinceVersion > version) {
+            return null;
+        }
+
+        long oldestKnownVersion = changes.isEmpty() ? version : changes.getFirst().version - 1;
+
+        if (sinceVersion < oldestKnownVersion) {
+            return null;
+        }
+
+        // Later changes of the same server replace earlier ones.
+        Map<String, Boolean> removedByServer = new LinkedHashMap<>();
+        Iterator<Change> iterator = changes.descendingIterator();
+
+        while (iterator.hasNext()) {
+            Change change = iterator.next();
+
+            if (change.version <= sinceVersion) {
+                break;
+            }
+
+            removedByServer.putIfAbsent(change.serverId, change.removed);
+        }
+
+        Set<String> changedServerIds = new LinkedHashSet<>();
+        Set<String> removedServerIds = new LinkedHashSet<>();
+
+        for (Map.Entry<String, Boolean> change : removedByServer.entrySet()) {
+            (change.getValue() ? removedServerIds : changedServerIds).add(change.getKey());
+        }
+
+        return new ServerChanges(formatVersion(version), changedServerIds, removedServerIds);
+    }
+
+    private String formatVersion(long version) {
+        return instanceId + VERSION_SEPARATOR + version;
+    }
+
+    private long parseVersion(String version) {
+        if (version == null || !version.startsWith(instanceId + VERSION_SEPARATOR)) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(version.substring(instanceId.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static class Change {
+        private final long version;
+        private final String serverId;
+        private final boolean removed;
+
+        private Change(long version, String serverId, boolean removed) {
+            this.version = version;
+            this.serverId = serverId;
+            this.removed = removed;
+        }
+    }
+}
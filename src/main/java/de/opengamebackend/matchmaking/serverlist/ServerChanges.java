@@ -0,0 +1,36 @@
+package de.opengamebackend.matchmaking.serverlist;
+
+import java.util.Set;
+
+/**
+ * Servers that have changed between two versions of the server list.
+ */
+public class ServerChanges {
+    private final String version;
+    private final Set<String> changedServerIds;
+    private final Set<String> removedServerIds;
+
+    public ServerChanges(String version, Set<String> changedServerIds, Set<String> removedServerIds) {
+        this.version = version;
+        this.changedServerIds = changedServerIds;
+        this.removedServerIds = removedServerIds;
+    }
+
+    /**
+     * Gets the version of the server list after these changes.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the ids of all servers that have been added or updated.
+     */
+    public Set<String> getChangedServerIds() {
+        return changedServerIds;
+    }
+
+    public Set<String> getRemovedServerIds() {
+        return removedServerIds;
+    }
+}
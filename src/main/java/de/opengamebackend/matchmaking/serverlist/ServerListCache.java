@@ -0,0 +1,201 @@
+package de.opengamebackend.matchmaking.serverlist;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.base.Strings;
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import de.opengamebackend.matchmaking.controller.MatchmakingService;
+import de.opengamebackend.matchmaking.events.PlayersMatchedEvent;
+import de.opengamebackend.matchmaking.events.ServerChangedEvent;
+import de.opengamebackend.matchmaking.events.ServerRosterChangedEvent;
+import de.opengamebackend.matchmaking.model.requests.GetServersRequest;
+import de.opengamebackend.matchmaking.model.responses.GetServersResponse;
+import de.opengamebackend.matchmaking.model.responses.GetServersResponseServer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the complete server list as serialized JSON, for serving the server browsers of all clients without querying
+ * and serializing the servers for every request.
+ *
+ * <p>The snapshot is rebuilt on the next request after servers or their rosters have changed, or after it has reached
+ * its maximum age. Its ETag is derived from its contents, so it stays the same across rebuilds and instances as long
+ * as nothing has changed. Heartbeats are left out of the ETag, so that clients don't download the whole list again
+ * just because servers are alive. For that reason, and because the same ETag is served for the identity and gzip
+ * encodings, it's a weak ETag.</p>
+ */
+@Service
+public class ServerListCache {
+    private final MatchmakingService matchmakingService;
+    private final ObjectMapper objectMapper;
+    private final MatchmakingConfig matchmakingConfig;
+    private final ObjectWriter etagWriter;
+
+    private final AtomicLong changeCount = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public ServerListCache(MatchmakingService matchmakingService, ObjectMapper objectMapper,
+                           MatchmakingConfig matchmakingConfig) {
+        this.matchmakingService = matchmakingService;
+        this.objectMapper = objectMapper;
+        this.matchmakingConfig = matchmakingConfig;
+        this.etagWriter = objectMapper.copy()
+                .addMixIn(GetServersResponseServer.class, IgnoreLastHeartbeat.class)
+                .writer();
+    }
+
+    /**
+     * Checks whether the passed request asks for the complete server list, which can be served from the cache.
+     */
+    public static boolean isCacheable(GetServersRequest request) {
+        return Strings.isNullOrEmpty(request.getVersion()) && Strings.isNullOrEmpty(request.getGameMode()) &&
+                Strings.isNullOrEmpty(request.getRegion()) && request.getStatus() == null &&
+                !request.isHasFreeSlots() && Strings.isNullOrEmpty(request.getCursor()) && request.getLimit() == null;
+    }
+
+    /**
+     * Gets the current snapshot of the server list, rebuilding it first if it's outdated.
+     */
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+
+        if (isUpToDate(current)) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = snapshot;
+
+            if (isUpToDate(current)) {
+                return current;
+            }
+
+            // Read the change count first, for rebuilding again if servers change while we're building.
+            long changeCountBeforeBuild = changeCount.get();
+            GetServersResponse response = matchmakingService.getServers(new GetServersRequest()).getResponse();
+
+            snapshot = createSnapshot(response, changeCountBeforeBuild, System.currentTimeMillis());
+            return snapshot;
+        }
+    }
+
+    /**
+     * Discards the current snapshot, for rebuilding it on the next request.
+     */
+    public void invalidate() {
+        changeCount.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onServerChanged(ServerChangedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onServerRosterChanged(ServerRosterChangedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlayersMatched(PlayersMatchedEvent event) {
+        invalidate();
+    }
+
+    private boolean isUpToDate(Snapshot snapshot) {
+        return snapshot != null && snapshot.changeCount == changeCount.get() &&
+                System.currentTimeMillis() - snapshot.builtAtMillis < matchmakingConfig.getServerListMaxAgeMillis();
+    }
+
+    private Snapshot createSnapshot(GetServersResponse response, long changeCount, long builtAtMillis) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+
+            try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(json);
+            }
+
+            String etag = "W/\"" + DigestUtils.md5DigestAsHex(etagWriter.writeValueAsBytes(response)) + "\"";
+            return new Snapshot(json, gzipped.toByteArray(), etag, changeCount, builtAtMillis);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @JsonIgnoreProperties("lastHeartbeat")
+    private abstract static class IgnoreLastHeartbeat {
+    }
+
+    /**
+     * Serialized server list, as of a specific point in time.
+     */
+    public static class Snapshot {
+        private final byte[] json;
+        private final byte[] gzippedJson;
+        private final String etag;
+        private final long changeCount;
+        private final long builtAtMillis;
+
+        private Snapshot(byte[] json, byte[] gzippedJson, String etag, long changeCount, long builtAtMillis) {
+            this.json = json;
+            this.gzippedJson = gzippedJson;
+            this.etag = etag;
+            this.changeCount = changeCount;
+            this.builtAtMillis = builtAtMillis;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzippedJson() {
+            return gzippedJson;
+        }
+
+        /**
+         * Gets the weak entity tag identifying the contents of this snapshot, apart from heartbeats.
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Checks whether the passed If-None-Match header value matches this snapshot, using the weak comparison.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+
+            String opaqueTag = getOpaqueTag(etag);
+
+            for (String tag : ifNoneMatch.split(",")) {
+                String trimmed = tag.trim();
+
+                if (trimmed.equals("*") || getOpaqueTag(trimmed).equals(opaqueTag)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private static String getOpaqueTag(String etag) {
+            return etag.startsWith("W/") ? etag.substring(2) : etag;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package de.opengamebackend.matchmaking.tickets;
+
+/**
+ * Contents of an authentic ticket minted by the {@link TicketSigner}.
+ */
+public class MatchTicket {
+    private final String playerId;
+    private final String serverId;
+    private final long expiresAtMillis;
+
+    public MatchTicket(String playerId, String serverId, long expiresAtMillis) {
+        this.playerId = playerId;
+        this.serverId = serverId;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    /**
+     * Gets the time after which the player may no longer join the server, in milliseconds since epoch.
+     */
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis > expiresAtMillis;
+    }
+}
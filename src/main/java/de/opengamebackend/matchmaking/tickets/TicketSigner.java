@@ -0,0 +1,166 @@
+package de.opengamebackend.matchmaking.tickets;
+
+import com.google.common.base.Strings;
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Mints and verifies match tickets, which game servers can verify on their own for admitting players without
+ * calling the matchmaker.
+ *
+ * <p>A ticket is {@code base64url(payload) + "." + base64url(HMAC-SHA256(payload))}, both without padding, with the
+ * following payload:</p>
+ *
+ * <pre>
+ * Length  Field
+ *      1  Version
+ *      8  Expiry (milliseconds since epoch)
+ *      1  Length of the server ID
+ *      n  Server ID (UTF-8)
+ *      1  Length of the player ID
+ *      m  Player ID (UTF-8)
+ * </pre>
+ *
+ * <p>All multi-byte fields are big-endian.</p>
+ */
+@Component
+public class TicketSigner {
+    public static final int VERSION = 1;
+    public static final int MAX_ID_LENGTH = 255;
+    public static final int SECRET_LENGTH = 32;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final char SEPARATOR = '.';
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public TicketSigner(MatchmakingConfig matchmakingConfig) {
+        this(getSecret(matchmakingConfig));
+    }
+
+    public TicketSigner(byte[] secret) {
+        SecretKeySpec key = new SecretKeySpec(secret, MAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> createMac(key));
+    }
+
+    /**
+     * Creates a new signed ticket allowing the specified player to join the specified server until the passed time.
+     */
+    public String mint(String playerId, String serverId, long expiresAtMillis) {
+        byte[] playerIdBytes = getIdBytes(playerId);
+        byte[] serverIdBytes = getIdBytes(serverId);
+
+        ByteBuffer payload = ByteBuffer.allocate(11 + serverIdBytes.length + playerIdBytes.length);
+        payload.put((byte) VERSION);
+        payload.putLong(expiresAtMillis);
+        payload.put((byte) serverIdBytes.length);
+        payload.put(serverIdBytes);
+        payload.put((byte) playerIdBytes.length);
+        payload.put(playerIdBytes);
+
+        byte[] mac = macs.get().doFinal(payload.array());
+
+        return ENCODER.encodeToString(payload.array()) + SEPARATOR + ENCODER.encodeToString(mac);
+    }
+
+    /**
+     * Checks the signature of the passed ticket and reads its contents. Expiry has to be checked by the caller.
+     *
+     * @return Contents of the ticket, or null if the ticket is malformed or hasn't been signed with our secret.
+     */
+    public MatchTicket verify(String ticket) {
+        if (ticket == null) {
+            return null;
+        }
+
+        int separator = ticket.indexOf(SEPARATOR);
+
+        if (separator < 0) {
+            return null;
+        }
+
+        byte[] payload;
+        byte[] receivedMac;
+
+        try {
+            payload = DECODER.decode(ticket.substring(0, separator));
+            receivedMac = DECODER.decode(ticket.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        // Constant time, for not leaking how many bytes of a forged MAC are correct.
+        if (!MessageDigest.isEqual(macs.get().doFinal(payload), receivedMac)) {
+            return null;
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+
+            if ((buffer.get() & 0xFF) != VERSION) {
+                return null;
+            }
+
+            long expiresAtMillis = buffer.getLong();
+            String serverId = readId(buffer);
+            String playerId = readId(buffer);
+
+            return buffer.hasRemaining() ? null : new MatchTicket(playerId, serverId, expiresAtMillis);
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    private static byte[] getSecret(MatchmakingConfig matchmakingConfig) {
+        if (!Strings.isNullOrEmpty(matchmakingConfig.getTicketSecret())) {
+            return matchmakingConfig.getTicketSecret().getBytes(StandardCharsets.UTF_8);
+        }
+
+        // Tickets can't be verified by game servers or other instances without a shared secret.
+        byte[] secret = new byte[SECRET_LENGTH];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    private static byte[] getIdBytes(String id) {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+
+        if (bytes.length > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("IDs must not be longer than " + MAX_ID_LENGTH + " bytes.");
+        }
+
+        return bytes;
+    }
+
+    private static String readId(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.get() & 0xFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Mac createMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1 @@
+ALTER TABLE matchmaking_player ADD COLUMN queued_time TIMESTAMP NULL;
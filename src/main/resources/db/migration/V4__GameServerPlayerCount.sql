@@ -0,0 +1,4 @@
+ALTER TABLE matchmaking_gameserver ADD COLUMN player_count INT(3) UNSIGNED NOT NULL DEFAULT 0;
+
+UPDATE matchmaking_gameserver SET player_count = (
+    SELECT COUNT(*) FROM matchmaking_player WHERE matchmaking_player.game_server_id = matchmaking_gameserver.id);
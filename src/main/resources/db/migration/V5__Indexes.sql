@@ -0,0 +1,5 @@
+CREATE INDEX matchmaking_gameserver_bucket ON matchmaking_gameserver (version, game_mode, region, status);
+CREATE INDEX matchmaking_gameserver_last_heartbeat ON matchmaking_gameserver (last_heartbeat);
+
+CREATE INDEX matchmaking_player_matched_time ON matchmaking_player (status, matched_time);
+CREATE INDEX matchmaking_player_queued_time ON matchmaking_player (status, queued_time);
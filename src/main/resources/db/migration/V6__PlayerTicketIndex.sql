@@ -0,0 +1 @@
+CREATE INDEX matchmaking_player_ticket ON matchmaking_player (ticket);
@@ -0,0 +1,2 @@
+CREATE INDEX matchmaking_gameserver_browse ON matchmaking_gameserver (game_mode, region, id);
+CREATE INDEX matchmaking_player_game_server ON matchmaking_player (game_server_id);
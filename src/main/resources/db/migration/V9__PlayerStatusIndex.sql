@@ -0,0 +1 @@
+CREATE INDEX matchmaking_player_status ON matchmaking_player (status, id);
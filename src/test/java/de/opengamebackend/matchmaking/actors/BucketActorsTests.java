@@ -0,0 +1,263 @@
+package de.opengamebackend.matchmaking.actors;
+
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import de.opengamebackend.matchmaking.matching.BucketKey;
+import de.opengamebackend.net.ApiErrors;
+import de.opengamebackend.net.ApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class BucketActorsTests {
+    private static final BucketKey BUCKET_EU = new BucketKey("1.0", "GM", "EU");
+    private static final BucketKey BUCKET_US = new BucketKey("1.0", "GM", "US");
+
+    private MatchmakingConfig matchmakingConfig;
+    private BucketActors bucketActors;
+
+    @BeforeEach
+    public void setUp() {
+        matchmakingConfig = new MatchmakingConfig();
+        bucketActors = new BucketActors(matchmakingConfig);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        bucketActors.shutdown();
+    }
+
+    @Test
+    public void givenMessage_whenCall_thenReturnResult() throws ApiException {
+        // WHEN
+        String result = bucketActors.call(BUCKET_EU, () -> "testResult");
+
+        // THEN
+        assertThat(result).isEqualTo("testResult");
+    }
+
+    @Test
+    public void givenFailingMessage_whenCall_thenThrowApiException() {
+        // WHEN & THEN
+        assertThatExceptionOfType(ApiException.class)
+                .isThrownBy(() -> bucketActors.call(BUCKET_EU, () -> {
+                    throw new ApiException(ApiErrors.PLAYER_NOT_FOUND_CODE, ApiErrors.PLAYER_NOT_FOUND_MESSAGE);
+                }))
+                .withMessage(ApiErrors.PLAYER_NOT_FOUND_MESSAGE);
+    }
+
+    @Test
+    public void givenSameBucket_whenCall_thenProcessOnSameThread() throws ApiException {
+        // WHEN
+        Thread first = bucketActors.call(BUCKET_EU, Thread::currentThread);
+        Thread second = bucketActors.call(BUCKET_EU, Thread::currentThread);
+
+        // THEN
+        assertThat(first).isSameAs(second);
+        assertThat(first).isNotSameAs(Thread.currentThread());
+    }
+
+    @Test
+    public void givenSingleThread_whenCallForManyBuckets_thenShareThread() throws ApiException {
+        // GIVEN
+        matchmakingConfig.setActorThreads(1);
+        bucketActors.shutdown();
+        bucketActors = new BucketActors(matchmakingConfig);
+
+        // WHEN
+        Thread first = bucketActors.call(BUCKET_EU, Thread::currentThread);
+        Thread other = bucketActors.call(BUCKET_US, Thread::currentThread);
+
+        // THEN
+        assertThat(first).isSameAs(other);
+    }
+
+    @Test
+    public void givenFullMailbox_whenCall_thenThrowBucketBusyException() throws Exception {
+        // GIVEN
+        matchmakingConfig.setActorThreads(1);
+        matchmakingConfig.setActorMailboxSize(1);
+        bucketActors.shutdown();
+        bucketActors = new BucketActors(matchmakingConfig);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        try {
+            // Block the event loop, and fill its mailbox.
+            callers.submit(() -> bucketActors.call(BUCKET_EU, () -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }));
+
+            started.await(10, TimeUnit.SECONDS);
+            callers.submit(() -> bucketActors.call(BUCKET_EU, () -> 2));
+
+            waitForMailbox();
+
+            // WHEN & THEN
+            assertThatExceptionOfType(BucketBusyException.class)
+                    .isThrownBy(() -> bucketActors.call(BUCKET_EU, () -> 3));
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    public void givenMessageWaitingTooLong_whenCall_thenThrowBucketBusyException() throws Exception {
+        // GIVEN
+        matchmakingConfig.setActorThreads(1);
+        matchmakingConfig.setActorTimeoutMillis(50);
+        bucketActors.shutdown();
+        bucketActors = new BucketActors(matchmakingConfig);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+
+        try {
+            // Block the event loop.
+            callers.submit(() -> bucketActors.call(BUCKET_EU, () -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }));
+
+            started.await(10, TimeUnit.SECONDS);
+
+            // WHEN & THEN
+            assertThatExceptionOfType(BucketBusyException.class)
+                    .isThrownBy(() -> bucketActors.call(BUCKET_EU, () -> 2));
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    public void givenMessageWaitingTooLong_whenCall_thenDontProcessMessage() throws Exception {
+        // GIVEN
+        matchmakingConfig.setActorThreads(1);
+        matchmakingConfig.setActorTimeoutMillis(50);
+        bucketActors.shutdown();
+        bucketActors = new BucketActors(matchmakingConfig);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger processed = new AtomicInteger();
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<Integer> blocking = callers.submit(() -> bucketActors.call(BUCKET_EU, () -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }));
+
+            started.await(10, TimeUnit.SECONDS);
+
+            // WHEN
+            try {
+                bucketActors.call(BUCKET_EU, processed::incrementAndGet);
+            } catch (BucketBusyException e) {
+                // Expected.
+            }
+
+            release.countDown();
+            blocking.get(10, TimeUnit.SECONDS);
+
+            // THEN
+            assertThat(bucketActors.call(BUCKET_EU, processed::get)).isEqualTo(0);
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    public void givenSlowStartedMessage_whenCall_thenReturnResult() throws ApiException {
+        // GIVEN
+        matchmakingConfig.setActorTimeoutMillis(50);
+        bucketActors.shutdown();
+        bucketActors = new BucketActors(matchmakingConfig);
+
+        // WHEN
+        String result = bucketActors.call(BUCKET_EU, () -> {
+            sleep(200);
+            return "testResult";
+        });
+
+        // THEN
+        assertThat(result).isEqualTo("testResult");
+    }
+
+    @Test
+    public void givenNestedCallToSameBucket_whenCall_thenDontDeadlock() throws ApiException {
+        // WHEN
+        String result = bucketActors.call(BUCKET_EU, () -> bucketActors.call(BUCKET_EU, () -> "testResult"));
+
+        // THEN
+        assertThat(result).isEqualTo("testResult");
+    }
+
+    @Test
+    public void givenConcurrentCallers_whenCall_thenNeverProcessConcurrently() throws Exception {
+        // GIVEN
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        // WHEN
+        try {
+            for (int i = 0; i < 100; ++i) {
+                futures.add(callers.submit(() -> bucketActors.call(BUCKET_EU, () -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    active.decrementAndGet();
+                    return 1;
+                })));
+            }
+
+            for (Future<Integer> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdown();
+        }
+
+        // THEN
+        assertThat(maxActive.get()).isEqualTo(1);
+    }
+
+    private void waitForMailbox() throws InterruptedException {
+        // The second caller submits asynchronously. Give it a moment to reach the mailbox.
+        Thread.sleep(100);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
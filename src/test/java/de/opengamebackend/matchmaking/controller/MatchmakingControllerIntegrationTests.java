@@ -1,12 +1,18 @@
 package de.opengamebackend.matchmaking.controller;
 
+import de.opengamebackend.matchmaking.heartbeats.HeartbeatAccumulator;
 import de.opengamebackend.matchmaking.model.PlayerStatus;
 import de.opengamebackend.matchmaking.model.ServerStatus;
 import de.opengamebackend.matchmaking.model.entities.GameServer;
 import de.opengamebackend.matchmaking.model.entities.Player;
 import de.opengamebackend.matchmaking.model.requests.*;
 import de.opengamebackend.matchmaking.model.responses.*;
+import de.opengamebackend.matchmaking.serverlist.ServerChangeLog;
+import de.opengamebackend.matchmaking.serverlist.ServerListCache;
+import de.opengamebackend.net.ApiErrors;
+import de.opengamebackend.net.HttpHeader;
 import de.opengamebackend.test.HttpRequestUtils;
+import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,10 +20,22 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureTestEnti
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.StreamUtils;
 
 import javax.transaction.Transactional;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -26,15 +44,26 @@ import java.time.OffsetDateTime;
 public class MatchmakingControllerIntegrationTests {
     private MockMvc mvc;
     private TestEntityManager entityManager;
+    private MatchmakingService matchmakingService;
+    private HeartbeatAccumulator heartbeatAccumulator;
+    private ServerListCache serverListCache;
+    private ServerChangeLog serverChangeLog;
     private HttpRequestUtils httpRequestUtils;
 
     private GameServer gameServer;
     private Player player;
 
     @Autowired
-    public MatchmakingControllerIntegrationTests(MockMvc mvc, TestEntityManager entityManager) {
+    public MatchmakingControllerIntegrationTests(MockMvc mvc, TestEntityManager entityManager,
+                                                MatchmakingService matchmakingService,
+                                                HeartbeatAccumulator heartbeatAccumulator,
+                                                ServerListCache serverListCache, ServerChangeLog serverChangeLog) {
         this.mvc = mvc;
         this.entityManager = entityManager;
+        this.matchmakingService = matchmakingService;
+        this.heartbeatAccumulator = heartbeatAccumulator;
+        this.serverListCache = serverListCache;
+        this.serverChangeLog = serverChangeLog;
 
         this.httpRequestUtils = new HttpRequestUtils();
     }
@@ -48,7 +77,7 @@ public class MatchmakingControllerIntegrationTests {
         this.gameServer.setRegion("testRegion");
         this.gameServer.setIpV4Address("1.2.3.4");
         this.gameServer.setPort(8888);
-        this.gameServer.setLastHeartbeat(OffsetDateTime.now());
+        this.gameServer.setLastHeartbeat(OffsetDateTime.now().minusSeconds(10));
         this.gameServer.setStatus(ServerStatus.OPEN);
         entityManager.persist(this.gameServer);
 
@@ -62,6 +91,9 @@ public class MatchmakingControllerIntegrationTests {
         entityManager.persist(player);
 
         entityManager.flush();
+
+        // Test transactions are never committed, so the cache isn't notified of changes.
+        serverListCache.invalidate();
     }
 
     @Test
@@ -69,17 +101,195 @@ public class MatchmakingControllerIntegrationTests {
         httpRequestUtils.assertGetOk(mvc, "/client/servers", GetServersResponse.class);
     }
 
+    @Test
+    public void givenAllocatedPlayer_whenGetServers_thenReturnPlayerIds() throws Exception {
+        // GIVEN
+        player.setStatus(PlayerStatus.MATCHED);
+        player.setGameServer(gameServer);
+        entityManager.persistAndFlush(player);
+
+        // WHEN
+        GetServersResponse response = httpRequestUtils.assertGetOk(mvc, "/client/servers", GetServersResponse.class);
+
+        // THEN
+        assertThat(response.getServers()).hasSize(1);
+        assertThat(response.getServers().get(0).getId()).isEqualTo(gameServer.getId());
+        assertThat(response.getServers().get(0).getStatus()).isEqualTo(ServerStatus.OPEN);
+        assertThat(response.getServers().get(0).getPlayerIds()).containsExactly(player.getId());
+    }
+
+    @Test
+    public void givenVersion_whenGetServerChanges_thenReturnChangedServers() throws Exception {
+        // GIVEN
+        GetServerChangesResponse full = httpRequestUtils.assertGetOk(mvc, "/client/servers/changes",
+                GetServerChangesResponse.class);
+
+        ServerSetStatusRequest request = new ServerSetStatusRequest(gameServer.getId(), ServerStatus.CLOSED);
+        httpRequestUtils.assertPostOk(mvc, "/server/setStatus", request, ServerSetStatusResponse.class);
+
+        // Test transactions are never committed, so the change log isn't notified of changes.
+        serverChangeLog.record(gameServer.getId(), false);
+
+        // WHEN
+        GetServerChangesResponse changes = httpRequestUtils.assertGetOk(mvc,
+                "/client/servers/changes?since=" + full.getVersion(), GetServerChangesResponse.class);
+
+        // THEN
+        assertThat(full.isFull()).isTrue();
+        assertThat(full.getServers()).hasSize(1);
+
+        assertThat(changes.isFull()).isFalse();
+        assertThat(changes.getVersion()).isNotEqualTo(full.getVersion());
+        assertThat(changes.getServers()).hasSize(1);
+        assertThat(changes.getServers().get(0).getStatus()).isEqualTo(ServerStatus.CLOSED);
+        assertThat(changes.getRemovedServerIds()).isEmpty();
+    }
+
+    @Test
+    public void givenEtag_whenGetServers_thenNotModified() throws Exception {
+        // GIVEN
+        String etag = mvc.perform(get("/client/servers"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // WHEN & THEN
+        mvc.perform(get("/client/servers").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    public void givenAcceptGzip_whenGetServers_thenReturnGzippedServers() throws Exception {
+        // WHEN
+        byte[] body = mvc.perform(get("/client/servers").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // THEN
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(StreamUtils.copyToByteArray(gzip), StandardCharsets.UTF_8))
+                    .contains(gameServer.getId());
+        }
+    }
+
+    @Test
+    public void givenServersInOtherRegions_whenGetServersFiltered_thenReturnMatchingServers() throws Exception {
+        // GIVEN
+        persistServer("otherId", "otherRegion", 8889);
+
+        // WHEN
+        GetServersResponse response = httpRequestUtils.assertGetOk(mvc,
+                "/client/servers?gameMode=testGameMode&region=otherRegion&status=OPEN&hasFreeSlots=true",
+                GetServersResponse.class);
+
+        // THEN
+        assertThat(response.getServers()).hasSize(1);
+        assertThat(response.getServers().get(0).getId()).isEqualTo("otherId");
+    }
+
+    @Test
+    public void givenMoreServersThanLimit_whenGetServers_thenReturnNextCursor() throws Exception {
+        // GIVEN
+        persistServer("testId2", "testRegion", 8889);
+
+        // WHEN
+        mvc.perform(get("/client/servers").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(MatchmakingController.NEXT_CURSOR_HEADER, gameServer.getId()));
+
+        GetServersResponse response = httpRequestUtils.assertGetOk(mvc,
+                "/client/servers?limit=1&cursor=" + gameServer.getId(), GetServersResponse.class);
+
+        // THEN
+        assertThat(response.getServers()).hasSize(1);
+        assertThat(response.getServers().get(0).getId()).isEqualTo("testId2");
+
+        mvc.perform(get("/client/servers").param("limit", "1").param("cursor", gameServer.getId()))
+                .andExpect(header().doesNotExist(MatchmakingController.NEXT_CURSOR_HEADER));
+    }
+
     @Test
     public void whenGetQueue_thenOk() throws Exception {
         httpRequestUtils.assertGetOk(mvc, "/admin/queue", GetQueueResponse.class);
     }
 
+    @Test
+    public void givenPlayersWithOtherStatus_whenGetQueueFiltered_thenReturnMatchingPlayers() throws Exception {
+        // GIVEN
+        persistPlayer("matchedPlayer", PlayerStatus.MATCHED);
+
+        // WHEN
+        GetQueueResponse response = httpRequestUtils.assertGetOk(mvc,
+                "/admin/queue?gameMode=testGameMode&region=testRegion&status=QUEUED", GetQueueResponse.class);
+
+        // THEN
+        assertThat(response.getPlayers()).hasSize(1);
+        assertThat(response.getPlayers().get(0).getPlayerId()).isEqualTo(player.getId());
+        assertThat(response.getPlayers().get(0).getStatus()).isEqualTo(PlayerStatus.QUEUED);
+    }
+
+    @Test
+    public void givenMorePlayersThanLimit_whenGetQueue_thenReturnNextCursor() throws Exception {
+        // GIVEN
+        persistPlayer("otherPlayer", PlayerStatus.QUEUED);
+
+        // WHEN
+        mvc.perform(get("/admin/queue").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.players.length()").value(1))
+                .andExpect(jsonPath("$." + QueueStreamWriter.NEXT_CURSOR_FIELD).value(player.getId()));
+
+        GetQueueResponse response = httpRequestUtils.assertGetOk(mvc,
+                "/admin/queue?limit=1&cursor=" + player.getId(), GetQueueResponse.class);
+
+        // THEN
+        assertThat(response.getPlayers()).hasSize(1);
+        assertThat(response.getPlayers().get(0).getPlayerId()).isEqualTo("otherPlayer");
+
+        mvc.perform(get("/admin/queue").param("limit", "1").param("cursor", player.getId()))
+                .andExpect(jsonPath("$." + QueueStreamWriter.NEXT_CURSOR_FIELD).doesNotExist());
+    }
+
+    @Test
+    public void whenGetQueueStats_thenOk() throws Exception {
+        httpRequestUtils.assertGetOk(mvc, "/admin/queue/stats", GetQueueStatsResponse.class);
+    }
+
+    @Test
+    public void whenGetReaperStatus_thenOk() throws Exception {
+        httpRequestUtils.assertGetOk(mvc, "/admin/reaper", GetReaperStatusResponse.class);
+    }
+
+    @Test
+    public void whenGetMatchmakerStatus_thenOk() throws Exception {
+        httpRequestUtils.assertGetOk(mvc, "/admin/matchmaker", GetMatchmakerStatusResponse.class);
+    }
+
     @Test
     public void whenRegister_thenOk() throws Exception {
         ServerRegisterRequest request = new ServerRegisterRequest("1.0", "GM", "EU", "127.0.0.1", 1234, 2);
         httpRequestUtils.assertPostOk(mvc, "/server/register", request, ServerRegisterResponse.class);
     }
 
+    @Test
+    public void givenServer_whenRegisterSameAddress_thenUpdateServer() throws Exception {
+        ServerRegisterRequest request = new ServerRegisterRequest("1.0", "GM", "EU", gameServer.getIpV4Address(),
+                gameServer.getPort(), 4);
+
+        ServerRegisterResponse response = httpRequestUtils.assertPostOk(mvc, "/server/register", request,
+                ServerRegisterResponse.class);
+
+        assertThat(response.getId()).isEqualTo(gameServer.getId());
+
+        entityManager.clear();
+        GameServer storedServer = entityManager.find(GameServer.class, gameServer.getId());
+
+        assertThat(storedServer.getGameMode()).isEqualTo(request.getGameMode());
+        assertThat(storedServer.getMaxPlayers()).isEqualTo(request.getMaxPlayers());
+    }
+
     @Test
     public void givenServer_whenDeregister_thenOk() throws Exception {
         ServerDeregisterRequest request = new ServerDeregisterRequest(gameServer.getId());
@@ -98,6 +308,19 @@ public class MatchmakingControllerIntegrationTests {
         httpRequestUtils.assertPostOk(mvc, "/client/enqueue", request, ClientEnqueueResponse.class, "testId");
     }
 
+    @Test
+    public void givenPlayer_whenEnqueue_thenUpdatePlayer() throws Exception {
+        ClientEnqueueRequest request = new ClientEnqueueRequest("1.0", "GM", "EU");
+        httpRequestUtils.assertPostOk(mvc, "/client/enqueue", request, ClientEnqueueResponse.class, player.getId());
+
+        entityManager.clear();
+        Player storedPlayer = entityManager.find(Player.class, player.getId());
+
+        assertThat(storedPlayer.getGameMode()).isEqualTo(request.getGameMode());
+        assertThat(storedPlayer.getStatus()).isEqualTo(PlayerStatus.QUEUED);
+        assertThat(storedPlayer.getQueuedTime()).isNotNull();
+    }
+
     @Test
     public void givenPlayer_whenDequeue_thenOk() throws Exception {
         httpRequestUtils.assertPostOk(mvc, "/client/dequeue", null, ClientDequeueResponse.class, player.getId());
@@ -108,8 +331,170 @@ public class MatchmakingControllerIntegrationTests {
         httpRequestUtils.assertPostOk(mvc, "/client/pollMatchmaking", null, ClientPollMatchmakingResponse.class, player.getId());
     }
 
+    @Test
+    public void givenPlayer_whenSubscribeMatchmaking_thenStreamStarted() throws Exception {
+        mvc.perform(get("/client/matchmakingEvents").header(HttpHeader.PLAYER_ID, player.getId()))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    public void givenServer_whenSubscribeRoster_thenStreamStarted() throws Exception {
+        mvc.perform(get("/server/rosterEvents").param("serverId", gameServer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    public void givenRegisteredServer_whenPollMatchmaking_thenReserveSlot() throws Exception {
+        ServerRegisterRequest registerRequest = new ServerRegisterRequest("1.0", "GM", "EU", "127.0.0.1", 1234, 2);
+        ServerRegisterResponse registerResponse = httpRequestUtils.assertPostOk(mvc, "/server/register",
+                registerRequest, ServerRegisterResponse.class);
+
+        ClientEnqueueRequest enqueueRequest = new ClientEnqueueRequest("1.0", "GM", "EU");
+        httpRequestUtils.assertPostOk(mvc, "/client/enqueue", enqueueRequest, ClientEnqueueResponse.class, "testId");
+
+        ClientPollMatchmakingResponse pollResponse = httpRequestUtils.assertPostOk(mvc, "/client/pollMatchmaking",
+                null, ClientPollMatchmakingResponse.class, "testId");
+
+        Integer playerCount = entityManager.getEntityManager()
+                .createQuery("SELECT s.playerCount FROM GameServer s WHERE s.id = :id", Integer.class)
+                .setParameter("id", registerResponse.getId())
+                .getSingleResult();
+
+        assertThat(pollResponse.getServerId()).isEqualTo(registerResponse.getId());
+        assertThat(playerCount).isEqualTo(1);
+    }
+
+    @Test
+    public void givenServer_whenSendHeartbeatAndFlush_thenWriteHeartbeat() throws Exception {
+        OffsetDateTime lastHeartbeat = gameServer.getLastHeartbeat();
+
+        ServerSendHeartbeatRequest request = new ServerSendHeartbeatRequest(gameServer.getId());
+        httpRequestUtils.assertPostOk(mvc, "/server/sendHeartbeat", request, ServerSendHeartbeatResponse.class);
+
+        heartbeatAccumulator.flush();
+
+        OffsetDateTime writtenHeartbeat = entityManager.getEntityManager()
+                .createQuery("SELECT s.lastHeartbeat FROM GameServer s WHERE s.id = :id", OffsetDateTime.class)
+                .setParameter("id", gameServer.getId())
+                .getSingleResult();
+
+        assertThat(writtenHeartbeat).isAfter(lastHeartbeat);
+        assertThat(heartbeatAccumulator.getLastHeartbeat(gameServer.getId(), null)).isNull();
+    }
+
+    @Test
+    public void givenServers_whenRegisterBatch_thenOk() throws Exception {
+        ServerRegisterBatchRequest request = new ServerRegisterBatchRequest(Lists.newArrayList(
+                new ServerRegisterRequest("1.0", "testGameMode", "testRegion", gameServer.getIpV4Address(),
+                        gameServer.getPort(), 4),
+                new ServerRegisterRequest("1.0", "testGameMode", "testRegion", "1.2.3.5", 8888, 4)));
+
+        ServerRegisterBatchResponse response = httpRequestUtils.assertPostOk(mvc, "/server/registerBatch",
+                request, ServerRegisterBatchResponse.class);
+
+        assertThat(response.getServers()).hasSize(2);
+        assertThat(response.getServers().get(0).getId()).isEqualTo(gameServer.getId());
+        assertThat(response.getServers().get(0).getError()).isNull();
+        assertThat(response.getServers().get(1).getError()).isNull();
+
+        entityManager.clear();
+        assertThat(entityManager.find(GameServer.class, gameServer.getId()).getMaxPlayers()).isEqualTo(4);
+        assertThat(entityManager.find(GameServer.class, response.getServers().get(1).getId())).isNotNull();
+    }
+
+    @Test
+    public void givenServers_whenDeregisterBatch_thenOk() throws Exception {
+        ServerDeregisterBatchRequest request = new ServerDeregisterBatchRequest(Lists.newArrayList(
+                new ServerDeregisterRequest(gameServer.getId()),
+                new ServerDeregisterRequest("unknownServer")));
+
+        ServerDeregisterBatchResponse response = httpRequestUtils.assertPostOk(mvc, "/server/deregisterBatch",
+                request, ServerDeregisterBatchResponse.class);
+
+        assertThat(response.getServers()).hasSize(2);
+        assertThat(response.getServers().get(0).getError()).isNull();
+        assertThat(response.getServers().get(1).getError().getErrorCode()).isEqualTo(ApiErrors.GAME_SERVER_NOT_FOUND_CODE);
+
+        entityManager.clear();
+        assertThat(entityManager.find(GameServer.class, gameServer.getId())).isNull();
+    }
+
+    @Test
+    public void givenServers_whenSendHeartbeatBatch_thenOk() throws Exception {
+        ServerSendHeartbeatBatchRequest request = new ServerSendHeartbeatBatchRequest(Lists.newArrayList(
+                new ServerSendHeartbeatBatchRequestServer(gameServer.getId(), ServerStatus.CLOSED),
+                new ServerSendHeartbeatBatchRequestServer("unknownServer", null)));
+
+        ServerSendHeartbeatBatchResponse response = httpRequestUtils.assertPostOk(mvc, "/server/sendHeartbeatBatch",
+                request, ServerSendHeartbeatBatchResponse.class);
+
+        assertThat(response.getServers()).hasSize(2);
+        assertThat(response.getServers().get(0).getError()).isNull();
+        assertThat(response.getServers().get(1).getError().getErrorCode()).isEqualTo(ApiErrors.GAME_SERVER_NOT_FOUND_CODE);
+        assertThat(gameServer.getStatus()).isEqualTo(ServerStatus.CLOSED);
+    }
+
+    @Test
+    public void givenExpiredServersAndPlayers_whenSweepExpired_thenDeleteRows() throws Exception {
+        OffsetDateTime expired = OffsetDateTime.now().minusSeconds(MatchmakingService.SERVER_HEARTBEAT_TIMEOUT_SECONDS + 1);
+
+        // Server that has stopped sending heartbeats, with a player that has joined it.
+        GameServer expiredServer = new GameServer();
+        expiredServer.setId("expiredServer");
+        expiredServer.setVersion("1.0");
+        expiredServer.setGameMode("testGameMode");
+        expiredServer.setRegion("testRegion");
+        expiredServer.setIpV4Address("1.2.3.5");
+        expiredServer.setPort(8888);
+        expiredServer.setLastHeartbeat(expired);
+        expiredServer.setStatus(ServerStatus.OPEN);
+        entityManager.persist(expiredServer);
+
+        Player joinedPlayer = new Player();
+        joinedPlayer.setId("joinedPlayer");
+        joinedPlayer.setVersion("1.0");
+        joinedPlayer.setGameMode("testGameMode");
+        joinedPlayer.setRegion("testRegion");
+        joinedPlayer.setStatus(PlayerStatus.JOINED);
+        joinedPlayer.setGameServer(expiredServer);
+        entityManager.persist(joinedPlayer);
+
+        // Player that has been matched with a live server, but never joined it.
+        player.setStatus(PlayerStatus.MATCHED);
+        player.setGameServer(gameServer);
+        player.setMatchedTime(expired);
+        entityManager.persist(player);
+        entityManager.flush();
+
+        entityManager.getEntityManager()
+                .createQuery("UPDATE GameServer s SET s.playerCount = 1")
+                .executeUpdate();
+        entityManager.clear();
+
+        matchmakingService.sweepExpired();
+
+        GetReaperStatusResponse response = matchmakingService.getReaperStatus();
+
+        Integer playerCount = entityManager.getEntityManager()
+                .createQuery("SELECT s.playerCount FROM GameServer s WHERE s.id = :id", Integer.class)
+                .setParameter("id", gameServer.getId())
+                .getSingleResult();
+
+        assertThat(response.getLastSweepDeletedServers()).isEqualTo(1);
+        assertThat(response.getLastSweepDeletedPlayers()).isEqualTo(1);
+        assertThat(response.getLastSweepReleasedPlayers()).isEqualTo(1);
+        assertThat(entityManager.find(GameServer.class, expiredServer.getId())).isNull();
+        assertThat(entityManager.find(Player.class, joinedPlayer.getId())).isNull();
+        assertThat(entityManager.find(Player.class, player.getId())).isNull();
+        assertThat(entityManager.find(GameServer.class, gameServer.getId())).isNotNull();
+        assertThat(playerCount).isZero();
+    }
+
     @Test
     public void givenServerAndPlayer_whenNotifyPlayerJoined_thenOk() throws Exception {
+        player.setGameServer(gameServer);
         gameServer.getPlayers().add(player);
         entityManager.persistAndFlush(gameServer);
 
@@ -117,10 +502,29 @@ public class MatchmakingControllerIntegrationTests {
         httpRequestUtils.assertPostOk(mvc, "/server/notifyPlayerJoined", request, ServerNotifyPlayerJoinedResponse.class);
     }
 
+    @Test
+    public void givenServerAndPlayers_whenNotifyPlayerJoinedBatch_thenOk() throws Exception {
+        player.setGameServer(gameServer);
+        player.setStatus(PlayerStatus.MATCHED);
+        entityManager.persistAndFlush(player);
+
+        ServerNotifyPlayerJoinedBatchRequest request = new ServerNotifyPlayerJoinedBatchRequest(gameServer.getId(),
+                Lists.newArrayList(player.getTicket(), "unknownTicket"));
+
+        ServerNotifyPlayerJoinedBatchResponse response = httpRequestUtils.assertPostOk(mvc,
+                "/server/notifyPlayerJoinedBatch", request, ServerNotifyPlayerJoinedBatchResponse.class);
+
+        assertThat(response.getPlayers()).hasSize(2);
+        assertThat(response.getPlayers().get(0).getPlayerId()).isEqualTo(player.getId());
+        assertThat(response.getPlayers().get(1).getError().getErrorCode())
+                .isEqualTo(ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_CODE);
+        assertThat(player.getStatus()).isEqualTo(PlayerStatus.JOINED);
+    }
+
     @Test
     public void givenServerAndPlayer_whenNotifyPlayerLeft_thenOk() throws Exception {
-        gameServer.getPlayers().add(player);
-        entityManager.persistAndFlush(gameServer);
+        player.setGameServer(gameServer);
+        entityManager.persistAndFlush(player);
 
         ServerNotifyPlayerLeftRequest request = new ServerNotifyPlayerLeftRequest(gameServer.getId(), player.getId());
         httpRequestUtils.assertPostOk(mvc, "/server/notifyPlayerLeft", request, ServerNotifyPlayerLeftResponse.class);
@@ -131,4 +535,28 @@ public class MatchmakingControllerIntegrationTests {
         ServerSetStatusRequest request = new ServerSetStatusRequest(gameServer.getId(), ServerStatus.CLOSED);
         httpRequestUtils.assertPostOk(mvc, "/server/setStatus", request, ServerSetStatusResponse.class);
     }
+
+    private void persistPlayer(String id, PlayerStatus status) {
+        Player otherPlayer = new Player();
+        otherPlayer.setId(id);
+        otherPlayer.setVersion("1.0");
+        otherPlayer.setGameMode("testGameMode");
+        otherPlayer.setRegion("testRegion");
+        otherPlayer.setStatus(status);
+        entityManager.persistAndFlush(otherPlayer);
+    }
+
+    private void persistServer(String id, String region, int port) {
+        GameServer otherServer = new GameServer();
+        otherServer.setId(id);
+        otherServer.setVersion("1.0");
+        otherServer.setGameMode("testGameMode");
+        otherServer.setRegion(region);
+        otherServer.setIpV4Address("1.2.3.4");
+        otherServer.setPort(port);
+        otherServer.setMaxPlayers(2);
+        otherServer.setLastHeartbeat(OffsetDateTime.now());
+        otherServer.setStatus(ServerStatus.OPEN);
+        entityManager.persistAndFlush(otherServer);
+    }
 }
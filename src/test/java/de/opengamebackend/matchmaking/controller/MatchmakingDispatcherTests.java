@@ -0,0 +1,215 @@
+package de.opengamebackend.matchmaking.controller;
+
+import de.opengamebackend.matchmaking.actors.ApiCallable;
+import de.opengamebackend.matchmaking.actors.BucketActors;
+import de.opengamebackend.matchmaking.config.AllocationMode;
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import de.opengamebackend.matchmaking.matching.BucketKey;
+import de.opengamebackend.matchmaking.matching.OpenServerIndex;
+import de.opengamebackend.matchmaking.matching.QueueStats;
+import de.opengamebackend.matchmaking.model.PlayerStatus;
+import de.opengamebackend.matchmaking.model.ServerStatus;
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import de.opengamebackend.matchmaking.model.entities.Player;
+import de.opengamebackend.matchmaking.model.requests.ClientEnqueueRequest;
+import de.opengamebackend.matchmaking.model.requests.ServerSetStatusRequest;
+import de.opengamebackend.net.ApiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class MatchmakingDispatcherTests {
+    private static final BucketKey BUCKET_KEY = new BucketKey("1.0", "GM", "EU");
+    private static final BucketKey OTHER_BUCKET_KEY = new BucketKey("1.0", "GM", "US");
+
+    private MatchmakingService matchmakingService;
+    private BucketActors bucketActors;
+    private OpenServerIndex openServerIndex;
+    private QueueStats queueStats;
+    private MatchmakingConfig matchmakingConfig;
+
+    private MatchmakingDispatcher matchmakingDispatcher;
+
+    @BeforeEach
+    public void setUp() throws ApiException {
+        matchmakingService = mock(MatchmakingService.class);
+
+        bucketActors = mock(BucketActors.class);
+        when(bucketActors.call(any(), any())).thenAnswer(invocation -> {
+            ApiCallable<?> message = invocation.getArgument(1);
+            return message.call();
+        });
+
+        openServerIndex = new OpenServerIndex();
+        queueStats = new QueueStats();
+        matchmakingConfig = new MatchmakingConfig();
+
+        matchmakingDispatcher = new MatchmakingDispatcher(matchmakingService, bucketActors, openServerIndex,
+                queueStats, matchmakingConfig);
+    }
+
+    @Test
+    public void givenPollMode_whenPollMatchmaking_thenCallDirectly() throws ApiException {
+        // GIVEN
+        registerServer("testServer", BUCKET_KEY);
+        trackPlayer("testPlayer", BUCKET_KEY);
+
+        // WHEN
+        matchmakingDispatcher.pollMatchmaking("testPlayer");
+
+        // THEN
+        verify(matchmakingService).pollMatchmaking("testPlayer");
+        verifyNoInteractions(bucketActors);
+    }
+
+    @Test
+    public void givenActorMode_whenPollMatchmaking_thenSendToPlayerBucket() throws ApiException {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.ACTOR);
+        registerServer("testServer", BUCKET_KEY);
+        trackPlayer("testPlayer", BUCKET_KEY);
+
+        // WHEN
+        matchmakingDispatcher.pollMatchmaking("testPlayer");
+
+        // THEN
+        verify(matchmakingService).pollMatchmaking("testPlayer");
+        verify(matchmakingService, never()).getBucket(anyString());
+        verify(bucketActors).call(eq(BUCKET_KEY), any());
+    }
+
+    @Test
+    public void givenActorModeAndUnknownPlayer_whenPollMatchmaking_thenCallDirectly() throws ApiException {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.ACTOR);
+        registerServer("testServer", BUCKET_KEY);
+
+        // WHEN
+        matchmakingDispatcher.pollMatchmaking("testPlayer");
+
+        // THEN
+        verify(matchmakingService).pollMatchmaking("testPlayer");
+        verify(matchmakingService, never()).getBucket(anyString());
+        verifyNoInteractions(bucketActors);
+    }
+
+    @Test
+    public void givenActorMode_whenEnqueue_thenSendToRequestedBucket() throws ApiException {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.ACTOR);
+        registerServer("testServer", BUCKET_KEY);
+
+        ClientEnqueueRequest request = new ClientEnqueueRequest("1.0", "GM", "EU");
+
+        // WHEN
+        matchmakingDispatcher.enqueue(request, "testPlayer");
+
+        // THEN
+        verify(matchmakingService).enqueue(request, "testPlayer");
+        verify(bucketActors).call(eq(BUCKET_KEY), any());
+    }
+
+    @Test
+    public void givenActorModeAndBucketWithoutServers_whenEnqueue_thenCallDirectly() throws ApiException {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.ACTOR);
+        ClientEnqueueRequest request = new ClientEnqueueRequest("1.0", "GM", "EU");
+
+        // WHEN
+        matchmakingDispatcher.enqueue(request, "testPlayer");
+
+        // THEN
+        verify(matchmakingService).enqueue(request, "testPlayer");
+        verifyNoInteractions(bucketActors);
+    }
+
+    @Test
+    public void givenActorModeAndQueuedPlayer_whenEnqueueForOtherBucket_thenSendToPreviousBucket()
+            throws ApiException {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.ACTOR);
+        registerServer("testServer", BUCKET_KEY);
+        registerServer("otherServer", OTHER_BUCKET_KEY);
+        trackPlayer("testPlayer", BUCKET_KEY);
+
+        ClientEnqueueRequest request = new ClientEnqueueRequest("1.0", "GM", "US");
+
+        // WHEN
+        matchmakingDispatcher.enqueue(request, "testPlayer");
+
+        // THEN
+        verify(matchmakingService).enqueue(request, "testPlayer");
+        verify(bucketActors).call(eq(BUCKET_KEY), any());
+        verify(bucketActors, never()).call(eq(OTHER_BUCKET_KEY), any());
+    }
+
+    @Test
+    public void givenActorModeAndMissingGameMode_whenEnqueue_thenCallDirectly() throws ApiException {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.ACTOR);
+        registerServer("testServer", BUCKET_KEY);
+
+        ClientEnqueueRequest request = new ClientEnqueueRequest("1.0", null, "EU");
+
+        // WHEN
+        matchmakingDispatcher.enqueue(request, "testPlayer");
+
+        // THEN
+        verify(matchmakingService).enqueue(request, "testPlayer");
+        verifyNoInteractions(bucketActors);
+    }
+
+    @Test
+    public void givenActorMode_whenSetStatus_thenSendToServerBucket() throws ApiException {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.ACTOR);
+        registerServer("testServer", BUCKET_KEY);
+
+        ServerSetStatusRequest request = new ServerSetStatusRequest("testServer", ServerStatus.CLOSED);
+
+        // WHEN
+        matchmakingDispatcher.setStatus(request);
+
+        // THEN
+        verify(matchmakingService).setStatus(request);
+        verify(bucketActors).call(eq(BUCKET_KEY), any());
+    }
+
+    @Test
+    public void givenTrackedPlayer_whenGetBucket_thenDontQueryService() throws ApiException {
+        // GIVEN
+        trackPlayer("testPlayer", BUCKET_KEY);
+
+        // WHEN
+        BucketKey bucketKey = matchmakingDispatcher.getBucket("testPlayer");
+
+        // THEN
+        assertThat(bucketKey).isEqualTo(BUCKET_KEY);
+        verify(matchmakingService, never()).getBucket(anyString());
+    }
+
+    private void registerServer(String id, BucketKey bucketKey) {
+        GameServer gameServer = new GameServer();
+        gameServer.setId(id);
+        gameServer.setVersion(bucketKey.getVersion());
+        gameServer.setGameMode(bucketKey.getGameMode());
+        gameServer.setRegion(bucketKey.getRegion());
+        gameServer.setStatus(ServerStatus.OPEN);
+        openServerIndex.put(gameServer);
+    }
+
+    private void trackPlayer(String id, BucketKey bucketKey) {
+        Player player = new Player();
+        player.setId(id);
+        player.setVersion(bucketKey.getVersion());
+        player.setGameMode(bucketKey.getGameMode());
+        player.setRegion(bucketKey.getRegion());
+        player.setStatus(PlayerStatus.QUEUED);
+        player.setQueuedTime(OffsetDateTime.now());
+        queueStats.put(player);
+    }
+}
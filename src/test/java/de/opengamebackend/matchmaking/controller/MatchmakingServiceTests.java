@@ -1,26 +1,52 @@
 package de.opengamebackend.matchmaking.controller;
 
+import de.opengamebackend.matchmaking.config.AllocationMode;
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import de.opengamebackend.matchmaking.events.PlayersMatchedEvent;
+import de.opengamebackend.matchmaking.events.ServerRosterChangedEvent;
+import de.opengamebackend.matchmaking.expiry.ExpiryReaper;
+import de.opengamebackend.matchmaking.heartbeats.HeartbeatAccumulator;
+import de.opengamebackend.matchmaking.mapping.MatchmakingMapper;
+import de.opengamebackend.matchmaking.matching.BucketKey;
+import de.opengamebackend.matchmaking.matching.OpenServerIndex;
+import de.opengamebackend.matchmaking.matching.QueueStats;
+import de.opengamebackend.matchmaking.matching.TicketIndex;
+import de.opengamebackend.matchmaking.matching.TickMatchmaker;
 import de.opengamebackend.matchmaking.model.MatchmakingStatus;
 import de.opengamebackend.matchmaking.model.PlayerStatus;
 import de.opengamebackend.matchmaking.model.ServerStatus;
 import de.opengamebackend.matchmaking.model.entities.GameServer;
 import de.opengamebackend.matchmaking.model.entities.Player;
+import de.opengamebackend.matchmaking.model.repositories.GameServerFilter;
+import de.opengamebackend.matchmaking.model.repositories.GameServerKey;
 import de.opengamebackend.matchmaking.model.repositories.GameServerRepository;
+import de.opengamebackend.matchmaking.model.repositories.GameServerSummary;
+import de.opengamebackend.matchmaking.model.repositories.PlayerFilter;
+import de.opengamebackend.matchmaking.model.repositories.PlayerKey;
 import de.opengamebackend.matchmaking.model.repositories.PlayerRepository;
+import de.opengamebackend.matchmaking.model.repositories.PlayerSummary;
+import de.opengamebackend.matchmaking.model.repositories.ServerPlayerKey;
 import de.opengamebackend.matchmaking.model.requests.*;
 import de.opengamebackend.matchmaking.model.responses.*;
+import de.opengamebackend.matchmaking.tickets.TicketSigner;
 import de.opengamebackend.net.ApiErrors;
 import de.opengamebackend.net.ApiException;
 import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.modelmapper.ModelMapper;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -29,27 +55,52 @@ import static org.mockito.Mockito.*;
 public class MatchmakingServiceTests {
     private GameServerRepository gameServerRepository;
     private PlayerRepository playerRepository;
+    private OpenServerIndex openServerIndex;
+    private TicketIndex ticketIndex;
+    private QueueStats queueStats;
+    private TicketSigner ticketSigner;
+    private ExpiryReaper expiryReaper;
+    private HeartbeatAccumulator heartbeatAccumulator;
+    private MatchmakingConfig matchmakingConfig;
+    private ApplicationEventPublisher eventPublisher;
 
     private MatchmakingService matchmakingService;
 
     @BeforeEach
     public void setUp() {
         gameServerRepository = mock(GameServerRepository.class);
-        playerRepository = mock(PlayerRepository.class);
+        when(gameServerRepository.reserveSlots(anyString(), anyInt())).thenReturn(1);
 
-        matchmakingService = new MatchmakingService(gameServerRepository, playerRepository, new ModelMapper());
+        playerRepository = mock(PlayerRepository.class);
+        when(playerRepository.compareAndSetStatus(anyString(), any(), any())).thenReturn(1);
+        when(playerRepository.claimQueued(any())).thenAnswer(invocation -> new ArrayList<>(invocation.<Collection<String>>getArgument(0)));
+
+        openServerIndex = new OpenServerIndex();
+        ticketIndex = new TicketIndex();
+        queueStats = new QueueStats();
+        ticketSigner = new TicketSigner("testSecret".getBytes());
+        expiryReaper = new ExpiryReaper();
+        heartbeatAccumulator = new HeartbeatAccumulator(mock(JdbcTemplate.class));
+        matchmakingConfig = new MatchmakingConfig();
+        eventPublisher = mock(ApplicationEventPublisher.class);
+
+        matchmakingService = new MatchmakingService(gameServerRepository, playerRepository, new MatchmakingMapper(),
+                openServerIndex, ticketIndex, queueStats, ticketSigner, expiryReaper, heartbeatAccumulator,
+                new TickMatchmaker(openServerIndex, matchmakingConfig), matchmakingConfig, eventPublisher);
     }
 
     @Test
     public void givenServers_whenGetServers_thenReturnServers() {
         // GIVEN
-        Player p1 = mock(Player.class);
-        Player p2 = mock(Player.class);
+        ServerPlayerKey p1 = mock(ServerPlayerKey.class);
+        ServerPlayerKey p2 = mock(ServerPlayerKey.class);
 
-        when(p1.getId()).thenReturn("TestPlayer1");
-        when(p2.getId()).thenReturn("TestPlayer2");
+        when(p1.getPlayerId()).thenReturn("TestPlayer1");
+        when(p1.getGameServerId()).thenReturn("testId");
+        when(p2.getPlayerId()).thenReturn("TestPlayer2");
+        when(p2.getGameServerId()).thenReturn("testId");
 
-        GameServer gameServer = mock(GameServer.class);
+        GameServerSummary gameServer = mock(GameServerSummary.class);
 
         when(gameServer.getId()).thenReturn("testId");
         when(gameServer.getGameMode()).thenReturn("GM");
@@ -60,12 +111,12 @@ public class MatchmakingServiceTests {
         when(gameServer.getMaxPlayers()).thenReturn(2);
         when(gameServer.getLastHeartbeat()).thenReturn(OffsetDateTime.now());
         when(gameServer.getStatus()).thenReturn(ServerStatus.OPEN);
-        when(gameServer.getPlayers()).thenReturn(Lists.newArrayList(p1, p2));
 
-        when(gameServerRepository.findAll()).thenReturn(Lists.newArrayList(gameServer));
+        when(gameServerRepository.findSummaries(any(GameServerFilter.class), isNull(), eq(0))).thenReturn(Lists.newArrayList(gameServer));
+        when(playerRepository.findAllServerPlayerKeys()).thenReturn(Lists.newArrayList(p1, p2));
 
         // WHEN
-        GetServersResponse response = matchmakingService.getServers();
+        GetServersResponse response = matchmakingService.getServers(new GetServersRequest()).getResponse();
 
         // THEN
         assertThat(response.getServers()).isNotNull();
@@ -80,37 +131,280 @@ public class MatchmakingServiceTests {
         assertThat(response.getServers().get(0).getLastHeartbeat()).isEqualTo(gameServer.getLastHeartbeat());
         assertThat(response.getServers().get(0).getStatus()).isEqualTo(gameServer.getStatus());
         assertThat(response.getServers().get(0).getPlayerIds()).isNotNull();
-        assertThat(response.getServers().get(0).getPlayerIds()).containsExactly(p1.getId(), p2.getId());
+        assertThat(response.getServers().get(0).getPlayerIds()).containsExactly(p1.getPlayerId(), p2.getPlayerId());
+
+        verify(gameServerRepository, never()).findAll();
     }
 
     @Test
-    public void givenPlayers_whenGetQueue_thenReturnPlayers() {
+    public void givenServerWithoutPlayers_whenGetServers_thenReturnEmptyPlayerIds() {
         // GIVEN
-        GameServer gameServer = mock(GameServer.class);
-        when(gameServer.getId()).thenReturn("testServerId");
+        GameServerSummary gameServer = mock(GameServerSummary.class);
+        when(gameServer.getId()).thenReturn("testId");
 
-        Player player = mock(Player.class);
+        when(gameServerRepository.findSummaries(any(GameServerFilter.class), isNull(), eq(0))).thenReturn(Lists.newArrayList(gameServer));
+
+        // WHEN
+        GetServersResponse response = matchmakingService.getServers(new GetServersRequest()).getResponse();
+
+        // THEN
+        assertThat(response.getServers()).hasSize(1);
+        assertThat(response.getServers().get(0).getPlayerIds()).isEmpty();
+    }
+
+    @Test
+    public void givenMoreServersThanLimit_whenGetServers_thenReturnNextCursor() {
+        // GIVEN
+        GameServerSummary s1 = mock(GameServerSummary.class);
+        GameServerSummary s2 = mock(GameServerSummary.class);
+        GameServerSummary s3 = mock(GameServerSummary.class);
+
+        when(s1.getId()).thenReturn("testId1");
+        when(s2.getId()).thenReturn("testId2");
+        when(s3.getId()).thenReturn("testId3");
+
+        when(gameServerRepository.findSummaries(any(GameServerFilter.class), eq("testId0"), eq(3)))
+                .thenReturn(Lists.newArrayList(s1, s2, s3));
+
+        GetServersRequest request = new GetServersRequest("1.0", "GM", "EU", ServerStatus.OPEN, true, "testId0", 2);
+
+        // WHEN
+        GetServersPage page = matchmakingService.getServers(request);
+
+        // THEN
+        assertThat(page.getResponse().getServers()).extracting(GetServersResponseServer::getId)
+                .containsExactly("testId1", "testId2");
+        assertThat(page.getNextCursor()).isEqualTo("testId2");
+
+        verify(playerRepository).findServerPlayerKeysByGameServerIdIn(Lists.newArrayList("testId1", "testId2"));
+        verify(playerRepository, never()).findAllServerPlayerKeys();
+    }
+
+    @Test
+    public void givenLastPage_whenGetServers_thenReturnNoCursor() {
+        // GIVEN
+        GameServerSummary gameServer = mock(GameServerSummary.class);
+        when(gameServer.getId()).thenReturn("testId");
+
+        when(gameServerRepository.findSummaries(any(GameServerFilter.class), isNull(), eq(3)))
+                .thenReturn(Lists.newArrayList(gameServer));
+
+        GetServersRequest request = new GetServersRequest();
+        request.setLimit(2);
+
+        // WHEN
+        GetServersPage page = matchmakingService.getServers(request);
+
+        // THEN
+        assertThat(page.getResponse().getServers()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void givenFilter_whenGetServers_thenPassFilter() {
+        // GIVEN
+        GetServersRequest request = new GetServersRequest("1.0", "", "EU", ServerStatus.OPEN, true, null, null);
+
+        // WHEN
+        matchmakingService.getServers(request);
+
+        // THEN
+        ArgumentCaptor<GameServerFilter> filter = ArgumentCaptor.forClass(GameServerFilter.class);
+        verify(gameServerRepository).findSummaries(filter.capture(), isNull(), eq(0));
+
+        assertThat(filter.getValue().getVersion()).isEqualTo("1.0");
+        assertThat(filter.getValue().getGameMode()).isNull();
+        assertThat(filter.getValue().getRegion()).isEqualTo("EU");
+        assertThat(filter.getValue().getStatus()).isEqualTo(ServerStatus.OPEN);
+        assertThat(filter.getValue().isFreeSlotsOnly()).isTrue();
+    }
+
+    @Test
+    public void givenPlayers_whenStreamQueue_thenPassPlayers() {
+        // GIVEN
+        PlayerSummary player = mock(PlayerSummary.class);
         when(player.getId()).thenReturn("testPlayerId");
         when(player.getGameMode()).thenReturn("GM");
         when(player.getRegion()).thenReturn("EU");
         when(player.getVersion()).thenReturn("1.0");
         when(player.getStatus()).thenReturn(PlayerStatus.QUEUED);
-        when(player.getGameServer()).thenReturn(gameServer);
+        when(player.getGameServerId()).thenReturn("testServerId");
+
+        doAnswer(invocation -> {
+            Consumer<PlayerSummary> consumer = invocation.getArgument(3);
+            consumer.accept(player);
+            return null;
+        }).when(playerRepository).streamSummaries(any(), any(), anyInt(), any());
+
+        List<GetQueueResponsePlayer> players = new ArrayList<>();
+
+        // WHEN
+        matchmakingService.streamQueue(new GetQueueRequest(), players::add);
+
+        // THEN
+        assertThat(players).hasSize(1);
+        assertThat(players.get(0).getPlayerId()).isEqualTo(player.getId());
+        assertThat(players.get(0).getGameMode()).isEqualTo(player.getGameMode());
+        assertThat(players.get(0).getRegion()).isEqualTo(player.getRegion());
+        assertThat(players.get(0).getVersion()).isEqualTo(player.getVersion());
+        assertThat(players.get(0).getStatus()).isEqualTo(player.getStatus());
+        assertThat(players.get(0).getServerId()).isEqualTo(player.getGameServerId());
+    }
+
+    @Test
+    public void givenFilter_whenStreamQueue_thenPassFilter() {
+        // GIVEN
+        GetQueueRequest request = new GetQueueRequest();
+        request.setGameMode("GM");
+        request.setRegion("");
+        request.setStatus(PlayerStatus.QUEUED);
+        request.setCursor("testCursor");
+        request.setLimit(MatchmakingService.MAX_QUEUE_PAGE_SIZE + 1);
+
+        // WHEN
+        matchmakingService.streamQueue(request, player -> { });
+
+        // THEN
+        ArgumentCaptor<PlayerFilter> filter = ArgumentCaptor.forClass(PlayerFilter.class);
+        verify(playerRepository).streamSummaries(filter.capture(), eq("testCursor"),
+                eq(MatchmakingService.MAX_QUEUE_PAGE_SIZE + 1), any());
+
+        assertThat(filter.getValue().getVersion()).isNull();
+        assertThat(filter.getValue().getGameMode()).isEqualTo("GM");
+        assertThat(filter.getValue().getRegion()).isNull();
+        assertThat(filter.getValue().getStatus()).isEqualTo(PlayerStatus.QUEUED);
+    }
 
-        when(playerRepository.findAll()).thenReturn(Lists.newArrayList(player));
+    @Test
+    public void givenNoLimit_whenStreamQueue_thenReturnNoCursor() {
+        // GIVEN
+        streamPlayerSummaries("first", "second");
+
+        List<GetQueueResponsePlayer> players = new ArrayList<>();
+
+        // WHEN
+        String cursor = matchmakingService.streamQueue(new GetQueueRequest(), players::add);
+
+        // THEN
+        assertThat(cursor).isNull();
+        assertThat(players).hasSize(2);
+        verify(playerRepository).streamSummaries(any(), isNull(), eq(0), any());
+    }
+
+    @Test
+    public void givenMorePlayers_whenStreamQueue_thenReturnLastPassedPlayer() {
+        // GIVEN
+        GetQueueRequest request = new GetQueueRequest();
+        request.setLimit(2);
+
+        streamPlayerSummaries("first", "second", "third");
+
+        List<GetQueueResponsePlayer> players = new ArrayList<>();
+
+        // WHEN
+        String cursor = matchmakingService.streamQueue(request, players::add);
+
+        // THEN
+        assertThat(cursor).isEqualTo("second");
+        assertThat(players).extracting(GetQueueResponsePlayer::getPlayerId).containsExactly("first", "second");
+        verify(playerRepository).streamSummaries(any(), isNull(), eq(3), any());
+    }
+
+    @Test
+    public void givenNoMorePlayers_whenStreamQueue_thenReturnNoCursor() {
+        // GIVEN
+        GetQueueRequest request = new GetQueueRequest();
+        request.setLimit(2);
+
+        streamPlayerSummaries("first", "second");
+
+        // WHEN
+        String cursor = matchmakingService.streamQueue(request, player -> { });
+
+        // THEN
+        assertThat(cursor).isNull();
+    }
+
+    @Test
+    public void givenEnqueuedPlayer_whenGetQueueStats_thenCountQueuedPlayer() throws ApiException {
+        // GIVEN
+        openServerIndex.put(createOpenServer("testServerId", 4));
+        matchmakingService.enqueue(new ClientEnqueueRequest("1.0", "GM", "EU"), "testPlayerId");
+
+        // WHEN
+        GetQueueStatsResponse response = matchmakingService.getQueueStats();
+
+        // THEN
+        assertThat(response.getBuckets()).hasSize(1);
+
+        GetQueueStatsResponseBucket bucket = response.getBuckets().get(0);
+        assertThat(bucket.getVersion()).isEqualTo("1.0");
+        assertThat(bucket.getGameMode()).isEqualTo("GM");
+        assertThat(bucket.getRegion()).isEqualTo("EU");
+        assertThat(bucket.getQueuedPlayers()).isEqualTo(1);
+        assertThat(bucket.getMatchedPlayers()).isEqualTo(0);
+        assertThat(bucket.getJoinedPlayers()).isEqualTo(0);
+        assertThat(bucket.getOpenSlots()).isEqualTo(4);
+        assertThat(bucket.getLongestWaitMillis()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    public void givenAllocatedPlayer_whenGetQueueStats_thenCountMatchedPlayer() throws ApiException {
+        // GIVEN
+        GameServer gameServer = createOpenServer("testServerId", 4);
+        openServerIndex.put(gameServer);
+        when(gameServerRepository.findById(gameServer.getId())).thenReturn(Optional.of(gameServer));
+
+        matchmakingService.enqueue(new ClientEnqueueRequest("1.0", "GM", "EU"), "testPlayerId");
+
+        Player player = new Player();
+        player.setId("testPlayerId");
+        new MatchmakingMapper().map(new ClientEnqueueRequest("1.0", "GM", "EU"), player);
+        player.setStatus(PlayerStatus.QUEUED);
+        when(playerRepository.findById(player.getId())).thenReturn(Optional.of(player));
+
+        matchmakingService.pollMatchmaking(player.getId());
+
+        // WHEN
+        GetQueueStatsResponse response = matchmakingService.getQueueStats();
+
+        // THEN
+        assertThat(response.getBuckets()).hasSize(1);
+        assertThat(response.getBuckets().get(0).getQueuedPlayers()).isEqualTo(0);
+        assertThat(response.getBuckets().get(0).getMatchedPlayers()).isEqualTo(1);
+        assertThat(response.getBuckets().get(0).getOpenSlots()).isEqualTo(3);
+        assertThat(response.getBuckets().get(0).getLongestWaitMillis()).isEqualTo(0);
+    }
+
+    @Test
+    public void givenDequeuedPlayer_whenGetQueueStats_thenReturnNoBuckets() throws ApiException {
+        // GIVEN
+        matchmakingService.enqueue(new ClientEnqueueRequest("1.0", "GM", "EU"), "testPlayerId");
+
+        Player player = mock(Player.class);
+        when(playerRepository.findById("testPlayerId")).thenReturn(Optional.of(player));
+
+        matchmakingService.dequeue("testPlayerId");
+
+        // WHEN
+        GetQueueStatsResponse response = matchmakingService.getQueueStats();
+
+        // THEN
+        assertThat(response.getBuckets()).isEmpty();
+    }
+
+    @Test
+    public void givenOpenServerWithoutPlayers_whenGetQueueStats_thenReturnOpenSlots() {
+        // GIVEN
+        openServerIndex.put(createOpenServer("testServerId", 4));
 
         // WHEN
-        GetQueueResponse response = matchmakingService.getQueue();
+        GetQueueStatsResponse response = matchmakingService.getQueueStats();
 
         // THEN
-        assertThat(response.getPlayers()).isNotNull();
-        assertThat(response.getPlayers()).hasSize(1);
-        assertThat(response.getPlayers().get(0).getPlayerId()).isEqualTo(player.getId());
-        assertThat(response.getPlayers().get(0).getGameMode()).isEqualTo(player.getGameMode());
-        assertThat(response.getPlayers().get(0).getRegion()).isEqualTo(player.getRegion());
-        assertThat(response.getPlayers().get(0).getVersion()).isEqualTo(player.getVersion());
-        assertThat(response.getPlayers().get(0).getStatus()).isEqualTo(player.getStatus());
-        assertThat(response.getPlayers().get(0).getServerId()).isEqualTo(gameServer.getId());
+        assertThat(response.getBuckets()).hasSize(1);
+        assertThat(response.getBuckets().get(0).getQueuedPlayers()).isEqualTo(0);
+        assertThat(response.getBuckets().get(0).getOpenSlots()).isEqualTo(4);
     }
 
     @Test
@@ -167,7 +461,7 @@ public class MatchmakingServiceTests {
 
         // THEN
         ArgumentCaptor<GameServer> argument = ArgumentCaptor.forClass(GameServer.class);
-        verify(gameServerRepository).save(argument.capture());
+        verify(gameServerRepository).upsert(argument.capture());
 
         GameServer gameServer = argument.getValue();
 
@@ -184,28 +478,37 @@ public class MatchmakingServiceTests {
     }
 
     @Test
-    public void givenExistingServer_whenRegister_thenServerIsUpdated() throws ApiException {
+    public void givenServer_whenRegister_thenServerIsIndexed() throws ApiException {
+        // GIVEN
+        ServerRegisterRequest request = new ServerRegisterRequest("1.0", "GM", "EU", "127.0.0.1", 1234, 2);
+
+        // WHEN
+        ServerRegisterResponse response = matchmakingService.register(request);
+
+        // THEN
+        assertThat(openServerIndex.contains(response.getId())).isTrue();
+    }
+
+    @Test
+    public void givenExistingServer_whenRegister_thenExistingIdIsReturned() throws ApiException {
         // GIVEN
         ServerRegisterRequest request = new ServerRegisterRequest("1.0", "newGameMode", "EU", "127.0.0.1", 1234, 2);
 
-        GameServer existingServer = mock(GameServer.class);
-        when(existingServer.getIpV4Address()).thenReturn(request.getIpV4Address());
-        when(existingServer.getPort()).thenReturn(request.getPort());
-        when(existingServer.getGameMode()).thenReturn("oldGameMode");
-        when(gameServerRepository.findAll()).thenReturn(Lists.list(existingServer));
+        doAnswer(invocation -> {
+            GameServer gameServer = invocation.getArgument(0);
+            gameServer.setId("existingId");
+            gameServer.setPlayerCount(1);
+            return null;
+        }).when(gameServerRepository).upsert(any());
 
         // WHEN
-        matchmakingService.register(request);
+        ServerRegisterResponse response = matchmakingService.register(request);
 
         // THEN
-        verify(existingServer).setGameMode(request.getGameMode());
-        verify(existingServer).setLastHeartbeat(any());
-        verify(existingServer).setMaxPlayers(request.getMaxPlayers());
-        verify(existingServer).setRegion(request.getRegion());
-        verify(existingServer).setStatus(ServerStatus.OPEN);
-        verify(existingServer).setVersion(request.getVersion());
+        verify(gameServerRepository, never()).save(any());
 
-        verify(gameServerRepository).save(existingServer);
+        assertThat(response.getId()).isEqualTo("existingId");
+        assertThat(openServerIndex.contains("existingId")).isTrue();
     }
 
     @Test
@@ -221,6 +524,85 @@ public class MatchmakingServiceTests {
         assertThat(response.getId()).isNotEmpty();
     }
 
+    @Test
+    public void givenServers_whenRegisterBatch_thenUpsertServersOnce() {
+        // GIVEN
+        ServerRegisterRequest newServer = new ServerRegisterRequest("1.0", "GM", "EU", "127.0.0.1", 1234, 2);
+        ServerRegisterRequest existingServer = new ServerRegisterRequest("1.0", "GM", "EU", "127.0.0.2", 1234, 2);
+
+        doAnswer(invocation -> {
+            Collection<GameServer> gameServers = invocation.getArgument(0);
+
+            for (GameServer gameServer : gameServers) {
+                if (gameServer.getIpV4Address().equals("127.0.0.2")) {
+                    gameServer.setId("existingId");
+                }
+            }
+
+            return null;
+        }).when(gameServerRepository).upsertAll(any());
+
+        ServerRegisterBatchRequest request =
+                new ServerRegisterBatchRequest(Lists.newArrayList(newServer, existingServer));
+
+        // WHEN
+        ServerRegisterBatchResponse response = matchmakingService.registerBatch(request);
+
+        // THEN
+        verify(gameServerRepository, times(1)).upsertAll(any());
+        verify(gameServerRepository, never()).saveAll(any());
+
+        assertThat(response.getServers()).hasSize(2);
+        assertThat(response.getServers().get(0).getId()).isNotEmpty();
+        assertThat(response.getServers().get(0).getError()).isNull();
+        assertThat(response.getServers().get(1).getId()).isEqualTo("existingId");
+        assertThat(response.getServers().get(1).getError()).isNull();
+
+        assertThat(openServerIndex.contains(response.getServers().get(0).getId())).isTrue();
+        assertThat(openServerIndex.contains("existingId")).isTrue();
+    }
+
+    @Test
+    public void givenDuplicateServers_whenRegisterBatch_thenRegisterServerOnce() {
+        // GIVEN
+        ServerRegisterRequest first = new ServerRegisterRequest("1.0", "GM", "EU", "127.0.0.1", 1234, 2);
+        ServerRegisterRequest second = new ServerRegisterRequest("1.0", "GM", "EU", "127.0.0.1", 1234, 4);
+
+        ServerRegisterBatchRequest request = new ServerRegisterBatchRequest(Lists.newArrayList(first, second));
+
+        // WHEN
+        ServerRegisterBatchResponse response = matchmakingService.registerBatch(request);
+
+        // THEN
+        assertThat(response.getServers().get(0).getId()).isEqualTo(response.getServers().get(1).getId());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<GameServer>> argument = ArgumentCaptor.forClass(Collection.class);
+        verify(gameServerRepository).upsertAll(argument.capture());
+
+        assertThat(argument.getValue()).hasSize(1);
+        assertThat(argument.getValue().iterator().next().getMaxPlayers()).isEqualTo(4);
+    }
+
+    @Test
+    public void givenInvalidServer_whenRegisterBatch_thenReportError() {
+        // GIVEN
+        ServerRegisterRequest validServer = new ServerRegisterRequest("1.0", "GM", "EU", "127.0.0.1", 1234, 2);
+        ServerRegisterRequest invalidServer = new ServerRegisterRequest("1.0", null, "EU", "127.0.0.2", 1234, 2);
+
+        ServerRegisterBatchRequest request =
+                new ServerRegisterBatchRequest(Lists.newArrayList(validServer, invalidServer));
+
+        // WHEN
+        ServerRegisterBatchResponse response = matchmakingService.registerBatch(request);
+
+        // THEN
+        assertThat(response.getServers()).hasSize(2);
+        assertThat(response.getServers().get(0).getError()).isNull();
+        assertThat(response.getServers().get(1).getId()).isNull();
+        assertThat(response.getServers().get(1).getError().getErrorCode()).isEqualTo(ApiErrors.MISSING_GAME_MODE_CODE);
+    }
+
     @Test
     public void givenMissingId_whenDeregister_thenThrowException() {
         // GIVEN
@@ -260,6 +642,25 @@ public class MatchmakingServiceTests {
         verify(gameServerRepository).delete(gameServer);
     }
 
+    @Test
+    public void givenValidId_whenDeregister_thenRemoveServerFromIndex() throws ApiException {
+        // GIVEN
+        ServerDeregisterRequest request = mock(ServerDeregisterRequest.class);
+        when(request.getId()).thenReturn("testId");
+
+        GameServer gameServer = mock(GameServer.class);
+        when(gameServer.getId()).thenReturn("testId");
+        when(gameServerRepository.findById(request.getId())).thenReturn(Optional.of(gameServer));
+
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        matchmakingService.deregister(request);
+
+        // THEN
+        assertThat(openServerIndex.contains(request.getId())).isFalse();
+    }
+
     @Test
     public void givenValidId_whenDeregister_thenReturnId() throws ApiException {
         // GIVEN
@@ -277,6 +678,43 @@ public class MatchmakingServiceTests {
         assertThat(response.getRemovedId()).isEqualTo(request.getId());
     }
 
+    @Test
+    public void givenServers_whenDeregisterBatch_thenDeleteServersInBulk() {
+        // GIVEN
+        ServerDeregisterRequest knownServer = mock(ServerDeregisterRequest.class);
+        when(knownServer.getId()).thenReturn("testId");
+
+        ServerDeregisterRequest unknownServer = mock(ServerDeregisterRequest.class);
+        when(unknownServer.getId()).thenReturn("unknownId");
+
+        ServerDeregisterRequest missingId = mock(ServerDeregisterRequest.class);
+
+        GameServer gameServer = createOpenServer("testId", 2);
+        openServerIndex.put(gameServer);
+
+        when(gameServerRepository.findAllById(any())).thenReturn(Lists.newArrayList(gameServer));
+
+        ServerDeregisterBatchRequest request =
+                new ServerDeregisterBatchRequest(Lists.newArrayList(knownServer, unknownServer, missingId));
+
+        // WHEN
+        ServerDeregisterBatchResponse response = matchmakingService.deregisterBatch(request);
+
+        // THEN
+        verify(playerRepository).deleteByGameServerIdIn(Lists.newArrayList("testId"));
+        verify(gameServerRepository).deleteByIdIn(Lists.newArrayList("testId"));
+        verify(gameServerRepository, never()).delete(any());
+
+        assertThat(openServerIndex.contains("testId")).isFalse();
+
+        assertThat(response.getServers()).hasSize(3);
+        assertThat(response.getServers().get(0).getError()).isNull();
+        assertThat(response.getServers().get(1).getError().getErrorCode())
+                .isEqualTo(ApiErrors.GAME_SERVER_NOT_FOUND_CODE);
+        assertThat(response.getServers().get(2).getError().getErrorCode())
+                .isEqualTo(ApiErrors.MISSING_GAME_SERVER_ID_CODE);
+    }
+
     @Test
     public void givenMissingId_whenSendHeartbeat_thenThrowException() {
         // GIVEN
@@ -306,15 +744,31 @@ public class MatchmakingServiceTests {
         ServerSendHeartbeatRequest request = mock(ServerSendHeartbeatRequest.class);
         when(request.getId()).thenReturn("testId");
 
-        GameServer gameServer = mock(GameServer.class);
-        when(gameServerRepository.findById(request.getId())).thenReturn(Optional.of(gameServer));
+        when(gameServerRepository.existsById(request.getId())).thenReturn(true);
 
         // WHEN
         matchmakingService.sendHeartbeat(request);
 
         // THEN
-        verify(gameServer).setLastHeartbeat(any());
-        verify(gameServerRepository).save(gameServer);
+        assertThat(heartbeatAccumulator.getLastHeartbeat("testId", null)).isNotNull();
+        verify(gameServerRepository, never()).save(any());
+    }
+
+    @Test
+    public void givenIndexedServer_whenSendHeartbeat_thenDontQueryDatabase() throws ApiException {
+        // GIVEN
+        ServerSendHeartbeatRequest request = mock(ServerSendHeartbeatRequest.class);
+        when(request.getId()).thenReturn("testId");
+
+        GameServer gameServer = createOpenServer("testId", 2);
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        matchmakingService.sendHeartbeat(request);
+
+        // THEN
+        assertThat(heartbeatAccumulator.getLastHeartbeat("testId", null)).isNotNull();
+        verify(gameServerRepository, never()).existsById(any());
     }
 
     @Test
@@ -323,8 +777,7 @@ public class MatchmakingServiceTests {
         ServerSendHeartbeatRequest request = mock(ServerSendHeartbeatRequest.class);
         when(request.getId()).thenReturn("testId");
 
-        GameServer gameServer = mock(GameServer.class);
-        when(gameServerRepository.findById(request.getId())).thenReturn(Optional.of(gameServer));
+        when(gameServerRepository.existsById(request.getId())).thenReturn(true);
 
         // WHEN
         ServerSendHeartbeatResponse response = matchmakingService.sendHeartbeat(request);
@@ -334,6 +787,74 @@ public class MatchmakingServiceTests {
         assertThat(response.getUpdatedId()).isEqualTo(request.getId());
     }
 
+    @Test
+    public void givenMixedServers_whenSendHeartbeatBatch_thenReportErrorsPerServer() {
+        // GIVEN
+        GameServer indexedServer = createOpenServer("indexedServer", 2);
+        openServerIndex.put(indexedServer);
+
+        when(gameServerRepository.findIdsByIdIn(any())).thenReturn(Lists.newArrayList("unindexedServer"));
+
+        ServerSendHeartbeatBatchRequest request = new ServerSendHeartbeatBatchRequest(Lists.newArrayList(
+                new ServerSendHeartbeatBatchRequestServer("indexedServer", null),
+                new ServerSendHeartbeatBatchRequestServer("unindexedServer", null),
+                new ServerSendHeartbeatBatchRequestServer("unknownServer", null),
+                new ServerSendHeartbeatBatchRequestServer(null, null)));
+
+        // WHEN
+        ServerSendHeartbeatBatchResponse response = matchmakingService.sendHeartbeatBatch(request);
+
+        // THEN
+        assertThat(response.getServers()).hasSize(4);
+        assertThat(response.getServers().get(0).getError()).isNull();
+        assertThat(response.getServers().get(1).getError()).isNull();
+        assertThat(response.getServers().get(2).getError().getErrorCode()).isEqualTo(ApiErrors.GAME_SERVER_NOT_FOUND_CODE);
+        assertThat(response.getServers().get(3).getError().getErrorCode()).isEqualTo(ApiErrors.MISSING_GAME_SERVER_ID_CODE);
+
+        assertThat(heartbeatAccumulator.getLastHeartbeat("indexedServer", null)).isNotNull();
+        assertThat(heartbeatAccumulator.getLastHeartbeat("unindexedServer", null)).isNotNull();
+        assertThat(heartbeatAccumulator.getLastHeartbeat("unknownServer", null)).isNull();
+        verify(gameServerRepository, times(1)).findIdsByIdIn(any());
+    }
+
+    @Test
+    public void givenIndexedServers_whenSendHeartbeatBatch_thenDontQueryDatabase() {
+        // GIVEN
+        openServerIndex.put(createOpenServer("testServer1", 2));
+        openServerIndex.put(createOpenServer("testServer2", 2));
+
+        ServerSendHeartbeatBatchRequest request = new ServerSendHeartbeatBatchRequest(Lists.newArrayList(
+                new ServerSendHeartbeatBatchRequestServer("testServer1", null),
+                new ServerSendHeartbeatBatchRequestServer("testServer2", ServerStatus.OPEN)));
+
+        // WHEN
+        matchmakingService.sendHeartbeatBatch(request);
+
+        // THEN
+        assertThat(heartbeatAccumulator.getLastHeartbeat("testServer1", null)).isNotNull();
+        assertThat(heartbeatAccumulator.getLastHeartbeat("testServer2", null)).isNotNull();
+        verify(gameServerRepository, never()).findIdsByIdIn(any());
+        verify(gameServerRepository, never()).findById(any());
+    }
+
+    @Test
+    public void givenChangedStatus_whenSendHeartbeatBatch_thenSetStatus() {
+        // GIVEN
+        GameServer gameServer = createOpenServer("testServer", 2);
+        openServerIndex.put(gameServer);
+        when(gameServerRepository.findById("testServer")).thenReturn(Optional.of(gameServer));
+
+        ServerSendHeartbeatBatchRequest request = new ServerSendHeartbeatBatchRequest(Lists.newArrayList(
+                new ServerSendHeartbeatBatchRequestServer("testServer", ServerStatus.CLOSED)));
+
+        // WHEN
+        matchmakingService.sendHeartbeatBatch(request);
+
+        // THEN
+        verify(gameServer).setStatus(ServerStatus.CLOSED);
+        verify(gameServerRepository).save(gameServer);
+    }
+
     @Test
     public void givenMissingGameMode_whenEnqueue_thenThrowException() {
         // GIVEN
@@ -389,7 +910,7 @@ public class MatchmakingServiceTests {
 
         // THEN
         ArgumentCaptor<Player> argument = ArgumentCaptor.forClass(Player.class);
-        verify(playerRepository).save(argument.capture());
+        verify(playerRepository).upsert(argument.capture());
 
         Player player = argument.getValue();
 
@@ -404,7 +925,7 @@ public class MatchmakingServiceTests {
     }
 
     @Test
-    public void givenExistingServer_whenEnqueue_thenPlayerIsRemovedFromExistingServer() throws ApiException {
+    public void givenExistingServer_whenEnqueue_thenDontLoadPlayersOfExistingServer() throws ApiException {
         // GIVEN
         String playerId = "testId";
         ClientEnqueueRequest request = new ClientEnqueueRequest("1.0", "GM", "EU");
@@ -423,23 +944,45 @@ public class MatchmakingServiceTests {
         matchmakingService.enqueue(request, playerId);
 
         // THEN
-        assertThat(players).doesNotContain(player);
-        verify(gameServerRepository).save(gameServer);
+        verify(gameServer, never()).getPlayers();
+        verify(gameServerRepository, never()).save(any());
     }
 
     @Test
-    public void givenPlayer_whenEnqueue_thenReturnId() throws ApiException {
+    public void givenExistingServer_whenEnqueue_thenReleaseSlotInDatabase() throws ApiException {
         // GIVEN
         String playerId = "testId";
         ClientEnqueueRequest request = new ClientEnqueueRequest("1.0", "GM", "EU");
 
-        // WHEN
-        ClientEnqueueResponse response = matchmakingService.enqueue(request, playerId);
-
-        // THEN
-        assertThat(response).isNotNull();
-        assertThat(response.getPlayerId()).isEqualTo(playerId);
-    }
+        Player player = mock(Player.class);
+        GameServer gameServer = mock(GameServer.class);
+
+        when(player.getGameServer()).thenReturn(gameServer);
+        when(gameServer.getId()).thenReturn("testServerId");
+        when(gameServer.getPlayers()).thenReturn(Lists.newArrayList(player));
+
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
+        // WHEN
+        matchmakingService.enqueue(request, playerId);
+
+        // THEN
+        verify(gameServerRepository).releaseSlot(gameServer.getId());
+    }
+
+    @Test
+    public void givenPlayer_whenEnqueue_thenReturnId() throws ApiException {
+        // GIVEN
+        String playerId = "testId";
+        ClientEnqueueRequest request = new ClientEnqueueRequest("1.0", "GM", "EU");
+
+        // WHEN
+        ClientEnqueueResponse response = matchmakingService.enqueue(request, playerId);
+
+        // THEN
+        assertThat(response).isNotNull();
+        assertThat(response.getPlayerId()).isEqualTo(playerId);
+    }
 
     @Test
     public void givenMissingId_whenDequeue_thenThrowException() {
@@ -497,183 +1040,848 @@ public class MatchmakingServiceTests {
     }
 
     @Test
-    public void givenInvalidId_whenPollMatchmaking_thenThrowException() {
+    public void givenInvalidId_whenPollMatchmaking_thenThrowException() {
+        // WHEN & THEN
+        assertThatExceptionOfType(ApiException.class)
+                .isThrownBy(() -> matchmakingService.pollMatchmaking("testId"))
+                .withMessage(ApiErrors.PLAYER_NOT_FOUND_MESSAGE);
+    }
+
+    @Test
+    public void givenMatchedPlayer_whenPollMatchmaking_thenReturnMatch() throws ApiException {
+        // GIVEN
+        String playerId = "testId";
+
+        GameServer gameServer = mock(GameServer.class);
+        when(gameServer.getId()).thenReturn("testServerId");
+        when(gameServer.getIpV4Address()).thenReturn("127.0.0.1");
+        when(gameServer.getPort()).thenReturn(1234);
+
+        Player player = mock(Player.class);
+        when(player.getGameServer()).thenReturn(gameServer);
+        when(player.getTicket()).thenReturn("testTicket");
+
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
+        // WHEN
+        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(playerId);
+
+        // THEN
+        assertThat(response).isNotNull();
+        assertThat(response.getTicket()).isEqualTo(player.getTicket());
+        assertThat(response.getServerId()).isEqualTo(gameServer.getId());
+        assertThat(response.getIpV4Address()).isEqualTo(gameServer.getIpV4Address());
+        assertThat(response.getPort()).isEqualTo(gameServer.getPort());
+    }
+
+    @Test
+    public void givenFullServers_whenPollMatchmaking_thenReturnServersFull() throws ApiException {
+        // GIVEN
+        String playerId = "testId";
+
+        Player player = mock(Player.class);
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
+        // WHEN
+        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(playerId);
+
+        // THEN
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(MatchmakingStatus.SERVERS_FULL);
+    }
+
+    @Test
+    public void givenFullServers_whenPollMatchmakingTwice_thenCheckDatabaseOnce() throws ApiException {
+        // GIVEN
+        Player player = createQueuedPlayer("testId");
+        when(playerRepository.findById(player.getId())).thenReturn(Optional.of(player));
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        when(gameServer.getPlayerCount()).thenReturn(2);
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        matchmakingService.pollMatchmaking(player.getId());
+        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(player.getId());
+
+        // THEN
+        assertThat(response.getStatus()).isEqualTo(MatchmakingStatus.SERVERS_FULL);
+        verify(gameServerRepository, never()).reserveSlots(anyString(), anyInt());
+        verify(gameServerRepository, times(1))
+                .findByVersionAndGameModeAndRegionAndStatus("1.0", "GM", "EU", ServerStatus.OPEN);
+    }
+
+    @Test
+    public void givenSlotFreedByOtherInstance_whenPollMatchmaking_thenAllocatePlayerToServer() throws ApiException {
+        // GIVEN
+        Player player = createQueuedPlayer("testId");
+        when(playerRepository.findById(player.getId())).thenReturn(Optional.of(player));
+
+        GameServer fullServer = createOpenServer("testServerId", 2);
+        when(fullServer.getPlayerCount()).thenReturn(2);
+        openServerIndex.put(fullServer);
+
+        GameServer freedServer = createOpenServer("testServerId", 2);
+        when(freedServer.getPlayerCount()).thenReturn(1);
+        when(gameServerRepository.findById(freedServer.getId())).thenReturn(Optional.of(freedServer));
+        when(gameServerRepository.findByVersionAndGameModeAndRegionAndStatus("1.0", "GM", "EU", ServerStatus.OPEN))
+                .thenReturn(Lists.newArrayList(freedServer));
+
+        // WHEN
+        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(player.getId());
+
+        // THEN
+        assertThat(response.getServerId()).isEqualTo(freedServer.getId());
+        verify(gameServerRepository).reserveSlots(freedServer.getId(), 1);
+    }
+
+    @Test
+    public void givenFullServersAndRescanIntervalElapsed_whenPollMatchmakingTwice_thenCheckDatabaseTwice()
+            throws ApiException {
+        // GIVEN
+        matchmakingConfig.setOpenServerRescanMillis(0);
+
+        Player player = createQueuedPlayer("testId");
+        when(playerRepository.findById(player.getId())).thenReturn(Optional.of(player));
+
+        // WHEN
+        matchmakingService.pollMatchmaking(player.getId());
+        matchmakingService.pollMatchmaking(player.getId());
+
+        // THEN
+        verify(gameServerRepository, times(2))
+                .findByVersionAndGameModeAndRegionAndStatus("1.0", "GM", "EU", ServerStatus.OPEN);
+    }
+
+    @Test
+    public void givenMatchingOpenServer_whenPollMatchmaking_thenAllocatePlayerToServer() throws ApiException {
+        // GIVEN
+        String playerId = "testId";
+
+        String gameMode = "GM";
+        String region = "EU";
+        String version = "1.0";
+
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn(playerId);
+        when(player.getGameMode()).thenReturn(gameMode);
+        when(player.getRegion()).thenReturn(region);
+        when(player.getVersion()).thenReturn(version);
+
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
+        GameServer gameServer = mock(GameServer.class);
+        ArrayList<Player> allocatedPlayers = new ArrayList<>();
+        when(gameServer.getId()).thenReturn("testServerId");
+        when(gameServer.getStatus()).thenReturn(ServerStatus.OPEN);
+        when(gameServer.getPlayers()).thenReturn(allocatedPlayers);
+        when(gameServer.getMaxPlayers()).thenReturn(2);
+        when(gameServer.getGameMode()).thenReturn(gameMode);
+        when(gameServer.getRegion()).thenReturn(region);
+        when(gameServer.getVersion()).thenReturn(version);
+        when(gameServer.getLastHeartbeat()).thenReturn(OffsetDateTime.now());
+
+        when(gameServerRepository.findById(gameServer.getId())).thenReturn(Optional.of(gameServer));
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        matchmakingService.pollMatchmaking(playerId);
+
+        // THEN
+        ArgumentCaptor<String> ticket = ArgumentCaptor.forClass(String.class);
+        verify(player).setTicket(ticket.capture());
+        assertThat(ticketSigner.verify(ticket.getValue()).getPlayerId()).isEqualTo(playerId);
+        assertThat(ticketSigner.verify(ticket.getValue()).getServerId()).isEqualTo("testServerId");
+
+        verify(player).setStatus(PlayerStatus.MATCHED);
+        verify(player).setGameServer(gameServer);
+        verify(player).setMatchedTime(any(OffsetDateTime.class));
+
+        verify(gameServer, never()).getPlayers();
+        verify(gameServerRepository, never()).save(any());
+        verify(playerRepository).save(player);
+    }
+
+    @Test
+    public void givenMatchingOpenServer_whenPollMatchmaking_thenClaimPlayer() throws ApiException {
+        // GIVEN
+        Player player = createQueuedPlayer("testPlayer");
+        when(playerRepository.findById(player.getId())).thenReturn(Optional.of(player));
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        when(gameServerRepository.findById(gameServer.getId())).thenReturn(Optional.of(gameServer));
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        matchmakingService.pollMatchmaking(player.getId());
+
+        // THEN
+        verify(playerRepository).compareAndSetStatus(player.getId(), PlayerStatus.QUEUED, PlayerStatus.MATCHED);
+    }
+
+    @Test
+    public void givenPlayerClaimedByConcurrentPoll_whenPollMatchmaking_thenReleaseSlot() throws ApiException {
+        // GIVEN
+        Player player = createQueuedPlayer("testPlayer");
+        when(playerRepository.findById(player.getId())).thenReturn(Optional.of(player));
+        when(playerRepository.compareAndSetStatus(player.getId(), PlayerStatus.QUEUED, PlayerStatus.MATCHED))
+                .thenReturn(0);
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        when(gameServerRepository.findById(gameServer.getId())).thenReturn(Optional.of(gameServer));
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(player.getId());
+
+        // THEN
+        assertThat(response.getStatus()).isEqualTo(MatchmakingStatus.WAITING_FOR_PLAYERS);
+        assertThat(response.getServerId()).isNull();
+        verify(player, never()).setGameServer(any());
+        verify(gameServerRepository).releaseSlot(gameServer.getId());
+        assertThat(openServerIndex.getOpenSlots(BucketKey.of(gameServer))).isEqualTo(2);
+    }
+
+    @Test
+    public void givenMatchingOpenServer_whenPollMatchmaking_thenRefreshReservedServer() throws ApiException {
+        // GIVEN
+        Player player = createQueuedPlayer("testPlayer");
+        when(playerRepository.findById(player.getId())).thenReturn(Optional.of(player));
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        when(gameServerRepository.findById(gameServer.getId())).thenReturn(Optional.of(gameServer));
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        matchmakingService.pollMatchmaking(player.getId());
+
+        // THEN
+        InOrder inOrder = inOrder(gameServerRepository);
+        inOrder.verify(gameServerRepository).reserveSlots(gameServer.getId(), 1);
+        inOrder.verify(gameServerRepository).refresh(gameServer);
+    }
+
+    @Test
+    public void givenMatchingOpenServer_whenPollMatchmaking_thenReturnServer() throws ApiException {
+        // GIVEN
+        String playerId = "testId";
+
+        String gameMode = "GM";
+        String region = "EU";
+        String version = "1.0";
+
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn(playerId);
+        when(player.getGameMode()).thenReturn(gameMode);
+        when(player.getRegion()).thenReturn(region);
+        when(player.getVersion()).thenReturn(version);
+
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
+        GameServer gameServer = mock(GameServer.class);
+        ArrayList<Player> allocatedPlayers = new ArrayList<>();
+        when(gameServer.getId()).thenReturn("testServerId");
+        when(gameServer.getStatus()).thenReturn(ServerStatus.OPEN);
+        when(gameServer.getPlayers()).thenReturn(allocatedPlayers);
+        when(gameServer.getMaxPlayers()).thenReturn(2);
+        when(gameServer.getGameMode()).thenReturn(gameMode);
+        when(gameServer.getRegion()).thenReturn(region);
+        when(gameServer.getVersion()).thenReturn(version);
+        when(gameServer.getLastHeartbeat()).thenReturn(OffsetDateTime.now());
+        when(gameServer.getIpV4Address()).thenReturn("127.0.0.1");
+        when(gameServer.getPort()).thenReturn(1234);
+
+        when(gameServerRepository.findById(gameServer.getId())).thenReturn(Optional.of(gameServer));
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(playerId);
+
+        // THEN
+        assertThat(response).isNotNull();
+        assertThat(response.getServerId()).isEqualTo(gameServer.getId());
+        assertThat(response.getIpV4Address()).isEqualTo(gameServer.getIpV4Address());
+        assertThat(response.getPort()).isEqualTo(gameServer.getPort());
+        assertThat(response.getStatus()).isEqualTo(MatchmakingStatus.WAITING_FOR_PLAYERS);
+    }
+
+    @Test
+    public void givenMatchingOpenServer_whenPollMatchmaking_thenTrackJoinDeadline() throws ApiException {
+        // GIVEN
+        String playerId = "testId";
+
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn(playerId);
+        when(player.getGameMode()).thenReturn("GM");
+        when(player.getRegion()).thenReturn("EU");
+        when(player.getVersion()).thenReturn("1.0");
+
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
+        GameServer gameServer = mock(GameServer.class);
+        when(gameServer.getId()).thenReturn("testServerId");
+        when(gameServer.getStatus()).thenReturn(ServerStatus.OPEN);
+        when(gameServer.getMaxPlayers()).thenReturn(2);
+        when(gameServer.getGameMode()).thenReturn("GM");
+        when(gameServer.getRegion()).thenReturn("EU");
+        when(gameServer.getVersion()).thenReturn("1.0");
+
+        when(gameServerRepository.findById(gameServer.getId())).thenReturn(Optional.of(gameServer));
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        matchmakingService.pollMatchmaking(playerId);
+
+        // THEN
+        assertThat(expiryReaper.getTrackedPlayerCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenMatchingOpenServer_whenPollMatchmaking_thenPublishRosterChanged() throws ApiException {
+        // GIVEN
+        String playerId = "testId";
+
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn(playerId);
+        when(player.getGameMode()).thenReturn("GM");
+        when(player.getRegion()).thenReturn("EU");
+        when(player.getVersion()).thenReturn("1.0");
+
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
+        GameServer gameServer = mock(GameServer.class);
+        when(gameServer.getId()).thenReturn("testServerId");
+        when(gameServer.getStatus()).thenReturn(ServerStatus.OPEN);
+        when(gameServer.getMaxPlayers()).thenReturn(2);
+        when(gameServer.getGameMode()).thenReturn("GM");
+        when(gameServer.getRegion()).thenReturn("EU");
+        when(gameServer.getVersion()).thenReturn("1.0");
+
+        when(gameServerRepository.findById(gameServer.getId())).thenReturn(Optional.of(gameServer));
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        matchmakingService.pollMatchmaking(playerId);
+
+        // THEN
+        ArgumentCaptor<ServerRosterChangedEvent> argument = ArgumentCaptor.forClass(ServerRosterChangedEvent.class);
+        verify(eventPublisher).publishEvent(argument.capture());
+
+        assertThat(argument.getValue().getServerId()).isEqualTo(gameServer.getId());
+        assertThat(argument.getValue().getPlayerId()).isEqualTo(playerId);
+        assertThat(argument.getValue().isAdded()).isTrue();
+    }
+
+    @Test
+    public void givenMatchingOpenServer_whenPollMatchmaking_thenReserveSlotInDatabase() throws ApiException {
+        // GIVEN
+        String playerId = "testId";
+
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn(playerId);
+        when(player.getGameMode()).thenReturn("GM");
+        when(player.getRegion()).thenReturn("EU");
+        when(player.getVersion()).thenReturn("1.0");
+
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        when(gameServerRepository.findById(gameServer.getId())).thenReturn(Optional.of(gameServer));
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        matchmakingService.pollMatchmaking(playerId);
+
+        // THEN
+        verify(gameServerRepository).reserveSlots(gameServer.getId(), 1);
+    }
+
+    @Test
+    public void givenServerFilledByOtherInstance_whenPollMatchmaking_thenReturnServersFull() throws ApiException {
+        // GIVEN
+        String playerId = "testId";
+
+        Player player = mock(Player.class);
+        when(player.getGameMode()).thenReturn("GM");
+        when(player.getRegion()).thenReturn("EU");
+        when(player.getVersion()).thenReturn("1.0");
+
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        when(gameServerRepository.findById(gameServer.getId())).thenReturn(Optional.of(gameServer));
+        openServerIndex.put(gameServer);
+
+        when(gameServerRepository.reserveSlots(gameServer.getId(), 1)).thenReturn(0);
+        when(gameServer.getPlayerCount()).thenReturn(2);
+
+        // WHEN
+        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(playerId);
+
+        // THEN
+        assertThat(response.getStatus()).isEqualTo(MatchmakingStatus.SERVERS_FULL);
+        verify(player, never()).setGameServer(any());
+        assertThat(openServerIndex.getOpenSlots(BucketKey.of(gameServer))).isEqualTo(0);
+    }
+
+    @Test
+    public void givenServerRegisteredWithOtherInstance_whenPollMatchmaking_thenAllocatePlayerToServer() throws ApiException {
+        // GIVEN
+        String playerId = "testId";
+
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn(playerId);
+        when(player.getGameMode()).thenReturn("GM");
+        when(player.getRegion()).thenReturn("EU");
+        when(player.getVersion()).thenReturn("1.0");
+
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        when(gameServerRepository.findById(gameServer.getId())).thenReturn(Optional.of(gameServer));
+        when(gameServerRepository.findByVersionAndGameModeAndRegionAndStatus("1.0", "GM", "EU", ServerStatus.OPEN))
+                .thenReturn(Lists.newArrayList(gameServer));
+
+        // WHEN
+        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(playerId);
+
+        // THEN
+        assertThat(response.getServerId()).isEqualTo(gameServer.getId());
+        assertThat(openServerIndex.contains(gameServer.getId())).isTrue();
+        verify(player).setGameServer(gameServer);
+    }
+
+    @Test
+    public void givenTickMode_whenPollMatchmaking_thenDontAllocatePlayer() throws ApiException {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.TICK);
+
+        String playerId = "testId";
+
+        Player player = mock(Player.class);
+        when(player.getGameMode()).thenReturn("GM");
+        when(player.getRegion()).thenReturn("EU");
+        when(player.getVersion()).thenReturn("1.0");
+
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(playerId);
+
+        // THEN
+        assertThat(response.getStatus()).isEqualTo(MatchmakingStatus.WAITING_FOR_PLAYERS);
+        assertThat(response.getServerId()).isNull();
+        verify(player, never()).setGameServer(any());
+    }
+
+    @Test
+    public void givenTickModeWithoutOpenServers_whenPollMatchmaking_thenServersFull() throws ApiException {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.TICK);
+
+        String playerId = "testId";
+
+        Player player = mock(Player.class);
+        when(player.getGameMode()).thenReturn("GM");
+        when(player.getRegion()).thenReturn("EU");
+        when(player.getVersion()).thenReturn("1.0");
+
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
+        // WHEN
+        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(playerId);
+
+        // THEN
+        assertThat(response.getStatus()).isEqualTo(MatchmakingStatus.SERVERS_FULL);
+        verify(player, never()).setGameServer(any());
+    }
+
+    @Test
+    public void givenPollMode_whenRunMatchmakingTick_thenDoNothing() {
+        // WHEN
+        matchmakingService.runMatchmakingTick();
+
+        // THEN
+        verify(playerRepository, never()).findByVersionAndGameModeAndRegionAndStatusOrderByQueuedTimeAsc(any(), any(),
+                any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    public void givenNoOpenSlots_whenRunMatchmakingTick_thenDontQueryPlayers() {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.TICK);
+
+        GameServer gameServer = createOpenServer("testServerId", 1);
+        when(gameServer.getPlayerCount()).thenReturn(1);
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        matchmakingService.runMatchmakingTick();
+
+        // THEN
+        verify(playerRepository, never()).findByVersionAndGameModeAndRegionAndStatusOrderByQueuedTimeAsc(any(), any(),
+                any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    public void givenOpenSlots_whenRunMatchmakingTick_thenQueryPlayersForOpenSlots() {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.TICK);
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        openServerIndex.put(gameServer);
+
+        // WHEN
+        matchmakingService.runMatchmakingTick();
+
+        // THEN
+        verify(playerRepository).findByVersionAndGameModeAndRegionAndStatusOrderByQueuedTimeAsc("1.0", "GM", "EU",
+                PlayerStatus.QUEUED, PageRequest.of(0, 2));
+    }
+
+    @Test
+    public void givenQueuedPlayers_whenRunMatchmakingTick_thenAllocateInEnqueueOrder() {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.TICK);
+
+        Player first = createQueuedPlayer("first");
+        Player second = createQueuedPlayer("second");
+        Player third = createQueuedPlayer("third");
+
+        when(playerRepository.findByVersionAndGameModeAndRegionAndStatusOrderByQueuedTimeAsc(any(), any(), any(), any(),
+                any(Pageable.class)))
+                .thenReturn(Lists.newArrayList(first, second, third));
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        openServerIndex.put(gameServer);
+
+        when(gameServerRepository.findAllById(any())).thenReturn(Lists.newArrayList(gameServer));
+
+        // WHEN
+        matchmakingService.runMatchmakingTick();
+
+        // THEN
+        verify(first).setGameServer(gameServer);
+        verify(second).setGameServer(gameServer);
+        verify(third, never()).setGameServer(any());
+        verify(gameServer, never()).getPlayers();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenQueuedPlayers_whenRunMatchmakingTick_thenSaveInBatch() {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.TICK);
+
+        Player first = createQueuedPlayer("first");
+        Player second = createQueuedPlayer("second");
+
+        when(playerRepository.findByVersionAndGameModeAndRegionAndStatusOrderByQueuedTimeAsc(any(), any(), any(), any(),
+                any(Pageable.class)))
+                .thenReturn(Lists.newArrayList(first, second));
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        openServerIndex.put(gameServer);
+
+        when(gameServerRepository.findAllById(any())).thenReturn(Lists.newArrayList(gameServer));
+
+        // WHEN
+        matchmakingService.runMatchmakingTick();
+
+        // THEN
+        ArgumentCaptor<Iterable<Player>> argument = ArgumentCaptor.forClass(Iterable.class);
+        verify(playerRepository).saveAll(argument.capture());
+        verify(playerRepository, never()).save(any());
+
+        assertThat(argument.getValue()).containsExactly(first, second);
+    }
+
+    @Test
+    public void givenQueuedPlayers_whenRunMatchmakingTick_thenReserveSlotsPerServer() {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.TICK);
+
+        Player first = createQueuedPlayer("first");
+        Player second = createQueuedPlayer("second");
+
+        when(playerRepository.findByVersionAndGameModeAndRegionAndStatusOrderByQueuedTimeAsc(any(), any(), any(), any(),
+                any(Pageable.class)))
+                .thenReturn(Lists.newArrayList(first, second));
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        openServerIndex.put(gameServer);
+
+        when(gameServerRepository.findAllById(any())).thenReturn(Lists.newArrayList(gameServer));
+
+        // WHEN
+        matchmakingService.runMatchmakingTick();
+
+        // THEN
+        verify(gameServerRepository).reserveSlots(gameServer.getId(), 2);
+    }
+
+    @Test
+    public void givenServerFilledByOtherInstance_whenRunMatchmakingTick_thenKeepPlayersQueued() {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.TICK);
+
+        Player player = createQueuedPlayer("testPlayer");
+
+        when(playerRepository.findByVersionAndGameModeAndRegionAndStatusOrderByQueuedTimeAsc(any(), any(), any(), any(),
+                any(Pageable.class)))
+                .thenReturn(Lists.newArrayList(player));
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        openServerIndex.put(gameServer);
+
+        when(gameServerRepository.reserveSlots(gameServer.getId(), 1)).thenReturn(0);
+        when(gameServerRepository.findAllById(any())).thenReturn(Lists.newArrayList(gameServer));
+
+        // WHEN
+        matchmakingService.runMatchmakingTick();
+
+        // THEN
+        verify(player, never()).setGameServer(any());
+    }
+
+    @Test
+    public void givenPlayerAllocatedByOtherInstance_whenRunMatchmakingTick_thenReleaseSlot() {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.TICK);
+
+        Player first = createQueuedPlayer("first");
+        Player second = createQueuedPlayer("second");
+
+        when(playerRepository.findByVersionAndGameModeAndRegionAndStatusOrderByQueuedTimeAsc(any(), any(), any(), any(),
+                any(Pageable.class)))
+                .thenReturn(Lists.newArrayList(first, second));
+        doReturn(Lists.newArrayList("second")).when(playerRepository).claimQueued(any());
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        openServerIndex.put(gameServer);
+
+        when(gameServerRepository.findAllById(any())).thenReturn(Lists.newArrayList(gameServer));
+
+        // WHEN
+        matchmakingService.runMatchmakingTick();
+
+        // THEN
+        verify(first, never()).setGameServer(any());
+        verify(second).setGameServer(gameServer);
+        verify(gameServerRepository).releaseSlot(gameServer.getId());
+        assertThat(openServerIndex.getOpenSlots(BucketKey.of(gameServer))).isEqualTo(1);
+    }
+
+    @Test
+    public void givenQueuedPlayers_whenRunMatchmakingTick_thenPublishPlayersMatched() {
+        // GIVEN
+        matchmakingConfig.setAllocationMode(AllocationMode.TICK);
+
+        Player player = createQueuedPlayer("testPlayer");
+
+        when(playerRepository.findByVersionAndGameModeAndRegionAndStatusOrderByQueuedTimeAsc(any(), any(), any(), any(),
+                any(Pageable.class)))
+                .thenReturn(Lists.newArrayList(player));
+
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        openServerIndex.put(gameServer);
+
+        when(gameServerRepository.findAllById(any())).thenReturn(Lists.newArrayList(gameServer));
+
+        // WHEN
+        matchmakingService.runMatchmakingTick();
+
+        // THEN
+        ArgumentCaptor<PlayersMatchedEvent> argument = ArgumentCaptor.forClass(PlayersMatchedEvent.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(argument.capture());
+
+        assertThat(argument.getValue().getPlayerIds()).containsExactly(player.getId());
+    }
+
+    @Test
+    public void givenMissingId_whenGetServerRoster_thenThrowException() {
+        // WHEN & THEN
+        assertThatExceptionOfType(ApiException.class)
+                .isThrownBy(() -> matchmakingService.getServerRoster(null))
+                .withMessage(ApiErrors.MISSING_GAME_SERVER_ID_MESSAGE);
+    }
+
+    @Test
+    public void givenInvalidId_whenGetServerRoster_thenThrowException() {
         // WHEN & THEN
         assertThatExceptionOfType(ApiException.class)
-                .isThrownBy(() -> matchmakingService.pollMatchmaking("testId"))
-                .withMessage(ApiErrors.PLAYER_NOT_FOUND_MESSAGE);
+                .isThrownBy(() -> matchmakingService.getServerRoster("testId"))
+                .withMessage(ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE);
     }
 
     @Test
-    public void givenMatchedPlayer_whenPollMatchmaking_thenReturnMatch() throws ApiException {
+    public void givenServerWithPlayers_whenGetServerRoster_thenReturnPlayerIds() throws ApiException {
         // GIVEN
-        String playerId = "testId";
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn("testPlayer");
 
         GameServer gameServer = mock(GameServer.class);
-        when(gameServer.getId()).thenReturn("testServerId");
-        when(gameServer.getIpV4Address()).thenReturn("127.0.0.1");
-        when(gameServer.getPort()).thenReturn(1234);
-
-        Player player = mock(Player.class);
-        when(player.getGameServer()).thenReturn(gameServer);
-        when(player.getTicket()).thenReturn("testTicket");
+        when(gameServer.getPlayers()).thenReturn(Lists.newArrayList(player));
 
-        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+        when(gameServerRepository.findById("testId")).thenReturn(Optional.of(gameServer));
 
         // WHEN
-        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(playerId);
+        GetServerRosterResponse response = matchmakingService.getServerRoster("testId");
 
         // THEN
-        assertThat(response).isNotNull();
-        assertThat(response.getTicket()).isEqualTo(player.getTicket());
-        assertThat(response.getServerId()).isEqualTo(gameServer.getId());
-        assertThat(response.getIpV4Address()).isEqualTo(gameServer.getIpV4Address());
-        assertThat(response.getPort()).isEqualTo(gameServer.getPort());
+        assertThat(response.getServerId()).isEqualTo("testId");
+        assertThat(response.getPlayerIds()).containsExactly(player.getId());
     }
 
     @Test
     @SuppressWarnings("unchecked")
-    public void givenExpiredServer_whenPollMatchmaking_thenRemoveServer() throws ApiException {
+    public void givenExpiredServer_whenReapExpired_thenRemoveServer() {
         // GIVEN
-        String playerId = "testId";
-
-        Player player = mock(Player.class);
-        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
-
         GameServer gameServer = mock(GameServer.class);
+        when(gameServer.getId()).thenReturn("testId");
         when(gameServer.getLastHeartbeat()).thenReturn(OffsetDateTime.now().minusSeconds(MatchmakingService.SERVER_HEARTBEAT_TIMEOUT_SECONDS + 1));
-        when(gameServerRepository.findAll()).thenReturn(Lists.newArrayList(gameServer));
+        when(gameServerRepository.findAllById(Lists.newArrayList(gameServer.getId()))).thenReturn(Lists.newArrayList(gameServer));
+
+        expiryReaper.trackServer(gameServer.getId(), System.currentTimeMillis() - ExpiryReaper.TICK_MILLIS);
 
         // WHEN
-        matchmakingService.pollMatchmaking(playerId);
+        matchmakingService.reapExpired();
 
         // THEN
-        ArgumentCaptor<List<GameServer>> argument = ArgumentCaptor.forClass(List.class);
-        verify(gameServerRepository).deleteAll(argument.capture());
-        List<GameServer> deletedServers = argument.getValue();
+        ArgumentCaptor<Collection<String>> argument = ArgumentCaptor.forClass(Collection.class);
+        verify(gameServerRepository).deleteByIdIn(argument.capture());
+        Collection<String> deletedServerIds = argument.getValue();
 
-        assertThat(deletedServers).isNotNull();
-        assertThat(deletedServers).contains(gameServer);
+        assertThat(deletedServerIds).isNotNull();
+        assertThat(deletedServerIds).contains(gameServer.getId());
+        verify(playerRepository).deleteByGameServerIdIn(deletedServerIds);
     }
 
     @Test
-    public void givenExpiredMatchedPlayer_whenPollMatchmaking_thenRemovePlayer() throws ApiException {
+    public void givenServerWithPersistedHeartbeat_whenReapExpired_thenKeepServer() {
         // GIVEN
-        String playerId = "testId";
-
-        Player player = mock(Player.class);
-        when(player.getStatus()).thenReturn(PlayerStatus.MATCHED);
-        when(player.getMatchedTime()).thenReturn(OffsetDateTime.now().minusSeconds(MatchmakingService.CLIENT_JOIN_TIMEOUT_SECONDS + 1));
+        GameServer gameServer = mock(GameServer.class);
+        when(gameServer.getId()).thenReturn("testId");
+        when(gameServer.getLastHeartbeat()).thenReturn(OffsetDateTime.now());
+        when(gameServerRepository.findAllById(Lists.newArrayList(gameServer.getId()))).thenReturn(Lists.newArrayList(gameServer));
 
-        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
-        when(playerRepository.findAll()).thenReturn(Lists.newArrayList(player));
+        expiryReaper.trackServer(gameServer.getId(), System.currentTimeMillis() - ExpiryReaper.TICK_MILLIS);
 
         // WHEN
-        matchmakingService.pollMatchmaking(playerId);
+        matchmakingService.reapExpired();
 
         // THEN
-        verify(playerRepository).delete(player);
+        verify(gameServerRepository, never()).deleteByIdIn(any());
+        assertThat(expiryReaper.getTrackedServerCount()).isEqualTo(1);
     }
 
     @Test
-    public void givenFullServers_whenPollMatchmaking_thenReturnServersFull() throws ApiException {
+    public void givenPendingHeartbeat_whenReapExpired_thenKeepServer() {
         // GIVEN
-        String playerId = "testId";
+        GameServer gameServer = mock(GameServer.class);
+        when(gameServer.getId()).thenReturn("testId");
+        when(gameServer.getLastHeartbeat()).thenReturn(OffsetDateTime.now().minusSeconds(MatchmakingService.SERVER_HEARTBEAT_TIMEOUT_SECONDS + 1));
+        when(gameServerRepository.findAllById(Lists.newArrayList(gameServer.getId()))).thenReturn(Lists.newArrayList(gameServer));
 
-        Player player = mock(Player.class);
-        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+        heartbeatAccumulator.record("testId", OffsetDateTime.now());
+        expiryReaper.trackServer("testId", System.currentTimeMillis() - ExpiryReaper.TICK_MILLIS);
 
         // WHEN
-        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(playerId);
+        matchmakingService.reapExpired();
 
         // THEN
-        assertThat(response).isNotNull();
-        assertThat(response.getStatus()).isEqualTo(MatchmakingStatus.SERVERS_FULL);
+        verify(gameServerRepository, never()).deleteByIdIn(any());
+        assertThat(expiryReaper.getTrackedServerCount()).isEqualTo(1);
     }
 
     @Test
-    public void givenMatchingOpenServer_whenPollMatchmaking_thenAllocatePlayerToServer() throws ApiException {
+    public void givenExpiredMatchedPlayer_whenReapExpired_thenRemovePlayer() {
         // GIVEN
-        String playerId = "testId";
-
-        String gameMode = "GM";
-        String region = "EU";
-        String version = "1.0";
-
         Player player = mock(Player.class);
-        when(player.getGameMode()).thenReturn(gameMode);
-        when(player.getRegion()).thenReturn(region);
-        when(player.getVersion()).thenReturn(version);
-
-        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+        when(player.getId()).thenReturn("testId");
+        when(player.getStatus()).thenReturn(PlayerStatus.MATCHED);
+        when(player.getMatchedTime()).thenReturn(OffsetDateTime.now().minusSeconds(MatchmakingService.CLIENT_JOIN_TIMEOUT_SECONDS + 1));
 
-        GameServer gameServer = mock(GameServer.class);
-        ArrayList<Player> allocatedPlayers = new ArrayList<>();
-        when(gameServer.getStatus()).thenReturn(ServerStatus.OPEN);
-        when(gameServer.getPlayers()).thenReturn(allocatedPlayers);
-        when(gameServer.getMaxPlayers()).thenReturn(2);
-        when(gameServer.getGameMode()).thenReturn(gameMode);
-        when(gameServer.getRegion()).thenReturn(region);
-        when(gameServer.getVersion()).thenReturn(version);
-        when(gameServer.getLastHeartbeat()).thenReturn(OffsetDateTime.now());
+        when(playerRepository.findAllById(Lists.newArrayList(player.getId()))).thenReturn(Lists.newArrayList(player));
 
-        when(gameServerRepository.findAll()).thenReturn(Lists.newArrayList(gameServer));
+        expiryReaper.trackPlayer(player.getId(), System.currentTimeMillis() - ExpiryReaper.TICK_MILLIS);
 
         // WHEN
-        matchmakingService.pollMatchmaking(playerId);
+        matchmakingService.reapExpired();
 
         // THEN
-        verify(player).setTicket(anyString());
-        verify(player).setStatus(PlayerStatus.MATCHED);
-        verify(player).setGameServer(gameServer);
-        verify(player).setMatchedTime(any(OffsetDateTime.class));
+        verify(playerRepository).delete(player);
+    }
 
-        assertThat(allocatedPlayers).containsExactly(player);
+    @Test
+    public void givenJoinedPlayer_whenReapExpired_thenKeepPlayer() {
+        // GIVEN
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn("testId");
+        when(player.getStatus()).thenReturn(PlayerStatus.JOINED);
 
-        verify(gameServerRepository).save(gameServer);
-        verify(playerRepository).save(player);
+        when(playerRepository.findAllById(Lists.newArrayList(player.getId()))).thenReturn(Lists.newArrayList(player));
+
+        expiryReaper.trackPlayer(player.getId(), System.currentTimeMillis() - ExpiryReaper.TICK_MILLIS);
+
+        // WHEN
+        matchmakingService.reapExpired();
+
+        // THEN
+        verify(playerRepository, never()).delete(player);
     }
 
     @Test
-    public void givenMatchingOpenServer_whenPollMatchmaking_thenReturnServer() throws ApiException {
+    public void givenExpiredUntrackedServer_whenSweepExpired_thenRemoveServer() {
         // GIVEN
-        String playerId = "testId";
+        GameServer gameServer = createOpenServer("testId", 2);
+        openServerIndex.put(gameServer);
 
-        String gameMode = "GM";
-        String region = "EU";
-        String version = "1.0";
+        GameServerKey gameServerKey = mock(GameServerKey.class);
+        when(gameServerKey.getId()).thenReturn("testId");
+        when(gameServerRepository.findKeysByLastHeartbeatBefore(any())).thenReturn(Lists.newArrayList(gameServerKey));
+        when(gameServerRepository.deleteByLastHeartbeatBefore(any())).thenReturn(1);
 
-        Player player = mock(Player.class);
-        when(player.getGameMode()).thenReturn(gameMode);
-        when(player.getRegion()).thenReturn(region);
-        when(player.getVersion()).thenReturn(version);
+        // WHEN
+        matchmakingService.sweepExpired();
 
-        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+        // THEN
+        verify(playerRepository).deleteByGameServerLastHeartbeatBefore(any());
+        verify(gameServerRepository).deleteByLastHeartbeatBefore(any());
+        verify(gameServerRepository, never()).delete(any());
 
-        GameServer gameServer = mock(GameServer.class);
-        ArrayList<Player> allocatedPlayers = new ArrayList<>();
-        when(gameServer.getId()).thenReturn("testServerId");
-        when(gameServer.getStatus()).thenReturn(ServerStatus.OPEN);
-        when(gameServer.getPlayers()).thenReturn(allocatedPlayers);
-        when(gameServer.getMaxPlayers()).thenReturn(2);
-        when(gameServer.getGameMode()).thenReturn(gameMode);
-        when(gameServer.getRegion()).thenReturn(region);
-        when(gameServer.getVersion()).thenReturn(version);
-        when(gameServer.getLastHeartbeat()).thenReturn(OffsetDateTime.now());
-        when(gameServer.getIpV4Address()).thenReturn("127.0.0.1");
-        when(gameServer.getPort()).thenReturn(1234);
+        assertThat(openServerIndex.contains(gameServer.getId())).isFalse();
+        assertThat(matchmakingService.getReaperStatus().getLastSweepDeletedServers()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenExpiredUntrackedPlayer_whenSweepExpired_thenReleasePlayer() {
+        // GIVEN
+        GameServer gameServer = createOpenServer("testServerId", 2);
+        when(gameServer.getPlayerCount()).thenReturn(2);
+        openServerIndex.put(gameServer);
 
-        when(gameServerRepository.findAll()).thenReturn(Lists.newArrayList(gameServer));
+        PlayerKey playerKey = mock(PlayerKey.class);
+        when(playerKey.getId()).thenReturn("testId");
+        when(playerKey.getGameServerId()).thenReturn("testServerId");
+
+        when(playerRepository.findKeysByStatusAndMatchedTimeBefore(eq(PlayerStatus.MATCHED), any()))
+                .thenReturn(Lists.newArrayList(playerKey));
+        when(playerRepository.deleteByStatusAndMatchedTimeBefore(eq(PlayerStatus.MATCHED), any())).thenReturn(1);
 
         // WHEN
-        ClientPollMatchmakingResponse response = matchmakingService.pollMatchmaking(playerId);
+        matchmakingService.sweepExpired();
 
         // THEN
-        assertThat(response).isNotNull();
-        assertThat(response.getServerId()).isEqualTo(gameServer.getId());
-        assertThat(response.getIpV4Address()).isEqualTo(gameServer.getIpV4Address());
-        assertThat(response.getPort()).isEqualTo(gameServer.getPort());
-        assertThat(response.getStatus()).isEqualTo(MatchmakingStatus.WAITING_FOR_PLAYERS);
+        verify(gameServerRepository).releaseSlotsOfPlayers(eq(PlayerStatus.MATCHED), any());
+        verify(playerRepository).deleteByStatusAndMatchedTimeBefore(eq(PlayerStatus.MATCHED), any());
+        verify(playerRepository, never()).delete(any());
+
+        assertThat(openServerIndex.getOpenSlots(BucketKey.of(gameServer))).isEqualTo(1);
+        assertThat(matchmakingService.getReaperStatus().getLastSweepReleasedPlayers()).isEqualTo(1);
     }
 
     @Test
@@ -719,8 +1927,7 @@ public class MatchmakingServiceTests {
         when(request.getServerId()).thenReturn("testServerId");
         when(request.getTicket()).thenReturn("testTicket");
 
-        GameServer gameServer = mock(GameServer.class);
-        when(gameServerRepository.findById(request.getServerId())).thenReturn(Optional.of(gameServer));
+        when(gameServerRepository.existsById(request.getServerId())).thenReturn(true);
 
         // WHEN & THEN
         assertThatExceptionOfType(ApiException.class)
@@ -739,12 +1946,13 @@ public class MatchmakingServiceTests {
         when(request.getServerId()).thenReturn(serverId);
 
         GameServer gameServer = mock(GameServer.class);
-        Player player = mock(Player.class);
-        ArrayList<Player> waitingPlayers = Lists.newArrayList(player);
+        when(gameServer.getId()).thenReturn(serverId);
 
-        when(gameServer.getPlayers()).thenReturn(waitingPlayers);
-        when(gameServerRepository.findById(request.getServerId())).thenReturn(Optional.of(gameServer));
+        Player player = mock(Player.class);
+        when(player.getGameServer()).thenReturn(gameServer);
+        when(playerRepository.findByTicket(ticket)).thenReturn(Optional.of(player));
 
+        when(player.getId()).thenReturn("testPlayer");
         when(player.getTicket()).thenReturn(ticket);
 
         // WHEN
@@ -768,11 +1976,11 @@ public class MatchmakingServiceTests {
         when(request.getServerId()).thenReturn(serverId);
 
         GameServer gameServer = mock(GameServer.class);
-        Player player = mock(Player.class);
-        ArrayList<Player> waitingPlayers = Lists.newArrayList(player);
+        when(gameServer.getId()).thenReturn(serverId);
 
-        when(gameServer.getPlayers()).thenReturn(waitingPlayers);
-        when(gameServerRepository.findById(request.getServerId())).thenReturn(Optional.of(gameServer));
+        Player player = mock(Player.class);
+        when(player.getGameServer()).thenReturn(gameServer);
+        when(playerRepository.findByTicket(ticket)).thenReturn(Optional.of(player));
 
         when(player.getId()).thenReturn("testPlayer");
         when(player.getTicket()).thenReturn(ticket);
@@ -786,6 +1994,137 @@ public class MatchmakingServiceTests {
         assertThat(response.getServerId()).isEqualTo(serverId);
     }
 
+    @Test
+    public void givenIndexedTicket_whenNotifyPlayerJoined_thenLookUpPlayerById() throws ApiException {
+        // GIVEN
+        ServerNotifyPlayerJoinedRequest request = new ServerNotifyPlayerJoinedRequest("testServerId", "testTicket");
+
+        GameServer gameServer = mock(GameServer.class);
+        when(gameServer.getId()).thenReturn("testServerId");
+
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn("testPlayer");
+        when(player.getTicket()).thenReturn("testTicket");
+        when(player.getGameServer()).thenReturn(gameServer);
+        when(playerRepository.findById("testPlayer")).thenReturn(Optional.of(player));
+
+        ticketIndex.put("testTicket", "testPlayer");
+
+        // WHEN
+        matchmakingService.notifyPlayerJoined(request);
+
+        // THEN
+        verify(playerRepository, never()).findByTicket(anyString());
+        verify(gameServerRepository, never()).findById(anyString());
+        verify(player).setStatus(PlayerStatus.JOINED);
+
+        assertThat(ticketIndex.getPlayerId("testTicket")).isNull();
+    }
+
+    @Test
+    public void givenSignedTicket_whenNotifyPlayerJoined_thenLookUpPlayerById() throws ApiException {
+        // GIVEN
+        String ticket = ticketSigner.mint("testPlayer", "testServerId", System.currentTimeMillis() + 10000L);
+        ServerNotifyPlayerJoinedRequest request = new ServerNotifyPlayerJoinedRequest("testServerId", ticket);
+
+        GameServer gameServer = mock(GameServer.class);
+        when(gameServer.getId()).thenReturn("testServerId");
+
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn("testPlayer");
+        when(player.getTicket()).thenReturn(ticket);
+        when(player.getGameServer()).thenReturn(gameServer);
+        when(playerRepository.findById("testPlayer")).thenReturn(Optional.of(player));
+
+        // WHEN
+        matchmakingService.notifyPlayerJoined(request);
+
+        // THEN
+        verify(playerRepository, never()).findByTicket(anyString());
+        verify(player).setStatus(PlayerStatus.JOINED);
+    }
+
+    @Test
+    public void givenPlayerOfOtherServer_whenNotifyPlayerJoined_thenThrowException() {
+        // GIVEN
+        ServerNotifyPlayerJoinedRequest request = new ServerNotifyPlayerJoinedRequest("testServerId", "testTicket");
+
+        GameServer otherServer = mock(GameServer.class);
+        when(otherServer.getId()).thenReturn("otherServerId");
+
+        Player player = mock(Player.class);
+        when(player.getGameServer()).thenReturn(otherServer);
+        when(playerRepository.findByTicket("testTicket")).thenReturn(Optional.of(player));
+        when(gameServerRepository.existsById("testServerId")).thenReturn(true);
+
+        // WHEN & THEN
+        assertThatExceptionOfType(ApiException.class)
+                .isThrownBy(() -> matchmakingService.notifyPlayerJoined(request))
+                .withMessage(ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_MESSAGE);
+
+        verify(player, never()).setStatus(any());
+    }
+
+    @Test
+    public void givenTickets_whenNotifyPlayerJoinedBatch_thenConfirmJoins() throws ApiException {
+        // GIVEN
+        GameServer gameServer = mock(GameServer.class);
+        when(gameServer.getId()).thenReturn("testServerId");
+
+        Player indexedPlayer = new Player();
+        indexedPlayer.setId("indexedPlayer");
+        indexedPlayer.setTicket("indexedTicket");
+        indexedPlayer.setStatus(PlayerStatus.MATCHED);
+        indexedPlayer.setGameServer(gameServer);
+
+        Player unindexedPlayer = new Player();
+        unindexedPlayer.setId("unindexedPlayer");
+        unindexedPlayer.setTicket("unindexedTicket");
+        unindexedPlayer.setStatus(PlayerStatus.MATCHED);
+        unindexedPlayer.setGameServer(gameServer);
+
+        ticketIndex.put("indexedTicket", "indexedPlayer");
+
+        when(playerRepository.findAllById(any())).thenReturn(Lists.newArrayList(indexedPlayer));
+        when(playerRepository.findByTicketIn(any())).thenReturn(Lists.newArrayList(unindexedPlayer));
+        when(gameServerRepository.existsById("testServerId")).thenReturn(true);
+
+        ServerNotifyPlayerJoinedBatchRequest request = new ServerNotifyPlayerJoinedBatchRequest("testServerId",
+                Lists.newArrayList("indexedTicket", "unindexedTicket", "unknownTicket", ""));
+
+        // WHEN
+        ServerNotifyPlayerJoinedBatchResponse response = matchmakingService.notifyPlayerJoinedBatch(request);
+
+        // THEN
+        verify(playerRepository, times(1)).findAllById(any());
+        verify(playerRepository, times(1)).findByTicketIn(any());
+        verify(playerRepository).saveAll(Lists.newArrayList(indexedPlayer, unindexedPlayer));
+
+        assertThat(indexedPlayer.getStatus()).isEqualTo(PlayerStatus.JOINED);
+        assertThat(unindexedPlayer.getStatus()).isEqualTo(PlayerStatus.JOINED);
+
+        assertThat(response.getPlayers()).hasSize(4);
+        assertThat(response.getPlayers().get(0).getPlayerId()).isEqualTo("indexedPlayer");
+        assertThat(response.getPlayers().get(0).getError()).isNull();
+        assertThat(response.getPlayers().get(1).getPlayerId()).isEqualTo("unindexedPlayer");
+        assertThat(response.getPlayers().get(1).getError()).isNull();
+        assertThat(response.getPlayers().get(2).getError().getErrorCode())
+                .isEqualTo(ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_CODE);
+        assertThat(response.getPlayers().get(3).getError().getErrorCode()).isEqualTo(ApiErrors.MISSING_TICKET_CODE);
+    }
+
+    @Test
+    public void givenInvalidServerId_whenNotifyPlayerJoinedBatch_thenThrowException() {
+        // GIVEN
+        ServerNotifyPlayerJoinedBatchRequest request = new ServerNotifyPlayerJoinedBatchRequest("testServerId",
+                Lists.newArrayList("testTicket"));
+
+        // WHEN & THEN
+        assertThatExceptionOfType(ApiException.class)
+                .isThrownBy(() -> matchmakingService.notifyPlayerJoinedBatch(request))
+                .withMessage(ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE);
+    }
+
     @Test
     public void givenMissingServerId_whenNotifyPlayerLeft_thenThrowException() {
         // GIVEN
@@ -829,13 +2168,35 @@ public class MatchmakingServiceTests {
         when(request.getServerId()).thenReturn("testServerId");
         when(request.getPlayerId()).thenReturn("testPlayerId");
 
-        GameServer gameServer = mock(GameServer.class);
-        when(gameServerRepository.findById(request.getServerId())).thenReturn(Optional.of(gameServer));
+        when(gameServerRepository.existsById(request.getServerId())).thenReturn(true);
+
+        // WHEN & THEN
+        assertThatExceptionOfType(ApiException.class)
+                .isThrownBy(() -> matchmakingService.notifyPlayerLeft(request))
+                .withMessage(ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_MESSAGE);
+    }
+
+    @Test
+    public void givenPlayerOfOtherServer_whenNotifyPlayerLeft_thenThrowException() {
+        // GIVEN
+        ServerNotifyPlayerLeftRequest request = mock(ServerNotifyPlayerLeftRequest.class);
+        when(request.getServerId()).thenReturn("testServerId");
+        when(request.getPlayerId()).thenReturn("testPlayerId");
+
+        GameServer otherServer = mock(GameServer.class);
+        when(otherServer.getId()).thenReturn("otherServerId");
+
+        Player player = mock(Player.class);
+        when(player.getGameServer()).thenReturn(otherServer);
+
+        when(playerRepository.findById(request.getPlayerId())).thenReturn(Optional.of(player));
+        when(gameServerRepository.existsById(request.getServerId())).thenReturn(true);
 
         // WHEN & THEN
         assertThatExceptionOfType(ApiException.class)
                 .isThrownBy(() -> matchmakingService.notifyPlayerLeft(request))
                 .withMessage(ApiErrors.PLAYER_NOT_FOUND_FOR_SERVER_MESSAGE);
+        verify(playerRepository, never()).delete(any());
     }
 
     @Test
@@ -849,22 +2210,20 @@ public class MatchmakingServiceTests {
         when(request.getServerId()).thenReturn(serverId);
 
         GameServer gameServer = mock(GameServer.class);
-        Player player = mock(Player.class);
-        ArrayList<Player> activePlayers = Lists.newArrayList(player);
-
-        when(gameServer.getPlayers()).thenReturn(activePlayers);
-        when(gameServerRepository.findById(request.getServerId())).thenReturn(Optional.of(gameServer));
+        when(gameServer.getId()).thenReturn(serverId);
 
+        Player player = mock(Player.class);
         when(player.getId()).thenReturn(playerId);
         when(player.getGameServer()).thenReturn(gameServer);
 
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
         // WHEN
         matchmakingService.notifyPlayerLeft(request);
 
         // THEN
-        assertThat(activePlayers).doesNotContain(player);
-
-        verify(gameServerRepository).save(gameServer);
+        verify(gameServer, never()).getPlayers();
+        verify(gameServerRepository, never()).save(any());
         verify(playerRepository).delete(player);
     }
 
@@ -879,15 +2238,14 @@ public class MatchmakingServiceTests {
         when(request.getServerId()).thenReturn(serverId);
 
         GameServer gameServer = mock(GameServer.class);
-        Player player = mock(Player.class);
-        ArrayList<Player> activePlayers = Lists.newArrayList(player);
-
-        when(gameServer.getPlayers()).thenReturn(activePlayers);
-        when(gameServerRepository.findById(request.getServerId())).thenReturn(Optional.of(gameServer));
+        when(gameServer.getId()).thenReturn(serverId);
 
+        Player player = mock(Player.class);
         when(player.getId()).thenReturn(playerId);
         when(player.getGameServer()).thenReturn(gameServer);
 
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(player));
+
         // WHEN
         ServerNotifyPlayerLeftResponse response = matchmakingService.notifyPlayerLeft(request);
 
@@ -962,4 +2320,41 @@ public class MatchmakingServiceTests {
         assertThat(response.getId()).isEqualTo(serverId);
         assertThat(response.getStatus()).isEqualTo(newStatus);
     }
+
+    private Player createQueuedPlayer(String id) {
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn(id);
+        when(player.getStatus()).thenReturn(PlayerStatus.QUEUED);
+        when(player.getGameMode()).thenReturn("GM");
+        when(player.getRegion()).thenReturn("EU");
+        when(player.getVersion()).thenReturn("1.0");
+        return player;
+    }
+
+    private void streamPlayerSummaries(String... playerIds) {
+        doAnswer(invocation -> {
+            Consumer<PlayerSummary> consumer = invocation.getArgument(3);
+
+            for (String playerId : playerIds) {
+                PlayerSummary player = mock(PlayerSummary.class);
+                when(player.getId()).thenReturn(playerId);
+                consumer.accept(player);
+            }
+
+            return null;
+        }).when(playerRepository).streamSummaries(any(), any(), anyInt(), any());
+    }
+
+    private GameServer createOpenServer(String id, int maxPlayers) {
+        GameServer gameServer = mock(GameServer.class);
+        ArrayList<Player> players = new ArrayList<>();
+        when(gameServer.getId()).thenReturn(id);
+        when(gameServer.getStatus()).thenReturn(ServerStatus.OPEN);
+        when(gameServer.getPlayers()).thenReturn(players);
+        when(gameServer.getMaxPlayers()).thenReturn(maxPlayers);
+        when(gameServer.getGameMode()).thenReturn("GM");
+        when(gameServer.getRegion()).thenReturn("EU");
+        when(gameServer.getVersion()).thenReturn("1.0");
+        return gameServer;
+    }
 }
@@ -0,0 +1,98 @@
+package de.opengamebackend.matchmaking.expiry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExpiryReaperTests {
+    private static final long START_MILLIS = 1_000_000;
+    private static final long TIMEOUT_MILLIS = 120_000;
+
+    private ExpiryReaper expiryReaper;
+
+    @BeforeEach
+    public void setUp() {
+        expiryReaper = new ExpiryReaper(START_MILLIS);
+    }
+
+    @Test
+    public void givenServerWithoutHeartbeat_whenAdvance_thenServerExpired() {
+        // GIVEN
+        expiryReaper.trackServer("testServer", START_MILLIS + TIMEOUT_MILLIS);
+
+        // WHEN
+        ExpiryReaper.ExpiredEntities expired = expiryReaper.advance(START_MILLIS + TIMEOUT_MILLIS + ExpiryReaper.TICK_MILLIS);
+
+        // THEN
+        assertThat(expired.getServerIds()).containsExactly("testServer");
+        assertThat(expiryReaper.getTrackedServerCount()).isZero();
+    }
+
+    @Test
+    public void givenServerWithHeartbeat_whenAdvance_thenServerNotExpired() {
+        // GIVEN
+        expiryReaper.trackServer("testServer", START_MILLIS + TIMEOUT_MILLIS);
+        expiryReaper.extendServer("testServer", START_MILLIS + 2 * TIMEOUT_MILLIS);
+
+        // WHEN
+        ExpiryReaper.ExpiredEntities expired = expiryReaper.advance(START_MILLIS + TIMEOUT_MILLIS + ExpiryReaper.TICK_MILLIS);
+
+        // THEN
+        assertThat(expired.isEmpty()).isTrue();
+        assertThat(expiryReaper.getTrackedServerCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenServerWithHeartbeat_whenAdvancePastExtendedDeadline_thenServerExpired() {
+        // GIVEN
+        expiryReaper.trackServer("testServer", START_MILLIS + TIMEOUT_MILLIS);
+        expiryReaper.extendServer("testServer", START_MILLIS + 2 * TIMEOUT_MILLIS);
+        expiryReaper.advance(START_MILLIS + TIMEOUT_MILLIS + ExpiryReaper.TICK_MILLIS);
+
+        // WHEN
+        ExpiryReaper.ExpiredEntities expired = expiryReaper.advance(START_MILLIS + 2 * TIMEOUT_MILLIS + ExpiryReaper.TICK_MILLIS);
+
+        // THEN
+        assertThat(expired.getServerIds()).containsExactly("testServer");
+    }
+
+    @Test
+    public void givenUntrackedPlayer_whenAdvance_thenPlayerNotExpired() {
+        // GIVEN
+        expiryReaper.trackPlayer("testPlayer", START_MILLIS + TIMEOUT_MILLIS);
+        expiryReaper.untrackPlayer("testPlayer");
+
+        // WHEN
+        ExpiryReaper.ExpiredEntities expired = expiryReaper.advance(START_MILLIS + TIMEOUT_MILLIS + ExpiryReaper.TICK_MILLIS);
+
+        // THEN
+        assertThat(expired.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void givenRetrackedPlayer_whenAdvancePastFirstDeadline_thenPlayerNotExpired() {
+        // GIVEN
+        expiryReaper.trackPlayer("testPlayer", START_MILLIS + TIMEOUT_MILLIS);
+        expiryReaper.trackPlayer("testPlayer", START_MILLIS + 2 * TIMEOUT_MILLIS);
+
+        // WHEN
+        ExpiryReaper.ExpiredEntities expired = expiryReaper.advance(START_MILLIS + TIMEOUT_MILLIS + ExpiryReaper.TICK_MILLIS);
+
+        // THEN
+        assertThat(expired.isEmpty()).isTrue();
+        assertThat(expiryReaper.getTrackedPlayerCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenLateAdvance_whenGetLag_thenReturnLag() {
+        // GIVEN
+        expiryReaper.advance(START_MILLIS);
+
+        // WHEN
+        expiryReaper.advance(START_MILLIS + 5 * ExpiryReaper.TICK_MILLIS);
+
+        // THEN
+        assertThat(expiryReaper.getLagMillis()).isEqualTo(4 * ExpiryReaper.TICK_MILLIS);
+    }
+}
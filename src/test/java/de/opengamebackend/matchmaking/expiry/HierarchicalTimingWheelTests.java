@@ -0,0 +1,92 @@
+package de.opengamebackend.matchmaking.expiry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HierarchicalTimingWheelTests {
+    private static final long TICK_MILLIS = 10;
+    private static final int WHEEL_SIZE = 8;
+
+    private HierarchicalTimingWheel<String> wheel;
+    private List<String> expired;
+
+    @BeforeEach
+    public void setUp() {
+        wheel = new HierarchicalTimingWheel<>(TICK_MILLIS, WHEEL_SIZE, 0);
+        expired = new ArrayList<>();
+    }
+
+    @Test
+    public void givenPassedDeadline_whenAdvance_thenExpireItem() {
+        // GIVEN
+        wheel.schedule("A", 25);
+
+        // WHEN
+        wheel.advance(30, expired::add);
+
+        // THEN
+        assertThat(expired).containsExactly("A");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void givenFutureDeadline_whenAdvance_thenKeepItem() {
+        // GIVEN
+        wheel.schedule("A", 45);
+
+        // WHEN
+        wheel.advance(30, expired::add);
+
+        // THEN
+        assertThat(expired).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenDeadlineBeyondLowestLevel_whenAdvance_thenCascadeAndExpireInTime() {
+        // GIVEN
+        long deadline = TICK_MILLIS * WHEEL_SIZE * WHEEL_SIZE + 15;
+        wheel.schedule("A", deadline);
+
+        // WHEN
+        wheel.advance(deadline - TICK_MILLIS, expired::add);
+        List<String> expiredBeforeDeadline = new ArrayList<>(expired);
+        wheel.advance(deadline + TICK_MILLIS, expired::add);
+
+        // THEN
+        assertThat(expiredBeforeDeadline).isEmpty();
+        assertThat(expired).containsExactly("A");
+    }
+
+    @Test
+    public void givenManyDeadlines_whenAdvance_thenExpireInOrder() {
+        // GIVEN
+        wheel.schedule("C", 2000);
+        wheel.schedule("A", 15);
+        wheel.schedule("B", 700);
+
+        // WHEN
+        wheel.advance(5000, expired::add);
+
+        // THEN
+        assertThat(expired).containsExactly("A", "B", "C");
+    }
+
+    @Test
+    public void givenDeadlineInPast_whenSchedule_thenExpireOnNextAdvance() {
+        // GIVEN
+        wheel.advance(100, expired::add);
+        wheel.schedule("A", 50);
+
+        // WHEN
+        wheel.advance(100, expired::add);
+
+        // THEN
+        assertThat(expired).containsExactly("A");
+    }
+}
@@ -0,0 +1,96 @@
+package de.opengamebackend.matchmaking.heartbeats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class HeartbeatAccumulatorTests {
+    private JdbcTemplate jdbcTemplate;
+    private HeartbeatAccumulator heartbeatAccumulator;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        heartbeatAccumulator = new HeartbeatAccumulator(jdbcTemplate);
+    }
+
+    @Test
+    public void givenHeartbeats_whenRecord_thenKeepLatest() {
+        // GIVEN
+        OffsetDateTime now = OffsetDateTime.now();
+
+        // WHEN
+        heartbeatAccumulator.record("testServer", now);
+        heartbeatAccumulator.record("testServer", now.minusSeconds(10));
+
+        // THEN
+        assertThat(heartbeatAccumulator.getLastHeartbeat("testServer", null)).isEqualTo(now);
+        assertThat(heartbeatAccumulator.getLastHeartbeat("testServer", null)).isEqualTo(now);
+    }
+
+    @Test
+    public void givenOlderPendingHeartbeat_whenGetLastHeartbeat_thenReturnPersisted() {
+        // GIVEN
+        OffsetDateTime now = OffsetDateTime.now();
+        heartbeatAccumulator.record("testServer", now.minusSeconds(10));
+
+        // WHEN
+        OffsetDateTime lastHeartbeat = heartbeatAccumulator.getLastHeartbeat("testServer", now);
+
+        // THEN
+        assertThat(lastHeartbeat).isEqualTo(now);
+    }
+
+    @Test
+    public void givenNoPendingHeartbeats_whenFlush_thenDontWrite() {
+        // WHEN
+        heartbeatAccumulator.flush();
+
+        // THEN
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenPendingHeartbeats_whenFlush_thenWriteBatch() {
+        // GIVEN
+        heartbeatAccumulator.record("testServer1", OffsetDateTime.now());
+        heartbeatAccumulator.record("testServer2", OffsetDateTime.now());
+
+        // WHEN
+        heartbeatAccumulator.flush();
+
+        // THEN
+        ArgumentCaptor<Collection<Map.Entry<String, OffsetDateTime>>> argument = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), argument.capture(), eq(HeartbeatAccumulator.BATCH_SIZE), any());
+
+        assertThat(argument.getValue()).hasSize(2);
+        assertThat(heartbeatAccumulator.getLastHeartbeat("testServer1", null)).isNull();
+        assertThat(heartbeatAccumulator.getLastHeartbeat("testServer2", null)).isNull();
+    }
+
+    @Test
+    public void givenFailingWrite_whenFlush_thenKeepHeartbeats() {
+        // GIVEN
+        heartbeatAccumulator.record("testServer", OffsetDateTime.now());
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).thenThrow(new IllegalStateException());
+
+        // WHEN
+        try {
+            heartbeatAccumulator.flush();
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+
+        // THEN
+        assertThat(heartbeatAccumulator.getLastHeartbeat("testServer", null)).isNotNull();
+    }
+}
@@ -0,0 +1,98 @@
+package de.opengamebackend.matchmaking.heartbeats;
+
+import de.opengamebackend.matchmaking.model.ServerStatus;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class HeartbeatDatagramTests {
+    private static final String SERVER_ID = "6f1c2a3b-4d5e-4f60-8a7b-9c0d1e2f3a4b";
+    private static final byte[] SECRET = "testSecret".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void givenEncodedDatagram_whenDecode_thenReturnFields() {
+        // GIVEN
+        ByteBuffer buffer = HeartbeatDatagram.encode(SERVER_ID, ServerStatus.CLOSED, 7, 1234L, SECRET);
+        HeartbeatDatagram datagram = new HeartbeatDatagram(SECRET);
+
+        // WHEN
+        boolean valid = datagram.decode(buffer);
+
+        // THEN
+        assertThat(valid).isTrue();
+        assertThat(new String(datagram.getServerId(), StandardCharsets.US_ASCII)).isEqualTo(SERVER_ID);
+        assertThat(datagram.getStatus()).isEqualTo(ServerStatus.CLOSED);
+        assertThat(datagram.getPlayerCountHint()).isEqualTo(7);
+        assertThat(datagram.getTimestampMillis()).isEqualTo(1234L);
+    }
+
+    @Test
+    public void givenDatagramWithoutOptionalFields_whenDecode_thenReturnDefaults() {
+        // GIVEN
+        ByteBuffer buffer = HeartbeatDatagram.encode(SERVER_ID, null, -1, 1234L, SECRET);
+        HeartbeatDatagram datagram = new HeartbeatDatagram(SECRET);
+
+        // WHEN
+        boolean valid = datagram.decode(buffer);
+
+        // THEN
+        assertThat(valid).isTrue();
+        assertThat(datagram.getStatus()).isNull();
+        assertThat(datagram.getPlayerCountHint()).isEqualTo(-1);
+    }
+
+    @Test
+    public void givenWrongSecret_whenDecode_thenReject() {
+        // GIVEN
+        ByteBuffer buffer = HeartbeatDatagram.encode(SERVER_ID, null, -1, 1234L,
+                "otherSecret".getBytes(StandardCharsets.UTF_8));
+        HeartbeatDatagram datagram = new HeartbeatDatagram(SECRET);
+
+        // WHEN
+        boolean valid = datagram.decode(buffer);
+
+        // THEN
+        assertThat(valid).isFalse();
+    }
+
+    @Test
+    public void givenTamperedDatagram_whenDecode_thenReject() {
+        // GIVEN
+        ByteBuffer buffer = HeartbeatDatagram.encode(SERVER_ID, null, -1, 1234L, SECRET);
+        buffer.put(20, (byte) 'x');
+
+        HeartbeatDatagram datagram = new HeartbeatDatagram(SECRET);
+
+        // WHEN
+        boolean valid = datagram.decode(buffer);
+
+        // THEN
+        assertThat(valid).isFalse();
+    }
+
+    @Test
+    public void givenTruncatedDatagram_whenDecode_thenReject() {
+        // GIVEN
+        ByteBuffer buffer = HeartbeatDatagram.encode(SERVER_ID, null, -1, 1234L, SECRET);
+        buffer.limit(buffer.limit() - 1);
+
+        HeartbeatDatagram datagram = new HeartbeatDatagram(SECRET);
+
+        // WHEN
+        boolean valid = datagram.decode(buffer);
+
+        // THEN
+        assertThat(valid).isFalse();
+    }
+
+    @Test
+    public void givenInvalidServerId_whenEncode_thenThrowException() {
+        // WHEN & THEN
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> HeartbeatDatagram.encode("testServer", null, -1, 1234L, SECRET));
+    }
+}
@@ -0,0 +1,300 @@
+package de.opengamebackend.matchmaking.heartbeats;
+
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import de.opengamebackend.matchmaking.controller.MatchmakingDispatcher;
+import de.opengamebackend.matchmaking.expiry.ExpiryReaper;
+import de.opengamebackend.matchmaking.matching.OpenServerIndex;
+import de.opengamebackend.matchmaking.model.ServerStatus;
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import de.opengamebackend.matchmaking.model.repositories.GameServerRepository;
+import de.opengamebackend.matchmaking.model.requests.ServerSetStatusRequest;
+import de.opengamebackend.net.ApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+public class UdpHeartbeatListenerTests {
+    private static final String SERVER_ID = "6f1c2a3b-4d5e-4f60-8a7b-9c0d1e2f3a4b";
+    private static final String SECRET = "testSecret";
+
+    private HeartbeatAccumulator heartbeatAccumulator;
+    private ExpiryReaper expiryReaper;
+    private OpenServerIndex openServerIndex;
+    private GameServerRepository gameServerRepository;
+    private MatchmakingDispatcher matchmakingDispatcher;
+    private MatchmakingConfig matchmakingConfig;
+    private List<Runnable> tasks;
+
+    private UdpHeartbeatListener listener;
+
+    @BeforeEach
+    public void setUp() {
+        heartbeatAccumulator = new HeartbeatAccumulator(mock(JdbcTemplate.class));
+        expiryReaper = new ExpiryReaper();
+        openServerIndex = new OpenServerIndex();
+        gameServerRepository = mock(GameServerRepository.class);
+        matchmakingDispatcher = mock(MatchmakingDispatcher.class);
+
+        matchmakingConfig = new MatchmakingConfig();
+        matchmakingConfig.setUdpHeartbeatSecret(SECRET);
+        matchmakingConfig.setUdpHeartbeatPort(0);
+
+        tasks = new ArrayList<>();
+
+        listener = new UdpHeartbeatListener(heartbeatAccumulator, expiryReaper, openServerIndex, gameServerRepository,
+                matchmakingDispatcher, matchmakingConfig, tasks::add);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        listener.stop();
+    }
+
+    @Test
+    public void givenMissingSecret_whenCreateListener_thenThrowException() {
+        // GIVEN
+        matchmakingConfig.setUdpHeartbeatSecret(null);
+
+        // WHEN & THEN
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> new UdpHeartbeatListener(heartbeatAccumulator, expiryReaper, openServerIndex,
+                        gameServerRepository, matchmakingDispatcher, matchmakingConfig, Runnable::run));
+    }
+
+    @Test
+    public void givenIndexedServer_whenProcess_thenRecordHeartbeat() {
+        // GIVEN
+        openServerIndex.put(createServer(ServerStatus.OPEN));
+        long now = System.currentTimeMillis();
+
+        // WHEN
+        boolean accepted = listener.process(datagram(null, now), now, OffsetDateTime.now());
+
+        // THEN
+        assertThat(accepted).isTrue();
+        assertThat(heartbeatAccumulator.getLastHeartbeat(SERVER_ID, null)).isNotNull();
+        assertThat(expiryReaper.getTrackedServerCount()).isEqualTo(1);
+        verifyNoInteractions(gameServerRepository);
+    }
+
+    @Test
+    public void givenUnindexedServer_whenProcess_thenDontQueryDatabaseOnReceivingThread() {
+        // GIVEN
+        long now = System.currentTimeMillis();
+
+        // WHEN
+        boolean accepted = listener.process(datagram(null, now), now, OffsetDateTime.now());
+
+        // THEN
+        assertThat(accepted).isFalse();
+        assertThat(tasks).hasSize(1);
+        verifyNoInteractions(gameServerRepository);
+    }
+
+    @Test
+    public void givenUnindexedServer_whenProcess_thenIndexServerAndRecordHeartbeat() {
+        // GIVEN
+        GameServer gameServer = createServer(ServerStatus.OPEN);
+        when(gameServerRepository.findById(SERVER_ID)).thenReturn(Optional.of(gameServer));
+        long now = System.currentTimeMillis();
+
+        // WHEN
+        listener.process(datagram(null, now), now, OffsetDateTime.now());
+        runTasks();
+
+        // THEN
+        assertThat(openServerIndex.contains(SERVER_ID)).isTrue();
+        assertThat(heartbeatAccumulator.getLastHeartbeat(SERVER_ID, null)).isNotNull();
+        assertThat(listener.getAcceptedDatagrams()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenUnknownServer_whenProcess_thenReject() {
+        // GIVEN
+        long now = System.currentTimeMillis();
+
+        // WHEN
+        boolean accepted = listener.process(datagram(null, now), now, OffsetDateTime.now());
+        runTasks();
+
+        // THEN
+        assertThat(accepted).isFalse();
+        assertThat(heartbeatAccumulator.getLastHeartbeat(SERVER_ID, null)).isNull();
+        assertThat(listener.getRejectedDatagrams()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenUnknownServer_whenProcessAgain_thenDontLookUpAgain() {
+        // GIVEN
+        long now = System.currentTimeMillis();
+
+        listener.process(datagram(null, now), now, OffsetDateTime.now());
+        runTasks();
+
+        // WHEN
+        boolean accepted = listener.process(datagram(null, now + 1), now + 1, OffsetDateTime.now());
+
+        // THEN
+        assertThat(accepted).isFalse();
+        assertThat(tasks).isEmpty();
+        assertThat(listener.getRejectedDatagrams()).isEqualTo(2);
+        verify(gameServerRepository, times(1)).findById(SERVER_ID);
+    }
+
+    @Test
+    public void givenReplayedDatagram_whenProcess_thenReject() {
+        // GIVEN
+        openServerIndex.put(createServer(ServerStatus.OPEN));
+        long now = System.currentTimeMillis();
+
+        listener.process(datagram(null, now), now, OffsetDateTime.now());
+
+        // WHEN
+        boolean accepted = listener.process(datagram(null, now), now + 1, OffsetDateTime.now());
+
+        // THEN
+        assertThat(accepted).isFalse();
+        assertThat(listener.getAcceptedDatagrams()).isEqualTo(1);
+        assertThat(listener.getRejectedDatagrams()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenDatagramReplayedAfterServerLeftIndex_whenProcess_thenReject() {
+        // GIVEN
+        GameServer gameServer = createServer(ServerStatus.OPEN);
+        when(gameServerRepository.findById(SERVER_ID)).thenReturn(Optional.of(gameServer));
+        openServerIndex.put(gameServer);
+        long now = System.currentTimeMillis();
+
+        listener.process(datagram(null, now), now, OffsetDateTime.now());
+        openServerIndex.remove(SERVER_ID);
+
+        // WHEN
+        listener.process(datagram(null, now), now + 1, OffsetDateTime.now());
+        runTasks();
+
+        // THEN
+        assertThat(listener.getAcceptedDatagrams()).isEqualTo(1);
+        assertThat(listener.getRejectedDatagrams()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenLaterDatagram_whenProcess_thenAccept() {
+        // GIVEN
+        openServerIndex.put(createServer(ServerStatus.OPEN));
+        long now = System.currentTimeMillis();
+
+        listener.process(datagram(null, now), now, OffsetDateTime.now());
+
+        // WHEN
+        boolean accepted = listener.process(datagram(null, now + 1), now + 1, OffsetDateTime.now());
+
+        // THEN
+        assertThat(accepted).isTrue();
+        assertThat(listener.getAcceptedDatagrams()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenStaleTimestamp_whenProcess_thenReject() {
+        // GIVEN
+        openServerIndex.put(createServer(ServerStatus.OPEN));
+        long now = System.currentTimeMillis();
+
+        // WHEN
+        boolean accepted = listener.process(datagram(null, now - UdpHeartbeatListener.MAX_CLOCK_SKEW_MILLIS - 1),
+                now, OffsetDateTime.now());
+
+        // THEN
+        assertThat(accepted).isFalse();
+        assertThat(heartbeatAccumulator.getLastHeartbeat(SERVER_ID, null)).isNull();
+    }
+
+    @Test
+    public void givenChangedStatus_whenProcess_thenSetStatus() throws ApiException {
+        // GIVEN
+        openServerIndex.put(createServer(ServerStatus.OPEN));
+        long now = System.currentTimeMillis();
+
+        // WHEN
+        listener.process(datagram(ServerStatus.CLOSED, now), now, OffsetDateTime.now());
+
+        // THEN
+        verify(matchmakingDispatcher, never()).setStatus(any());
+
+        runTasks();
+        verify(matchmakingDispatcher).setStatus(any(ServerSetStatusRequest.class));
+    }
+
+    @Test
+    public void givenUnchangedStatus_whenProcess_thenDontSetStatus() throws ApiException {
+        // GIVEN
+        openServerIndex.put(createServer(ServerStatus.OPEN));
+        long now = System.currentTimeMillis();
+
+        // WHEN
+        listener.process(datagram(ServerStatus.OPEN, now), now, OffsetDateTime.now());
+        runTasks();
+
+        // THEN
+        verify(matchmakingDispatcher, never()).setStatus(any());
+    }
+
+    @Test
+    public void givenStartedListener_whenSendDatagram_thenRecordHeartbeat() throws Exception {
+        // GIVEN
+        openServerIndex.put(createServer(ServerStatus.OPEN));
+        listener.start();
+
+        // WHEN
+        try (DatagramChannel client = DatagramChannel.open()) {
+            client.send(datagram(null, System.currentTimeMillis()),
+                    new InetSocketAddress("127.0.0.1", listener.getLocalPort()));
+        }
+
+        // THEN
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (listener.getAcceptedDatagrams() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(listener.getAcceptedDatagrams()).isEqualTo(1);
+        assertThat(heartbeatAccumulator.getLastHeartbeat(SERVER_ID, null)).isNotNull();
+    }
+
+    private void runTasks() {
+        List<Runnable> pendingTasks = new ArrayList<>(tasks);
+        tasks.clear();
+        pendingTasks.forEach(Runnable::run);
+    }
+
+    private ByteBuffer datagram(ServerStatus status, long timestampMillis) {
+        return HeartbeatDatagram.encode(SERVER_ID, status, -1, timestampMillis,
+                SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private GameServer createServer(ServerStatus status) {
+        GameServer gameServer = mock(GameServer.class);
+        when(gameServer.getId()).thenReturn(SERVER_ID);
+        when(gameServer.getStatus()).thenReturn(status);
+        when(gameServer.getMaxPlayers()).thenReturn(2);
+        when(gameServer.getVersion()).thenReturn("1.0");
+        when(gameServer.getGameMode()).thenReturn("GM");
+        when(gameServer.getRegion()).thenReturn("EU");
+        return gameServer;
+    }
+}
@@ -0,0 +1,153 @@
+package de.opengamebackend.matchmaking.mapping;
+
+import de.opengamebackend.matchmaking.model.PlayerStatus;
+import de.opengamebackend.matchmaking.model.ServerStatus;
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import de.opengamebackend.matchmaking.model.entities.Player;
+import de.opengamebackend.matchmaking.model.repositories.GameServerSummary;
+import de.opengamebackend.matchmaking.model.repositories.PlayerSummary;
+import de.opengamebackend.matchmaking.model.requests.ClientEnqueueRequest;
+import de.opengamebackend.matchmaking.model.requests.ServerRegisterRequest;
+import de.opengamebackend.matchmaking.model.responses.GetQueueResponsePlayer;
+import de.opengamebackend.matchmaking.model.responses.GetServersResponseServer;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link MatchmakingMapper} with the reflective {@link ModelMapper} it replaces, for each of the
+ * mappings done on the hot paths.
+ *
+ * <p>Run with {@link #main(String[])}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchmakingMapperBenchmark {
+    private ModelMapper modelMapper;
+    private MatchmakingMapper matchmakingMapper;
+
+    private ServerRegisterRequest registerRequest;
+    private ClientEnqueueRequest enqueueRequest;
+    private GameServer gameServer;
+    private Player player;
+    private GameServerSummary gameServerSummary;
+    private PlayerSummary playerSummary;
+    private List<String> playerIds;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        matchmakingMapper = new MatchmakingMapper();
+
+        registerRequest = new ServerRegisterRequest("1.0", "GM", "EU", "127.0.0.1", 1234, 8);
+        enqueueRequest = new ClientEnqueueRequest("1.0", "GM", "EU");
+
+        gameServer = new GameServer();
+        gameServer.setId("testServer");
+        matchmakingMapper.map(registerRequest, gameServer);
+        gameServer.setLastHeartbeat(OffsetDateTime.now());
+        gameServer.setStatus(ServerStatus.OPEN);
+
+        player = new Player();
+        player.setId("testPlayer");
+        matchmakingMapper.map(enqueueRequest, player);
+        player.setStatus(PlayerStatus.MATCHED);
+        player.setGameServer(gameServer);
+
+        gameServerSummary = new GameServerSummary() {
+            public String getId() { return gameServer.getId(); }
+            public String getVersion() { return gameServer.getVersion(); }
+            public String getGameMode() { return gameServer.getGameMode(); }
+            public String getRegion() { return gameServer.getRegion(); }
+            public String getIpV4Address() { return gameServer.getIpV4Address(); }
+            public int getPort() { return gameServer.getPort(); }
+            public int getMaxPlayers() { return gameServer.getMaxPlayers(); }
+            public OffsetDateTime getLastHeartbeat() { return gameServer.getLastHeartbeat(); }
+            public ServerStatus getStatus() { return gameServer.getStatus(); }
+        };
+
+        playerSummary = new PlayerSummary() {
+            public String getId() { return player.getId(); }
+            public String getVersion() { return player.getVersion(); }
+            public String getGameMode() { return player.getGameMode(); }
+            public String getRegion() { return player.getRegion(); }
+            public PlayerStatus getStatus() { return player.getStatus(); }
+            public String getGameServerId() { return gameServer.getId(); }
+        };
+
+        playerIds = Collections.singletonList(player.getId());
+    }
+
+    @Benchmark
+    public GameServer registerModelMapper() {
+        GameServer target = new GameServer();
+        modelMapper.map(registerRequest, target);
+        return target;
+    }
+
+    @Benchmark
+    public GameServer registerMatchmakingMapper() {
+        GameServer target = new GameServer();
+        matchmakingMapper.map(registerRequest, target);
+        return target;
+    }
+
+    @Benchmark
+    public Player enqueueModelMapper() {
+        Player target = new Player();
+        modelMapper.map(enqueueRequest, target);
+        return target;
+    }
+
+    @Benchmark
+    public Player enqueueMatchmakingMapper() {
+        Player target = new Player();
+        matchmakingMapper.map(enqueueRequest, target);
+        return target;
+    }
+
+    @Benchmark
+    public GetQueueResponsePlayer queuePlayerModelMapper() {
+        GetQueueResponsePlayer responsePlayer = modelMapper.map(player, GetQueueResponsePlayer.class);
+        responsePlayer.setServerId(player.getGameServer() != null ? player.getGameServer().getId() : null);
+        return responsePlayer;
+    }
+
+    @Benchmark
+    public GetQueueResponsePlayer queuePlayerMatchmakingMapper() {
+        return matchmakingMapper.toQueueResponsePlayer(playerSummary);
+    }
+
+    @Benchmark
+    public GetServersResponseServer serverModelMapper() {
+        GetServersResponseServer responseServer = modelMapper.map(gameServer, GetServersResponseServer.class);
+        responseServer.setPlayerIds(playerIds);
+        return responseServer;
+    }
+
+    @Benchmark
+    public GetServersResponseServer serverMatchmakingMapper() {
+        return matchmakingMapper.toServersResponseServer(gameServerSummary, gameServerSummary.getLastHeartbeat(),
+                playerIds);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MatchmakingMapperBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
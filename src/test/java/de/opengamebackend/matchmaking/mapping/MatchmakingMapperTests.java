@@ -0,0 +1,121 @@
+package de.opengamebackend.matchmaking.mapping;
+
+import de.opengamebackend.matchmaking.model.PlayerStatus;
+import de.opengamebackend.matchmaking.model.ServerStatus;
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import de.opengamebackend.matchmaking.model.entities.Player;
+import de.opengamebackend.matchmaking.model.repositories.GameServerSummary;
+import de.opengamebackend.matchmaking.model.repositories.PlayerSummary;
+import de.opengamebackend.matchmaking.model.requests.ClientEnqueueRequest;
+import de.opengamebackend.matchmaking.model.requests.ServerRegisterRequest;
+import de.opengamebackend.matchmaking.model.responses.GetQueueResponsePlayer;
+import de.opengamebackend.matchmaking.model.responses.GetServersResponseServer;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MatchmakingMapperTests {
+    private MatchmakingMapper matchmakingMapper;
+
+    @BeforeEach
+    public void setUp() {
+        matchmakingMapper = new MatchmakingMapper();
+    }
+
+    @Test
+    public void givenRegisterRequest_whenMap_thenCopyProperties() {
+        // GIVEN
+        ServerRegisterRequest request = new ServerRegisterRequest("1.0", "GM", "EU", "127.0.0.1", 1234, 8);
+        GameServer gameServer = new GameServer();
+        gameServer.setId("testServer");
+
+        // WHEN
+        matchmakingMapper.map(request, gameServer);
+
+        // THEN
+        assertThat(gameServer.getId()).isEqualTo("testServer");
+        assertThat(gameServer.getVersion()).isEqualTo(request.getVersion());
+        assertThat(gameServer.getGameMode()).isEqualTo(request.getGameMode());
+        assertThat(gameServer.getRegion()).isEqualTo(request.getRegion());
+        assertThat(gameServer.getIpV4Address()).isEqualTo(request.getIpV4Address());
+        assertThat(gameServer.getPort()).isEqualTo(request.getPort());
+        assertThat(gameServer.getMaxPlayers()).isEqualTo(request.getMaxPlayers());
+    }
+
+    @Test
+    public void givenEnqueueRequest_whenMap_thenCopyProperties() {
+        // GIVEN
+        ClientEnqueueRequest request = new ClientEnqueueRequest("1.0", "GM", "EU");
+        Player player = new Player();
+        player.setId("testPlayer");
+
+        // WHEN
+        matchmakingMapper.map(request, player);
+
+        // THEN
+        assertThat(player.getId()).isEqualTo("testPlayer");
+        assertThat(player.getVersion()).isEqualTo(request.getVersion());
+        assertThat(player.getGameMode()).isEqualTo(request.getGameMode());
+        assertThat(player.getRegion()).isEqualTo(request.getRegion());
+    }
+
+    @Test
+    public void givenPlayerWithoutServer_whenToQueueResponsePlayer_thenReturnNullServerId() {
+        // GIVEN
+        PlayerSummary player = mock(PlayerSummary.class);
+        when(player.getId()).thenReturn("testPlayer");
+        when(player.getVersion()).thenReturn("1.0");
+        when(player.getGameMode()).thenReturn("GM");
+        when(player.getRegion()).thenReturn("EU");
+        when(player.getStatus()).thenReturn(PlayerStatus.QUEUED);
+
+        // WHEN
+        GetQueueResponsePlayer responsePlayer = matchmakingMapper.toQueueResponsePlayer(player);
+
+        // THEN
+        assertThat(responsePlayer.getPlayerId()).isEqualTo(player.getId());
+        assertThat(responsePlayer.getVersion()).isEqualTo(player.getVersion());
+        assertThat(responsePlayer.getGameMode()).isEqualTo(player.getGameMode());
+        assertThat(responsePlayer.getRegion()).isEqualTo(player.getRegion());
+        assertThat(responsePlayer.getStatus()).isEqualTo(player.getStatus());
+        assertThat(responsePlayer.getServerId()).isNull();
+    }
+
+    @Test
+    public void givenServerSummary_whenToServersResponseServer_thenCopyProperties() {
+        // GIVEN
+        GameServerSummary server = mock(GameServerSummary.class);
+        when(server.getId()).thenReturn("testServer");
+        when(server.getVersion()).thenReturn("1.0");
+        when(server.getGameMode()).thenReturn("GM");
+        when(server.getRegion()).thenReturn("EU");
+        when(server.getIpV4Address()).thenReturn("127.0.0.1");
+        when(server.getPort()).thenReturn(1234);
+        when(server.getMaxPlayers()).thenReturn(8);
+        when(server.getStatus()).thenReturn(ServerStatus.OPEN);
+
+        OffsetDateTime lastHeartbeat = OffsetDateTime.now();
+
+        // WHEN
+        GetServersResponseServer responseServer = matchmakingMapper.toServersResponseServer(server, lastHeartbeat,
+                Lists.newArrayList("testPlayer"));
+
+        // THEN
+        assertThat(responseServer.getId()).isEqualTo(server.getId());
+        assertThat(responseServer.getVersion()).isEqualTo(server.getVersion());
+        assertThat(responseServer.getGameMode()).isEqualTo(server.getGameMode());
+        assertThat(responseServer.getRegion()).isEqualTo(server.getRegion());
+        assertThat(responseServer.getIpV4Address()).isEqualTo(server.getIpV4Address());
+        assertThat(responseServer.getPort()).isEqualTo(server.getPort());
+        assertThat(responseServer.getMaxPlayers()).isEqualTo(server.getMaxPlayers());
+        assertThat(responseServer.getLastHeartbeat()).isEqualTo(lastHeartbeat);
+        assertThat(responseServer.getStatus()).isEqualTo(server.getStatus());
+        assertThat(responseServer.getPlayerIds()).containsExactly("testPlayer");
+    }
+}
@@ -0,0 +1,232 @@
+package de.opengamebackend.matchmaking.matching;
+
+import de.opengamebackend.matchmaking.model.ServerStatus;
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OpenServerIndexTests {
+    private static final BucketKey BUCKET = new BucketKey("1.0", "GM", "EU");
+
+    private OpenServerIndex openServerIndex;
+
+    @BeforeEach
+    public void setUp() {
+        openServerIndex = new OpenServerIndex();
+    }
+
+    @Test
+    public void givenNoServers_whenReserveSlot_thenReturnNull() {
+        // WHEN
+        String serverId = openServerIndex.reserveSlot(BUCKET);
+
+        // THEN
+        assertThat(serverId).isNull();
+    }
+
+    @Test
+    public void givenServerInOtherBucket_whenReserveSlot_thenReturnNull() {
+        // GIVEN
+        openServerIndex.put(createServer("testId", "1.0", "GM", "US", 2));
+
+        // WHEN
+        String serverId = openServerIndex.reserveSlot(BUCKET);
+
+        // THEN
+        assertThat(serverId).isNull();
+    }
+
+    @Test
+    public void givenOpenServers_whenReserveSlot_thenReturnServerWithFewestPlayers() {
+        // GIVEN
+        openServerIndex.put(createServer("A", "1.0", "GM", "EU", 4));
+        openServerIndex.put(createServer("B", "1.0", "GM", "EU", 4));
+
+        // WHEN
+        String first = openServerIndex.reserveSlot(BUCKET);
+        String second = openServerIndex.reserveSlot(BUCKET);
+
+        // THEN
+        assertThat(first).isEqualTo("A");
+        assertThat(second).isEqualTo("B");
+        assertThat(openServerIndex.getOpenSlots(BUCKET)).isEqualTo(6);
+    }
+
+    @Test
+    public void givenFullServer_whenReserveSlot_thenReturnNull() {
+        // GIVEN
+        openServerIndex.put(createServer("testId", "1.0", "GM", "EU", 1));
+        openServerIndex.reserveSlot(BUCKET);
+
+        // WHEN
+        String serverId = openServerIndex.reserveSlot(BUCKET);
+
+        // THEN
+        assertThat(serverId).isNull();
+    }
+
+    @Test
+    public void givenReleasedSlot_whenReserveSlot_thenReturnServer() {
+        // GIVEN
+        openServerIndex.put(createServer("testId", "1.0", "GM", "EU", 1));
+        openServerIndex.reserveSlot(BUCKET);
+        openServerIndex.releaseSlot("testId");
+
+        // WHEN
+        String serverId = openServerIndex.reserveSlot(BUCKET);
+
+        // THEN
+        assertThat(serverId).isEqualTo("testId");
+    }
+
+    @Test
+    public void givenClosedServer_whenReserveSlot_thenReturnNull() {
+        // GIVEN
+        openServerIndex.put(createServer("testId", "1.0", "GM", "EU", 2));
+        openServerIndex.setStatus("testId", ServerStatus.CLOSED);
+
+        // WHEN
+        String serverId = openServerIndex.reserveSlot(BUCKET);
+
+        // THEN
+        assertThat(serverId).isNull();
+    }
+
+    @Test
+    public void givenRemovedServer_whenReserveSlot_thenReturnNull() {
+        // GIVEN
+        openServerIndex.put(createServer("testId", "1.0", "GM", "EU", 2));
+        openServerIndex.remove("testId");
+
+        // WHEN
+        String serverId = openServerIndex.reserveSlot(BUCKET);
+
+        // THEN
+        assertThat(serverId).isNull();
+        assertThat(openServerIndex.contains("testId")).isFalse();
+    }
+
+    @Test
+    public void givenOpenServers_whenReserveAndReleaseSlots_thenUpdateOpenSlots() {
+        // GIVEN
+        openServerIndex.put(createServer("A", "1.0", "GM", "EU", 4));
+        openServerIndex.put(createServer("B", "1.0", "GM", "EU", 2));
+        openServerIndex.put(createServer("C", "1.0", "GM", "US", 2));
+
+        // WHEN
+        openServerIndex.reserveSlot(BUCKET);
+        openServerIndex.reserveSlot(BUCKET);
+        openServerIndex.releaseSlot("A");
+
+        // THEN
+        assertThat(openServerIndex.getOpenSlots(BUCKET)).isEqualTo(5);
+    }
+
+    @Test
+    public void givenClosedAndRemovedServers_whenGetOpenSlots_thenDontCountServers() {
+        // GIVEN
+        openServerIndex.put(createServer("A", "1.0", "GM", "EU", 4));
+        openServerIndex.put(createServer("B", "1.0", "GM", "EU", 2));
+        openServerIndex.put(createServer("C", "1.0", "GM", "EU", 2));
+
+        openServerIndex.setStatus("A", ServerStatus.CLOSED);
+        openServerIndex.remove("B");
+
+        // WHEN
+        int openSlots = openServerIndex.getOpenSlots(BUCKET);
+
+        // THEN
+        assertThat(openSlots).isEqualTo(2);
+    }
+
+    @Test
+    public void givenRecentRescan_whenTryStartRescan_thenReturnFalse() {
+        // GIVEN
+        openServerIndex.tryStartRescan(BUCKET, 1000, 500);
+
+        // WHEN
+        boolean rescan = openServerIndex.tryStartRescan(BUCKET, 1499, 500);
+
+        // THEN
+        assertThat(rescan).isFalse();
+    }
+
+    @Test
+    public void givenElapsedRescanInterval_whenTryStartRescan_thenReturnTrue() {
+        // GIVEN
+        openServerIndex.tryStartRescan(BUCKET, 1000, 500);
+
+        // WHEN
+        boolean rescan = openServerIndex.tryStartRescan(BUCKET, 1500, 500);
+
+        // THEN
+        assertThat(rescan).isTrue();
+    }
+
+    @Test
+    public void givenFullServer_whenHasServers_thenReturnTrue() {
+        // GIVEN
+        openServerIndex.put(createServer("testId", "1.0", "GM", "EU", 1));
+        openServerIndex.reserveSlot(BUCKET);
+
+        // WHEN & THEN
+        assertThat(openServerIndex.hasServers(BUCKET)).isTrue();
+    }
+
+    @Test
+    public void givenRemovedServer_whenHasServers_thenReturnFalse() {
+        // GIVEN
+        openServerIndex.put(createServer("testId", "1.0", "GM", "EU", 2));
+        openServerIndex.remove("testId");
+
+        // WHEN & THEN
+        assertThat(openServerIndex.hasServers(BUCKET)).isFalse();
+    }
+
+    @Test
+    public void givenRemovedServer_whenGetBucketKeys_thenReturnNoBuckets() {
+        // GIVEN
+        openServerIndex.put(createServer("testId", "1.0", "GM", "EU", 2));
+        openServerIndex.remove("testId");
+
+        // WHEN & THEN
+        assertThat(openServerIndex.getBucketKeys()).isEmpty();
+    }
+
+    @Test
+    public void givenRescan_whenGetBucketKeys_thenReturnNoBuckets() {
+        // GIVEN
+        openServerIndex.tryStartRescan(BUCKET, 1000, 500);
+
+        // WHEN & THEN
+        assertThat(openServerIndex.getBucketKeys()).isEmpty();
+    }
+
+    @Test
+    public void givenRemovedServer_whenPutServerAgain_thenReserveSlot() {
+        // GIVEN
+        openServerIndex.put(createServer("testId", "1.0", "GM", "EU", 2));
+        openServerIndex.remove("testId");
+        openServerIndex.put(createServer("testId", "1.0", "GM", "EU", 2));
+
+        // WHEN
+        String serverId = openServerIndex.reserveSlot(BUCKET);
+
+        // THEN
+        assertThat(serverId).isEqualTo("testId");
+        assertThat(openServerIndex.getBucketKeys()).containsExactly(BUCKET);
+    }
+
+    private GameServer createServer(String id, String version, String gameMode, String region, int maxPlayers) {
+        GameServer gameServer = new GameServer();
+        gameServer.setId(id);
+        gameServer.setVersion(version);
+        gameServer.setGameMode(gameMode);
+        gameServer.setRegion(region);
+        gameServer.setMaxPlayers(maxPlayers);
+        gameServer.setStatus(ServerStatus.OPEN);
+        return gameServer;
+    }
+}
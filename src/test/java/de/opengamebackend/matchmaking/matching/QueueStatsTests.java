@@ -0,0 +1,169 @@
+package de.opengamebackend.matchmaking.matching;
+
+import de.opengamebackend.matchmaking.model.PlayerStatus;
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import de.opengamebackend.matchmaking.model.entities.Player;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueueStatsTests {
+    private static final BucketKey BUCKET = new BucketKey("1.0", "GM", "EU");
+
+    private QueueStats queueStats;
+
+    @BeforeEach
+    public void setUp() {
+        queueStats = new QueueStats();
+    }
+
+    @Test
+    public void givenNoPlayers_whenGetBuckets_thenReturnEmptyList() {
+        // WHEN
+        List<BucketQueueStats> buckets = queueStats.getBuckets();
+
+        // THEN
+        assertThat(buckets).isEmpty();
+    }
+
+    @Test
+    public void givenPlayersInEachState_whenGetBuckets_thenCountPlayers() {
+        // GIVEN
+        GameServer gameServer = createServer("testServer");
+
+        queueStats.put(createPlayer("A", "EU", PlayerStatus.QUEUED, null));
+        queueStats.put(createPlayer("B", "EU", PlayerStatus.MATCHED, gameServer));
+        queueStats.put(createPlayer("C", "EU", PlayerStatus.JOINED, gameServer));
+        queueStats.put(createPlayer("D", "US", PlayerStatus.QUEUED, null));
+
+        // WHEN
+        BucketQueueStats stats = getBucket(BUCKET);
+
+        // THEN
+        assertThat(queueStats.getBuckets()).hasSize(2);
+        assertThat(stats.getQueuedPlayers()).isEqualTo(1);
+        assertThat(stats.getMatchedPlayers()).isEqualTo(1);
+        assertThat(stats.getJoinedPlayers()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenPlayerPutTwice_whenGetBuckets_thenCountLatestStateOnly() {
+        // GIVEN
+        Player player = createPlayer("A", "EU", PlayerStatus.QUEUED, null);
+        queueStats.put(player);
+
+        player.setStatus(PlayerStatus.MATCHED);
+        player.setGameServer(createServer("testServer"));
+        queueStats.put(player);
+        queueStats.put(player);
+
+        // WHEN
+        BucketQueueStats stats = getBucket(BUCKET);
+
+        // THEN
+        assertThat(stats.getQueuedPlayers()).isEqualTo(0);
+        assertThat(stats.getMatchedPlayers()).isEqualTo(1);
+        assertThat(stats.getOldestQueuedTime()).isNull();
+    }
+
+    @Test
+    public void givenQueuedPlayers_whenGetBuckets_thenReturnOldestQueuedTime() {
+        // GIVEN
+        OffsetDateTime now = OffsetDateTime.now();
+
+        Player newPlayer = createPlayer("A", "EU", PlayerStatus.QUEUED, null);
+        newPlayer.setQueuedTime(now);
+
+        Player oldPlayer = createPlayer("B", "EU", PlayerStatus.QUEUED, null);
+        oldPlayer.setQueuedTime(now.minusSeconds(30));
+
+        queueStats.rebuild(Lists.newArrayList(newPlayer, oldPlayer));
+
+        // WHEN
+        BucketQueueStats stats = getBucket(BUCKET);
+
+        // THEN
+        assertThat(stats.getQueuedPlayers()).isEqualTo(2);
+        assertThat(stats.getOldestQueuedTime()).isEqualTo(oldPlayer.getQueuedTime());
+    }
+
+    @Test
+    public void givenRemovedPlayers_whenGetBuckets_thenReturnEmptyList() {
+        // GIVEN
+        queueStats.put(createPlayer("A", "EU", PlayerStatus.QUEUED, null));
+        queueStats.remove("A");
+        queueStats.remove("A");
+
+        // WHEN
+        List<BucketQueueStats> buckets = queueStats.getBuckets();
+
+        // THEN
+        assertThat(buckets).isEmpty();
+    }
+
+    @Test
+    public void givenPlayerMovedToOtherBucket_whenGetBuckets_thenReturnNewBucketOnly() {
+        // GIVEN
+        Player player = createPlayer("A", "EU", PlayerStatus.QUEUED, null);
+        queueStats.put(player);
+
+        player.setRegion("US");
+        queueStats.put(player);
+
+        // WHEN
+        List<BucketQueueStats> buckets = queueStats.getBuckets();
+
+        // THEN
+        assertThat(buckets).hasSize(1);
+        assertThat(buckets.get(0).getBucketKey()).isEqualTo(new BucketKey("1.0", "GM", "US"));
+    }
+
+    @Test
+    public void givenRemovedServer_whenGetBuckets_thenDontCountPlayersOfServer() {
+        // GIVEN
+        GameServer gameServer = createServer("testServer");
+
+        queueStats.put(createPlayer("A", "EU", PlayerStatus.MATCHED, gameServer));
+        queueStats.put(createPlayer("B", "EU", PlayerStatus.JOINED, gameServer));
+        queueStats.put(createPlayer("C", "EU", PlayerStatus.QUEUED, null));
+
+        // WHEN
+        queueStats.removeServer(gameServer.getId());
+
+        // THEN
+        BucketQueueStats stats = getBucket(BUCKET);
+
+        assertThat(stats.getQueuedPlayers()).isEqualTo(1);
+        assertThat(stats.getMatchedPlayers()).isEqualTo(0);
+        assertThat(stats.getJoinedPlayers()).isEqualTo(0);
+    }
+
+    private BucketQueueStats getBucket(BucketKey bucketKey) {
+        return queueStats.getBuckets().stream()
+                .filter(stats -> stats.getBucketKey().equals(bucketKey))
+                .findFirst().orElse(null);
+    }
+
+    private Player createPlayer(String id, String region, PlayerStatus status, GameServer gameServer) {
+        Player player = new Player();
+        player.setId(id);
+        player.setVersion("1.0");
+        player.setGameMode("GM");
+        player.setRegion(region);
+        player.setStatus(status);
+        player.setGameServer(gameServer);
+        player.setQueuedTime(OffsetDateTime.now());
+        return player;
+    }
+
+    private GameServer createServer(String id) {
+        GameServer gameServer = new GameServer();
+        gameServer.setId(id);
+        return gameServer;
+    }
+}
@@ -0,0 +1,154 @@
+package de.opengamebackend.matchmaking.matching;
+
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import de.opengamebackend.matchmaking.model.ServerStatus;
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TickMatchmakerTests {
+    private static final BucketKey BUCKET_EU = new BucketKey("1.0", "GM", "EU");
+    private static final BucketKey BUCKET_US = new BucketKey("1.0", "GM", "US");
+
+    private OpenServerIndex openServerIndex;
+    private TickMatchmaker tickMatchmaker;
+
+    @BeforeEach
+    public void setUp() {
+        openServerIndex = new OpenServerIndex();
+        tickMatchmaker = new TickMatchmaker(openServerIndex, new MatchmakingConfig());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tickMatchmaker.shutdown();
+    }
+
+    @Test
+    public void givenFreeSlots_whenSolve_thenAllocateAllPlayers() {
+        // GIVEN
+        openServerIndex.put(createServer("A", BUCKET_EU, 4));
+
+        Map<BucketKey, List<String>> queues = new LinkedHashMap<>();
+        queues.put(BUCKET_EU, Lists.newArrayList("first", "second"));
+
+        // WHEN
+        Map<String, String> allocations = tickMatchmaker.solve(queues);
+
+        // THEN
+        assertThat(allocations).containsEntry("first", "A").containsEntry("second", "A");
+        assertThat(openServerIndex.getOpenSlots(BUCKET_EU)).isEqualTo(2);
+    }
+
+    @Test
+    public void givenTooFewSlots_whenSolve_thenAllocateInEnqueueOrder() {
+        // GIVEN
+        openServerIndex.put(createServer("A", BUCKET_EU, 2));
+
+        Map<BucketKey, List<String>> queues = new LinkedHashMap<>();
+        queues.put(BUCKET_EU, Lists.newArrayList("first", "second", "third"));
+
+        // WHEN
+        Map<String, String> allocations = tickMatchmaker.solve(queues);
+
+        // THEN
+        assertThat(allocations.keySet()).containsExactly("first", "second");
+    }
+
+    @Test
+    public void givenFullBucket_whenSolve_thenAllocateOtherBuckets() {
+        // GIVEN
+        openServerIndex.put(createServer("A", BUCKET_US, 2));
+
+        Map<BucketKey, List<String>> queues = new LinkedHashMap<>();
+        queues.put(BUCKET_EU, Lists.newArrayList("euPlayer"));
+        queues.put(BUCKET_US, Lists.newArrayList("usPlayer"));
+
+        // WHEN
+        Map<String, String> allocations = tickMatchmaker.solve(queues);
+
+        // THEN
+        assertThat(allocations).containsOnlyKeys("usPlayer");
+    }
+
+    @Test
+    public void givenBuckets_whenSolve_thenReportStatsPerBucket() {
+        // GIVEN
+        openServerIndex.put(createServer("A", BUCKET_EU, 1));
+
+        Map<BucketKey, List<String>> queues = new LinkedHashMap<>();
+        queues.put(BUCKET_EU, Lists.newArrayList("first", "second"));
+        queues.put(BUCKET_US, Lists.newArrayList("usPlayer"));
+
+        // WHEN
+        tickMatchmaker.solve(queues);
+
+        // THEN
+        assertThat(tickMatchmaker.getStats()).hasSize(2);
+
+        BucketSolveStats stats = tickMatchmaker.getStats().stream()
+                .filter(s -> s.getBucketKey().equals(BUCKET_EU))
+                .findFirst().orElse(null);
+
+        assertThat(stats).isNotNull();
+        assertThat(stats.getQueuedPlayers()).isEqualTo(2);
+        assertThat(stats.getAllocatedPlayers()).isEqualTo(1);
+        assertThat(stats.getSolveNanos()).isNotNegative();
+    }
+
+    @Test
+    public void givenParallelism_whenSolve_thenAllocateAllBucketsInEnqueueOrder() {
+        // GIVEN
+        MatchmakingConfig config = new MatchmakingConfig();
+        config.setTickParallelism(4);
+
+        TickMatchmaker parallelMatchmaker = new TickMatchmaker(openServerIndex, config);
+
+        Map<BucketKey, List<String>> queues = new LinkedHashMap<>();
+
+        for (int i = 0; i < 20; ++i) {
+            BucketKey bucketKey = new BucketKey("1.0", "GM" + i, "EU");
+            openServerIndex.put(createServer("server" + i, bucketKey, 2));
+            queues.put(bucketKey, Lists.newArrayList("first" + i, "second" + i, "third" + i));
+        }
+
+        // WHEN
+        Map<String, String> allocations;
+
+        try {
+            allocations = parallelMatchmaker.solve(queues);
+        } finally {
+            parallelMatchmaker.shutdown();
+        }
+
+        // THEN
+        assertThat(parallelMatchmaker.getParallelism()).isEqualTo(4);
+        assertThat(allocations).hasSize(40);
+
+        for (int i = 0; i < 20; ++i) {
+            assertThat(allocations).containsEntry("first" + i, "server" + i).containsEntry("second" + i, "server" + i);
+            assertThat(allocations).doesNotContainKey("third" + i);
+        }
+
+        assertThat(allocations.keySet()).startsWith("first0", "second0", "first1", "second1");
+    }
+
+    private GameServer createServer(String id, BucketKey bucketKey, int maxPlayers) {
+        GameServer gameServer = new GameServer();
+        gameServer.setId(id);
+        gameServer.setVersion(bucketKey.getVersion());
+        gameServer.setGameMode(bucketKey.getGameMode());
+        gameServer.setRegion(bucketKey.getRegion());
+        gameServer.setMaxPlayers(maxPlayers);
+        gameServer.setStatus(ServerStatus.OPEN);
+        return gameServer;
+    }
+}
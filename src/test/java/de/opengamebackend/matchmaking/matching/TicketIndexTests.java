@@ -0,0 +1,53 @@
+package de.opengamebackend.matchmaking.matching;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TicketIndexTests {
+    private TicketIndex ticketIndex;
+
+    @BeforeEach
+    public void setUp() {
+        ticketIndex = new TicketIndex();
+    }
+
+    @Test
+    public void givenTicket_whenGetPlayerId_thenReturnPlayerId() {
+        // GIVEN
+        ticketIndex.put("testTicket", "testPlayer");
+
+        // WHEN
+        String playerId = ticketIndex.getPlayerId("testTicket");
+
+        // THEN
+        assertThat(playerId).isEqualTo("testPlayer");
+    }
+
+    @Test
+    public void givenNewTicketOfSamePlayer_whenGetPlayerId_thenForgetOldTicket() {
+        // GIVEN
+        ticketIndex.put("oldTicket", "testPlayer");
+        ticketIndex.put("newTicket", "testPlayer");
+
+        // WHEN & THEN
+        assertThat(ticketIndex.getPlayerId("oldTicket")).isNull();
+        assertThat(ticketIndex.getPlayerId("newTicket")).isEqualTo("testPlayer");
+        assertThat(ticketIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenRemovedPlayer_whenGetPlayerId_thenReturnNull() {
+        // GIVEN
+        ticketIndex.put("testTicket", "testPlayer");
+        ticketIndex.removePlayer("testPlayer");
+
+        // WHEN
+        String playerId = ticketIndex.getPlayerId("testTicket");
+
+        // THEN
+        assertThat(playerId).isNull();
+        assertThat(ticketIndex.size()).isZero();
+    }
+}
@@ -0,0 +1,161 @@
+package de.opengamebackend.matchmaking.model.repositories;
+
+import de.opengamebackend.matchmaking.MatchmakingApplication;
+import de.opengamebackend.matchmaking.model.PlayerStatus;
+import de.opengamebackend.matchmaking.model.ServerStatus;
+import de.opengamebackend.matchmaking.model.entities.GameServer;
+import de.opengamebackend.matchmaking.model.entities.Player;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares registering servers and enqueueing players by reading and saving entities with doing so with a single
+ * upsert statement.
+ *
+ * <p>Runs against the datasource configured for the application, which is H2 unless overridden by environment
+ * variables (e.g. {@code SPRING_DATASOURCE_URL}). Run with {@link #main(String[])}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpsertBenchmark {
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private GameServerRepository gameServerRepository;
+    private PlayerRepository playerRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(MatchmakingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run();
+
+        gameServerRepository = context.getBean(GameServerRepository.class);
+        playerRepository = context.getBean(PlayerRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public GameServer registerReadModifyWrite() {
+        int port = nextRow();
+
+        return transactionTemplate.execute(status -> {
+            GameServer gameServer = entityManager
+                    .createQuery("SELECT s FROM GameServer s WHERE s.ipV4Address = :ipV4Address AND s.port = :port",
+                            GameServer.class)
+                    .setParameter("ipV4Address", "127.0.0.1")
+                    .setParameter("port", port)
+                    .getResultList()
+                    .stream()
+                    .findFirst()
+                    .orElse(new GameServer());
+
+            if (gameServer.getId() == null) {
+                gameServer.setId(UUID.randomUUID().toString());
+            }
+
+            applyServer(gameServer, port);
+            return gameServerRepository.save(gameServer);
+        });
+    }
+
+    @Benchmark
+    public GameServer registerUpsert() {
+        int port = nextRow();
+
+        return transactionTemplate.execute(status -> {
+            GameServer gameServer = new GameServer();
+            gameServer.setId(UUID.randomUUID().toString());
+
+            applyServer(gameServer, port);
+            gameServerRepository.upsert(gameServer);
+            return gameServer;
+        });
+    }
+
+    @Benchmark
+    public Player enqueueReadModifyWrite() {
+        String playerId = "player" + nextRow();
+
+        return transactionTemplate.execute(status -> {
+            Player player = playerRepository.findById(playerId).orElse(new Player());
+            applyPlayer(player, playerId);
+            return playerRepository.save(player);
+        });
+    }
+
+    @Benchmark
+    public Player enqueueUpsert() {
+        String playerId = "player" + nextRow();
+
+        return transactionTemplate.execute(status -> {
+            Player player = new Player();
+            applyPlayer(player, playerId);
+            playerRepository.upsert(player);
+            return player;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(UpsertBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+
+    private int nextRow() {
+        next = (next + 1) % ROWS;
+        return next;
+    }
+
+    private void applyServer(GameServer gameServer, int port) {
+        gameServer.setVersion("1.0");
+        gameServer.setGameMode("GM");
+        gameServer.setRegion("EU");
+        gameServer.setIpV4Address("127.0.0.1");
+        gameServer.setPort(port);
+        gameServer.setMaxPlayers(8);
+        gameServer.setLastHeartbeat(OffsetDateTime.now());
+        gameServer.setStatus(ServerStatus.OPEN);
+    }
+
+    private void applyPlayer(Player player, String playerId) {
+        player.setId(playerId);
+        player.setVersion("1.0");
+        player.setGameMode("GM");
+        player.setRegion("EU");
+        player.setStatus(PlayerStatus.QUEUED);
+        player.setQueuedTime(OffsetDateTime.now());
+    }
+}
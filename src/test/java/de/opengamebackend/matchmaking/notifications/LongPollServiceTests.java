@@ -0,0 +1,342 @@
+package de.opengamebackend.matchmaking.notifications;
+
+import de.opengamebackend.matchmaking.controller.MatchmakingDispatcher;
+import de.opengamebackend.matchmaking.events.PlayersMatchedEvent;
+import de.opengamebackend.matchmaking.events.ServerChangedEvent;
+import de.opengamebackend.matchmaking.events.ServerRosterChangedEvent;
+import de.opengamebackend.matchmaking.matching.BucketKey;
+import de.opengamebackend.matchmaking.matching.OpenServerIndex;
+import de.opengamebackend.matchmaking.model.MatchmakingStatus;
+import de.opengamebackend.matchmaking.model.responses.ClientPollMatchmakingResponse;
+import de.opengamebackend.net.ApiErrors;
+import de.opengamebackend.net.ApiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class LongPollServiceTests {
+    private static final String PLAYER_ID = "testPlayer";
+    private static final String OTHER_PLAYER_ID = "otherPlayer";
+    private static final String THIRD_PLAYER_ID = "thirdPlayer";
+    private static final String SERVER_ID = "testServer";
+    private static final BucketKey BUCKET_KEY = new BucketKey("1.0", "GM", "EU");
+
+    private MatchmakingDispatcher matchmakingDispatcher;
+    private OpenServerIndex openServerIndex;
+    private LongPollService longPollService;
+
+    @BeforeEach
+    public void setUp() throws ApiException {
+        matchmakingDispatcher = mock(MatchmakingDispatcher.class);
+        when(matchmakingDispatcher.getBucket(PLAYER_ID)).thenReturn(BUCKET_KEY);
+        when(matchmakingDispatcher.getBucket(OTHER_PLAYER_ID)).thenReturn(BUCKET_KEY);
+        when(matchmakingDispatcher.getBucket(THIRD_PLAYER_ID)).thenReturn(BUCKET_KEY);
+
+        openServerIndex = mock(OpenServerIndex.class);
+
+        longPollService = new LongPollService(matchmakingDispatcher, openServerIndex, Runnable::run);
+    }
+
+    @Test
+    public void givenMatchFound_whenPollMatchmaking_thenCompleteImmediately() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.MATCH_FOUND));
+
+        // WHEN
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result =
+                longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        // THEN
+        assertThat(result.hasResult()).isTrue();
+        assertThat(getStatus(result)).isEqualTo(MatchmakingStatus.MATCH_FOUND);
+    }
+
+    @Test
+    public void givenWaitingForPlayers_whenPollMatchmaking_thenPark() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.WAITING_FOR_PLAYERS));
+
+        // WHEN
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result =
+                longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        // THEN
+        assertThat(result.hasResult()).isFalse();
+    }
+
+    @Test
+    public void givenWaitingForPlayers_whenRosterChangedToMatchFound_thenComplete() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.WAITING_FOR_PLAYERS));
+
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result =
+                longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.MATCH_FOUND));
+
+        // WHEN
+        longPollService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "otherPlayer", true));
+
+        // THEN
+        assertThat(result.hasResult()).isTrue();
+        assertThat(getStatus(result)).isEqualTo(MatchmakingStatus.MATCH_FOUND);
+    }
+
+    @Test
+    public void givenWaitingForPlayers_whenRosterChangedWithoutStatusChange_thenStayParked() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.WAITING_FOR_PLAYERS));
+
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result =
+                longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        // WHEN
+        longPollService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "otherPlayer", true));
+
+        // THEN
+        assertThat(result.hasResult()).isFalse();
+        verify(matchmakingDispatcher, times(2)).pollMatchmaking(PLAYER_ID);
+    }
+
+    @Test
+    public void givenServersFull_whenSlotReleased_thenComplete() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result =
+                longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.WAITING_FOR_PLAYERS));
+
+        // WHEN
+        longPollService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "otherPlayer", false));
+
+        // THEN
+        assertThat(result.hasResult()).isTrue();
+        assertThat(getStatus(result)).isEqualTo(MatchmakingStatus.WAITING_FOR_PLAYERS);
+    }
+
+    @Test
+    public void givenServersFull_whenSlotReserved_thenDontRepoll() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+
+        longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        // WHEN
+        longPollService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "otherPlayer", true));
+
+        // THEN
+        verify(matchmakingDispatcher, times(1)).pollMatchmaking(PLAYER_ID);
+    }
+
+    @Test
+    public void givenServersFull_whenServerRegistered_thenComplete() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result =
+                longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.WAITING_FOR_PLAYERS));
+        when(openServerIndex.getOpenSlots(BUCKET_KEY)).thenReturn(1);
+
+        // WHEN
+        longPollService.onServerChanged(new ServerChangedEvent("newServer", BUCKET_KEY, false));
+
+        // THEN
+        assertThat(result.hasResult()).isTrue();
+        assertThat(getStatus(result)).isEqualTo(MatchmakingStatus.WAITING_FOR_PLAYERS);
+    }
+
+    @Test
+    public void givenServersFullForSeveralPlayers_whenSlotReleased_thenWakeFirstPlayerOnly() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+        when(matchmakingDispatcher.pollMatchmaking(OTHER_PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result =
+                longPollService.pollMatchmaking(PLAYER_ID, 10);
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> otherResult =
+                longPollService.pollMatchmaking(OTHER_PLAYER_ID, 10);
+
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.WAITING_FOR_PLAYERS));
+
+        // WHEN
+        longPollService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "leavingPlayer", false));
+
+        // THEN
+        assertThat(result.hasResult()).isTrue();
+        assertThat(otherResult.hasResult()).isFalse();
+        verify(matchmakingDispatcher, times(1)).pollMatchmaking(OTHER_PLAYER_ID);
+    }
+
+    @Test
+    public void givenServersFullForSeveralPlayers_whenServerRegistered_thenWakeOnePlayerPerOpenSlot()
+            throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+        when(matchmakingDispatcher.pollMatchmaking(OTHER_PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+        when(matchmakingDispatcher.pollMatchmaking(THIRD_PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+
+        longPollService.pollMatchmaking(PLAYER_ID, 10);
+        longPollService.pollMatchmaking(OTHER_PLAYER_ID, 10);
+        longPollService.pollMatchmaking(THIRD_PLAYER_ID, 10);
+
+        when(openServerIndex.getOpenSlots(BUCKET_KEY)).thenReturn(2);
+
+        // WHEN
+        longPollService.onServerChanged(new ServerChangedEvent("newServer", BUCKET_KEY, false));
+
+        // THEN
+        verify(matchmakingDispatcher, times(2)).pollMatchmaking(PLAYER_ID);
+        verify(matchmakingDispatcher, times(2)).pollMatchmaking(OTHER_PLAYER_ID);
+        verify(matchmakingDispatcher, times(1)).pollMatchmaking(THIRD_PLAYER_ID);
+    }
+
+    @Test
+    public void givenWokenPlayerStillWaiting_whenSlotReleased_thenWakeSamePlayerFirst() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+        when(matchmakingDispatcher.pollMatchmaking(OTHER_PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+
+        longPollService.pollMatchmaking(PLAYER_ID, 10);
+        longPollService.pollMatchmaking(OTHER_PLAYER_ID, 10);
+
+        longPollService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "leavingPlayer", false));
+
+        // WHEN
+        longPollService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "leavingPlayer", false));
+
+        // THEN
+        verify(matchmakingDispatcher, times(3)).pollMatchmaking(PLAYER_ID);
+        verify(matchmakingDispatcher, times(1)).pollMatchmaking(OTHER_PLAYER_ID);
+    }
+
+    @Test
+    public void givenChangeInOtherBucketWhilePolling_whenPollMatchmaking_thenStayParked() throws ApiException {
+        // GIVEN
+        BucketKey otherBucketKey = new BucketKey("1.0", "GM", "US");
+
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenAnswer(invocation -> {
+            longPollService.onServerChanged(new ServerChangedEvent("otherServer", otherBucketKey, false));
+            return response(MatchmakingStatus.SERVERS_FULL);
+        });
+
+        // WHEN
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result =
+                longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        // THEN
+        assertThat(result.hasResult()).isFalse();
+        verify(matchmakingDispatcher, times(1)).pollMatchmaking(PLAYER_ID);
+    }
+
+    @Test
+    public void givenChangeInOwnBucketWhilePolling_whenPollMatchmaking_thenPollAgain() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenAnswer(invocation -> {
+            longPollService.onServerChanged(new ServerChangedEvent("otherServer", BUCKET_KEY, false));
+            return response(MatchmakingStatus.SERVERS_FULL);
+        }).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+
+        // WHEN
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result =
+                longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        // THEN
+        assertThat(result.hasResult()).isFalse();
+        verify(matchmakingDispatcher, times(2)).pollMatchmaking(PLAYER_ID);
+    }
+
+    @Test
+    public void givenServersFull_whenPlayerMatched_thenComplete() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result =
+                longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.WAITING_FOR_PLAYERS));
+
+        // WHEN
+        longPollService.onPlayersMatched(new PlayersMatchedEvent(BUCKET_KEY, Collections.singleton(PLAYER_ID)));
+
+        // THEN
+        assertThat(result.hasResult()).isTrue();
+        assertThat(getStatus(result)).isEqualTo(MatchmakingStatus.WAITING_FOR_PLAYERS);
+    }
+
+    @Test
+    public void givenWaitingForAllocation_whenPlayerMatched_thenComplete() throws ApiException {
+        // GIVEN
+        ClientPollMatchmakingResponse waitingForAllocation = response(MatchmakingStatus.WAITING_FOR_PLAYERS);
+        waitingForAllocation.setServerId(null);
+
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(waitingForAllocation);
+
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result =
+                longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.WAITING_FOR_PLAYERS));
+
+        // WHEN
+        longPollService.onPlayersMatched(new PlayersMatchedEvent(BUCKET_KEY, Collections.singleton(PLAYER_ID)));
+
+        // THEN
+        assertThat(result.hasResult()).isTrue();
+        assertThat(getStatus(result)).isEqualTo(MatchmakingStatus.WAITING_FOR_PLAYERS);
+    }
+
+    @Test
+    public void givenServersFull_whenOtherPlayerMatched_thenDontRepoll() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+
+        longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        // WHEN
+        longPollService.onPlayersMatched(new PlayersMatchedEvent(BUCKET_KEY, Collections.singleton("otherPlayer")));
+
+        // THEN
+        verify(matchmakingDispatcher, times(1)).pollMatchmaking(PLAYER_ID);
+    }
+
+    @Test
+    public void givenParkedPlayer_whenPlayerRemoved_thenSetErrorResult() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.WAITING_FOR_PLAYERS));
+
+        DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result =
+                longPollService.pollMatchmaking(PLAYER_ID, 10);
+
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenThrow(
+                new ApiException(ApiErrors.PLAYER_NOT_FOUND_CODE, ApiErrors.PLAYER_NOT_FOUND_MESSAGE));
+
+        // WHEN
+        longPollService.onServerChanged(new ServerChangedEvent(SERVER_ID, BUCKET_KEY, true));
+
+        // THEN
+        assertThat(result.hasResult()).isTrue();
+        assertThat(result.getResult()).isInstanceOf(ApiException.class);
+    }
+
+    private ClientPollMatchmakingResponse response(MatchmakingStatus status) {
+        ClientPollMatchmakingResponse response = new ClientPollMatchmakingResponse();
+        response.setServerId(SERVER_ID);
+        response.setStatus(status);
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private MatchmakingStatus getStatus(DeferredResult<ResponseEntity<ClientPollMatchmakingResponse>> result) {
+        ResponseEntity<ClientPollMatchmakingResponse> entity = (ResponseEntity<ClientPollMatchmakingResponse>) result.getResult();
+        return entity.getBody().getStatus();
+    }
+}
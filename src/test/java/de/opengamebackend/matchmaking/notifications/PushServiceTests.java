@@ -0,0 +1,260 @@
+package de.opengamebackend.matchmaking.notifications;
+
+import de.opengamebackend.matchmaking.controller.MatchmakingDispatcher;
+import de.opengamebackend.matchmaking.events.ServerChangedEvent;
+import de.opengamebackend.matchmaking.events.ServerRosterChangedEvent;
+import de.opengamebackend.matchmaking.matching.BucketKey;
+import de.opengamebackend.matchmaking.matching.OpenServerIndex;
+import de.opengamebackend.matchmaking.model.MatchmakingStatus;
+import de.opengamebackend.matchmaking.model.responses.ClientPollMatchmakingResponse;
+import de.opengamebackend.matchmaking.model.responses.GetServerRosterResponse;
+import de.opengamebackend.net.ApiErrors;
+import de.opengamebackend.net.ApiException;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+public class PushServiceTests {
+    private static final String PLAYER_ID = "testPlayer";
+    private static final String OTHER_PLAYER_ID = "otherPlayer";
+    private static final String SERVER_ID = "testServer";
+    private static final BucketKey BUCKET_KEY = new BucketKey("1.0", "GM", "EU");
+
+    private MatchmakingDispatcher matchmakingDispatcher;
+    private OpenServerIndex openServerIndex;
+    private PushService pushService;
+
+    @BeforeEach
+    public void setUp() throws ApiException {
+        matchmakingDispatcher = mock(MatchmakingDispatcher.class);
+        when(matchmakingDispatcher.getBucket(PLAYER_ID)).thenReturn(BUCKET_KEY);
+
+        openServerIndex = mock(OpenServerIndex.class);
+
+        pushService = new PushService(matchmakingDispatcher, openServerIndex, Runnable::run);
+    }
+
+    @Test
+    public void givenInvalidPlayer_whenSubscribePlayer_thenThrowException() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenThrow(
+                new ApiException(ApiErrors.PLAYER_NOT_FOUND_CODE, ApiErrors.PLAYER_NOT_FOUND_MESSAGE));
+
+        // WHEN & THEN
+        assertThatExceptionOfType(ApiException.class)
+                .isThrownBy(() -> pushService.subscribePlayer(PLAYER_ID))
+                .withMessage(ApiErrors.PLAYER_NOT_FOUND_MESSAGE);
+    }
+
+    @Test
+    public void givenWaitingForPlayers_whenRosterChanged_thenPollAgain() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.WAITING_FOR_PLAYERS));
+        pushService.subscribePlayer(PLAYER_ID);
+
+        // WHEN
+        pushService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "otherPlayer", true));
+
+        // THEN
+        verify(matchmakingDispatcher, times(2)).pollMatchmaking(PLAYER_ID);
+    }
+
+    @Test
+    public void givenMatchFound_whenRosterChanged_thenDontPollAgain() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.MATCH_FOUND));
+        pushService.subscribePlayer(PLAYER_ID);
+
+        // WHEN
+        pushService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "otherPlayer", false));
+
+        // THEN
+        verify(matchmakingDispatcher, times(1)).pollMatchmaking(PLAYER_ID);
+    }
+
+    @Test
+    public void givenWaitingForPlayers_whenMatchFound_thenStopPolling() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.WAITING_FOR_PLAYERS));
+        pushService.subscribePlayer(PLAYER_ID);
+
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.MATCH_FOUND));
+        pushService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "otherPlayer", true));
+
+        // WHEN
+        pushService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "otherPlayer", false));
+
+        // THEN
+        verify(matchmakingDispatcher, times(2)).pollMatchmaking(PLAYER_ID);
+    }
+
+    @Test
+    public void givenServersFull_whenSlotReserved_thenDontPollAgain() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+        pushService.subscribePlayer(PLAYER_ID);
+
+        // WHEN
+        pushService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "otherPlayer", true));
+
+        // THEN
+        verify(matchmakingDispatcher, times(1)).pollMatchmaking(PLAYER_ID);
+    }
+
+    @Test
+    public void givenServersFull_whenServerRegistered_thenPollAgain() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+        pushService.subscribePlayer(PLAYER_ID);
+
+        when(openServerIndex.getOpenSlots(BUCKET_KEY)).thenReturn(1);
+
+        // WHEN
+        pushService.onServerChanged(new ServerChangedEvent("newServer", BUCKET_KEY, false));
+
+        // THEN
+        verify(matchmakingDispatcher, times(2)).pollMatchmaking(PLAYER_ID);
+    }
+
+    @Test
+    public void givenServersFullForSeveralPlayers_whenSlotReleased_thenPollFirstPlayerOnly() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.getBucket(OTHER_PLAYER_ID)).thenReturn(BUCKET_KEY);
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+        when(matchmakingDispatcher.pollMatchmaking(OTHER_PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+
+        pushService.subscribePlayer(PLAYER_ID);
+        pushService.subscribePlayer(OTHER_PLAYER_ID);
+
+        // WHEN
+        pushService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "leavingPlayer", false));
+
+        // THEN
+        verify(matchmakingDispatcher, times(2)).pollMatchmaking(PLAYER_ID);
+        verify(matchmakingDispatcher, times(1)).pollMatchmaking(OTHER_PLAYER_ID);
+    }
+
+    @Test
+    public void givenPolledPlayerStillWaiting_whenSlotReleased_thenPollSamePlayerFirst() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.getBucket(OTHER_PLAYER_ID)).thenReturn(BUCKET_KEY);
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+        when(matchmakingDispatcher.pollMatchmaking(OTHER_PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+
+        pushService.subscribePlayer(PLAYER_ID);
+        pushService.subscribePlayer(OTHER_PLAYER_ID);
+
+        pushService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "leavingPlayer", false));
+
+        // WHEN
+        pushService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "leavingPlayer", false));
+
+        // THEN
+        verify(matchmakingDispatcher, times(3)).pollMatchmaking(PLAYER_ID);
+        verify(matchmakingDispatcher, times(1)).pollMatchmaking(OTHER_PLAYER_ID);
+    }
+
+    @Test
+    public void givenServersFull_whenServerChangedInOtherBucket_thenDontPollAgain() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.pollMatchmaking(PLAYER_ID)).thenReturn(response(MatchmakingStatus.SERVERS_FULL));
+        pushService.subscribePlayer(PLAYER_ID);
+
+        BucketKey otherBucketKey = new BucketKey("1.0", "GM", "US");
+        when(openServerIndex.getOpenSlots(otherBucketKey)).thenReturn(4);
+
+        // WHEN
+        pushService.onServerChanged(new ServerChangedEvent("newServer", otherBucketKey, false));
+
+        // THEN
+        verify(matchmakingDispatcher, times(1)).pollMatchmaking(PLAYER_ID);
+    }
+
+    @Test
+    public void givenInvalidServer_whenSubscribeServer_thenThrowException() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.getServerRoster(SERVER_ID)).thenThrow(
+                new ApiException(ApiErrors.GAME_SERVER_NOT_FOUND_CODE, ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE));
+
+        // WHEN & THEN
+        assertThatExceptionOfType(ApiException.class)
+                .isThrownBy(() -> pushService.subscribeServer(SERVER_ID))
+                .withMessage(ApiErrors.GAME_SERVER_NOT_FOUND_MESSAGE);
+    }
+
+    @Test
+    public void givenServer_whenSubscribeServer_thenReturnEmitter() throws ApiException {
+        // GIVEN
+        when(matchmakingDispatcher.getServerRoster(SERVER_ID))
+                .thenReturn(new GetServerRosterResponse(SERVER_ID, Lists.newArrayList(PLAYER_ID)));
+
+        // WHEN
+        SseEmitter emitter = pushService.subscribeServer(SERVER_ID);
+
+        // THEN
+        assertThat(emitter).isNotNull();
+        assertThat(emitter.getTimeout()).isEqualTo(PushService.EMITTER_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void givenRosterChanged_whenSubscribeServer_thenSendLatestRosterVersion() throws ApiException {
+        // GIVEN
+        GetServerRosterResponse roster = new GetServerRosterResponse(SERVER_ID, Lists.newArrayList(PLAYER_ID));
+        when(matchmakingDispatcher.getServerRoster(SERVER_ID)).thenReturn(roster);
+
+        pushService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, PLAYER_ID, true));
+        pushService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, "otherPlayer", true));
+
+        // WHEN
+        pushService.subscribeServer(SERVER_ID);
+
+        // THEN
+        assertThat(roster.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenRosterChangedWhileReadingRoster_whenSubscribeServer_thenRosterVersionPrecedesChange()
+            throws ApiException {
+        // GIVEN
+        GetServerRosterResponse roster = new GetServerRosterResponse(SERVER_ID, Lists.newArrayList(PLAYER_ID));
+
+        when(matchmakingDispatcher.getServerRoster(SERVER_ID)).thenAnswer(invocation -> {
+            pushService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, PLAYER_ID, true));
+            return roster;
+        });
+
+        // WHEN
+        pushService.subscribeServer(SERVER_ID);
+
+        // THEN
+        assertThat(roster.getVersion()).isEqualTo(0);
+    }
+
+    @Test
+    public void givenRemovedServer_whenSubscribeServer_thenStartWithFirstRosterVersion() throws ApiException {
+        // GIVEN
+        GetServerRosterResponse roster = new GetServerRosterResponse(SERVER_ID, Lists.newArrayList());
+        when(matchmakingDispatcher.getServerRoster(SERVER_ID)).thenReturn(roster);
+
+        pushService.onServerRosterChanged(new ServerRosterChangedEvent(SERVER_ID, BUCKET_KEY, PLAYER_ID, true));
+        pushService.onServerChanged(new ServerChangedEvent(SERVER_ID, BUCKET_KEY, true));
+
+        // WHEN
+        pushService.subscribeServer(SERVER_ID);
+
+        // THEN
+        assertThat(roster.getVersion()).isEqualTo(0);
+    }
+
+    private ClientPollMatchmakingResponse response(MatchmakingStatus status) {
+        ClientPollMatchmakingResponse response = new ClientPollMatchmakingResponse();
+        response.setServerId(SERVER_ID);
+        response.setStatus(status);
+        return response;
+    }
+}
@@ -0,0 +1,79 @@
+package de.opengamebackend.matchmaking.serverlist;
+
+import de.opengamebackend.matchmaking.controller.GetServersPage;
+import de.opengamebackend.matchmaking.controller.MatchmakingService;
+import de.opengamebackend.matchmaking.model.requests.GetServersRequest;
+import de.opengamebackend.matchmaking.model.responses.GetServerChangesResponse;
+import de.opengamebackend.matchmaking.model.responses.GetServersResponse;
+import de.opengamebackend.matchmaking.model.responses.GetServersResponseServer;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ServerChangeFeedTests {
+    private ServerChangeLog serverChangeLog;
+    private MatchmakingService matchmakingService;
+    private ServerChangeFeed serverChangeFeed;
+
+    @BeforeEach
+    public void setUp() {
+        serverChangeLog = new ServerChangeLog(10);
+        matchmakingService = mock(MatchmakingService.class);
+        serverChangeFeed = new ServerChangeFeed(serverChangeLog, matchmakingService);
+    }
+
+    @Test
+    public void givenNoVersion_whenGetChangesSince_thenReturnAllServers() {
+        // GIVEN
+        GetServersResponse response = new GetServersResponse();
+        response.setServers(Lists.newArrayList(server("testServer")));
+
+        when(matchmakingService.getServers(any(GetServersRequest.class)))
+                .thenReturn(new GetServersPage(response, null));
+
+        // WHEN
+        GetServerChangesResponse changes = serverChangeFeed.getChangesSince(null);
+
+        // THEN
+        assertThat(changes.isFull()).isTrue();
+        assertThat(changes.getVersion()).isEqualTo(serverChangeLog.getVersion());
+        assertThat(changes.getServers()).extracting(GetServersResponseServer::getId).containsExactly("testServer");
+        assertThat(changes.getRemovedServerIds()).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenKnownVersion_whenGetChangesSince_thenReturnChangedServersOnly() {
+        // GIVEN
+        String version = serverChangeLog.getVersion();
+
+        serverChangeLog.record("changedServer", false);
+        serverChangeLog.record("vanishedServer", false);
+        serverChangeLog.record("removedServer", true);
+
+        when(matchmakingService.getServersById(any(Collection.class)))
+                .thenReturn(Lists.newArrayList(server("changedServer")));
+
+        // WHEN
+        GetServerChangesResponse changes = serverChangeFeed.getChangesSince(version);
+
+        // THEN
+        assertThat(changes.isFull()).isFalse();
+        assertThat(changes.getVersion()).isEqualTo(serverChangeLog.getVersion());
+        assertThat(changes.getServers()).extracting(GetServersResponseServer::getId).containsExactly("changedServer");
+        assertThat(changes.getRemovedServerIds()).containsExactlyInAnyOrder("removedServer", "vanishedServer");
+
+        verify(matchmakingService, never()).getServers(any(GetServersRequest.class));
+    }
+
+    private GetServersResponseServer server(String id) {
+        GetServersResponseServer server = new GetServersResponseServer();
+        server.setId(id);
+        return server;
+    }
+}
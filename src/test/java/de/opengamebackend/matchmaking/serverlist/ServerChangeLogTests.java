@@ -0,0 +1,77 @@
+package de.opengamebackend.matchmaking.serverlist;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ServerChangeLogTests {
+    private ServerChangeLog serverChangeLog;
+
+    @BeforeEach
+    public void setUp() {
+        serverChangeLog = new ServerChangeLog(3);
+    }
+
+    @Test
+    public void givenChanges_whenGetChangesSince_thenReturnLatestChangePerServer() {
+        // GIVEN
+        String version = serverChangeLog.getVersion();
+
+        serverChangeLog.record("testServer1", false);
+        serverChangeLog.record("testServer2", false);
+        serverChangeLog.record("testServer1", true);
+
+        // WHEN
+        ServerChanges changes = serverChangeLog.getChangesSince(version);
+
+        // THEN
+        assertThat(changes).isNotNull();
+        assertThat(changes.getVersion()).isEqualTo(serverChangeLog.getVersion());
+        assertThat(changes.getChangedServerIds()).containsExactly("testServer2");
+        assertThat(changes.getRemovedServerIds()).containsExactly("testServer1");
+    }
+
+    @Test
+    public void givenCurrentVersion_whenGetChangesSince_thenReturnNoChanges() {
+        // GIVEN
+        serverChangeLog.record("testServer1", false);
+
+        // WHEN
+        ServerChanges changes = serverChangeLog.getChangesSince(serverChangeLog.getVersion());
+
+        // THEN
+        assertThat(changes).isNotNull();
+        assertThat(changes.getChangedServerIds()).isEmpty();
+        assertThat(changes.getRemovedServerIds()).isEmpty();
+    }
+
+    @Test
+    public void givenVersionFallenOutOfLog_whenGetChangesSince_thenReturnNull() {
+        // GIVEN
+        String version = serverChangeLog.getVersion();
+
+        serverChangeLog.record("testServer1", false);
+        String secondVersion = serverChangeLog.getVersion();
+
+        serverChangeLog.record("testServer2", false);
+        serverChangeLog.record("testServer3", false);
+        serverChangeLog.record("testServer4", false);
+
+        // WHEN & THEN
+        assertThat(serverChangeLog.getChangesSince(version)).isNull();
+        assertThat(serverChangeLog.getChangesSince(secondVersion).getChangedServerIds())
+                .containsExactly("testServer4", "testServer3", "testServer2");
+    }
+
+    @Test
+    public void givenForeignVersion_whenGetChangesSince_thenReturnNull() {
+        // GIVEN
+        ServerChangeLog otherChangeLog = new ServerChangeLog(3);
+
+        // WHEN & THEN
+        assertThat(serverChangeLog.getChangesSince(otherChangeLog.getVersion())).isNull();
+        assertThat(serverChangeLog.getChangesSince("invalid")).isNull();
+        assertThat(serverChangeLog.getChangesSince(null)).isNull();
+    }
+}
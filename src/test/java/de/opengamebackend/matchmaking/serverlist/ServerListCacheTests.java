@@ -0,0 +1,171 @@
+package de.opengamebackend.matchmaking.serverlist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.opengamebackend.matchmaking.config.MatchmakingConfig;
+import de.opengamebackend.matchmaking.controller.GetServersPage;
+import de.opengamebackend.matchmaking.controller.MatchmakingService;
+import de.opengamebackend.matchmaking.events.ServerRosterChangedEvent;
+import de.opengamebackend.matchmaking.matching.BucketKey;
+import de.opengamebackend.matchmaking.model.ServerStatus;
+import de.opengamebackend.matchmaking.model.requests.GetServersRequest;
+import de.opengamebackend.matchmaking.model.responses.GetServersResponse;
+import de.opengamebackend.matchmaking.model.responses.GetServersResponseServer;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ServerListCacheTests {
+    private MatchmakingService matchmakingService;
+    private ObjectMapper objectMapper;
+    private MatchmakingConfig matchmakingConfig;
+    private ServerListCache serverListCache;
+
+    @BeforeEach
+    public void setUp() {
+        matchmakingService = mock(MatchmakingService.class);
+        when(matchmakingService.getServers(any(GetServersRequest.class)))
+                .thenReturn(createPage(OffsetDateTime.now(), ServerStatus.OPEN));
+
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        matchmakingConfig = new MatchmakingConfig();
+        serverListCache = new ServerListCache(matchmakingService, objectMapper, matchmakingConfig);
+    }
+
+    @Test
+    public void givenSnapshot_whenGetSnapshot_thenDontRebuild() {
+        // GIVEN
+        ServerListCache.Snapshot first = serverListCache.getSnapshot();
+
+        // WHEN
+        ServerListCache.Snapshot second = serverListCache.getSnapshot();
+
+        // THEN
+        assertThat(second).isSameAs(first);
+        verify(matchmakingService, times(1)).getServers(any(GetServersRequest.class));
+    }
+
+    @Test
+    public void givenRosterChanged_whenGetSnapshot_thenRebuild() {
+        // GIVEN
+        serverListCache.getSnapshot();
+        serverListCache.onServerRosterChanged(new ServerRosterChangedEvent("testServer",
+                new BucketKey("1.0", "GM", "EU"), "otherPlayer", true));
+
+        // WHEN
+        serverListCache.getSnapshot();
+
+        // THEN
+        verify(matchmakingService, times(2)).getServers(any(GetServersRequest.class));
+    }
+
+    @Test
+    public void givenExpiredSnapshot_whenGetSnapshot_thenRebuildWithSameEtag() {
+        // GIVEN
+        matchmakingConfig.setServerListMaxAgeMillis(0);
+        ServerListCache.Snapshot first = serverListCache.getSnapshot();
+
+        // WHEN
+        ServerListCache.Snapshot second = serverListCache.getSnapshot();
+
+        // THEN
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getEtag()).isEqualTo(first.getEtag());
+        verify(matchmakingService, times(2)).getServers(any(GetServersRequest.class));
+    }
+
+    @Test
+    public void givenHeartbeat_whenGetSnapshot_thenKeepEtag() {
+        // GIVEN
+        matchmakingConfig.setServerListMaxAgeMillis(0);
+        ServerListCache.Snapshot first = serverListCache.getSnapshot();
+
+        when(matchmakingService.getServers(any(GetServersRequest.class)))
+                .thenReturn(createPage(OffsetDateTime.now().plusSeconds(10), ServerStatus.OPEN));
+
+        // WHEN
+        ServerListCache.Snapshot second = serverListCache.getSnapshot();
+
+        // THEN
+        assertThat(second.getJson()).isNotEqualTo(first.getJson());
+        assertThat(second.getEtag()).isEqualTo(first.getEtag());
+    }
+
+    @Test
+    public void givenStatusChanged_whenGetSnapshot_thenChangeEtag() {
+        // GIVEN
+        ServerListCache.Snapshot first = serverListCache.getSnapshot();
+
+        when(matchmakingService.getServers(any(GetServersRequest.class)))
+                .thenReturn(createPage(OffsetDateTime.now(), ServerStatus.CLOSED));
+        serverListCache.invalidate();
+
+        // WHEN
+        ServerListCache.Snapshot second = serverListCache.getSnapshot();
+
+        // THEN
+        assertThat(second.getEtag()).isNotEqualTo(first.getEtag());
+    }
+
+    @Test
+    public void givenSnapshot_whenDecompress_thenReturnJson() throws IOException {
+        // GIVEN
+        ServerListCache.Snapshot snapshot = serverListCache.getSnapshot();
+
+        // WHEN
+        GetServersResponse response;
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(snapshot.getGzippedJson()))) {
+            response = objectMapper.readValue(gzip, GetServersResponse.class);
+        }
+
+        // THEN
+        assertThat(response.getServers()).hasSize(1);
+        assertThat(response.getServers().get(0).getId()).isEqualTo("testServer");
+        assertThat(objectMapper.readValue(snapshot.getJson(), GetServersResponse.class).getServers()).hasSize(1);
+    }
+
+    @Test
+    public void givenEtag_whenMatches_thenReturnTrue() {
+        // GIVEN
+        ServerListCache.Snapshot snapshot = serverListCache.getSnapshot();
+
+        // WHEN & THEN
+        assertThat(snapshot.getEtag()).startsWith("W/\"");
+        assertThat(snapshot.matches(snapshot.getEtag())).isTrue();
+        assertThat(snapshot.matches("\"other\", " + snapshot.getEtag().substring(2))).isTrue();
+        assertThat(snapshot.matches("\"other\"")).isFalse();
+        assertThat(snapshot.matches(null)).isFalse();
+    }
+
+    @Test
+    public void givenFilter_whenIsCacheable_thenReturnFalse() {
+        // GIVEN
+        GetServersRequest request = new GetServersRequest();
+        request.setRegion("EU");
+
+        // WHEN & THEN
+        assertThat(ServerListCache.isCacheable(new GetServersRequest())).isTrue();
+        assertThat(ServerListCache.isCacheable(request)).isFalse();
+    }
+
+    private GetServersPage createPage(OffsetDateTime lastHeartbeat, ServerStatus status) {
+        GetServersResponseServer server = new GetServersResponseServer();
+        server.setId("testServer");
+        server.setLastHeartbeat(lastHeartbeat);
+        server.setStatus(status);
+        server.setPlayerIds(Lists.newArrayList("testPlayer"));
+
+        GetServersResponse response = new GetServersResponse();
+        response.setServers(Lists.newArrayList(server));
+
+        return new GetServersPage(response, null);
+    }
+}
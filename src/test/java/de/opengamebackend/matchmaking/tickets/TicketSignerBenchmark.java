@@ -0,0 +1,55 @@
+package de.opengamebackend.matchmaking.tickets;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of minting and verifying signed tickets, compared to generating the random tickets they replace.
+ *
+ * <p>Run with {@link #main(String[])}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketSignerBenchmark {
+    private TicketSigner ticketSigner;
+    private String ticket;
+
+    @Setup
+    public void setUp() {
+        ticketSigner = new TicketSigner("benchmarkSecret".getBytes());
+        ticket = ticketSigner.mint(UUID.randomUUID().toString(), UUID.randomUUID().toString(), Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public String randomTicket() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String mint() {
+        return ticketSigner.mint("testPlayer", "a6b5e2d8-0ab4-4a35-8f7f-c5e5ba4d0a3c", Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public MatchTicket verify() {
+        return ticketSigner.verify(ticket);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TicketSignerBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
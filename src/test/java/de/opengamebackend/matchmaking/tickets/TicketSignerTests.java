@@ -0,0 +1,80 @@
+package de.opengamebackend.matchmaking.tickets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TicketSignerTests {
+    private static final String PLAYER_ID = "testPlayer";
+    private static final String SERVER_ID = "testServer";
+    private static final long EXPIRES_AT = 1600000000000L;
+
+    private TicketSigner ticketSigner;
+
+    @BeforeEach
+    public void setUp() {
+        ticketSigner = new TicketSigner("testSecret".getBytes());
+    }
+
+    @Test
+    public void givenMintedTicket_whenVerify_thenReturnContents() {
+        // GIVEN
+        String ticket = ticketSigner.mint(PLAYER_ID, SERVER_ID, EXPIRES_AT);
+
+        // WHEN
+        MatchTicket matchTicket = ticketSigner.verify(ticket);
+
+        // THEN
+        assertThat(matchTicket).isNotNull();
+        assertThat(matchTicket.getPlayerId()).isEqualTo(PLAYER_ID);
+        assertThat(matchTicket.getServerId()).isEqualTo(SERVER_ID);
+        assertThat(matchTicket.getExpiresAtMillis()).isEqualTo(EXPIRES_AT);
+    }
+
+    @Test
+    public void givenTamperedPayload_whenVerify_thenReturnNull() {
+        // GIVEN
+        String ticket = ticketSigner.mint(PLAYER_ID, SERVER_ID, EXPIRES_AT);
+        String otherTicket = ticketSigner.mint("otherPlayer", SERVER_ID, EXPIRES_AT);
+
+        String tampered = otherTicket.substring(0, otherTicket.indexOf('.')) + ticket.substring(ticket.indexOf('.'));
+
+        // WHEN
+        MatchTicket matchTicket = ticketSigner.verify(tampered);
+
+        // THEN
+        assertThat(matchTicket).isNull();
+    }
+
+    @Test
+    public void givenOtherSecret_whenVerify_thenReturnNull() {
+        // GIVEN
+        String ticket = new TicketSigner("otherSecret".getBytes()).mint(PLAYER_ID, SERVER_ID, EXPIRES_AT);
+
+        // WHEN
+        MatchTicket matchTicket = ticketSigner.verify(ticket);
+
+        // THEN
+        assertThat(matchTicket).isNull();
+    }
+
+    @Test
+    public void givenMalformedTicket_whenVerify_thenReturnNull() {
+        // WHEN & THEN
+        assertThat(ticketSigner.verify(null)).isNull();
+        assertThat(ticketSigner.verify("")).isNull();
+        assertThat(ticketSigner.verify("testTicket")).isNull();
+        assertThat(ticketSigner.verify("not base64!.AAAA")).isNull();
+    }
+
+    @Test
+    public void givenExpiredTicket_whenIsExpired_thenReturnTrue() {
+        // GIVEN
+        MatchTicket matchTicket = ticketSigner.verify(ticketSigner.mint(PLAYER_ID, SERVER_ID, EXPIRES_AT));
+
+        // WHEN & THEN
+        assertThat(matchTicket.isExpired(EXPIRES_AT)).isFalse();
+        assertThat(matchTicket.isExpired(EXPIRES_AT + 1)).isTrue();
+    }
+}